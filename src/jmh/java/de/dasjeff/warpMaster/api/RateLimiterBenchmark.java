@@ -0,0 +1,122 @@
+package de.dasjeff.warpMaster.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the cost of one {@link RateLimiter#tryAcquire} call under heavy thread contention.
+ * <p>
+ * {@code sharedClient} lets every thread hit the bucket of one client, the worst case for the
+ * compare-and-set loop. {@code ownClient} gives every thread its own client, as with many API
+ * consumers. {@code manyClients} spreads the calls over more clients than the limiter tracks,
+ * so new buckets are created, evicted and the overflow bucket is used. Allowed and rejected
+ * calls are both counted, since the limiter has to answer both.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final int CLIENT_COUNT = 100_000;
+    private static final AtomicInteger NEXT_THREAD_CLIENT = new AtomicInteger();
+
+    @Param({"60", "10000"})
+    public int requestsPerMinute;
+
+    @Param({"10000"})
+    public int maxClients;
+
+    private RateLimiter rateLimiter;
+    private String[] clients;
+
+    /**
+     * Creates the limiter and the client addresses.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        rateLimiter = new RateLimiter(routeClass -> requestsPerMinute, () -> maxClients);
+        rateLimiter.start();
+        clients = new String[CLIENT_COUNT];
+        for (int i = 0; i < CLIENT_COUNT; i++) {
+            clients[i] = "10." + (i >>> 16) + "." + ((i >>> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+    }
+
+    /**
+     * Stops the eviction thread of the limiter.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rateLimiter.stop();
+    }
+
+    /**
+     * The client of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadClient {
+        private String client;
+
+        /**
+         * Picks a client address that no other thread uses.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            int index = NEXT_THREAD_CLIENT.getAndIncrement();
+            client = "192.168." + (index >>> 8 & 0xFF) + "." + (index & 0xFF);
+        }
+    }
+
+    /**
+     * All threads take tokens from the same bucket.
+     *
+     * @return The wait time, returned so the call is not eliminated
+     */
+    @Benchmark
+    public long sharedClient() {
+        return rateLimiter.tryAcquire("203.0.113.7", RateLimiter.RouteClass.READ);
+    }
+
+    /**
+     * Every thread takes tokens from its own bucket.
+     *
+     * @param threadClient The client of the thread
+     * @return The wait time, returned so the call is not eliminated
+     */
+    @Benchmark
+    public long ownClient(ThreadClient threadClient) {
+        return rateLimiter.tryAcquire(threadClient.client, RateLimiter.RouteClass.READ);
+    }
+
+    /**
+     * Every call comes from a random one of more clients than the limiter tracks.
+     *
+     * @return The wait time, returned so the call is not eliminated
+     */
+    @Benchmark
+    public long manyClients() {
+        String client = clients[ThreadLocalRandom.current().nextInt(CLIENT_COUNT)];
+        return rateLimiter.tryAcquire(client, RateLimiter.RouteClass.READ);
+    }
+}
@@ -5,18 +5,30 @@ import de.dasjeff.warpMaster.command.SetWarpCommand;
 import de.dasjeff.warpMaster.command.WarpCommand;
 import de.dasjeff.warpMaster.command.WarpMasterCommand;
 import de.dasjeff.warpMaster.command.WarpsCommand;
+import de.dasjeff.warpMaster.database.ChangeLog;
+import de.dasjeff.warpMaster.database.DatabaseExecutor;
 import de.dasjeff.warpMaster.database.DatabaseManager;
+import de.dasjeff.warpMaster.database.LeaderLease;
+import de.dasjeff.warpMaster.database.MemoryStore;
 import de.dasjeff.warpMaster.database.PlayerRepository;
 import de.dasjeff.warpMaster.database.WarpRepository;
+import de.dasjeff.warpMaster.database.WriteJournal;
 import de.dasjeff.warpMaster.listener.InventoryListener;
 import de.dasjeff.warpMaster.listener.PlayerJoinListener;
+import de.dasjeff.warpMaster.service.JournalReplayer;
 import de.dasjeff.warpMaster.service.WarpService;
+import de.dasjeff.warpMaster.service.WorldSweeper;
 import de.dasjeff.warpMaster.util.ConfigUtil;
 import de.dasjeff.warpMaster.util.MessageUtil;
 import org.bukkit.NamespacedKey;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.concurrent.ExecutorService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 /**
  * Main class for the WarpMaster plugin.
@@ -29,7 +41,13 @@ public final class WarpMaster extends JavaPlugin {
     private PlayerRepository playerRepository;
     private WarpService warpService;
     private ApiManager apiManager;
-    private ExecutorService databaseExecutor;
+    private WorldSweeper worldSweeper;
+    private WriteJournal writeJournal;
+    private JournalReplayer journalReplayer;
+    private MemoryStore memoryStore;
+    private ChangeLog changeLog;
+    private LeaderLease leaderLease;
+    private DatabaseExecutor databaseExecutor;
 
     private static NamespacedKey warpNameKey;
 
@@ -53,18 +71,97 @@ public final class WarpMaster extends JavaPlugin {
         // Get the executor from DatabaseManager
         databaseExecutor = databaseManager.getDatabaseExecutor();
 
+        // Load all warps and player data into memory if enabled
+        if (configUtil.isMemoryStoreEnabled()) {
+            memoryStore = new MemoryStore(databaseManager, getLogger(), configUtil.getMemoryStoreFlushBatchSize());
+            Path snapshotFile = configUtil.isMemoryStoreSnapshotEnabled() ? getDataFolder().toPath().resolve("snapshot.bin") : null;
+            try {
+                if (snapshotFile == null || !memoryStore.loadSnapshot(snapshotFile)) {
+                    // SQLite has a single connection, parallel chunks would only queue up
+                    int loadThreads = databaseManager.isMySql() || databaseManager.isH2()
+                            ? Math.min(configUtil.getMemoryStoreLoadThreads(), configUtil.getDatabasePoolSize())
+                            : 1;
+                    memoryStore.load(loadThreads, configUtil.getMemoryStoreLoadChunkSize());
+                }
+            } catch (RuntimeException e) {
+                getLogger().log(Level.SEVERE, "Failed to load the memory store. Disabling plugin.", e);
+                memoryStore = null;
+                getServer().getPluginManager().disablePlugin(this);
+                return;
+            }
+            memoryStore.start(configUtil.getMemoryStoreFlushIntervalMs(), snapshotFile, configUtil.getMemoryStoreSnapshotIntervalMinutes());
+            // Does nothing if the store was loaded from the tables
+            memoryStore.startVerification();
+        }
+
+        // Record writes for other servers sharing the database.
+        // The memory store assigns warp IDs itself and therefore requires a single server.
+        if (configUtil.isClusterEnabled()) {
+            if (memoryStore != null) {
+                getLogger().warning("Cluster mode cannot be combined with the memory store, ignoring cluster.enabled");
+            } else if (!databaseManager.isMySql()) {
+                getLogger().warning("Cluster mode requires a shared MySQL database, ignoring cluster.enabled");
+            } else {
+                // Cluster-wide jobs only run on the server holding this lease
+                leaderLease = new LeaderLease(databaseManager, getLogger(), "jobs", TimeUnit.SECONDS.toMillis(configUtil.getClusterLeaseSeconds()));
+                leaderLease.start();
+                changeLog = new ChangeLog(databaseManager, getLogger(), configUtil.getClusterPollIntervalMs(), configUtil.getClusterMaxPollIntervalMs(),
+                        configUtil.getClusterPollBatchSize(), TimeUnit.MINUTES.toMillis(configUtil.getClusterRetentionMinutes()), leaderLease);
+            }
+        }
+
         // Initialize repositories with executor
-        warpRepository = new WarpRepository(databaseManager, getLogger(), databaseExecutor);
-        playerRepository = new PlayerRepository(databaseManager, getLogger(), configUtil.getDefaultWarpLimit(), databaseExecutor);
+        warpRepository = new WarpRepository(databaseManager, getLogger(), databaseExecutor, memoryStore, changeLog);
+        playerRepository = new PlayerRepository(databaseManager, getLogger(), configUtil.getDefaultWarpLimit(), databaseExecutor, memoryStore, changeLog);
+
+        // Open the write journal for writes while the database is unavailable.
+        // The memory store already buffers writes during outages, so the journal is not needed with it.
+        if (configUtil.isJournalEnabled() && memoryStore == null) {
+            writeJournal = new WriteJournal(new File(getDataFolder(), "journal.log"), getLogger(), configUtil.getJournalMaxEntries());
+            try {
+                writeJournal.open();
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Failed to open the write journal, continuing without it", e);
+                writeJournal = null;
+            }
+        }
 
         // Initialize services with executor and database manager
-        warpService = new WarpService(warpRepository, playerRepository, configUtil, this, databaseExecutor, databaseManager);
+        warpService = new WarpService(warpRepository, playerRepository, configUtil, this, databaseExecutor, databaseManager, writeJournal);
+
+        // Load the player name directory for name lookups, tab completion and the API search
+        getServer().getScheduler().runTaskAsynchronously(this, warpService::loadPlayerDirectory);
+
+        // Apply changes made by other servers to the caches
+        if (changeLog != null) {
+            changeLog.start(new ChangeLog.Listener() {
+                @Override
+                public void onChange(UUID ownerUuid, ChangeLog.Kind kind) {
+                    warpService.applyRemoteChange(ownerUuid, kind);
+                }
+
+                @Override
+                public void onResync() {
+                    warpService.clearAllCaches();
+                }
+            });
+        }
+
+        // Replay journaled writes once the database is reachable
+        if (writeJournal != null) {
+            journalReplayer = new JournalReplayer(this, writeJournal, warpService, warpRepository, playerRepository, databaseManager, configUtil);
+            journalReplayer.start();
+        }
+
+        // Initialize background world sweeper
+        worldSweeper = new WorldSweeper(this, warpService, warpRepository, databaseManager, configUtil, leaderLease);
+        worldSweeper.start();
 
         // Register commands
         getCommand("setwarp").setExecutor(new SetWarpCommand(messageUtil, warpService));
         getCommand("warp").setExecutor(new WarpCommand(messageUtil, warpService));
         getCommand("warps").setExecutor(new WarpsCommand(messageUtil, warpService));
-        getCommand("warpmaster").setExecutor(new WarpMasterCommand(messageUtil, warpService, configUtil));
+        getCommand("warpmaster").setExecutor(new WarpMasterCommand(messageUtil, warpService, configUtil, worldSweeper));
 
         // Register listeners
         getServer().getPluginManager().registerEvents(new InventoryListener(warpService, messageUtil, this), this);
@@ -72,7 +169,7 @@ public final class WarpMaster extends JavaPlugin {
 
         // Initialize API
         if (configUtil.isApiEnabled()) {
-            apiManager = new ApiManager(this, configUtil, warpService, databaseExecutor);
+            apiManager = new ApiManager(this, configUtil, warpService, databaseManager);
             apiManager.start();
         }
 
@@ -86,6 +183,34 @@ public final class WarpMaster extends JavaPlugin {
             apiManager.stop();
         }
 
+        // Stop polling the change log before the pool goes away
+        if (changeLog != null) {
+            changeLog.stop();
+        }
+
+        // Stop background sweeper before the pool goes away
+        if (worldSweeper != null) {
+            worldSweeper.stop();
+        }
+
+        // Hand the leadership over once the cluster-wide jobs have stopped
+        if (leaderLease != null) {
+            leaderLease.stop();
+        }
+
+        // Stop replaying and flush the journal before the pool goes away
+        if (journalReplayer != null) {
+            journalReplayer.stop();
+        }
+        if (writeJournal != null) {
+            writeJournal.close();
+        }
+
+        // Write buffered changes before the pool goes away
+        if (memoryStore != null) {
+            memoryStore.close();
+        }
+
         // Close database connections and shutdown executor
         if (databaseManager != null) {
             databaseManager.close();
@@ -1,29 +1,47 @@
 package de.dasjeff.warpMaster.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.dasjeff.warpMaster.WarpMaster;
+import de.dasjeff.warpMaster.database.CircuitBreaker;
+import de.dasjeff.warpMaster.database.DatabaseBusyException;
+import de.dasjeff.warpMaster.database.DatabaseExecutor;
+import de.dasjeff.warpMaster.database.DatabaseManager;
+import de.dasjeff.warpMaster.database.DatabaseUnavailableException;
+import de.dasjeff.warpMaster.database.ReplicaMonitor;
 import de.dasjeff.warpMaster.model.Warp;
+import de.dasjeff.warpMaster.model.WarpOperation;
+import de.dasjeff.warpMaster.service.PlayerDirectory;
 import de.dasjeff.warpMaster.service.WarpService;
 import de.dasjeff.warpMaster.util.ConfigUtil;
 import io.javalin.Javalin;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import io.javalin.http.HttpStatus;
 import io.javalin.json.JavalinJackson;
 import io.javalin.http.staticfiles.Location;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -34,13 +52,31 @@ public class ApiManager {
     private final ConfigUtil configUtil;
     private final WarpService warpService;
     private final ObjectMapper objectMapper;
-    private final ExecutorService executor;
+    private final DatabaseManager databaseManager;
+    private final DatabaseExecutor executor;
+    private final ResponseCache responseCache;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private volatile AccessRules accessRules;
+    private ChangeBroadcaster changeBroadcaster;
     private Javalin app;
 
-    // Rate limiting
-    private final ConcurrentHashMap<String, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
-    private static final long RATE_LIMIT_CLEANUP_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
-    private long lastRateLimitCleanup = System.currentTimeMillis();
+    // Pagination of player lists
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Multi-get of warps and player data, one IN list per lookup
+    private static final int MAX_QUERY_UUIDS = 50;
+
+    // Batched warp operations
+    private static final int MAX_BATCH_OPERATIONS = 500;
+
+    // Export and import of all warps
+    private static final int MAX_IMPORT_LINE_LENGTH = 4096;
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 100;
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private final Semaphore bulkTransferPermit = new Semaphore(1);
+
 
     /**
      * Creates a new ApiManager instance.
@@ -48,14 +84,18 @@ public class ApiManager {
      * @param plugin The plugin instance
      * @param configUtil The configuration utility
      * @param warpService The warp service
-     * @param executor The executor service (can be used for async tasks off Netty threads)
+     * @param databaseManager The database manager (its executor's background lane is used for housekeeping)
      */
-    public ApiManager(WarpMaster plugin, ConfigUtil configUtil, WarpService warpService, ExecutorService executor) {
+    public ApiManager(WarpMaster plugin, ConfigUtil configUtil, WarpService warpService, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.configUtil = configUtil;
         this.warpService = warpService;
         this.objectMapper = new ObjectMapper();
-        this.executor = executor;
+        this.databaseManager = databaseManager;
+        this.executor = databaseManager.getDatabaseExecutor();
+        this.responseCache = new ResponseCache(configUtil.getApiResponseCacheSize());
+        this.rateLimiter = new RateLimiter(configUtil);
+        this.concurrencyLimiter = new ConcurrencyLimiter(configUtil);
     }
 
     /**
@@ -81,7 +121,15 @@ public class ApiManager {
             });
 
             // Configure security for API endpoints only
+            accessRules();
             app.before("/api/*", this::securityCheck);
+            rateLimiter.start();
+
+            // Push changes to connected dashboards
+            changeBroadcaster = new ChangeBroadcaster(objectMapper, plugin.getLogger(),
+                    configUtil.getApiEventsCoalesceMs(), configUtil.getApiEventsClientBuffer());
+            changeBroadcaster.start();
+            warpService.setChangeListener(changeBroadcaster);
 
             // Configure endpoints
             configureEndpoints();
@@ -99,6 +147,12 @@ public class ApiManager {
      * Stops the API server.
      */
     public void stop() {
+        rateLimiter.stop();
+        concurrencyLimiter.stop();
+        if (changeBroadcaster != null) {
+            warpService.setChangeListener(null);
+            changeBroadcaster.stop();
+        }
         if (app != null) {
             app.stop();
             plugin.getLogger().info("API server stopped.");
@@ -122,6 +176,12 @@ public class ApiManager {
         // Get all warps for a player
         app.get("/api/warps/{uuid}", this::getWarps);
 
+        // Get player data of several players
+        app.post("/api/players/query", this::queryPlayers);
+
+        // Get warps of several players
+        app.post("/api/warps/query", this::queryWarps);
+
         // Create a new warp
         app.post("/api/warp", this::createWarp);
 
@@ -133,6 +193,30 @@ public class ApiManager {
 
         // Set warp limit for a player
         app.put("/api/player/{uuid}/limit", this::setWarpLimit);
+
+        // Delete all warps of a player
+        app.delete("/api/player/{uuid}/warps", this::purgePlayerWarps);
+
+        // Delete all warps in a world
+        app.delete("/api/world/{world}/warps", this::purgeWorldWarps);
+
+        // Set warp limit for several players
+        app.put("/api/players/limit", this::setWarpLimits);
+
+        // Create, delete and move warps of many players at once
+        app.post("/api/warps/batch", this::applyWarpOperations);
+
+        // Stream all warps as NDJSON
+        app.get("/api/export", this::exportWarps);
+
+        // Import warps from NDJSON
+        app.post("/api/import", this::importWarps);
+
+        // Database queue metrics
+        app.get("/api/status/database", this::getDatabaseStatus);
+
+        // Live change events for the dashboard
+        app.sse("/api/events", changeBroadcaster::addClient);
     }
 
     /**
@@ -141,9 +225,11 @@ public class ApiManager {
      * @param ctx The context
      */
     private void securityCheck(Context ctx) {
+        AccessRules rules = accessRules();
+
         // Check API key
         String apiKey = ctx.header("X-API-Key");
-        if (apiKey == null || !apiKey.equals(configUtil.getApiKey())) {
+        if (apiKey == null || !rules.matchesApiKey(apiKey)) {
             ctx.status(HttpStatus.UNAUTHORIZED).json(error("Invalid API key"));
             ctx.skipRemainingHandlers();
             return;
@@ -151,98 +237,120 @@ public class ApiManager {
 
         // Check IP whitelist
         String ip = ctx.ip();
-        List<String> whitelist = configUtil.getApiIpWhitelist();
-        if (!whitelist.isEmpty() && !whitelist.contains(ip) && !whitelist.contains("*")) {
+        if (!rules.whitelist.isUnrestricted() && !rules.whitelist.matches(ip)) {
             ctx.status(HttpStatus.FORBIDDEN).json(error("IP not whitelisted"));
             ctx.skipRemainingHandlers();
             return;
         }
 
         // Check rate limit
-        if (configUtil.isApiRateLimitEnabled() && !checkAndIncrementRateLimit(ip)) {
-            ctx.status(HttpStatus.TOO_MANY_REQUESTS).json(error("Rate limit exceeded"));
-            ctx.skipRemainingHandlers();
+        if (configUtil.isApiRateLimitEnabled()) {
+            long retryAfterMs = rateLimiter.tryAcquire(ip, routeClass(ctx));
+            if (retryAfterMs > 0) {
+                ctx.header("Retry-After", String.valueOf(Math.ceilDiv(retryAfterMs, 1000)));
+                ctx.status(HttpStatus.TOO_MANY_REQUESTS).json(error("Rate limit exceeded"));
+                ctx.skipRemainingHandlers();
+            }
         }
     }
 
     /**
-     * Checks and increments the rate limit for a given IP.
-     * Also performs periodic cleanup of old entries.
+     * Gets the compiled API key and IP whitelist, rebuilding them after the configuration was reloaded.
+     * A reload replaces the configured values, so comparing them by identity detects it without any parsing.
      *
-     * @param ip The IP address
-     * @return True if the request is within the rate limit, false otherwise
+     * @return The current access rules
      */
-    private boolean checkAndIncrementRateLimit(String ip) {
-        int requestsPerMinute = configUtil.getApiRequestsPerMinute();
-        long now = System.currentTimeMillis();
-
-        cleanupRateLimitMap(now);
-
-        RateLimitInfo info = rateLimitMap.computeIfAbsent(ip, k -> new RateLimitInfo(now));
-
-        long currentWindowStart = info.getWindowStart();
-        // Check if the window needs to be reset
-        if (now - currentWindowStart > TimeUnit.MINUTES.toMillis(1)) {
-            if (info.tryResetWindow(currentWindowStart, now)) {
-            } else {
-                // Another thread already reset, re-fetch the updated info
-                info = rateLimitMap.get(ip);
-                // If somehow removed between get and check, create new
-                if (info == null) {
-                     info = rateLimitMap.computeIfAbsent(ip, k -> new RateLimitInfo(now));
-                }
+    private AccessRules accessRules() {
+        AccessRules rules = accessRules;
+        String apiKey = configUtil.getApiKey();
+        List<String> whitelist = configUtil.getApiIpWhitelist();
+        if (rules != null && rules.apiKey == apiKey && rules.whitelistSource == whitelist) {
+            return rules;
+        }
+        synchronized (this) {
+            rules = accessRules;
+            if (rules == null || rules.apiKey != apiKey || rules.whitelistSource != whitelist) {
+                rules = new AccessRules(apiKey, whitelist, IpWhitelist.parse(whitelist, plugin.getLogger()));
+                accessRules = rules;
             }
+            return rules;
         }
-
-        // Increment and check if the limit has been reached
-        return info.incrementRequestCount() < requestsPerMinute;
     }
 
     /**
-     * Periodically removes old entries from the rate limit map.
+     * Determines which rate limit quota a request counts against.
      *
-     * @param now Current time in milliseconds
+     * @param ctx The context
+     * @return The route class of the request
      */
-    private void cleanupRateLimitMap(long now) {
-        if (now - lastRateLimitCleanup > RATE_LIMIT_CLEANUP_INTERVAL_MS) {
-            // Perform cleanup asynchronously
-            executor.submit(() -> {
-                 plugin.getLogger().fine("Performing rate limit map cleanup...");
-                 long cleanupThreshold = now - TimeUnit.MINUTES.toMillis(5);
-                 rateLimitMap.entrySet().removeIf(entry -> entry.getValue().getWindowStart() < cleanupThreshold);
-                 lastRateLimitCleanup = now;
-                 plugin.getLogger().fine("Rate limit map cleanup finished.");
-             });
+    private static RateLimiter.RouteClass routeClass(Context ctx) {
+        String path = ctx.path();
+        HandlerType method = ctx.method();
+        if (path.equals("/api/export") || path.equals("/api/import") || path.equals("/api/warps/batch")
+                || path.equals("/api/players/limit") || (method == HandlerType.DELETE && path.endsWith("/warps"))) {
+            return RateLimiter.RouteClass.BULK;
         }
+        return method == HandlerType.GET || path.endsWith("/query") ? RateLimiter.RouteClass.READ : RateLimiter.RouteClass.WRITE;
     }
 
     /**
      * Handles the GET /api/players endpoint.
-     * Returns a list of all players who have warps.
+     * Returns one page of players who have warps. Without {@code q} the players are ordered by UUID,
+     * with {@code q} only players whose name starts with it are returned, ordered by name.
+     * The opaque {@code cursor} of a response requests the next page with the same {@code q}.
      *
      * @param ctx The context
      */
     private void getPlayers(Context ctx) {
-        ctx.future(() -> warpService.getPlayersWithWarps()
-            .thenApply(players -> {
-                List<Map<String, Object>> result = new ArrayList<>();
-                for (UUID playerUuid : players) {
-                    Map<String, Object> playerData = new HashMap<>();
-                    playerData.put("uuid", playerUuid.toString());
+        String query = ctx.queryParam("q");
+        String cursorParam = ctx.queryParam("cursor");
+        int limit;
+        String cursor;
+        try {
+            String limitParam = ctx.queryParam("limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_PAGE_SIZE;
+            cursor = cursorParam != null ? new String(Base64.getUrlDecoder().decode(cursorParam), StandardCharsets.UTF_8) : null;
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid limit or cursor"));
+            return;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Limit must be between 1 and " + MAX_PAGE_SIZE));
+            return;
+        }
 
-                    // Get player name if online
-                    Player player = Bukkit.getPlayer(playerUuid);
-                    String playerName = player != null ? player.getName() : Bukkit.getOfflinePlayer(playerUuid).getName();
-                    playerData.put("name", playerName != null ? playerName : "Unbekannt");
+        Supplier<CompletableFuture<WarpService.PlayerPage>> page;
+        if (query != null && !query.isBlank()) {
+            page = () -> warpService.searchPlayers(query.trim(), cursor, limit);
+        } else {
+            UUID afterUuid;
+            try {
+                afterUuid = cursor != null ? UUID.fromString(cursor) : null;
+            } catch (IllegalArgumentException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid limit or cursor"));
+                return;
+            }
+            page = () -> warpService.getPlayerPage(afterUuid, limit);
+        }
 
-                    result.add(playerData);
+        apiFuture(ctx, () -> page.get()
+            .thenAccept(result -> {
+                List<Map<String, Object>> players = new ArrayList<>();
+                for (PlayerDirectory.Entry entry : result.getPlayers()) {
+                    Map<String, Object> playerData = new HashMap<>();
+                    playerData.put("uuid", entry.getUuid().toString());
+                    playerData.put("name", entry.getName() != null ? entry.getName() : "Unbekannt");
+                    players.add(playerData);
                 }
-                return result;
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("players", players);
+                response.put("nextCursor", result.getNextCursor() != null
+                        ? Base64.getUrlEncoder().withoutPadding().encodeToString(result.getNextCursor().getBytes(StandardCharsets.UTF_8))
+                        : null);
+                ctx.json(response);
             })
-            .thenAccept(result -> ctx.json(result))
             .exceptionally(ex -> {
-                plugin.getLogger().log(Level.SEVERE, "Error getting players with warps", ex);
-                ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).json(error("Internal server error"));
+                handleApiException(ctx, ex, "Error getting players with warps");
                 return null;
             }));
     }
@@ -263,27 +371,20 @@ public class ApiManager {
             return;
         }
 
-        // Get player name
-        Player player = Bukkit.getPlayer(uuid);
-        String playerName = player != null ? player.getName() : Bukkit.getOfflinePlayer(uuid).getName();
-
         // Combine player data with warp limit
-        ctx.future(() -> warpService.getWarpLimit(uuid)
-            .thenCompose(limit -> warpService.getWarpCount(uuid)
-                .thenApply(count -> {
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("uuid", uuidString);
-                    result.put("name", playerName != null ? playerName : "Unbekannt");
-                    result.put("warpLimit", limit);
-                    result.put("warpCount", count);
-                    return result;
-                }))
-            .thenAccept(result -> ctx.json(result))
-            .exceptionally(ex -> {
-                plugin.getLogger().log(Level.SEVERE, "Error getting player data for UUID: " + uuidString, ex);
-                ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).json(error("Internal server error"));
-                return null;
-            }));
+        serveVersioned(ctx, "player", uuid, () -> {
+            String playerName = warpService.getPlayerDirectory().resolveName(uuid);
+            return warpService.getWarpLimit(uuid)
+                .thenCompose(limit -> warpService.getWarpCount(uuid)
+                    .thenApply(count -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("uuid", uuidString);
+                        result.put("name", playerName != null ? playerName : "Unbekannt");
+                        result.put("warpLimit", limit);
+                        result.put("warpCount", count);
+                        return result;
+                    }));
+        }, "Error getting player data for UUID: " + uuidString);
     }
 
     /**
@@ -301,16 +402,103 @@ public class ApiManager {
             return;
         }
 
-        // Use ctx.future() to handle the CompletableFuture asynchronously
-        ctx.future(() -> warpService.getWarps(uuid)
-            .thenAccept(warps -> ctx.json(warps))
+        serveVersioned(ctx, "warps", uuid, () -> warpService.getWarps(uuid),
+                "Error getting warps for UUID: " + uuidString);
+    }
+
+    /**
+     * Handles the POST /api/players/query endpoint.
+     * Returns the player data of up to {@value #MAX_QUERY_UUIDS} players, keyed by UUID.
+     * Cached players are served from the cache, the others are loaded with one query.
+     *
+     * @param ctx The context
+     */
+    private void queryPlayers(Context ctx) {
+        List<UUID> uuids = parseQueryUuids(ctx);
+        if (uuids == null) {
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.getWarpLimits(uuids)
+            .thenCombine(warpService.getWarpCounts(uuids), (limits, counts) -> {
+                Map<String, Object> result = new LinkedHashMap<>();
+                for (UUID uuid : uuids) {
+                    String playerName = warpService.getPlayerDirectory().resolveName(uuid);
+                    Map<String, Object> player = new HashMap<>();
+                    player.put("uuid", uuid.toString());
+                    player.put("name", playerName != null ? playerName : "Unbekannt");
+                    player.put("warpLimit", limits.get(uuid));
+                    player.put("warpCount", counts.get(uuid));
+                    result.put(uuid.toString(), player);
+                }
+                return result;
+            })
+            .thenAccept(ctx::json)
             .exceptionally(ex -> {
-                plugin.getLogger().log(Level.SEVERE, "Error getting warps for UUID: " + uuidString, ex);
-                ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).json(error("Internal server error"));
+                handleApiException(ctx, ex, "Error querying player data");
                 return null;
             }));
     }
 
+    /**
+     * Handles the POST /api/warps/query endpoint.
+     * Returns the warps of up to {@value #MAX_QUERY_UUIDS} players, keyed by UUID.
+     * Cached warps are served from the cache, the others are loaded with one query.
+     *
+     * @param ctx The context
+     */
+    private void queryWarps(Context ctx) {
+        List<UUID> uuids = parseQueryUuids(ctx);
+        if (uuids == null) {
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.getWarps(uuids)
+            .thenAccept(warps -> {
+                Map<String, Object> result = new LinkedHashMap<>();
+                warps.forEach((uuid, ownerWarps) -> result.put(uuid.toString(), ownerWarps));
+                ctx.json(result);
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, "Error querying warps");
+                return null;
+            }));
+    }
+
+    /**
+     * Reads the UUIDs of a multi-get request and answers invalid requests with 400.
+     *
+     * @param ctx The context
+     * @return The distinct UUIDs in request order, or null if the request is invalid
+     */
+    private List<UUID> parseQueryUuids(Context ctx) {
+        QueryRequest request;
+        try {
+            request = ctx.bodyAsClass(QueryRequest.class);
+        } catch (Exception e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid request body format"));
+            return null;
+        }
+        if (request.getUuids() == null || request.getUuids().isEmpty()) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("At least one UUID is required"));
+            return null;
+        }
+        if (request.getUuids().size() > MAX_QUERY_UUIDS) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("At most " + MAX_QUERY_UUIDS + " UUIDs per request"));
+            return null;
+        }
+        Set<UUID> uuids = new LinkedHashSet<>();
+        try {
+            for (String uuidString : request.getUuids()) {
+                uuids.add(UUID.fromString(uuidString));
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid UUID format"));
+            return null;
+        }
+        return new ArrayList<>(uuids);
+    }
+
     /**
      * Handles the POST /api/warp endpoint.
      *
@@ -342,12 +530,12 @@ public class ApiManager {
             return;
         }
 
-        // Chain async operations and handle with ctx.future()
-        ctx.future(() ->
+        // Chain async operations and handle with apiFuture()
+        apiFuture(ctx, () ->
             // Check limit and count first
             warpService.getWarpLimit(uuid)
-                .thenComposeAsync(limit -> warpService.getWarpCount(uuid)
-                        .thenComposeAsync(count -> {
+                .thenCompose(limit -> warpService.getWarpCount(uuid)
+                        .thenCompose(count -> {
                             if (count >= limit) {
                                 // Use a completed future with an exception to signal handled error
                                 return CompletableFuture.failedFuture(new ApiException("Warp limit reached", HttpStatus.BAD_REQUEST));
@@ -368,7 +556,7 @@ public class ApiManager {
                             );
                             // Call the async service method
                             return warpService.createWarpDirect(warp);
-                        }, executor), executor)
+                        }))
                 .thenAccept(createdWarp -> ctx.status(HttpStatus.CREATED).json(createdWarp))
                 .exceptionally(ex -> {
                     handleApiException(ctx, ex, "Error creating warp");
@@ -399,7 +587,7 @@ public class ApiManager {
             return;
         }
 
-        ctx.future(() -> warpService.deleteWarp(uuid, name)
+        apiFuture(ctx, () -> warpService.deleteWarp(uuid, name)
             .thenAccept(deleted -> {
                 if (deleted) {
                     ctx.status(HttpStatus.NO_CONTENT);
@@ -428,14 +616,9 @@ public class ApiManager {
             return;
         }
 
-        ctx.future(() -> warpService.getWarpLimit(uuid)
-            .thenAccept(limit -> {
-                 ctx.json(Map.of("uuid", uuidString, "limit", limit));
-            })
-            .exceptionally(ex -> {
-                 handleApiException(ctx, ex, "Error getting warp limit");
-                 return null;
-            }));
+        serveVersioned(ctx, "limit", uuid, () -> warpService.getWarpLimit(uuid)
+            .thenApply(limit -> Map.of("uuid", uuidString, "limit", limit)),
+                "Error getting warp limit");
     }
 
     /**
@@ -462,7 +645,7 @@ public class ApiManager {
             return;
         }
 
-        ctx.future(() -> warpService.setWarpLimit(uuid, request.getLimit())
+        apiFuture(ctx, () -> warpService.setWarpLimit(uuid, request.getLimit())
             .thenAccept(success -> {
                 if (success) {
                     ctx.json(Map.of("uuid", uuidString, "limit", request.getLimit()));
@@ -477,6 +660,580 @@ public class ApiManager {
             }));
     }
 
+    /**
+     * Handles the DELETE /api/player/{uuid}/warps endpoint.
+     *
+     * @param ctx The context
+     */
+    private void purgePlayerWarps(Context ctx) {
+        String uuidString = ctx.pathParam("uuid");
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(uuidString);
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid UUID format"));
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.purgePlayerWarps(uuid, progress -> { })
+            .thenAccept(progress -> {
+                ctx.json(Map.of("uuid", uuidString, "deleted", progress.getProcessed()));
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, "Error purging player warps");
+                return null;
+            }));
+    }
+
+    /**
+     * Handles the DELETE /api/world/{world}/warps endpoint.
+     *
+     * @param ctx The context
+     */
+    private void purgeWorldWarps(Context ctx) {
+        String worldName = ctx.pathParam("world");
+        if (worldName.isBlank() || worldName.length() > 64) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid world name"));
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.purgeWorldWarps(worldName, progress -> { })
+            .thenAccept(progress -> {
+                ctx.json(Map.of("world", worldName, "deleted", progress.getProcessed()));
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, "Error purging world warps");
+                return null;
+            }));
+    }
+
+    /**
+     * Handles the PUT /api/players/limit endpoint.
+     *
+     * @param ctx The context
+     */
+    private void setWarpLimits(Context ctx) {
+        BulkLimitRequest request;
+        List<UUID> uuids = new ArrayList<>();
+        try {
+            request = ctx.bodyAsClass(BulkLimitRequest.class);
+            if (request.getLimit() < 0) {
+                ctx.status(HttpStatus.BAD_REQUEST).json(error("Limit must be a non-negative number"));
+                return;
+            }
+            if (request.getUuids() == null || request.getUuids().isEmpty()) {
+                ctx.status(HttpStatus.BAD_REQUEST).json(error("At least one UUID is required"));
+                return;
+            }
+            for (String uuidString : request.getUuids()) {
+                uuids.add(UUID.fromString(uuidString));
+            }
+        } catch (IllegalArgumentException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid UUID format"));
+            return;
+        } catch (Exception e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid request body format or limit value"));
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.setWarpLimits(uuids, request.getLimit(), progress -> { })
+            .thenAccept(progress -> {
+                ctx.json(Map.of("updated", progress.getProcessed(), "limit", request.getLimit()));
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, "Error setting warp limits");
+                return null;
+            }));
+    }
+
+    /**
+     * Handles the POST /api/warps/batch endpoint.
+     * Accepts creations, deletions and moves of warps for many owners. All operations are
+     * validated before any is applied; then the operations of each owner run in one transaction.
+     * Creations check the warp limit. The response lists the outcome of every operation.
+     *
+     * @param ctx The context
+     */
+    private void applyWarpOperations(Context ctx) {
+        JsonNode operationsNode;
+        try {
+            JsonNode root = objectMapper.readTree(ctx.body());
+            operationsNode = root != null ? root.get("operations") : null;
+        } catch (JsonProcessingException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Invalid request body format"));
+            return;
+        }
+        if (operationsNode == null || !operationsNode.isArray() || operationsNode.isEmpty()) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("At least one operation is required"));
+            return;
+        }
+        if (operationsNode.size() > MAX_BATCH_OPERATIONS) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("At most " + MAX_BATCH_OPERATIONS + " operations are allowed"));
+            return;
+        }
+
+        List<WarpOperation> operations = new ArrayList<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        for (int i = 0; i < operationsNode.size(); i++) {
+            try {
+                operations.add(parseWarpOperation(operationsNode.get(i)));
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> operationError = new LinkedHashMap<>();
+                operationError.put("index", i);
+                operationError.put("error", e.getMessage());
+                errors.add(operationError);
+            }
+        }
+        if (!errors.isEmpty()) {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("error", "Invalid operations");
+            response.put("errors", errors);
+            ctx.status(HttpStatus.BAD_REQUEST).json(response);
+            return;
+        }
+
+        apiFuture(ctx, () -> warpService.applyWarpOperations(operations)
+            .thenAccept(outcomes -> {
+                List<Map<String, Object>> results = new ArrayList<>();
+                int applied = 0;
+                for (int i = 0; i < outcomes.size(); i++) {
+                    WarpOperation operation = operations.get(i);
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("index", i);
+                    result.put("op", operation.getType().name().toLowerCase());
+                    result.put("uuid", operation.getOwnerUuid().toString());
+                    result.put("name", operation.getName());
+                    result.put("status", outcomes.get(i).name().toLowerCase());
+                    results.add(result);
+                    if (outcomes.get(i) == WarpOperation.Outcome.APPLIED) {
+                        applied++;
+                    }
+                }
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("applied", applied);
+                response.put("results", results);
+                ctx.json(response);
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, "Error applying warp operations");
+                return null;
+            }));
+    }
+
+    /**
+     * Parses and validates one operation of a batch.
+     *
+     * @param node The JSON object of the operation
+     * @return The operation
+     * @throws IllegalArgumentException If the operation is invalid, with the reason as message
+     */
+    private static WarpOperation parseWarpOperation(JsonNode node) {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Operation is not a JSON object");
+        }
+        UUID ownerUuid = parseUuidField(node, "uuid");
+        String name = parseWarpNameField(node);
+        return switch (node.path("op").asText()) {
+            case "create" -> WarpOperation.create(parseLocationFields(node, ownerUuid, name, System.currentTimeMillis()));
+            case "delete" -> WarpOperation.delete(ownerUuid, name);
+            case "move" -> WarpOperation.move(parseLocationFields(node, ownerUuid, name, 0));
+            default -> throw new IllegalArgumentException("Unknown op, expected create, delete or move");
+        };
+    }
+
+    /**
+     * Handles the GET /api/export endpoint.
+     * Streams every warp as one JSON object per line, in ID order. The warps are read in pages
+     * in the API lane and written between the pages, so memory use does not grow with the number
+     * of warps and a slow client holds no database connection. Only one export or import runs at a time.
+     *
+     * @param ctx The context
+     */
+    private void exportWarps(Context ctx) {
+        if (databaseManager.isDegraded()) {
+            handleApiException(ctx, new DatabaseUnavailableException(), "Error exporting warps");
+            return;
+        }
+        if (!bulkTransferPermit.tryAcquire()) {
+            ctx.status(HttpStatus.CONFLICT).json(error("Another export or import is running"));
+            return;
+        }
+        try {
+            ctx.contentType(NDJSON_CONTENT_TYPE);
+            ctx.header("Content-Disposition", "attachment; filename=\"warps.ndjson\"");
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(ctx.outputStream())) {
+                // Javalin completes the response stream itself
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                DatabaseExecutor.withLane(DatabaseExecutor.Lane.API, () -> {
+                    warpService.exportWarps(warp -> {
+                        try {
+                            generator.writeObject(warp);
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    return null;
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            if (ctx.res().isCommitted()) {
+                // The status was sent with the first lines; failing the request cuts the stream short
+                plugin.getLogger().log(Level.WARNING, "Export of all warps was aborted", e);
+                throw e instanceof IOException ioException ? new UncheckedIOException(ioException) : (RuntimeException) e;
+            }
+            ctx.res().reset();
+            handleApiException(ctx, e, "Error exporting warps");
+        } finally {
+            bulkTransferPermit.release();
+        }
+    }
+
+    /**
+     * Handles the POST /api/import endpoint.
+     * Reads warps as one JSON object per line, in the format of the export, and inserts them in
+     * batches of the configured bulk batch size, each in its own transaction. Only one batch is
+     * held in memory. Invalid lines are reported with their line number and do not stop the
+     * import; warps whose name their owner already uses are skipped. As an admin operation the
+     * import does not check warp limits. Only one export or import runs at a time.
+     *
+     * @param ctx The context
+     */
+    private void importWarps(Context ctx) {
+        if (databaseManager.isDegraded() || warpService.isJournaling()) {
+            handleApiException(ctx, new DatabaseUnavailableException(), "Error importing warps");
+            return;
+        }
+        if (!bulkTransferPermit.tryAcquire()) {
+            ctx.status(HttpStatus.CONFLICT).json(error("Another export or import is running"));
+            return;
+        }
+        int batchSize = configUtil.getDatabaseBulkBatchSize();
+        ImportReport report = new ImportReport();
+        List<Warp> batch = new ArrayList<>(batchSize);
+        List<Integer> batchLines = new ArrayList<>(batchSize);
+        try (NdjsonReader reader = new NdjsonReader(ctx.bodyInputStream(), MAX_IMPORT_LINE_LENGTH)) {
+            while (reader.next()) {
+                String line = reader.line();
+                if (line == null) {
+                    report.fail(reader.lineNumber(), "Line longer than " + MAX_IMPORT_LINE_LENGTH + " characters");
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(parseImportedWarp(line));
+                    batchLines.add(reader.lineNumber());
+                } catch (IllegalArgumentException e) {
+                    report.fail(reader.lineNumber(), e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, batchLines, report);
+                }
+            }
+            importBatch(batch, batchLines, report);
+            ctx.json(report.toResponse());
+        } catch (IOException e) {
+            ctx.status(HttpStatus.BAD_REQUEST).json(error("Failed to read request body"));
+        } catch (RuntimeException e) {
+            // Batches committed before the failure stay imported; repeating the import skips them
+            plugin.getLogger().warning("Import of warps aborted after " + report.imported + " imported warps");
+            handleApiException(ctx, e, "Error importing warps");
+        } finally {
+            bulkTransferPermit.release();
+        }
+    }
+
+    /**
+     * Imports the collected batch and clears it.
+     * Runs in the API lane and blocks until the batch is committed.
+     *
+     * @param batch The parsed warps
+     * @param batchLines The line number of every warp in the batch
+     * @param report The report to count the results in
+     * @throws RuntimeException If the batch could not be imported
+     */
+    private void importBatch(List<Warp> batch, List<Integer> batchLines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean[] imported = DatabaseExecutor.withLane(DatabaseExecutor.Lane.API, () -> warpService.importWarps(List.copyOf(batch))).join();
+        for (int i = 0; i < imported.length; i++) {
+            if (imported[i]) {
+                report.imported++;
+            } else {
+                report.skip(batchLines.get(i), "Warp name already in use by this owner");
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * Parses and validates one line of an import.
+     * The ID of the exported warp is ignored; a missing creation time is set to now.
+     *
+     * @param line The line, a JSON object in the format of the export
+     * @return The warp to import
+     * @throws IllegalArgumentException If the line is not a valid warp, with the reason as message
+     */
+    private Warp parseImportedWarp(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Line is not a JSON object");
+        }
+
+        UUID ownerUuid = parseUuidField(node, "ownerUuid");
+        String name = parseWarpNameField(node);
+        JsonNode createdAt = node.path("createdAt");
+        return parseLocationFields(node, ownerUuid, name, createdAt.canConvertToLong() ? createdAt.asLong() : System.currentTimeMillis());
+    }
+
+    /**
+     * Reads a UUID field of a JSON object.
+     *
+     * @param node The JSON object
+     * @param field The name of the field
+     * @return The UUID
+     * @throws IllegalArgumentException If the field is missing or not a UUID
+     */
+    private static UUID parseUuidField(JsonNode node, String field) {
+        try {
+            return UUID.fromString(node.path(field).asText());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid UUID format");
+        }
+    }
+
+    /**
+     * Reads the warp name field of a JSON object.
+     *
+     * @param node The JSON object
+     * @return The warp name
+     * @throws IllegalArgumentException If the name is missing or has an invalid format
+     */
+    private static String parseWarpNameField(JsonNode node) {
+        String name = node.path("name").asText();
+        if (!name.matches("^[a-zA-Z0-9_]{3,32}$")) {
+            throw new IllegalArgumentException("Invalid warp name format (3-32 chars, a-z, A-Z, 0-9, _)");
+        }
+        return name;
+    }
+
+    /**
+     * Reads the world, coordinates and rotation of a warp from a JSON object.
+     *
+     * @param node The JSON object
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @param createdAt The creation time of the warp
+     * @return The warp, without ID
+     * @throws IllegalArgumentException If the world or a coordinate is missing or invalid
+     */
+    private static Warp parseLocationFields(JsonNode node, UUID ownerUuid, String name, long createdAt) {
+        String worldName = node.path("worldName").asText();
+        if (worldName.isBlank() || worldName.length() > 64) {
+            throw new IllegalArgumentException("Invalid world name");
+        }
+        return new Warp(
+                0,
+                ownerUuid,
+                name,
+                worldName,
+                coordinate(node, "x", true),
+                coordinate(node, "y", true),
+                coordinate(node, "z", true),
+                (float) coordinate(node, "yaw", false),
+                (float) coordinate(node, "pitch", false),
+                createdAt
+        );
+    }
+
+    /**
+     * Reads a coordinate of a warp from a JSON object.
+     *
+     * @param node The JSON object
+     * @param field The name of the field
+     * @param required Whether the field must be present; a missing optional field is 0
+     * @return The coordinate
+     * @throws IllegalArgumentException If the field is missing, not a number or not finite
+     */
+    private static double coordinate(JsonNode node, String field, boolean required) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            if (required) {
+                throw new IllegalArgumentException("Missing field: " + field);
+            }
+            return 0;
+        }
+        if (!value.isNumber() || !Double.isFinite(value.asDouble())) {
+            throw new IllegalArgumentException("Invalid number: " + field);
+        }
+        return value.asDouble();
+    }
+
+    /**
+     * Handles the GET /api/status/database endpoint.
+     * Returns the queue metrics of every database lane.
+     *
+     * @param ctx The context
+     */
+    private void getDatabaseStatus(Context ctx) {
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        executor.getMetrics().forEach((lane, metrics) -> {
+            Map<String, Object> laneData = new LinkedHashMap<>();
+            laneData.put("depth", metrics.getDepth());
+            laneData.put("capacity", metrics.getCapacity());
+            laneData.put("submitted", metrics.getSubmitted());
+            laneData.put("completed", metrics.getCompleted());
+            laneData.put("rejected", metrics.getRejected());
+            laneData.put("maxWaitMs", metrics.getMaxWaitMs());
+            lanes.put(lane.name().toLowerCase(), laneData);
+        });
+        CircuitBreaker breaker = databaseManager.getCircuitBreaker();
+        Map<String, Object> breakerData = new LinkedHashMap<>();
+        breakerData.put("state", breaker.getState().name().toLowerCase());
+        breakerData.put("failures", breaker.getFailures());
+        breakerData.put("trips", breaker.getTrips());
+        ReplicaMonitor replicaMonitor = databaseManager.getReplicaMonitor();
+        Map<String, Object> replicaData = new LinkedHashMap<>();
+        replicaData.put("enabled", replicaMonitor != null);
+        if (replicaMonitor != null) {
+            replicaData.put("healthy", replicaMonitor.isHealthy());
+            replicaData.put("lagMs", replicaMonitor.getLagMs());
+        }
+        ctx.json(Map.of("lanes", lanes, "circuitBreaker", breakerData, "replica", replicaData,
+                "concurrency", concurrencyLimiter.getMetrics()));
+    }
+
+    /**
+     * Runs an endpoint's database work in the API lane and hands the future to Javalin.
+     * The work only starts once the concurrency limit of the request's route class has a free slot.
+     * A request that gets none in time is answered with {@code 503 Service Unavailable}.
+     *
+     * @param ctx The context
+     * @param supplier Starts the asynchronous work
+     */
+    private void apiFuture(Context ctx, Supplier<CompletableFuture<?>> supplier) {
+        if (!configUtil.isApiConcurrencyEnabled()) {
+            ctx.future(() -> DatabaseExecutor.withLane(DatabaseExecutor.Lane.API, supplier));
+            return;
+        }
+        RateLimiter.RouteClass routeClass = routeClass(ctx);
+        ctx.future(() -> concurrencyLimiter.acquire(routeClass)
+            .thenCompose(permit -> {
+                CompletableFuture<?> work;
+                try {
+                    work = DatabaseExecutor.withLane(DatabaseExecutor.Lane.API, supplier);
+                } catch (RuntimeException e) {
+                    permit.release(false);
+                    throw e;
+                }
+                // Endpoints answer busy or unavailable databases with 503, which lowers the limit
+                return work.whenComplete((result, throwable) ->
+                        permit.release(ctx.status() == HttpStatus.SERVICE_UNAVAILABLE));
+            })
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable;
+                if (cause instanceof ConcurrencyLimiter.LimitExceededException) {
+                    ctx.header("Retry-After", "1");
+                    ctx.status(HttpStatus.SERVICE_UNAVAILABLE).json(error("Server busy"));
+                } else {
+                    handleApiException(ctx, cause, "Unexpected error in API request " + ctx.path());
+                }
+                return null;
+            }));
+    }
+
+    /**
+     * Serves a read endpoint about one player with conditional requests and the response cache.
+     * The ETag is the version of the player's data. A client that sends the current ETag in
+     * {@code If-None-Match} gets {@code 304 Not Modified}; otherwise the cached body of the
+     * current version is sent, and only if there is none the body is loaded and serialized.
+     *
+     * @param ctx The context
+     * @param endpoint The endpoint name, part of the cache key
+     * @param uuid The UUID of the player
+     * @param loader Loads the response body
+     * @param errorMessage The message to log if loading fails unexpectedly
+     */
+    private void serveVersioned(Context ctx, String endpoint, UUID uuid, Supplier<CompletableFuture<?>> loader, String errorMessage) {
+        // Taken before loading, so the body is at least as new as its tag
+        String etag = '"' + warpService.getOwnerVersion(uuid) + '"';
+        ctx.header("Cache-Control", "no-cache");
+        if (matchesEtag(ctx.header("If-None-Match"), etag)) {
+            ctx.header("ETag", etag);
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return;
+        }
+
+        byte[] cached = responseCache.get(endpoint, uuid, etag);
+        if (cached != null) {
+            sendJson(ctx, etag, cached);
+            return;
+        }
+
+        apiFuture(ctx, () -> loader.get()
+            .thenAccept(body -> {
+                byte[] serialized;
+                try {
+                    serialized = objectMapper.writeValueAsBytes(body);
+                } catch (JsonProcessingException e) {
+                    throw new CompletionException(e);
+                }
+                responseCache.put(endpoint, uuid, etag, serialized);
+                sendJson(ctx, etag, serialized);
+            })
+            .exceptionally(ex -> {
+                handleApiException(ctx, ex, errorMessage);
+                return null;
+            }));
+    }
+
+    /**
+     * Sends an already serialized JSON body with its ETag.
+     *
+     * @param ctx The context
+     * @param etag The ETag of the body
+     * @param body The serialized body
+     */
+    private void sendJson(Context ctx, String etag, byte[] body) {
+        ctx.header("ETag", etag);
+        ctx.contentType(ContentType.APPLICATION_JSON).result(body);
+    }
+
+    /**
+     * Checks whether an {@code If-None-Match} header matches an ETag.
+     *
+     * @param ifNoneMatch The header value, or null
+     * @param etag The current ETag
+     * @return True if the header lists the ETag (weak or strong) or is {@code *}
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Centralized handler for exceptions within CompletableFuture chains for API endpoints.
      *
@@ -491,6 +1248,12 @@ public class ApiManager {
 
          if (cause instanceof ApiException apiException) {
              ctx.status(apiException.getStatusCode()).json(error(apiException.getMessage()));
+         } else if (cause instanceof DatabaseBusyException) {
+             ctx.header("Retry-After", "1");
+             ctx.status(HttpStatus.SERVICE_UNAVAILABLE).json(error("Server busy"));
+         } else if (DatabaseManager.isUnavailable(cause)) {
+             ctx.header("Retry-After", String.valueOf(configUtil.getDatabaseBreakerOpenSeconds()));
+             ctx.status(HttpStatus.SERVICE_UNAVAILABLE).json(error("Database unavailable"));
          } else {
              plugin.getLogger().log(Level.SEVERE, defaultMessage, cause);
              ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).json(error("Internal server error"));
@@ -524,46 +1287,115 @@ public class ApiManager {
     }
 
     /**
-     * Helper class for rate limiting information.
-     * Uses Atomic types for thread safety.
+     * Counts the results of an import and keeps the first errors.
      */
-    private static class RateLimitInfo {
-        private final AtomicLong windowStart = new AtomicLong();
-        private final AtomicInteger requestCount = new AtomicInteger(0);
+    private static class ImportReport {
+        private int imported;
+        private int skipped;
+        private int failed;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
 
-        public RateLimitInfo(long initialWindowStart) {
-            this.windowStart.set(initialWindowStart);
+        /**
+         * Records a line that was not imported because it is invalid.
+         *
+         * @param lineNumber The line number
+         * @param message The reason
+         */
+        private void fail(int lineNumber, String message) {
+            failed++;
+            addError(lineNumber, message);
         }
 
         /**
-         * Gets the start time of the current window.
+         * Records a valid line that was not imported because the warp already exists.
+         *
+         * @param lineNumber The line number
+         * @param message The reason
          */
-        public long getWindowStart() {
-            return windowStart.get();
+        private void skip(int lineNumber, String message) {
+            skipped++;
+            addError(lineNumber, message);
         }
 
         /**
-         * Atomically increments the request count for the current window.
+         * Keeps an error for the response, unless enough errors are kept already.
          *
-         * @return The request count *before* incrementing.
+         * @param lineNumber The line number
+         * @param message The reason
          */
-        public int incrementRequestCount() {
-            return requestCount.getAndIncrement();
+        private void addError(int lineNumber, String message) {
+            if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("line", lineNumber);
+                error.put("error", message);
+                errors.add(error);
+            }
         }
 
         /**
-         * Attempts to reset the window start time and counter if the expected current start time matches.
+         * Builds the response body.
          *
-         * @param expectedWindowStart The expected current window start time.
-         * @param newWindowStart The new window start time.
-         * @return True if the window was successfully reset, false otherwise.
+         * @return The counts and the first errors
          */
-        public boolean tryResetWindow(long expectedWindowStart, long newWindowStart) {
-            if (windowStart.compareAndSet(expectedWindowStart, newWindowStart)) {
-                requestCount.set(0); // Reset counter after successfully setting new window
-                return true;
+        private Map<String, Object> toResponse() {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("imported", imported);
+            response.put("skipped", skipped);
+            response.put("failed", failed);
+            response.put("errors", errors);
+            response.put("errorsTruncated", skipped + failed > errors.size());
+            return response;
+        }
+    }
+
+    /**
+     * The API key digest and IP whitelist compiled from one configuration.
+     */
+    private static final class AccessRules {
+        private final String apiKey;
+        private final List<String> whitelistSource;
+        private final byte[] apiKeyDigest;
+        private final IpWhitelist whitelist;
+
+        /**
+         * Creates a new AccessRules instance.
+         *
+         * @param apiKey The configured API key
+         * @param whitelistSource The configured IP whitelist
+         * @param whitelist The compiled IP whitelist
+         */
+        private AccessRules(String apiKey, List<String> whitelistSource, IpWhitelist whitelist) {
+            this.apiKey = apiKey;
+            this.whitelistSource = whitelistSource;
+            this.apiKeyDigest = sha256(apiKey);
+            this.whitelist = whitelist;
+        }
+
+        /**
+         * Checks a presented API key against the configured one.
+         * Both keys are compared as SHA-256 digests in constant time, so neither the
+         * position of the first differing character nor the key length is leaked by timing.
+         *
+         * @param presented The API key sent by the client
+         * @return True if the key is correct
+         */
+        private boolean matchesApiKey(String presented) {
+            return MessageDigest.isEqual(apiKeyDigest, sha256(presented));
+        }
+
+        /**
+         * Hashes a string with SHA-256.
+         *
+         * @param value The string
+         * @return The digest of its UTF-8 bytes
+         */
+        private static byte[] sha256(String value) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
             }
-            return false;
         }
     }
 
@@ -659,4 +1491,43 @@ public class ApiManager {
             this.limit = limit;
         }
     }
+
+    /**
+     * Class for multi-get requests.
+     */
+    public static class QueryRequest {
+        private List<String> uuids;
+
+        public List<String> getUuids() {
+            return uuids;
+        }
+
+        public void setUuids(List<String> uuids) {
+            this.uuids = uuids;
+        }
+    }
+
+    /**
+     * Class for bulk warp limit requests.
+     */
+    public static class BulkLimitRequest {
+        private List<String> uuids;
+        private int limit;
+
+        public List<String> getUuids() {
+            return uuids;
+        }
+
+        public void setUuids(List<String> uuids) {
+            this.uuids = uuids;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+    }
 }
@@ -0,0 +1,277 @@
+package de.dasjeff.warpMaster.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.dasjeff.warpMaster.database.ChangeLog;
+import de.dasjeff.warpMaster.service.WarpService;
+import io.javalin.http.sse.SseClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes changes of player data to connected dashboards over Server-Sent Events.
+ * <p>
+ * Changes are collected per player and sent as one {@code changes} event every coalescing
+ * interval, so a burst of writes to the same player becomes a single entry. Each client has
+ * its own bounded queue that a virtual thread drains; the broadcaster never waits for a
+ * client. A client whose queue is full is too slow to keep up and is disconnected; the
+ * dashboard reconnects and reloads its data. A {@code resync} event tells clients to reload
+ * everything, for example after the caches were cleared.
+ */
+class ChangeBroadcaster implements WarpService.ChangeListener {
+    private static final long HEARTBEAT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(15);
+    private static final int MAX_CHANGES_PER_EVENT = 500;
+    private static final int CHANGE_WARPS = 1;
+    private static final int CHANGE_PLAYER = 2;
+
+    private final ObjectMapper objectMapper;
+    private final Logger logger;
+    private final long coalesceMs;
+    private final int clientBufferSize;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, Integer> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean resyncPending = new AtomicBoolean();
+    private final ScheduledExecutorService flushExecutor;
+    private final ExecutorService sendExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("WarpMaster-Events-", 0).factory());
+
+    /**
+     * Creates a new ChangeBroadcaster instance.
+     *
+     * @param objectMapper The object mapper used to serialize events
+     * @param logger The logger
+     * @param coalesceMs The interval in which changes are collected before they are sent, in milliseconds
+     * @param clientBufferSize The number of events a client may fall behind before it is disconnected
+     */
+    ChangeBroadcaster(ObjectMapper objectMapper, Logger logger, long coalesceMs, int clientBufferSize) {
+        this.objectMapper = objectMapper;
+        this.logger = logger;
+        this.coalesceMs = Math.max(50, coalesceMs);
+        this.clientBufferSize = Math.max(1, clientBufferSize);
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-ChangeBroadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts sending collected changes and heartbeats.
+     */
+    void start() {
+        flushExecutor.scheduleWithFixedDelay(this::flush, coalesceMs, coalesceMs, TimeUnit.MILLISECONDS);
+        flushExecutor.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sending and disconnects all clients.
+     */
+    void stop() {
+        flushExecutor.shutdownNow();
+        for (Client client : clients) {
+            client.close();
+        }
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Registers a newly connected client and keeps its connection open.
+     *
+     * @param sseClient The client
+     */
+    void addClient(SseClient sseClient) {
+        Client client = new Client(sseClient);
+        clients.add(client);
+        sseClient.onClose(() -> clients.remove(client));
+        sseClient.keepAlive();
+        client.offer(new Event("hello", "{}"));
+    }
+
+    @Override
+    public void onOwnerChanged(UUID ownerUuid, ChangeLog.Kind kind) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        pending.merge(ownerUuid, kind == ChangeLog.Kind.WARPS ? CHANGE_WARPS : CHANGE_PLAYER, (a, b) -> a | b);
+    }
+
+    @Override
+    public void onAllChanged() {
+        if (!clients.isEmpty()) {
+            resyncPending.set(true);
+        }
+    }
+
+    /**
+     * Sends the changes collected since the last flush to all clients.
+     */
+    private void flush() {
+        try {
+            if (resyncPending.getAndSet(false)) {
+                // A resync covers every pending change
+                pending.clear();
+                broadcast(new Event("resync", "{}"));
+                return;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (Map.Entry<UUID, Integer> entry : pending.entrySet()) {
+                // The conditional remove leaves changes merged in after this read for the next flush
+                if (!pending.remove(entry.getKey(), entry.getValue())) {
+                    continue;
+                }
+                Map<String, Object> change = new LinkedHashMap<>();
+                change.put("uuid", entry.getKey().toString());
+                if ((entry.getValue() & CHANGE_WARPS) != 0) {
+                    change.put("warps", true);
+                }
+                if ((entry.getValue() & CHANGE_PLAYER) != 0) {
+                    change.put("player", true);
+                }
+                changes.add(change);
+            }
+            if (changes.size() > MAX_CHANGES_PER_EVENT) {
+                // Bulk operations touch too many players to list, clients reload instead
+                broadcast(new Event("resync", "{}"));
+            } else if (!changes.isEmpty()) {
+                broadcast(new Event("changes", objectMapper.writeValueAsString(changes)));
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to send dashboard events", e);
+        }
+    }
+
+    /**
+     * Sends a comment to all clients, so connections that died silently are noticed and closed.
+     */
+    private void heartbeat() {
+        broadcast(null);
+    }
+
+    /**
+     * Queues an event for all clients.
+     *
+     * @param event The event, or null for a heartbeat comment
+     */
+    private void broadcast(Event event) {
+        for (Client client : clients) {
+            client.offer(event);
+        }
+    }
+
+    /**
+     * A named event with its serialized data.
+     */
+    private static final class Event {
+        private final String name;
+        private final String data;
+
+        private Event(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A connected client with its bounded send queue.
+     */
+    private final class Client {
+        private final SseClient sseClient;
+        private final ConcurrentLinkedQueue<Event> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Heartbeats are not queued; one outstanding heartbeat is enough
+        private volatile boolean heartbeatPending;
+
+        private Client(SseClient sseClient) {
+            this.sseClient = sseClient;
+        }
+
+        /**
+         * Queues an event and makes sure a sender is draining the queue.
+         * Disconnects the client if it has fallen too far behind.
+         *
+         * @param event The event, or null for a heartbeat comment
+         */
+        private void offer(Event event) {
+            if (event == null) {
+                heartbeatPending = true;
+            } else if (queued.incrementAndGet() > clientBufferSize) {
+                logger.info("Disconnecting a dashboard event client that fell " + clientBufferSize + " events behind");
+                close();
+                return;
+            } else {
+                queue.add(event);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        /**
+         * Writes queued events to the client until the queue is empty.
+         */
+        private void drain() {
+            try {
+                while (true) {
+                    if (heartbeatPending) {
+                        heartbeatPending = false;
+                        sseClient.sendComment("ping");
+                    }
+                    Event event = queue.poll();
+                    if (event == null) {
+                        draining.set(false);
+                        // An event queued after the poll but before the flag was cleared needs a new drain
+                        if ((queue.isEmpty() && !heartbeatPending) || !draining.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    queued.decrementAndGet();
+                    sseClient.sendEvent(event.name, event.data);
+                    if (sseClient.terminated()) {
+                        close();
+                        return;
+                    }
+                }
+            } catch (RuntimeException e) {
+                close();
+            }
+        }
+
+        /**
+         * Disconnects the client.
+         */
+        private void close() {
+            clients.remove(this);
+            queue.clear();
+            try {
+                sseClient.close();
+            } catch (RuntimeException e) {
+                // Already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package de.dasjeff.warpMaster.api;
+
+import de.dasjeff.warpMaster.util.ConfigUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive limit on the number of API requests per route class that use the database at once.
+ * <p>
+ * Each route class has its own limit, adjusted with AIMD from the observed latency: a request
+ * that finishes within the target latency raises the limit by {@code 1/limit}, so it grows by
+ * about one per round of requests, while a slow or overloaded request cuts it by a quarter.
+ * Cuts happen at most once per target latency, so one slow burst only lowers the limit once.
+ * Requests over the limit wait briefly in a bounded queue and are rejected after that, so the
+ * API cannot fill the database executor and delay the work of players in the game.
+ */
+class ConcurrencyLimiter {
+    private static final double DECREASE_FACTOR = 0.75;
+
+    private final ConfigUtil configUtil;
+    private final Map<RateLimiter.RouteClass, ClassLimit> limits = new EnumMap<>(RateLimiter.RouteClass.class);
+    private final ScheduledExecutorService timeoutExecutor;
+
+    /**
+     * Creates a new ConcurrencyLimiter instance.
+     * Every limit starts at half the configured maximum.
+     *
+     * @param configUtil The configuration utility
+     */
+    ConcurrencyLimiter(ConfigUtil configUtil) {
+        this.configUtil = configUtil;
+        double initialLimit = Math.max(1, configUtil.getApiConcurrencyMaxLimit() / 2);
+        for (RateLimiter.RouteClass routeClass : RateLimiter.RouteClass.values()) {
+            limits.put(routeClass, new ClassLimit(initialLimit));
+        }
+        this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-ConcurrencyLimiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the limiter and rejects all waiting requests.
+     */
+    void stop() {
+        timeoutExecutor.shutdownNow();
+        limits.values().forEach(ClassLimit::rejectAll);
+    }
+
+    /**
+     * Requests a slot for a request of a route class.
+     *
+     * @param routeClass The route class of the request
+     * @return A future that completes with the permit once a slot is free, or fails with
+     *         {@link LimitExceededException} if the queue is full or the wait timed out
+     */
+    CompletableFuture<Permit> acquire(RateLimiter.RouteClass routeClass) {
+        return limits.get(routeClass).acquire();
+    }
+
+    /**
+     * Gets the current state of every route class.
+     *
+     * @return The limit, running and waiting requests per route class
+     */
+    Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        limits.forEach((routeClass, limit) -> metrics.put(routeClass.name().toLowerCase(), limit.metrics()));
+        return metrics;
+    }
+
+    /**
+     * Thrown when a request cannot get a slot in time.
+     */
+    static class LimitExceededException extends RuntimeException {
+        /**
+         * Creates a new LimitExceededException instance.
+         */
+        LimitExceededException() {
+            super("Concurrency limit exceeded", null, false, false);
+        }
+    }
+
+    /**
+     * A slot held by a running request; it must be released exactly once.
+     */
+    static final class Permit {
+        private final ClassLimit owner;
+        private final long startNanos = System.nanoTime();
+        private final boolean saturated;
+
+        /**
+         * Creates a new Permit instance.
+         *
+         * @param owner The limit the slot belongs to
+         * @param saturated Whether the limit was at least half used when the slot was taken
+         */
+        private Permit(ClassLimit owner, boolean saturated) {
+            this.owner = owner;
+            this.saturated = saturated;
+        }
+
+        /**
+         * Frees the slot and adjusts the limit by the latency of the request.
+         *
+         * @param overloaded True if the request failed because the database was busy or unavailable
+         */
+        void release(boolean overloaded) {
+            owner.release(this, overloaded);
+        }
+    }
+
+    /**
+     * The limit, running requests and queue of one route class.
+     */
+    private final class ClassLimit {
+        private final ArrayDeque<CompletableFuture<Permit>> waiting = new ArrayDeque<>();
+        private double limit;
+        private int inFlight;
+        private long lastDecreaseNanos;
+
+        /**
+         * Creates a new ClassLimit instance.
+         *
+         * @param initialLimit The initial limit
+         */
+        private ClassLimit(double initialLimit) {
+            this.limit = initialLimit;
+            this.lastDecreaseNanos = System.nanoTime();
+        }
+
+        /**
+         * Takes a free slot or queues the request.
+         *
+         * @return The future permit
+         */
+        private CompletableFuture<Permit> acquire() {
+            CompletableFuture<Permit> future = new CompletableFuture<>();
+            synchronized (this) {
+                if (inFlight < currentLimit()) {
+                    inFlight++;
+                    future.complete(new Permit(this, inFlight * 2 >= currentLimit()));
+                    return future;
+                }
+                if (waiting.size() >= configUtil.getApiConcurrencyQueueSize()) {
+                    future.completeExceptionally(new LimitExceededException());
+                    return future;
+                }
+                waiting.add(future);
+            }
+            try {
+                ScheduledFuture<?> timeout = timeoutExecutor.schedule(() -> expire(future),
+                        configUtil.getApiConcurrencyQueueWaitMs(), TimeUnit.MILLISECONDS);
+                future.whenComplete((permit, throwable) -> timeout.cancel(false));
+            } catch (RejectedExecutionException e) {
+                // The limiter was stopped
+                expire(future);
+            }
+            return future;
+        }
+
+        /**
+         * Rejects a queued request whose wait timed out, unless it got a slot in the meantime.
+         *
+         * @param future The future permit of the request
+         */
+        private void expire(CompletableFuture<Permit> future) {
+            boolean removed;
+            synchronized (this) {
+                removed = waiting.remove(future);
+            }
+            if (removed) {
+                future.completeExceptionally(new LimitExceededException());
+            }
+        }
+
+        /**
+         * Frees a slot, adjusts the limit and hands the free slots to waiting requests.
+         *
+         * @param permit The permit of the finished request
+         * @param overloaded True if the database was busy or unavailable
+         */
+        private void release(Permit permit, boolean overloaded) {
+            long now = System.nanoTime();
+            long targetNanos = TimeUnit.MILLISECONDS.toNanos(configUtil.getApiConcurrencyTargetLatencyMs());
+            int maxLimit = Math.max(1, configUtil.getApiConcurrencyMaxLimit());
+            List<CompletableFuture<Permit>> granted = new ArrayList<>();
+            synchronized (this) {
+                inFlight--;
+                if (overloaded || now - permit.startNanos > targetNanos) {
+                    if (now - lastDecreaseNanos >= targetNanos) {
+                        limit = Math.max(1, limit * DECREASE_FACTOR);
+                        lastDecreaseNanos = now;
+                    }
+                } else if (permit.saturated) {
+                    // Only grow while the limit is actually used, so idle periods don't inflate it
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+                limit = Math.min(limit, maxLimit);
+
+                while (inFlight < currentLimit() && !waiting.isEmpty()) {
+                    inFlight++;
+                    granted.add(waiting.poll());
+                }
+            }
+            // Completed outside the lock, since completing runs the waiting request's work
+            for (CompletableFuture<Permit> future : granted) {
+                future.complete(new Permit(this, true));
+            }
+        }
+
+        /**
+         * Rejects all waiting requests.
+         */
+        private void rejectAll() {
+            List<CompletableFuture<Permit>> rejected;
+            synchronized (this) {
+                rejected = new ArrayList<>(waiting);
+                waiting.clear();
+            }
+            rejected.forEach(future -> future.completeExceptionally(new LimitExceededException()));
+        }
+
+        /**
+         * Gets the number of requests that may run at once.
+         *
+         * @return The whole part of the limit
+         */
+        private int currentLimit() {
+            return (int) limit;
+        }
+
+        /**
+         * Gets the current state of the limit.
+         *
+         * @return The limit, running and waiting requests
+         */
+        private synchronized Map<String, Object> metrics() {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("limit", currentLimit());
+            metrics.put("inFlight", inFlight);
+            metrics.put("queued", waiting.size());
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package de.dasjeff.warpMaster.api;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Matches client addresses against the configured IP whitelist.
+ * <p>
+ * Entries are single addresses or CIDR ranges for IPv4 and IPv6, parsed once into a binary
+ * prefix trie per address family. Matching walks at most one node per address bit, so the
+ * cost of a check depends on the address length only, not on the number of entries.
+ * IPv4-mapped IPv6 addresses are matched as the IPv4 address they contain.
+ */
+class IpWhitelist {
+    private final Node ipv4Root = new Node();
+    private final Node ipv6Root = new Node();
+    private boolean allowAll;
+    private boolean unrestricted;
+
+    /**
+     * Creates an empty IpWhitelist instance; entries are added by {@link #parse(List, Logger)}.
+     */
+    private IpWhitelist() {
+    }
+
+    /**
+     * Parses the configured whitelist.
+     * Invalid entries are logged and ignored; an entry of {@code *} allows every address.
+     * Only an empty list leaves access unrestricted: if every entry is invalid, no address matches.
+     *
+     * @param entries The configured addresses and CIDR ranges
+     * @param logger The logger for invalid entries
+     * @return The whitelist
+     */
+    static IpWhitelist parse(List<String> entries, Logger logger) {
+        IpWhitelist whitelist = new IpWhitelist();
+        whitelist.unrestricted = entries.isEmpty();
+        boolean anyValid = false;
+        for (String rawEntry : entries) {
+            String entry = rawEntry == null ? "" : rawEntry.trim();
+            if (entry.equals("*")) {
+                whitelist.allowAll = true;
+                anyValid = true;
+                continue;
+            }
+            if (whitelist.add(entry)) {
+                anyValid = true;
+            } else {
+                logger.warning("Ignoring invalid API IP whitelist entry: '" + rawEntry + "'");
+            }
+        }
+        if (!whitelist.unrestricted && !anyValid) {
+            logger.severe("No entry of the API IP whitelist is valid, all API requests will be rejected.");
+        }
+        return whitelist;
+    }
+
+    /**
+     * Checks if no whitelist is configured, in which case access is not restricted.
+     *
+     * @return True if the configured list is empty
+     */
+    boolean isUnrestricted() {
+        return unrestricted;
+    }
+
+    /**
+     * Checks if an address is allowed by the whitelist.
+     *
+     * @param ip The client address as a literal, as reported by the HTTP server
+     * @return True if the address is in one of the whitelisted ranges
+     */
+    boolean matches(String ip) {
+        if (allowAll) {
+            return true;
+        }
+        byte[] address = parseAddress(ip);
+        if (address == null) {
+            return false;
+        }
+        Node node = address.length == 4 ? ipv4Root : ipv6Root;
+        for (int bit = 0; !node.terminal; bit++) {
+            if (bit == address.length * 8) {
+                return false;
+            }
+            node = node.children[bitAt(address, bit)];
+            if (node == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds an address or CIDR range to the trie.
+     *
+     * @param entry The entry, e.g. {@code 10.0.0.0/8}, {@code 192.168.1.5} or {@code fd00::/8}
+     * @return True if the entry is valid
+     */
+    private boolean add(String entry) {
+        int slash = entry.indexOf('/');
+        byte[] address = parseAddress(slash < 0 ? entry : entry.substring(0, slash));
+        if (address == null) {
+            return false;
+        }
+        int maxPrefix = address.length * 8;
+        int prefix = maxPrefix;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(entry.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (prefix < 0 || prefix > maxPrefix) {
+                return false;
+            }
+        }
+
+        Node node = address.length == 4 ? ipv4Root : ipv6Root;
+        for (int bit = 0; bit < prefix && !node.terminal; bit++) {
+            int branch = bitAt(address, bit);
+            if (node.children[branch] == null) {
+                node.children[branch] = new Node();
+            }
+            node = node.children[branch];
+        }
+        // A shorter range already covers everything below this node
+        node.terminal = true;
+        node.children[0] = null;
+        node.children[1] = null;
+        return true;
+    }
+
+    /**
+     * Parses an IP address literal without ever resolving a host name.
+     *
+     * @param literal The IPv4 or IPv6 literal, optionally in brackets or with a zone ID
+     * @return The 4 or 16 address bytes, or null if the literal is not an IP address
+     */
+    private static byte[] parseAddress(String literal) {
+        if (literal == null) {
+            return null;
+        }
+        String value = literal.trim();
+        if (value.length() > 2 && value.charAt(0) == '[' && value.charAt(value.length() - 1) == ']') {
+            value = value.substring(1, value.length() - 1);
+        }
+        int zone = value.indexOf('%');
+        if (zone >= 0) {
+            value = value.substring(0, zone);
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+        // Only hex digits, dots and colons, so InetAddress never does a DNS lookup
+        boolean ipv6 = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ':') {
+                ipv6 = true;
+            } else if (c != '.' && !isHexDigit(c)) {
+                return null;
+            }
+        }
+        if (!ipv6 && !isDottedQuad(value)) {
+            return null;
+        }
+        try {
+            // IPv4-mapped IPv6 literals are returned as Inet4Address with 4 bytes
+            return InetAddress.getByName(value).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks if a literal is an IPv4 address in the usual four-part decimal form.
+     *
+     * @param value The literal
+     * @return True if it consists of four decimal parts
+     */
+    private static boolean isDottedQuad(String value) {
+        String[] parts = value.split("\\.", -1);
+        if (parts.length != 4) {
+            return false;
+        }
+        for (String part : parts) {
+            if (part.isEmpty() || part.length() > 3) {
+                return false;
+            }
+            for (int i = 0; i < part.length(); i++) {
+                if (part.charAt(i) < '0' || part.charAt(i) > '9') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a character is an ASCII hex digit.
+     *
+     * @param c The character
+     * @return True if it is 0-9, a-f or A-F
+     */
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * Gets one bit of an address, starting with the most significant bit of the first byte.
+     *
+     * @param address The address bytes
+     * @param bit The index of the bit
+     * @return 0 or 1
+     */
+    private static int bitAt(byte[] address, int bit) {
+        return (address[bit >>> 3] >>> (7 - (bit & 7))) & 1;
+    }
+
+    /**
+     * A node of the prefix trie; terminal nodes end a whitelisted range.
+     */
+    private static final class Node {
+        private final Node[] children = new Node[2];
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,88 @@
+package de.dasjeff.warpMaster.api;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads newline-delimited JSON from a stream one line at a time.
+ * At most one line is held in memory, and a line longer than the limit is skipped
+ * instead of being buffered, so a request body of any size is read in bounded memory.
+ */
+class NdjsonReader implements Closeable {
+    private final BufferedReader reader;
+    private final int maxLineLength;
+    private final StringBuilder buffer = new StringBuilder();
+    private String line;
+    private int lineNumber;
+
+    /**
+     * Creates a new NdjsonReader instance.
+     *
+     * @param inputStream The UTF-8 encoded stream to read
+     * @param maxLineLength The maximum number of characters in a line
+     */
+    NdjsonReader(InputStream inputStream, int maxLineLength) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Advances to the next line.
+     *
+     * @return True if there is a next line, false at the end of the stream
+     * @throws IOException If the stream cannot be read
+     */
+    boolean next() throws IOException {
+        buffer.setLength(0);
+        boolean tooLong = false;
+        int read = reader.read();
+        if (read == -1) {
+            line = null;
+            return false;
+        }
+        while (read != -1 && read != '\n') {
+            if (buffer.length() < maxLineLength) {
+                buffer.append((char) read);
+            } else {
+                tooLong = true;
+            }
+            read = reader.read();
+        }
+        lineNumber++;
+        if (tooLong) {
+            line = null;
+        } else {
+            // Tolerate CRLF line endings
+            int length = buffer.length();
+            line = length > 0 && buffer.charAt(length - 1) == '\r' ? buffer.substring(0, length - 1) : buffer.toString();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current line without its line ending.
+     *
+     * @return The line, or null if it was longer than the limit
+     */
+    String line() {
+        return line;
+    }
+
+    /**
+     * Gets the number of the current line.
+     *
+     * @return The line number, starting at 1
+     */
+    int lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
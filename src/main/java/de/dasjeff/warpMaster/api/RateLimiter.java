@@ -0,0 +1,229 @@
+package de.dasjeff.warpMaster.api;
+
+import de.dasjeff.warpMaster.util.ConfigUtil;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Token-bucket rate limiter for API clients with a separate quota per route class.
+ * <p>
+ * Every client has one bucket per route class that holds up to one minute's quota and
+ * refills continuously, so a client can never send more than the quota plus what refilled
+ * in between, unlike a fixed window that allows twice the quota across a window edge.
+ * The state of a bucket (refill time and tokens) is packed into one {@code long} and
+ * updated with compare-and-set, so concurrent requests of a client never block each other.
+ * <p>
+ * The number of tracked buckets is bounded per route class. Buckets that have been idle long
+ * enough to be full again are dropped by a dedicated scheduler thread; forgetting them changes
+ * nothing. While the buckets of a route class are full, clients without a bucket share one
+ * overflow bucket of that class.
+ */
+class RateLimiter {
+    // Tokens are stored in thousandths, the remaining bits hold the refill time
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TOKEN_UNIT = 1000;
+    private static final int MAX_QUOTA = (int) (TOKEN_MASK / TOKEN_UNIT);
+    private static final long REFILL_PERIOD_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long EVICTION_INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ToIntFunction<RouteClass> quotas;
+    private final IntSupplier maxClients;
+    private final long startNanos = System.nanoTime();
+    private final Map<RouteClass, ConcurrentHashMap<String, Bucket>> buckets = new EnumMap<>(RouteClass.class);
+    private final Bucket[] overflowBuckets = new Bucket[RouteClass.values().length];
+    private final ScheduledExecutorService evictionExecutor;
+
+    /**
+     * Creates a new RateLimiter instance.
+     * Quotas are read from the configuration on every request, so a reload takes effect immediately.
+     *
+     * @param configUtil The configuration utility
+     */
+    RateLimiter(ConfigUtil configUtil) {
+        this(routeClass -> switch (routeClass) {
+            case READ -> configUtil.getApiRequestsPerMinute();
+            case WRITE -> configUtil.getApiWriteRequestsPerMinute();
+            case BULK -> configUtil.getApiBulkRequestsPerMinute();
+        }, configUtil::getApiRateLimitMaxClients);
+    }
+
+    /**
+     * Creates a new RateLimiter instance with quotas from other sources than the configuration,
+     * as used by the benchmark.
+     *
+     * @param quotas Gets the requests per minute of a route class, asked on every request
+     * @param maxClients Gets the maximum number of buckets per route class, asked for every new client
+     */
+    RateLimiter(ToIntFunction<RouteClass> quotas, IntSupplier maxClients) {
+        this.quotas = quotas;
+        this.maxClients = maxClients;
+        for (RouteClass routeClass : RouteClass.values()) {
+            buckets.put(routeClass, new ConcurrentHashMap<>());
+            overflowBuckets[routeClass.ordinal()] = new Bucket(0, 0);
+        }
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-RateLimiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts dropping idle buckets.
+     */
+    void start() {
+        evictionExecutor.scheduleWithFixedDelay(this::evictIdle, EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops dropping idle buckets.
+     */
+    void stop() {
+        evictionExecutor.shutdownNow();
+    }
+
+    /**
+     * Takes a token from the client's bucket for a route class.
+     *
+     * @param client The client, e.g. its IP address
+     * @param routeClass The route class of the request
+     * @return 0 if the request is allowed, otherwise the milliseconds until the next token is available
+     */
+    long tryAcquire(String client, RouteClass routeClass) {
+        long now = nowMs();
+        ConcurrentHashMap<String, Bucket> classBuckets = buckets.get(routeClass);
+        Bucket bucket = classBuckets.get(client);
+        if (bucket == null) {
+            bucket = classBuckets.size() < maxClients.getAsInt()
+                    ? classBuckets.computeIfAbsent(client, k -> new Bucket(now, TOKEN_MASK))
+                    : overflowBuckets[routeClass.ordinal()];
+        }
+        return bucket.tryAcquire(now, quota(routeClass));
+    }
+
+    /**
+     * Gets the configured quota of a route class.
+     *
+     * @param routeClass The route class
+     * @return The requests per minute, between 1 and the largest quota a bucket can hold
+     */
+    private int quota(RouteClass routeClass) {
+        return Math.max(1, Math.min(quotas.applyAsInt(routeClass), MAX_QUOTA));
+    }
+
+    /**
+     * Drops buckets that have been idle long enough to be full again.
+     * A request racing the removal still uses the dropped bucket, which was full anyway.
+     */
+    private void evictIdle() {
+        long idleSince = nowMs() - REFILL_PERIOD_MS;
+        for (ConcurrentHashMap<String, Bucket> classBuckets : buckets.values()) {
+            classBuckets.values().removeIf(bucket -> bucket.lastRefill() <= idleSince);
+        }
+    }
+
+    /**
+     * Gets the time since the limiter was created, from a monotonic clock.
+     *
+     * @return The time in milliseconds
+     */
+    private long nowMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * The route classes with separate quotas.
+     */
+    enum RouteClass {
+        /** Reading requests. */
+        READ,
+        /** Single writes. */
+        WRITE,
+        /** Bulk operations, exports and imports. */
+        BULK
+    }
+
+    /**
+     * A token bucket whose refill time and tokens are packed into one atomically updated value.
+     */
+    private static final class Bucket {
+        private final AtomicLong state;
+
+        /**
+         * Creates a new Bucket instance.
+         *
+         * @param now The current time in milliseconds
+         * @param tokens The initial tokens in thousandths; capped to the quota on first use
+         */
+        private Bucket(long now, long tokens) {
+            this.state = new AtomicLong(pack(now, tokens));
+        }
+
+        /**
+         * Refills the bucket for the time passed and takes one token.
+         * Refilled tokens are only credited in whole thousandths, and the refill time only
+         * advances by the time they account for, so no fraction of a token is lost.
+         *
+         * @param now The current time in milliseconds
+         * @param quota The requests per minute
+         * @return 0 if a token was taken, otherwise the milliseconds until one is available
+         */
+        private long tryAcquire(long now, int quota) {
+            long capacity = quota * TOKEN_UNIT;
+            while (true) {
+                long current = state.get();
+                long lastRefill = current >>> TOKEN_BITS;
+                long tokens = Math.min(current & TOKEN_MASK, capacity);
+                long elapsed = Math.max(0, now - lastRefill);
+
+                // quota tokens per minute are quota thousandths per 60 ms
+                long refill = elapsed * quota / 60;
+                long refillTime;
+                if (tokens + refill >= capacity) {
+                    tokens = capacity;
+                    refillTime = now;
+                } else {
+                    tokens += refill;
+                    refillTime = lastRefill + refill * 60 / quota;
+                }
+
+                if (tokens < TOKEN_UNIT) {
+                    long waitMs = Math.ceilDiv((TOKEN_UNIT - tokens) * 60, quota) - (now - refillTime);
+                    return Math.max(1, waitMs);
+                }
+                if (state.compareAndSet(current, pack(refillTime, tokens - TOKEN_UNIT))) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Gets the time up to which the bucket was refilled.
+         *
+         * @return The time in milliseconds
+         */
+        private long lastRefill() {
+            return state.get() >>> TOKEN_BITS;
+        }
+
+        /**
+         * Packs a refill time and tokens into one value.
+         *
+         * @param time The refill time in milliseconds
+         * @param tokens The tokens in thousandths
+         * @return The packed state
+         */
+        private static long pack(long time, long tokens) {
+            return (time << TOKEN_BITS) | tokens;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.dasjeff.warpMaster.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache of serialized API responses per endpoint and player.
+ * Each entry is tagged with the version of the player's data it was built from
+ * (see {@code WarpService.getOwnerVersion}) and only served for that version, so
+ * a change to the data makes the entry unreachable without explicit invalidation.
+ * The least recently used entries are evicted once the cache is full.
+ */
+class ResponseCache {
+    private final int maxEntries;
+    private final Map<String, CachedResponse> entries;
+
+    /**
+     * Creates a new ResponseCache instance.
+     *
+     * @param maxEntries The maximum number of cached responses; 0 disables the cache
+     */
+    ResponseCache(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > ResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached response body.
+     *
+     * @param endpoint The endpoint name
+     * @param ownerUuid The UUID of the player the response is about
+     * @param version The current version of the player's data
+     * @return The serialized body, or null if none is cached for this version
+     */
+    synchronized byte[] get(String endpoint, UUID ownerUuid, String version) {
+        CachedResponse cached = entries.get(key(endpoint, ownerUuid));
+        return cached != null && cached.version.equals(version) ? cached.body : null;
+    }
+
+    /**
+     * Caches a response body, replacing the body cached for any other version.
+     *
+     * @param endpoint The endpoint name
+     * @param ownerUuid The UUID of the player the response is about
+     * @param version The version of the player's data the body was built from
+     * @param body The serialized body
+     */
+    synchronized void put(String endpoint, UUID ownerUuid, String version, byte[] body) {
+        if (maxEntries > 0) {
+            entries.put(key(endpoint, ownerUuid), new CachedResponse(version, body));
+        }
+    }
+
+    /**
+     * Builds the cache key of a response.
+     *
+     * @param endpoint The endpoint name
+     * @param ownerUuid The UUID of the player
+     * @return The cache key
+     */
+    private static String key(String endpoint, UUID ownerUuid) {
+        return endpoint + ':' + ownerUuid;
+    }
+
+    /**
+     * A serialized response and the data version it belongs to.
+     */
+    private static final class CachedResponse {
+        private final String version;
+        private final byte[] body;
+
+        private CachedResponse(String version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
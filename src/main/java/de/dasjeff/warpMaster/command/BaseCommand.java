@@ -1,5 +1,6 @@
 package de.dasjeff.warpMaster.command;
 
+import de.dasjeff.warpMaster.service.PlayerDirectory;
 import de.dasjeff.warpMaster.util.MessageUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -9,11 +10,15 @@ import org.bukkit.entity.Player;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Base class for commands.
  */
 public abstract class BaseCommand implements CommandExecutor, TabCompleter {
+    // Player names offered per tab completion
+    private static final int PLAYER_COMPLETION_LIMIT = 50;
+
     protected final MessageUtil messageUtil;
 
     /**
@@ -53,6 +58,34 @@ public abstract class BaseCommand implements CommandExecutor, TabCompleter {
         return tabComplete(sender, args);
     }
 
+    /**
+     * Looks up a player by name, including offline players known to the player directory.
+     * Sends the player-not-found message if no known player has the name.
+     *
+     * @param sender The command sender
+     * @param playerDirectory The player directory
+     * @param playerName The name of the player
+     * @return The UUID of the player, or null if the player is not known
+     */
+    protected UUID resolvePlayer(CommandSender sender, PlayerDirectory playerDirectory, String playerName) {
+        UUID uuid = playerDirectory.findUuid(playerName);
+        if (uuid == null) {
+            messageUtil.sendConfigMessage(sender, "player-not-found", "player", playerName);
+        }
+        return uuid;
+    }
+
+    /**
+     * Completes a player name from the player directory, covering online and known offline players.
+     *
+     * @param playerDirectory The player directory
+     * @param prefix The typed part of the name
+     * @return The matching player names
+     */
+    protected List<String> completePlayerNames(PlayerDirectory playerDirectory, String prefix) {
+        return playerDirectory.completeNames(prefix, PLAYER_COMPLETION_LIMIT);
+    }
+
     /**
      * Executes the command.
      *
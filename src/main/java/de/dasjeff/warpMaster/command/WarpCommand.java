@@ -2,7 +2,6 @@ package de.dasjeff.warpMaster.command;
 
 import de.dasjeff.warpMaster.service.WarpService;
 import de.dasjeff.warpMaster.util.MessageUtil;
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
@@ -49,14 +48,13 @@ public class WarpCommand extends BaseCommand {
         if (args.length >= 2 && sender.hasPermission("warpmaster.admin")) {
             // Admin is trying to teleport to another player's warp
             String targetPlayerName = args[1];
-            Player targetPlayer = Bukkit.getPlayer(targetPlayerName);
+            UUID targetPlayerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), targetPlayerName);
             
-            if (targetPlayer == null) {
-                messageUtil.sendConfigMessage(sender, "player-not-found", "player", targetPlayerName);
+            if (targetPlayerUuid == null) {
                 return true;
             }
             
-            ownerUuid = targetPlayer.getUniqueId();
+            ownerUuid = targetPlayerUuid;
         } else {
             // Player is teleporting to their own warp
             ownerUuid = player.getUniqueId();
@@ -100,10 +98,7 @@ public class WarpCommand extends BaseCommand {
                     .collect(Collectors.toList());
         } else if (args.length == 2 && sender.hasPermission("warpmaster.admin")) {
             String prefix = args[1].toLowerCase();
-            return Bukkit.getOnlinePlayers().stream()
-                    .map(Player::getName)
-                    .filter(name -> name.toLowerCase().startsWith(prefix))
-                    .collect(Collectors.toList());
+            return completePlayerNames(warpService.getPlayerDirectory(), prefix);
         }
         
         return Collections.emptyList();
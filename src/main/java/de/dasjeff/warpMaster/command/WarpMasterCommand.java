@@ -1,12 +1,14 @@
 package de.dasjeff.warpMaster.command;
 
 import de.dasjeff.warpMaster.service.WarpService;
+import de.dasjeff.warpMaster.service.WorldSweeper;
 import de.dasjeff.warpMaster.util.ConfigUtil;
 import de.dasjeff.warpMaster.util.MessageUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 public class WarpMasterCommand extends BaseCommand {
     private final WarpService warpService;
     private final ConfigUtil configUtil;
+    private final WorldSweeper worldSweeper;
 
     /**
      * Creates a new WarpMasterCommand instance.
@@ -28,11 +31,13 @@ public class WarpMasterCommand extends BaseCommand {
      * @param messageUtil The message utility
      * @param warpService The warp service
      * @param configUtil The configuration utility
+     * @param worldSweeper The background world sweeper
      */
-    public WarpMasterCommand(MessageUtil messageUtil, WarpService warpService, ConfigUtil configUtil) {
+    public WarpMasterCommand(MessageUtil messageUtil, WarpService warpService, ConfigUtil configUtil, WorldSweeper worldSweeper) {
         super(messageUtil);
         this.warpService = warpService;
         this.configUtil = configUtil;
+        this.worldSweeper = worldSweeper;
     }
 
     @Override
@@ -60,6 +65,21 @@ public class WarpMasterCommand extends BaseCommand {
             case "transfer":
                 handleTransfer(sender, args);
                 break;
+            case "transferall":
+                handleTransferAll(sender, args);
+                break;
+            case "purgeplayer":
+                handlePurgePlayer(sender, args);
+                break;
+            case "purgeworld":
+                handlePurgeWorld(sender, args);
+                break;
+            case "bulklimit":
+                handleBulkLimit(sender, args);
+                break;
+            case "sweep":
+                handleSweep(sender);
+                break;
             default:
                 messageUtil.send(sender, "&cVerwendung: /warpmaster help");
                 break;
@@ -72,29 +92,41 @@ public class WarpMasterCommand extends BaseCommand {
     protected List<String> tabComplete(CommandSender sender, String[] args) {
         if (args.length == 1) {
             String prefix = args[0].toLowerCase();
-            return Arrays.asList("help", "reload", "delete", "limit", "transfer").stream()
+            return Arrays.asList("help", "reload", "delete", "limit", "transfer", "transferall", "purgeplayer", "purgeworld", "bulklimit", "sweep").stream()
                     .filter(cmd -> cmd.startsWith(prefix))
                     .collect(Collectors.toList());
         } else if (args.length == 2) {
             String subCommand = args[0].toLowerCase();
             String prefix = args[1].toLowerCase();
             
-            if (subCommand.equals("delete") || subCommand.equals("limit") || subCommand.equals("transfer")) {
-                return Bukkit.getOnlinePlayers().stream()
-                        .map(Player::getName)
+            if (subCommand.equals("delete") || subCommand.equals("limit") || subCommand.equals("transfer") || subCommand.equals("transferall")
+                    || subCommand.equals("purgeplayer")) {
+                return completePlayerNames(warpService.getPlayerDirectory(), prefix);
+            }
+            
+            if (subCommand.equals("purgeworld")) {
+                return Bukkit.getWorlds().stream()
+                        .map(World::getName)
                         .filter(name -> name.toLowerCase().startsWith(prefix))
                         .collect(Collectors.toList());
             }
+        } else if (args.length >= 3 && args[0].equalsIgnoreCase("bulklimit")) {
+            String prefix = args[args.length - 1].toLowerCase();
+            return completePlayerNames(warpService.getPlayerDirectory(), prefix);
         } else if (args.length == 3) {
             String subCommand = args[0].toLowerCase();
             
+            if (subCommand.equals("transferall")) {
+                String prefix = args[2].toLowerCase();
+                return completePlayerNames(warpService.getPlayerDirectory(), prefix);
+            }
+            
             if (subCommand.equals("delete") || subCommand.equals("transfer")) {
-                String playerName = args[1];
-                Player player = Bukkit.getPlayer(playerName);
+                UUID playerUuid = warpService.getPlayerDirectory().findUuid(args[1]);
                 
-                if (player != null) {
+                if (playerUuid != null) {
                     String prefix = args[2].toLowerCase();
-                    List<String> cachedNames = warpService.getCachedWarpNames(player.getUniqueId());
+                    List<String> cachedNames = warpService.getCachedWarpNames(playerUuid);
                     
                     return cachedNames.stream()
                             .filter(name -> name.toLowerCase().startsWith(prefix))
@@ -106,10 +138,7 @@ public class WarpMasterCommand extends BaseCommand {
             
             if (subCommand.equals("transfer")) {
                 String prefix = args[3].toLowerCase();
-                return Bukkit.getOnlinePlayers().stream()
-                        .map(Player::getName)
-                        .filter(name -> name.toLowerCase().startsWith(prefix))
-                        .collect(Collectors.toList());
+                return completePlayerNames(warpService.getPlayerDirectory(), prefix);
             }
         }
         
@@ -143,6 +172,11 @@ public class WarpMasterCommand extends BaseCommand {
         messageUtil.send(sender, "&b/warpmaster delete <player> <warp> &7- Lösche einen Warp");
         messageUtil.send(sender, "&b/warpmaster limit <player> <limit> &7- Setze das Warp-Limit für einen Spieler");
         messageUtil.send(sender, "&b/warpmaster transfer <source> <warp> <target> &7- Übertrage einen Warp von einem Spieler zu einem anderen");
+        messageUtil.send(sender, "&b/warpmaster transferall <source> <target> &7- Übertrage alle Warps eines Spielers zu einem anderen");
+        messageUtil.send(sender, "&b/warpmaster purgeplayer <player> &7- Lösche alle Warps eines Spielers");
+        messageUtil.send(sender, "&b/warpmaster purgeworld <world> &7- Lösche alle Warps in einer Welt");
+        messageUtil.send(sender, "&b/warpmaster bulklimit <limit> <player...> &7- Setze das Warp-Limit für mehrere Spieler");
+        messageUtil.send(sender, "&b/warpmaster sweep &7- Suche Warps in gelöschten Welten");
     }
     
     /**
@@ -176,14 +210,11 @@ public class WarpMasterCommand extends BaseCommand {
              return;
         }
         
-        Player player = Bukkit.getPlayer(playerName);
-        if (player == null) {
-            messageUtil.sendConfigMessage(sender, "player-not-found", "player", playerName);
+        UUID playerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), playerName);
+        if (playerUuid == null) {
             return;
         }
         
-        UUID playerUuid = player.getUniqueId();
-        
         warpService.deleteWarp(playerUuid, warpName).thenAccept(deleted -> {
             if (deleted) {
                 Map<String, String> placeholders = new HashMap<>();
@@ -209,9 +240,8 @@ public class WarpMasterCommand extends BaseCommand {
         
         String playerName = args[1];
         
-        Player player = Bukkit.getPlayer(playerName);
-        if (player == null) {
-            messageUtil.sendConfigMessage(sender, "player-not-found", "player", playerName);
+        UUID playerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), playerName);
+        if (playerUuid == null) {
             return;
         }
         
@@ -227,8 +257,6 @@ public class WarpMasterCommand extends BaseCommand {
             return;
         }
         
-        UUID playerUuid = player.getUniqueId();
-        
         warpService.setWarpLimit(playerUuid, limit).thenAccept(success -> {
             if (success) {
                 messageUtil.send(sender, "&aSet warp limit for &e" + playerName + " &ato &e" + limit + "&a.");
@@ -259,21 +287,16 @@ public class WarpMasterCommand extends BaseCommand {
              return;
         }
         
-        Player sourcePlayer = Bukkit.getPlayer(sourceName);
-        if (sourcePlayer == null) {
-            messageUtil.sendConfigMessage(sender, "player-not-found", "player", sourceName);
+        UUID sourceUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), sourceName);
+        if (sourceUuid == null) {
             return;
         }
         
-        Player targetPlayer = Bukkit.getPlayer(targetName);
-        if (targetPlayer == null) {
-            messageUtil.sendConfigMessage(sender, "player-not-found", "player", targetName);
+        UUID targetUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), targetName);
+        if (targetUuid == null) {
             return;
         }
         
-        UUID sourceUuid = sourcePlayer.getUniqueId();
-        UUID targetUuid = targetPlayer.getUniqueId();
-        
         warpService.transferWarp(sourceUuid, targetUuid, warpName).thenAccept(result -> {
             if (result.isSuccess()) {
                 messageUtil.send(sender, "&aWarp übertragen von &e" + sourceName + " &azu &e" + targetName + "&a.");
@@ -290,6 +313,180 @@ public class WarpMasterCommand extends BaseCommand {
         });
     }
 
+    /**
+     * Handles the transferall subcommand.
+     *
+     * @param sender The command sender
+     * @param args The command arguments
+     */
+    private void handleTransferAll(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            messageUtil.send(sender, "&cVerwendung: /warpmaster transferall <source> <target>");
+            return;
+        }
+        
+        String sourceName = args[1];
+        String targetName = args[2];
+        
+        UUID sourceUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), sourceName);
+        if (sourceUuid == null) {
+            return;
+        }
+        
+        UUID targetUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), targetName);
+        if (targetUuid == null) {
+            return;
+        }
+        
+        if (sourceUuid.equals(targetUuid)) {
+            messageUtil.send(sender, "&cQuelle und Ziel müssen unterschiedliche Spieler sein.");
+            return;
+        }
+        
+        warpService.transferAllWarps(sourceUuid, targetUuid).whenComplete((result, ex) -> {
+            if (ex != null) {
+                messageUtil.send(sender, "&cWarps konnten nicht übertragen werden.");
+                return;
+            }
+            messageUtil.send(sender, "&e" + result.getMoved() + " &aWarps übertragen von &e" + sourceName + " &azu &e" + targetName + "&a.");
+            if (result.getSkipped() > 0) {
+                messageUtil.send(sender, "&e" + result.getSkipped() + " &cWarps übersprungen, da &e" + targetName + " &cbereits Warps mit diesem Namen hat.");
+            }
+        });
+    }
+
+    /**
+     * Handles the purgeplayer subcommand.
+     *
+     * @param sender The command sender
+     * @param args The command arguments
+     */
+    private void handlePurgePlayer(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            messageUtil.send(sender, "&cVerwendung: /warpmaster purgeplayer <player>");
+            return;
+        }
+        
+        String playerName = args[1];
+        UUID playerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), playerName);
+        if (playerUuid == null) {
+            return;
+        }
+        
+        messageUtil.send(sender, "&7Lösche alle Warps von &e" + playerName + "&7...");
+        warpService.purgePlayerWarps(playerUuid, progress -> sendProgress(sender, progress))
+                .whenComplete((progress, ex) -> sendBulkResult(sender, progress, ex,
+                        "&aAlle Warps von &e" + playerName + " &agelöscht"));
+    }
+    
+    /**
+     * Handles the purgeworld subcommand.
+     *
+     * @param sender The command sender
+     * @param args The command arguments
+     */
+    private void handlePurgeWorld(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            messageUtil.send(sender, "&cVerwendung: /warpmaster purgeworld <world>");
+            return;
+        }
+        
+        String worldName = args[1];
+        messageUtil.send(sender, "&7Lösche alle Warps in Welt &e" + worldName + "&7...");
+        warpService.purgeWorldWarps(worldName, progress -> sendProgress(sender, progress))
+                .whenComplete((progress, ex) -> sendBulkResult(sender, progress, ex,
+                        "&aAlle Warps in Welt &e" + worldName + " &agelöscht"));
+    }
+    
+    /**
+     * Handles the bulklimit subcommand.
+     *
+     * @param sender The command sender
+     * @param args The command arguments
+     */
+    private void handleBulkLimit(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            messageUtil.send(sender, "&cVerwendung: /warpmaster bulklimit <limit> <player...>");
+            return;
+        }
+        
+        int limit;
+        try {
+            limit = Integer.parseInt(args[1]);
+            if (limit < 0) {
+                messageUtil.send(sender, "&cLimit muss eine positive Zahl sein.");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            messageUtil.send(sender, "&cLimit muss eine Zahl sein.");
+            return;
+        }
+        
+        List<UUID> playerUuids = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            UUID playerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), args[i]);
+            if (playerUuid != null) {
+                playerUuids.add(playerUuid);
+            }
+        }
+        
+        if (playerUuids.isEmpty()) {
+            return;
+        }
+        
+        warpService.setWarpLimits(playerUuids, limit, progress -> sendProgress(sender, progress))
+                .whenComplete((progress, ex) -> sendBulkResult(sender, progress, ex,
+                        "&aWarp-Limit auf &e" + limit + " &agesetzt"));
+    }
+    
+    /**
+     * Handles the sweep subcommand.
+     *
+     * @param sender The command sender
+     */
+    private void handleSweep(CommandSender sender) {
+        messageUtil.send(sender, "&7Durchsuche Warps nach gelöschten Welten...");
+        worldSweeper.sweep().whenComplete((result, ex) -> {
+            if (ex != null) {
+                messageUtil.send(sender, "&cDurchlauf fehlgeschlagen. Details im Server-Log.");
+                return;
+            }
+            messageUtil.send(sender, "&a" + result.getScanned() + " Warps geprüft: &e" + result.getFlagged() + " &amarkiert, &e"
+                    + result.getArchived() + " &aarchiviert, &e" + result.getRestored() + " &awiederhergestellt.");
+            for (WorldSweeper.WorldStats stats : result.getWorlds().values()) {
+                if (!stats.exists()) {
+                    messageUtil.send(sender, "&7- &e" + stats.getName() + "&7: " + stats.getWarps() + " Warps, Welt existiert nicht mehr.");
+                }
+            }
+        });
+    }
+
+    /**
+     * Reports the progress of a bulk operation.
+     *
+     * @param sender The command sender
+     * @param progress The current progress
+     */
+    private void sendProgress(CommandSender sender, WarpService.BulkProgress progress) {
+        messageUtil.send(sender, "&7Batch &e" + progress.getBatches() + " &7abgeschlossen, &e" + progress.getProcessed() + " &7Einträge bisher.");
+    }
+    
+    /**
+     * Reports the outcome of a bulk operation.
+     *
+     * @param sender The command sender
+     * @param progress The final progress, or null on failure
+     * @param ex The failure, or null on success
+     * @param successMessage The message prefix on success
+     */
+    private void sendBulkResult(CommandSender sender, WarpService.BulkProgress progress, Throwable ex, String successMessage) {
+        if (ex != null) {
+            messageUtil.send(sender, "&cMassen-Operation abgebrochen. Bereits abgeschlossene Batches bleiben bestehen.");
+            return;
+        }
+        messageUtil.send(sender, successMessage + " &7(&e" + progress.getProcessed() + " &7Einträge, &e" + progress.getBatches() + " &7Batches).");
+    }
+
     /**
      * Validates a warp name (consistent with SetWarpCommand).
      *
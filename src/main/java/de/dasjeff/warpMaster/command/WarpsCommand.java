@@ -1,5 +1,7 @@
 package de.dasjeff.warpMaster.command;
 
+import de.dasjeff.warpMaster.database.DatabaseExecutor;
+import de.dasjeff.warpMaster.database.DatabaseManager;
 import de.dasjeff.warpMaster.model.Warp;
 import de.dasjeff.warpMaster.service.WarpService;
 import de.dasjeff.warpMaster.util.MessageUtil;
@@ -20,7 +22,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Command for listing warps.
@@ -49,14 +50,13 @@ public class WarpsCommand extends BaseCommand {
         if (args.length >= 1 && sender.hasPermission("warpmaster.admin")) {
             // Admin is trying to view another player's warps
             String targetPlayerName = args[0];
-            Player targetPlayer = Bukkit.getPlayer(targetPlayerName);
+            UUID targetPlayerUuid = resolvePlayer(sender, warpService.getPlayerDirectory(), targetPlayerName);
             
-            if (targetPlayer == null) {
-                messageUtil.sendConfigMessage(sender, "player-not-found", "player", targetPlayerName);
+            if (targetPlayerUuid == null) {
                 return true;
             }
             
-            targetUuid = targetPlayer.getUniqueId();
+            targetUuid = targetPlayerUuid;
         } else {
             // Player is viewing their own warps
             targetUuid = player.getUniqueId();
@@ -85,6 +85,13 @@ public class WarpsCommand extends BaseCommand {
             Bukkit.getScheduler().runTask(Bukkit.getPluginManager().getPlugin("WarpMaster"), () -> {
                 player.openInventory(inventory);
             });
+        }).exceptionally(ex -> {
+            if (DatabaseExecutor.isBusy(ex)) {
+                messageUtil.sendConfigMessage(player, "server-busy");
+            } else if (DatabaseManager.isUnavailable(ex)) {
+                messageUtil.sendConfigMessage(player, "database-unavailable");
+            }
+            return null;
         });
         
         return true;
@@ -94,10 +101,7 @@ public class WarpsCommand extends BaseCommand {
     protected List<String> tabComplete(CommandSender sender, String[] args) {
         if (args.length == 1 && sender.hasPermission("warpmaster.admin")) {
             String prefix = args[0].toLowerCase();
-            return Bukkit.getOnlinePlayers().stream()
-                    .map(Player::getName)
-                    .filter(name -> name.toLowerCase().startsWith(prefix))
-                    .collect(Collectors.toList());
+            return completePlayerNames(warpService.getPlayerDirectory(), prefix);
         }
         
         return new ArrayList<>();
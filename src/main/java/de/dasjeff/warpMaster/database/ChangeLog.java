@@ -0,0 +1,450 @@
+package de.dasjeff.warpMaster.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the caches of several servers sharing one database coherent.
+ * <p>
+ * Every write appends one row per affected owner to {@code warp_changes}, inside the
+ * transaction of the write (or right after it in auto-commit mode). Each server polls the
+ * table for rows after the last sequence number it has seen and hands changes made by
+ * other servers to its {@link Listener}; its own changes are skipped, they are already
+ * reflected in the local caches. While nothing changes, the poll interval backs off up to
+ * the configured maximum. Rows older than the retention are compacted in small ranges by
+ * the server holding the {@link LeaderLease}.
+ * <p>
+ * Sequence numbers are assigned at insert time, so a transaction that commits late can
+ * leave a temporary gap below rows that are already visible. The cursor does not move past
+ * such a gap until the row appears or {@link #GAP_TIMEOUT_MS} has passed (which covers
+ * rolled-back inserts); rows above the gap are applied once in the meantime. While the
+ * cursor waits, rows beyond the first batch are read after the highest sequence number
+ * already seen, and polls run at the shortest interval instead of back to back.
+ */
+public class ChangeLog {
+    /** How long the cursor waits for a missing sequence number before it is skipped. */
+    private static final long GAP_TIMEOUT_MS = 30_000;
+    private static final long COMPACTION_INTERVAL_MS = 60_000;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final UUID origin = UUID.randomUUID();
+    private final byte[] originBytes = UuidCodec.toBytes(origin);
+    private final long minPollIntervalMs;
+    private final long maxPollIntervalMs;
+    private final int batchSize;
+    private final long retentionMs;
+    private final LeaderLease leaderLease;
+    private final ScheduledExecutorService pollExecutor;
+
+    private Listener listener;
+    private long cursor;
+    private final Set<Long> appliedAboveCursor = new HashSet<>();
+    private long gapStart = -1;
+    private long gapSeenAt;
+    private long readAhead;
+    private long pollIntervalMs;
+    private long lastSuccessfulPoll;
+    private long lastCompaction;
+
+    /**
+     * The kind of data a change affects.
+     */
+    public enum Kind {
+        /** The warps of the owner changed. */
+        WARPS(1),
+        /** The player data (warp limit) of the owner changed. */
+        PLAYER(2);
+
+        private final int code;
+
+        Kind(int code) {
+            this.code = code;
+        }
+
+        /**
+         * Gets the kind stored under the given code.
+         *
+         * @param code The stored code
+         * @return The kind, or null for unknown codes written by newer versions
+         */
+        private static Kind fromCode(int code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives the changes made by other servers. Called on the poll thread.
+     */
+    public interface Listener {
+        /**
+         * Called for every change made by another server.
+         *
+         * @param ownerUuid The UUID of the affected player
+         * @param kind The kind of data that changed
+         */
+        void onChange(UUID ownerUuid, Kind kind);
+
+        /**
+         * Called when changes may have been missed, for example after a long database outage.
+         * All cached data should be dropped.
+         */
+        void onResync();
+    }
+
+    /**
+     * Creates a new ChangeLog instance.
+     *
+     * @param databaseManager The database manager
+     * @param logger The logger
+     * @param minPollIntervalMs The poll interval while changes arrive, in milliseconds
+     * @param maxPollIntervalMs The poll interval the idle backoff grows to, in milliseconds
+     * @param batchSize The maximum number of changes read per poll
+     * @param retentionMs How long changes are kept before they are compacted, in milliseconds
+     * @param leaderLease The lease deciding which server compacts
+     */
+    public ChangeLog(DatabaseManager databaseManager, Logger logger, long minPollIntervalMs, long maxPollIntervalMs, int batchSize, long retentionMs, LeaderLease leaderLease) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.minPollIntervalMs = Math.max(10, minPollIntervalMs);
+        this.maxPollIntervalMs = Math.max(this.minPollIntervalMs, maxPollIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+        // Changes must outlive the gap timeout, otherwise a late commit could be compacted unseen
+        this.retentionMs = Math.max(retentionMs, 2 * GAP_TIMEOUT_MS);
+        this.leaderLease = leaderLease;
+        this.pollIntervalMs = this.minPollIntervalMs;
+        this.pollExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-ChangeLog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts polling. Only changes written after the start are delivered, the caches are empty at this point.
+     *
+     * @param listener Receives the changes of other servers
+     */
+    public void start(Listener listener) {
+        this.listener = listener;
+        pollExecutor.execute(() -> {
+            try {
+                resetCursor();
+            } catch (SQLException | RuntimeException e) {
+                logger.log(Level.WARNING, "Could not read the change log position, retrying", e);
+            }
+            schedulePoll(0);
+        });
+        logger.info("Cross-server cache coherence enabled (server id " + origin + ")");
+    }
+
+    /**
+     * Stops polling and compaction.
+     */
+    public void stop() {
+        pollExecutor.shutdownNow();
+    }
+
+    /**
+     * Records that the data of one owner changed.
+     *
+     * @param connection The connection of the write
+     * @param ownerUuid The UUID of the affected player
+     * @param kind The kind of data that changed
+     * @throws SQLException If a database error occurs
+     */
+    void appendTransactional(Connection connection, UUID ownerUuid, Kind kind) throws SQLException {
+        appendTransactional(connection, List.of(ownerUuid), kind);
+    }
+
+    /**
+     * Records that the data of several owners changed, as one JDBC batch.
+     *
+     * @param connection The connection of the write
+     * @param ownerUuids The UUIDs of the affected players; duplicates are written once
+     * @param kind The kind of data that changed
+     * @throws SQLException If a database error occurs
+     */
+    void appendTransactional(Connection connection, Collection<UUID> ownerUuids, Kind kind) throws SQLException {
+        if (ownerUuids.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.CHANGE_INSERT)) {
+            for (UUID ownerUuid : new LinkedHashSet<>(ownerUuids)) {
+                statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+                statement.setInt(2, kind.code);
+                statement.setBytes(3, originBytes);
+                statement.setLong(4, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Schedules the next poll.
+     *
+     * @param delayMs The delay in milliseconds
+     */
+    private void schedulePoll(long delayMs) {
+        if (!pollExecutor.isShutdown()) {
+            pollExecutor.schedule(this::pollAndReschedule, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs one poll (and compaction when due), then schedules the next one.
+     * The interval is reset after changes arrived and doubled while idle or failing.
+     */
+    private void pollAndReschedule() {
+        long delay;
+        try {
+            if (databaseManager.isDegraded()) {
+                throw new DatabaseUnavailableException();
+            }
+            long now = System.currentTimeMillis();
+            if (lastSuccessfulPoll > 0 && now - lastSuccessfulPoll > retentionMs / 2) {
+                // Changes may have been compacted while we could not read them
+                logger.warning("Change log was not read for " + (now - lastSuccessfulPoll) / 1000 + "s, dropping all cached data");
+                listener.onResync();
+                resetCursor();
+            }
+
+            int read = poll();
+            lastSuccessfulPoll = System.currentTimeMillis();
+            if (gapStart >= 0) {
+                // Waiting for a gap: rows above it are already read, a full batch is no sign of more
+                delay = pollIntervalMs = minPollIntervalMs;
+            } else if (read >= batchSize) {
+                delay = 0;
+            } else if (read > 0) {
+                delay = pollIntervalMs = minPollIntervalMs;
+            } else {
+                delay = pollIntervalMs = Math.min(pollIntervalMs * 2, maxPollIntervalMs);
+            }
+
+            if (lastSuccessfulPoll - lastCompaction >= COMPACTION_INTERVAL_MS && leaderLease.isLeader()) {
+                lastCompaction = lastSuccessfulPoll;
+                compact();
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (!DatabaseManager.isUnavailable(e)) {
+                logger.log(Level.WARNING, "Error polling the change log", e);
+            }
+            delay = pollIntervalMs = maxPollIntervalMs;
+        }
+        schedulePoll(delay);
+    }
+
+    /**
+     * Moves the cursor to the newest change.
+     *
+     * @throws SQLException If a database error occurs
+     */
+    private void resetCursor() throws SQLException {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.CHANGE_SELECT_HEAD);
+             ResultSet resultSet = statement.executeQuery()) {
+            cursor = resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+        appliedAboveCursor.clear();
+        gapStart = -1;
+        readAhead = 0;
+        lastSuccessfulPoll = System.currentTimeMillis();
+    }
+
+    /**
+     * Reads the changes after the cursor and delivers those of other servers.
+     *
+     * @return The number of rows read
+     * @throws SQLException If a database error occurs
+     */
+    private int poll() throws SQLException {
+        List<Change> rows = readAfter(cursor);
+        int read = rows.size();
+
+        long now = System.currentTimeMillis();
+        boolean blocked = false;
+        int delivered = 0;
+        for (Change row : rows) {
+            long seq = row.seq;
+            if (!blocked && seq != cursor + 1) {
+                if (gapStart != cursor + 1) {
+                    gapStart = cursor + 1;
+                    gapSeenAt = now;
+                }
+                if (now - gapSeenAt < GAP_TIMEOUT_MS) {
+                    blocked = true;
+                } else {
+                    logger.fine("Skipping change log gap " + gapStart + ".." + (seq - 1));
+                }
+            }
+
+            if (!appliedAboveCursor.contains(seq)) {
+                if (deliver(row)) {
+                    delivered++;
+                }
+                if (blocked) {
+                    appliedAboveCursor.add(seq);
+                }
+            }
+            if (!blocked) {
+                cursor = seq;
+                appliedAboveCursor.remove(seq);
+            }
+        }
+        if (blocked) {
+            // Read the rest above the gap after the highest row seen instead of from the cursor again
+            long after = Math.max(readAhead, rows.get(rows.size() - 1).seq);
+            boolean full = rows.size() >= batchSize;
+            while (full && !Thread.currentThread().isInterrupted()) {
+                List<Change> more = readAfter(after);
+                for (Change row : more) {
+                    if (appliedAboveCursor.add(row.seq) && deliver(row)) {
+                        delivered++;
+                    }
+                    after = row.seq;
+                }
+                read += more.size();
+                full = more.size() >= batchSize;
+            }
+            readAhead = after;
+        } else {
+            gapStart = -1;
+        }
+        if (delivered > 0 && logger.isLoggable(Level.FINE)) {
+            logger.fine("Applied " + delivered + " changes from other servers, change log at " + cursor);
+        }
+        return read;
+    }
+
+    /**
+     * Reads one batch of changes.
+     *
+     * @param after The sequence number after which to read
+     * @return The changes in sequence order, at most one batch
+     * @throws SQLException If a database error occurs
+     */
+    private List<Change> readAfter(long after) throws SQLException {
+        List<Change> rows = new ArrayList<>();
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.CHANGE_SELECT_AFTER)) {
+            statement.setLong(1, after);
+            statement.setInt(2, batchSize);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new Change(resultSet.getLong(1), resultSet.getBytes(2), resultSet.getInt(3), resultSet.getBytes(4)));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Delivers one change to the listener unless this server made it.
+     *
+     * @param change The change
+     * @return True if the change was delivered
+     */
+    private boolean deliver(Change change) {
+        Kind kind = Kind.fromCode(change.code);
+        if (kind == null || origin.equals(UuidCodec.fromBytes(change.origin))) {
+            return false;
+        }
+        try {
+            listener.onChange(UuidCodec.fromBytes(change.owner), kind);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Error applying change from another server", e);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes changes older than the retention, in ranges of one batch per statement.
+     *
+     * @throws SQLException If a database error occurs
+     */
+    private void compact() throws SQLException {
+        long from;
+        long to;
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.CHANGE_SELECT_COMPACTION_BOUND)) {
+            statement.setLong(1, System.currentTimeMillis() - retentionMs);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getLong(2) == 0) {
+                    return;
+                }
+                from = resultSet.getLong(1);
+                to = resultSet.getLong(2);
+            }
+        }
+
+        int deleted = 0;
+        for (long start = from; start <= to && !Thread.currentThread().isInterrupted(); start += batchSize) {
+            try (Connection connection = databaseManager.getConnection();
+                 PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.CHANGE_DELETE_RANGE)) {
+                statement.setLong(1, start);
+                statement.setLong(2, Math.min(start + batchSize, to + 1));
+                deleted += statement.executeUpdate();
+            }
+        }
+        if (deleted > 0 && logger.isLoggable(Level.FINE)) {
+            logger.fine("Compacted " + deleted + " change log entries");
+        }
+    }
+
+    /**
+     * Gets the id this server writes into its changes.
+     *
+     * @return The server id, random per start
+     */
+    public UUID getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the sequence number of the last change that was read.
+     *
+     * @return The cursor
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * One row of the change log.
+     */
+    private static final class Change {
+        private final long seq;
+        private final byte[] owner;
+        private final int code;
+        private final byte[] origin;
+
+        private Change(long seq, byte[] owner, int code, byte[] origin) {
+            this.seq = seq;
+            this.owner = owner;
+            this.code = code;
+            this.origin = origin;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package de.dasjeff.warpMaster.database;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker guarding connection acquisition.
+ * The breaker opens once {@code failureThreshold} failures were recorded within the failure window
+ * and then rejects all calls for the open duration. After that a single trial call is let through
+ * (half-open): if it succeeds the breaker closes again, if it fails the breaker reopens.
+ * Successes while closed do not reset the counter, so a database that accepts connections but
+ * times out most queries still trips the breaker.
+ */
+public class CircuitBreaker {
+
+    /**
+     * States of the breaker.
+     */
+    public enum State {
+        /** Calls pass through and failures are counted. */
+        CLOSED,
+        /** Calls are rejected until the open duration has passed. */
+        OPEN,
+        /** A single trial call is in flight, everything else is rejected. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long failureWindowNanos;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long windowStart;
+    private long openedAt;
+    private long trips;
+
+    /**
+     * Creates a new CircuitBreaker instance.
+     *
+     * @param failureThreshold The number of failures within the window that opens the breaker
+     * @param failureWindowMs The length of the failure window in milliseconds
+     * @param openMs How long the breaker stays open before a trial call is allowed, in milliseconds
+     */
+    public CircuitBreaker(int failureThreshold, long failureWindowMs, long openMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.failureWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, failureWindowMs));
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, openMs));
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Asks for permission to make a call. Moves an expired open breaker to half-open and
+     * grants the trial call to the first caller.
+     *
+     * @return True if the call may proceed, false if it must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // The trial call is still in flight
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful call. Closes a half-open breaker.
+     */
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            failures = 0;
+            windowStart = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records a failed call. Reopens a half-open breaker and opens a closed one once the threshold is reached.
+     */
+    public synchronized void recordFailure() {
+        long now = System.nanoTime();
+        if (state == State.HALF_OPEN) {
+            open(now);
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (now - windowStart > failureWindowNanos) {
+            windowStart = now;
+            failures = 0;
+        }
+        if (++failures >= failureThreshold) {
+            open(now);
+        }
+    }
+
+    /**
+     * Opens the breaker.
+     *
+     * @param now The current clock value
+     */
+    private void open(long now) {
+        state = State.OPEN;
+        openedAt = now;
+        failures = 0;
+        trips++;
+    }
+
+    /**
+     * Checks whether calls are currently rejected without a trial being due.
+     *
+     * @return True if the breaker is open and the open duration has not passed yet, or a trial is in flight
+     */
+    public synchronized boolean isRejecting() {
+        return state == State.HALF_OPEN || (state == State.OPEN && System.nanoTime() - openedAt < openNanos);
+    }
+
+    /**
+     * Gets the current state.
+     *
+     * @return The state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the number of failures in the current window.
+     *
+     * @return The failure count
+     */
+    public synchronized int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets how often the breaker opened since startup.
+     *
+     * @return The number of trips
+     */
+    public synchronized long getTrips() {
+        return trips;
+    }
+}
@@ -0,0 +1,29 @@
+package de.dasjeff.warpMaster.database;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a lane of the {@link DatabaseExecutor} is full and new work is shed.
+ */
+public class DatabaseBusyException extends RejectedExecutionException {
+    private final DatabaseExecutor.Lane lane;
+
+    /**
+     * Creates a new DatabaseBusyException instance.
+     *
+     * @param lane The lane that rejected the work
+     */
+    public DatabaseBusyException(DatabaseExecutor.Lane lane) {
+        super("Database queue '" + lane.name().toLowerCase() + "' is full");
+        this.lane = lane;
+    }
+
+    /**
+     * Gets the lane that rejected the work.
+     *
+     * @return The lane
+     */
+    public DatabaseExecutor.Lane getLane() {
+        return lane;
+    }
+}
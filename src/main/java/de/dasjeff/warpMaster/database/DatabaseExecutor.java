@@ -0,0 +1,441 @@
+package de.dasjeff.warpMaster.database;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for database work with one queue per priority lane.
+ * Workers always take from the most important non-empty lane, except that every
+ * {@value #FAIRNESS_INTERVAL}th pick starts at the least important lane so background
+ * work cannot starve completely. A full lane rejects new work with a
+ * {@link DatabaseBusyException} instead of letting the backlog grow without bound.
+ */
+public class DatabaseExecutor extends AbstractExecutorService {
+    private static final int FAIRNESS_INTERVAL = 8;
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    /**
+     * Priority lanes, most important first.
+     */
+    public enum Lane {
+        /** Player commands and GUI clicks. */
+        INTERACTIVE,
+        /** REST API requests. */
+        API,
+        /** Cache reloads, pre-caching and housekeeping. */
+        BACKGROUND
+    }
+
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition terminated = lock.newCondition();
+    private int picks;
+    private int runningWorkers;
+    private boolean shutdown;
+
+    /**
+     * Creates a new DatabaseExecutor instance and starts its workers.
+     *
+     * @param workerCount The number of worker threads
+     * @param capacities The maximum number of queued tasks per lane
+     * @param threadFactory The factory for the worker threads
+     */
+    public DatabaseExecutor(int workerCount, Map<Lane, Integer> capacities, ThreadFactory threadFactory) {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue(Math.max(1, capacities.getOrDefault(lane, 256))));
+        }
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            workers.add(worker);
+        }
+        runningWorkers = workers.size();
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Runs a task in the lane of the calling context: the lane of the task that is currently
+     * running on this thread, the lane set with {@link #withLane}, or {@link Lane#INTERACTIVE}.
+     *
+     * @param command The task
+     * @throws DatabaseBusyException If the lane is full
+     */
+    @Override
+    public void execute(Runnable command) {
+        Lane lane = CURRENT_LANE.get();
+        submit(lane != null ? lane : Lane.INTERACTIVE, command);
+    }
+
+    /**
+     * Gets an executor that queues all tasks in the given lane.
+     *
+     * @param lane The lane
+     * @return The lane executor
+     */
+    public Executor lane(Lane lane) {
+        return command -> submit(lane, command);
+    }
+
+    /**
+     * Queues a task in a lane.
+     *
+     * @param lane The lane
+     * @param command The task
+     * @throws DatabaseBusyException If the lane is full
+     * @throws RejectedExecutionException If the executor has been shut down
+     */
+    private void submit(Lane lane, Runnable command) {
+        LaneQueue queue = lanes.get(lane);
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Database executor has been shut down");
+            }
+            if (queue.tasks.size() >= queue.capacity) {
+                queue.rejected.incrementAndGet();
+                throw new DatabaseBusyException(lane);
+            }
+            queue.tasks.addLast(new QueuedTask(lane, command, System.nanoTime()));
+            queue.submitted.incrementAndGet();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Worker loop: takes the next task by lane priority and runs it with its lane as the current lane.
+     */
+    private void runWorker() {
+        try {
+            while (true) {
+                QueuedTask task = take();
+                if (task == null) {
+                    return;
+                }
+                LaneQueue queue = lanes.get(task.lane);
+                queue.recordWait(System.nanoTime() - task.enqueuedAt);
+                CURRENT_LANE.set(task.lane);
+                try {
+                    task.command.run();
+                } catch (RuntimeException e) {
+                    // CompletableFuture tasks complete their future themselves; anything else is dropped like in a thread pool
+                    Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                } finally {
+                    CURRENT_LANE.remove();
+                    queue.completed.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.lock();
+            try {
+                if (--runningWorkers == 0) {
+                    terminated.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits for the next task.
+     *
+     * @return The next task, or null once the executor is shut down and drained
+     */
+    private QueuedTask take() {
+        lock.lock();
+        try {
+            while (true) {
+                QueuedTask task = poll();
+                if (task != null) {
+                    return task;
+                }
+                if (shutdown) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the next task by lane priority. Must be called while holding the lock.
+     *
+     * @return The next task, or null if all lanes are empty
+     */
+    private QueuedTask poll() {
+        Lane[] order = Lane.values();
+        boolean reverse = ++picks % FAIRNESS_INTERVAL == 0;
+        for (int i = 0; i < order.length; i++) {
+            Lane lane = order[reverse ? order.length - 1 - i : i];
+            QueuedTask task = lanes.get(lane).tasks.pollFirst();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs an action with a lane as the current lane, so all database work it submits
+     * through {@link #execute} is queued in that lane.
+     *
+     * @param lane The lane
+     * @param action The action
+     * @param <T> The type of the result
+     * @return The result of the action
+     */
+    public static <T> T withLane(Lane lane, Supplier<T> action) {
+        Lane previous = CURRENT_LANE.get();
+        CURRENT_LANE.set(lane);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_LANE.set(previous);
+            } else {
+                CURRENT_LANE.remove();
+            }
+        }
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but a rejected task
+     * results in a failed future instead of an exception thrown at the caller.
+     *
+     * @param supplier The task
+     * @param executor The executor
+     * @param <T> The type of the result
+     * @return A CompletableFuture that completes with the result of the task
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Checks whether a failure was caused by a full database queue.
+     *
+     * @param throwable The failure, possibly wrapped in a CompletionException
+     * @return True if the work was rejected because the server is busy
+     */
+    public static boolean isBusy(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof DatabaseBusyException;
+    }
+
+    /**
+     * Gets a snapshot of the queue metrics of all lanes.
+     *
+     * @return The metrics per lane
+     */
+    public Map<Lane, LaneMetrics> getMetrics() {
+        Map<Lane, LaneMetrics> metrics = new EnumMap<>(Lane.class);
+        lock.lock();
+        try {
+            lanes.forEach((lane, queue) -> metrics.put(lane, new LaneMetrics(queue.tasks.size(), queue.capacity,
+                    queue.submitted.get(), queue.completed.get(), queue.rejected.get(),
+                    TimeUnit.NANOSECONDS.toMillis(queue.maxWaitNanos.getAndSet(0)))));
+        } finally {
+            lock.unlock();
+        }
+        return metrics;
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (LaneQueue queue : lanes.values()) {
+                queue.tasks.forEach(task -> pending.add(task.command));
+                queue.tasks.clear();
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.forEach(Thread::interrupt);
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return shutdown && runningWorkers == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (runningWorkers > 0) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = terminated.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue and counters of a single lane.
+     */
+    private static final class LaneQueue {
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private final int capacity;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        private LaneQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void recordWait(long waitNanos) {
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    /**
+     * A task waiting in a lane.
+     */
+    private static final class QueuedTask {
+        private final Lane lane;
+        private final Runnable command;
+        private final long enqueuedAt;
+
+        private QueuedTask(Lane lane, Runnable command, long enqueuedAt) {
+            this.lane = lane;
+            this.command = command;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Snapshot of the queue metrics of a lane.
+     */
+    public static class LaneMetrics {
+        private final int depth;
+        private final int capacity;
+        private final long submitted;
+        private final long completed;
+        private final long rejected;
+        private final long maxWaitMs;
+
+        private LaneMetrics(int depth, int capacity, long submitted, long completed, long rejected, long maxWaitMs) {
+            this.depth = depth;
+            this.capacity = capacity;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        /**
+         * Gets the number of queued tasks.
+         *
+         * @return The queue depth
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * Gets the maximum number of queued tasks.
+         *
+         * @return The queue capacity
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Gets the number of accepted tasks since startup.
+         *
+         * @return The submitted count
+         */
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        /**
+         * Gets the number of finished tasks since startup.
+         *
+         * @return The completed count
+         */
+        public long getCompleted() {
+            return completed;
+        }
+
+        /**
+         * Gets the number of tasks rejected because the lane was full.
+         *
+         * @return The rejected count
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Gets the longest time a task waited in the queue since the previous snapshot.
+         *
+         * @return The maximum queue wait in milliseconds
+         */
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+    }
+}
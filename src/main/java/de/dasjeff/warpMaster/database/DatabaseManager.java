@@ -2,17 +2,23 @@ package de.dasjeff.warpMaster.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import de.dasjeff.warpMaster.WarpMaster;
 import de.dasjeff.warpMaster.util.ConfigUtil;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 /**
@@ -22,7 +28,10 @@ public class DatabaseManager {
     private final WarpMaster plugin;
     private final ConfigUtil configUtil;
     private HikariDataSource dataSource;
-    private ExecutorService databaseExecutor;
+    private HikariDataSource replicaDataSource;
+    private ReplicaMonitor replicaMonitor;
+    private DatabaseExecutor databaseExecutor;
+    private CircuitBreaker circuitBreaker;
 
     /**
      * Creates a new DatabaseManager instance.
@@ -68,11 +77,27 @@ public class DatabaseManager {
 
         try {
             // Initialize executor first
-            databaseExecutor = Executors.newFixedThreadPool(configUtil.getDatabaseThreadPoolSize());
-            plugin.getLogger().info("Initialized database thread pool with size: " + configUtil.getDatabaseThreadPoolSize());
+            Map<DatabaseExecutor.Lane, Integer> capacities = new EnumMap<>(DatabaseExecutor.Lane.class);
+            capacities.put(DatabaseExecutor.Lane.INTERACTIVE, configUtil.getDatabaseQueueInteractiveCapacity());
+            capacities.put(DatabaseExecutor.Lane.API, configUtil.getDatabaseQueueApiCapacity());
+            capacities.put(DatabaseExecutor.Lane.BACKGROUND, configUtil.getDatabaseQueueBackgroundCapacity());
+            if (configUtil.isDatabaseVirtualThreads()) {
+                // Virtual workers are cheap while blocked, so run one per pooled connection
+                int workers = isMySql() || isH2() ? configUtil.getDatabasePoolSize() : 1;
+                databaseExecutor = new DatabaseExecutor(workers, capacities, Thread.ofVirtual().name("WarpMaster-DB-", 0).factory());
+                plugin.getLogger().info("Initialized virtual-thread database executor with " + workers + " workers");
+            } else {
+                databaseExecutor = new DatabaseExecutor(configUtil.getDatabaseThreadPoolSize(), capacities, Thread.ofPlatform().name("WarpMaster-DB-", 0).factory());
+                plugin.getLogger().info("Initialized database thread pool with size: " + configUtil.getDatabaseThreadPoolSize());
+            }
+
+            circuitBreaker = new CircuitBreaker(configUtil.getDatabaseBreakerFailureThreshold(),
+                    TimeUnit.SECONDS.toMillis(configUtil.getDatabaseBreakerWindowSeconds()),
+                    TimeUnit.SECONDS.toMillis(configUtil.getDatabaseBreakerOpenSeconds()));
 
             setupDataSource();
             createTables();
+            setupReplica();
             return true;
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to initialize database", e);
@@ -86,14 +111,16 @@ public class DatabaseManager {
     private void setupDataSource() {
         HikariConfig config = new HikariConfig();
         
-        String databaseType = configUtil.getDatabaseType();
-        boolean isMySql = "mysql".equalsIgnoreCase(databaseType);
-
-        if (isMySql) {
+        if (isMySql()) {
             setupMySqlDataSource(config);
             // Set MySQL specific pool size and validation query
             config.setMaximumPoolSize(configUtil.getDatabasePoolSize());
             config.setConnectionTestQuery("SELECT 1");
+        } else if (isH2()) {
+            setupH2DataSource(config);
+            // H2 locks rows instead of the whole database, so it gets a real pool
+            config.setMaximumPoolSize(configUtil.getDatabasePoolSize());
+            config.setConnectionTestQuery("SELECT 1");
         } else {
             setupSqliteDataSource(config);
             // Ensure SQLite pool size is ALWAYS 1, regardless of config, and set validation query
@@ -111,18 +138,101 @@ public class DatabaseManager {
     }
 
     /**
-     * Sets up a MySQL data source.
+     * Sets up the optional read replica pool and starts measuring its lag.
+     * The replica is only supported for MySQL; reads use it once the first lag check has passed.
+     */
+    private void setupReplica() {
+        if (!configUtil.isDatabaseReplicaEnabled()) {
+            return;
+        }
+        if (!isMySql()) {
+            plugin.getLogger().warning("A read replica is only supported with MySQL, ignoring database.replica");
+            return;
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("WarpMaster-Replica");
+        setupMySqlDataSource(config,
+                configUtil.getDatabaseReplicaHost(),
+                configUtil.getDatabaseReplicaPort(),
+                configUtil.getDatabaseReplicaName(),
+                configUtil.getDatabaseReplicaUsername(),
+                configUtil.getDatabaseReplicaPassword());
+        config.setMaximumPoolSize(configUtil.getDatabaseReplicaPoolSize());
+        config.setConnectionTestQuery("SELECT 1");
+        config.setReadOnly(true);
+        // Fall back to the primary quickly instead of waiting the full connection timeout
+        config.setConnectionTimeout(Math.min(configUtil.getDatabaseConnectionTimeout(), 1000));
+        config.setIdleTimeout(configUtil.getDatabaseIdleTimeout());
+        config.setMaxLifetime(configUtil.getDatabaseMaxLifetime());
+        // Start without connections, an unreachable replica must not fail the plugin start
+        config.setInitializationFailTimeout(-1);
+        replicaDataSource = new HikariDataSource(config);
+
+        replicaMonitor = new ReplicaMonitor(this, replicaDataSource, plugin.getLogger(),
+                TimeUnit.SECONDS.toMillis(configUtil.getDatabaseReplicaMaxLagSeconds()), configUtil.getDatabaseReplicaCheckIntervalMs());
+        replicaMonitor.start();
+    }
+
+    /**
+     * Sets up a MySQL data source for the primary database.
      *
      * @param config The HikariCP configuration
      */
     private void setupMySqlDataSource(HikariConfig config) {
-        config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC",
+        setupMySqlDataSource(config,
                 configUtil.getDatabaseHost(),
                 configUtil.getDatabasePort(),
-                configUtil.getDatabaseName()));
+                configUtil.getDatabaseName(),
+                configUtil.getDatabaseUsername(),
+                configUtil.getDatabasePassword());
+    }
+
+    /**
+     * Sets up a MySQL data source.
+     *
+     * @param config The HikariCP configuration
+     * @param host The host
+     * @param port The port
+     * @param database The database name
+     * @param username The username
+     * @param password The password
+     */
+    private void setupMySqlDataSource(HikariConfig config, String host, int port, String database, String username, String password) {
+        config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&serverTimezone=UTC", host, port, database));
         config.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        config.setUsername(configUtil.getDatabaseUsername());
-        config.setPassword(configUtil.getDatabasePassword());
+        config.setUsername(username);
+        config.setPassword(password);
+
+        // Reuse server-side prepared statements per connection (the repositories always
+        // issue identical SQL text from SqlStatement) and send JDBC batches as multi-row statements
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+    }
+
+    /**
+     * Sets up an embedded H2 data source.
+     * H2 stores the database in an MVStore file with row-level locking (MVCC), so concurrent
+     * connections only block each other on the same rows. The MySQL compatibility mode lets it
+     * run the MySQL variants of the statements in {@link SqlStatement}.
+     *
+     * @param config The HikariCP configuration
+     */
+    private void setupH2DataSource(HikariConfig config) {
+        File databaseFile = new File(plugin.getDataFolder(), "warpmaster");
+        long lockTimeoutMs = TimeUnit.SECONDS.toMillis(Math.max(1, configUtil.getDatabaseQueryTimeoutSeconds()));
+        // DB_CLOSE_ON_EXIT=FALSE keeps H2's shutdown hook from closing the database before onDisable has flushed;
+        // DATABASE_TO_LOWER keeps the lowercase table names the metadata lookups expect
+        config.setJdbcUrl("jdbc:h2:file:" + databaseFile.getAbsolutePath() +
+                ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=" + lockTimeoutMs);
+        config.setDriverClassName("org.h2.Driver");
+        config.setUsername("sa");
+        config.setPassword("");
     }
 
     /**
@@ -137,84 +247,359 @@ public class DatabaseManager {
     }
 
     /**
-     * Creates the necessary tables in the database.
+     * Creates the necessary tables in the database and brings existing databases
+     * up to date through the {@link SchemaMigrator}.
+     * Fresh installs get the baseline schema directly; databases created by older
+     * plugin versions are detected and migrated from the legacy layout.
      *
      * @throws SQLException If an SQL error occurs
      */
     private void createTables() throws SQLException {
-        String databaseType = configUtil.getDatabaseType();
-        boolean isMySql = "mysql".equalsIgnoreCase(databaseType);
-        
+        SchemaMigrator migrator = new SchemaMigrator(this, plugin.getLogger(), configUtil.getDatabaseMigrationBatchSize());
+
         try (Connection connection = getConnection()) {
-            // Create warps table
-            String warpsTable = isMySql ? 
-                    "CREATE TABLE IF NOT EXISTS warps (" +
-                    "id INT AUTO_INCREMENT PRIMARY KEY," +
-                    "owner_uuid VARCHAR(36) NOT NULL," +
-                    "name VARCHAR(32) NOT NULL," +
-                    "world_name VARCHAR(64) NOT NULL," +
-                    "x DOUBLE NOT NULL," +
-                    "y DOUBLE NOT NULL," +
-                    "z DOUBLE NOT NULL," +
-                    "yaw FLOAT NOT NULL," +
-                    "pitch FLOAT NOT NULL," +
-                    "created_at BIGINT NOT NULL," +
-                    "INDEX idx_owner_uuid (owner_uuid)," +
-                    "UNIQUE INDEX idx_owner_name (owner_uuid, name)" +
-                    ")" :
-                    "CREATE TABLE IF NOT EXISTS warps (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "owner_uuid TEXT NOT NULL," +
-                    "name TEXT NOT NULL," +
-                    "world_name TEXT NOT NULL," +
-                    "x REAL NOT NULL," +
-                    "y REAL NOT NULL," +
-                    "z REAL NOT NULL," +
-                    "yaw REAL NOT NULL," +
-                    "pitch REAL NOT NULL," +
-                    "created_at INTEGER NOT NULL," +
-                    "UNIQUE(owner_uuid, name)" +
-                    ")";
-            
-            try (PreparedStatement statement = connection.prepareStatement(warpsTable)) {
-                statement.executeUpdate();
+            migrator.createVersionTable(connection);
+
+            if (migrator.getCurrentVersion(connection) == 0) {
+                if (tableExists(connection, "warps")) {
+                    // Tables from a plugin version without schema versioning
+                    migrator.recordVersion(connection, SchemaMigrator.LEGACY_VERSION, "Legacy schema");
+                } else {
+                    createBaselineTables(connection);
+                    migrator.recordVersion(connection, SchemaMigrator.BASELINE_VERSION, "Baseline schema");
+                }
             }
-            
-            // Create player_data table
-            String playerDataTable = isMySql ?
-                    "CREATE TABLE IF NOT EXISTS player_data (" +
-                    "uuid VARCHAR(36) PRIMARY KEY," +
-                    "warp_limit INT NOT NULL DEFAULT 5," +
-                    "last_warp_time BIGINT NOT NULL DEFAULT 0" +
-                    ")" :
-                    "CREATE TABLE IF NOT EXISTS player_data (" +
-                    "uuid TEXT PRIMARY KEY," +
-                    "warp_limit INTEGER NOT NULL DEFAULT 5," +
-                    "last_warp_time INTEGER NOT NULL DEFAULT 0" +
-                    ")";
-            
-            try (PreparedStatement statement = connection.prepareStatement(playerDataTable)) {
+        }
+
+        migrator.migrate();
+    }
+
+    /**
+     * Creates the baseline tables for a fresh database.
+     * UUIDs are stored as 16 byte binaries and warp names are additionally stored in
+     * lowercase so lookups are case-insensitive and served by the unique index.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void createBaselineTables(Connection connection) throws SQLException {
+        boolean isMySql = isMySql();
+        boolean isH2 = isH2();
+
+        // Create warps table
+        String warpsTable = isMySql ?
+                "CREATE TABLE IF NOT EXISTS warps (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "name VARCHAR(32) NOT NULL," +
+                "name_normalized VARCHAR(32) NOT NULL," +
+                "world_name VARCHAR(64) NOT NULL," +
+                "x DOUBLE NOT NULL," +
+                "y DOUBLE NOT NULL," +
+                "z DOUBLE NOT NULL," +
+                "yaw FLOAT NOT NULL," +
+                "pitch FLOAT NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "UNIQUE INDEX uk_warps_owner_name (owner_uuid, name_normalized)," +
+                "INDEX idx_warps_owner_id (owner_uuid, id)" +
+                ")" :
+                isH2 ?
+                "CREATE TABLE IF NOT EXISTS warps (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "name VARCHAR(32) NOT NULL," +
+                "name_normalized VARCHAR(32) NOT NULL," +
+                "world_name VARCHAR(64) NOT NULL," +
+                "x DOUBLE PRECISION NOT NULL," +
+                "y DOUBLE PRECISION NOT NULL," +
+                "z DOUBLE PRECISION NOT NULL," +
+                "yaw REAL NOT NULL," +
+                "pitch REAL NOT NULL," +
+                "created_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS warps (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "owner_uuid BLOB NOT NULL," +
+                "name TEXT NOT NULL," +
+                "name_normalized TEXT NOT NULL," +
+                "world_name TEXT NOT NULL," +
+                "x REAL NOT NULL," +
+                "y REAL NOT NULL," +
+                "z REAL NOT NULL," +
+                "yaw REAL NOT NULL," +
+                "pitch REAL NOT NULL," +
+                "created_at INTEGER NOT NULL" +
+                ")";
+
+        try (PreparedStatement statement = connection.prepareStatement(warpsTable)) {
+            statement.executeUpdate();
+        }
+
+        // Create player_data table
+        String playerDataTable = isMySql || isH2 ?
+                "CREATE TABLE IF NOT EXISTS player_data (" +
+                "uuid BINARY(16) PRIMARY KEY," +
+                "warp_limit INT NOT NULL DEFAULT 5," +
+                "last_warp_time BIGINT NOT NULL DEFAULT 0" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS player_data (" +
+                "uuid BLOB PRIMARY KEY," +
+                "warp_limit INTEGER NOT NULL DEFAULT 5," +
+                "last_warp_time INTEGER NOT NULL DEFAULT 0" +
+                ")";
+
+        try (PreparedStatement statement = connection.prepareStatement(playerDataTable)) {
+            statement.executeUpdate();
+        }
+
+        // Create indices for SQLite and H2 (MySQL indices are created in the table definition)
+        if (!isMySql) {
+            String ownerNameIndex = "CREATE UNIQUE INDEX IF NOT EXISTS uk_warps_owner_name ON warps (owner_uuid, name_normalized)";
+            try (PreparedStatement statement = connection.prepareStatement(ownerNameIndex)) {
                 statement.executeUpdate();
             }
-            
-            // Create indices for SQLite (MySQL indices are created in the table definition)
-            if (!isMySql) {
-                String ownerUuidIndex = "CREATE INDEX IF NOT EXISTS idx_owner_uuid ON warps (owner_uuid)";
-                try (PreparedStatement statement = connection.prepareStatement(ownerUuidIndex)) {
-                    statement.executeUpdate();
-                }
+            String ownerIdIndex = "CREATE INDEX IF NOT EXISTS idx_warps_owner_id ON warps (owner_uuid, id)";
+            try (PreparedStatement statement = connection.prepareStatement(ownerIdIndex)) {
+                statement.executeUpdate();
             }
         }
     }
 
+    /**
+     * Checks whether a table exists.
+     *
+     * @param connection The database connection
+     * @param table The table name
+     * @return True if the table exists, false otherwise
+     * @throws SQLException If an SQL error occurs
+     */
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(connection.getCatalog(), null, table, new String[]{"TABLE"})) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * Checks whether the configured database is MySQL.
+     *
+     * @return True for MySQL, false for SQLite and H2
+     */
+    public boolean isMySql() {
+        return "mysql".equalsIgnoreCase(configUtil.getDatabaseType());
+    }
+
+    /**
+     * Checks whether the configured database is the embedded H2 database.
+     *
+     * @return True for H2, false for MySQL and SQLite
+     */
+    public boolean isH2() {
+        return "h2".equalsIgnoreCase(configUtil.getDatabaseType());
+    }
+
+    /**
+     * Checks whether statements use the MySQL syntax. H2 runs in MySQL compatibility mode.
+     *
+     * @return True for MySQL and H2, false for SQLite
+     */
+    private boolean usesMySqlSyntax() {
+        return isMySql() || isH2();
+    }
+
     /**
      * Gets a connection from the connection pool.
+     * While the circuit breaker is open this fails immediately instead of waiting for the pool's connection timeout.
      *
      * @return A database connection
+     * @throws DatabaseUnavailableException If the circuit breaker is open
      * @throws SQLException If a connection cannot be obtained
      */
     public Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        if (!circuitBreaker.tryAcquire()) {
+            throw new DatabaseUnavailableException();
+        }
+        try {
+            Connection connection = dataSource.getConnection();
+            circuitBreaker.recordSuccess();
+            return connection;
+        } catch (SQLException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a connection for a read that tolerates bounded staleness, such as dashboard listings.
+     * Uses the read replica while its lag is within {@code database.replica.max-lag-seconds},
+     * and the primary otherwise or if no replica is configured. Reads that must see this
+     * server's own writes, like cache reloads after a write, must use {@link #getConnection()}.
+     *
+     * @return A database connection
+     * @throws SQLException If a connection cannot be obtained
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicaMonitor != null && replicaMonitor.isHealthy()) {
+            try {
+                return replicaDataSource.getConnection();
+            } catch (SQLException e) {
+                replicaMonitor.markUnhealthy(e);
+            }
+        }
+        return getConnection();
+    }
+
+    /**
+     * Gets the read replica monitor.
+     *
+     * @return The replica monitor, or null if no replica is configured
+     */
+    public ReplicaMonitor getReplicaMonitor() {
+        return replicaMonitor;
+    }
+
+    /**
+     * Prepares a registered statement on the given connection.
+     *
+     * @param connection The database connection
+     * @param statement The statement to prepare
+     * @return The prepared statement
+     * @throws SQLException If the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection connection, SqlStatement statement) throws SQLException {
+        return withQueryTimeout(connection.prepareStatement(statement.sql(usesMySqlSyntax())));
+    }
+
+    /**
+     * Prepares a registered statement on the given connection, returning generated keys.
+     *
+     * @param connection The database connection
+     * @param statement The statement to prepare
+     * @param autoGeneratedKeys Either {@link java.sql.Statement#RETURN_GENERATED_KEYS} or {@link java.sql.Statement#NO_GENERATED_KEYS}
+     * @return The prepared statement
+     * @throws SQLException If the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection connection, SqlStatement statement, int autoGeneratedKeys) throws SQLException {
+        return withQueryTimeout(connection.prepareStatement(statement.sql(usesMySqlSyntax()), autoGeneratedKeys));
+    }
+
+    /**
+     * Applies the configured query timeout, so a hanging database fails the statement
+     * with an {@link SQLTimeoutException} instead of blocking the worker indefinitely.
+     *
+     * @param statement The prepared statement
+     * @return The same statement
+     * @throws SQLException If the timeout cannot be set
+     */
+    private PreparedStatement withQueryTimeout(PreparedStatement statement) throws SQLException {
+        int timeoutSeconds = configUtil.getDatabaseQueryTimeoutSeconds();
+        if (timeoutSeconds > 0) {
+            statement.setQueryTimeout(timeoutSeconds);
+        }
+        return statement;
+    }
+
+    /**
+     * Bounds the time a caller waits for a database operation, including the time it spends queued.
+     * Timeouts count as failures for the circuit breaker. The operation itself is not cancelled and
+     * may still complete in the background; its statements are bounded by the query timeout.
+     *
+     * @param future The database operation
+     * @param timeoutMs The deadline in milliseconds, 0 or less for none
+     * @param <T> The type of the result
+     * @return A CompletableFuture that fails with a TimeoutException once the deadline has passed
+     */
+    public <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, long timeoutMs) {
+        if (timeoutMs <= 0) {
+            return future;
+        }
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((result, ex) -> {
+            // Connection failures are already counted by getConnection
+            if (ex != null && isTimeout(ex)) {
+                circuitBreaker.recordFailure();
+            }
+        });
+    }
+
+    /**
+     * Checks whether the circuit breaker currently rejects connection attempts.
+     * Reads should then be served from caches only.
+     *
+     * @return True if the database is considered unavailable
+     */
+    public boolean isDegraded() {
+        return circuitBreaker != null && circuitBreaker.isRejecting();
+    }
+
+    /**
+     * Gets the circuit breaker guarding connection acquisition.
+     *
+     * @return The circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Checks whether a failure was caused by the database being unreachable or too slow:
+     * an open circuit breaker, a connection timeout, a query timeout or a missed deadline.
+     *
+     * @param throwable The failure, possibly wrapped
+     * @return True if the database is unavailable
+     */
+    public static boolean isUnavailable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLTimeoutException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a failure was caused by a query timeout or a missed deadline.
+     *
+     * @param throwable The failure, possibly wrapped
+     * @return True if the failure is a timeout
+     */
+    private static boolean isTimeout(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an exception was caused by a unique or primary key violation.
+     *
+     * @param e The exception
+     * @return True if the exception is a unique constraint violation
+     */
+    public static boolean isUniqueViolation(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return true;
+        }
+        // MySQL reports ER_DUP_ENTRY (1062), the SQLite driver only names the result code in the message
+        String sqlState = e.getSQLState();
+        return (sqlState != null && sqlState.startsWith("23"))
+                || e.getErrorCode() == 1062
+                || (e.getMessage() != null && e.getMessage().contains("SQLITE_CONSTRAINT"));
+    }
+
+    /**
+     * Checks whether the pool has an idle connection and no thread is waiting for one.
+     * Background jobs use this to stay out of the way of player traffic.
+     *
+     * @return True if a connection can be taken without making anyone wait
+     */
+    public boolean hasSpareConnections() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return true;
+        }
+        return pool.getThreadsAwaitingConnection() == 0 && pool.getIdleConnections() > 0;
     }
 
     /**
@@ -234,7 +619,13 @@ public class DatabaseManager {
             }
         }
 
-        // Close datasource
+        // Close datasources
+        if (replicaMonitor != null) {
+            replicaMonitor.stop();
+        }
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
@@ -242,71 +633,83 @@ public class DatabaseManager {
 
     /**
      * Gets the database executor service.
+     * Work submitted directly runs in the lane of the calling context, see {@link DatabaseExecutor#execute}.
      *
      * @return The executor service for database operations
      */
-    public ExecutorService getDatabaseExecutor() {
+    public DatabaseExecutor getDatabaseExecutor() {
         return databaseExecutor;
     }
 
     /**
-     * Executes a given function within a database transaction.
+     * Executes a given function within a database transaction on the calling thread.
      * Handles connection acquisition, commit, rollback, and closing.
      *
      * @param function The function to execute, accepting a Connection and returning a result.
      * @param <T> The type of the result.
-     * @return A CompletableFuture that completes with the result of the function, or exceptionally on error.
+     * @return The result of the function.
+     * @throws RuntimeException If the transaction failed and was rolled back.
      */
-     public <T> CompletableFuture<T> executeInTransaction(TransactionFunction<T> function) {
-         return CompletableFuture.supplyAsync(() -> {
-             Connection connection = null;
-             try {
-                 connection = getConnection();
-                 connection.setAutoCommit(false); // Start transaction
-                 
-                 T result = function.apply(connection);
-                 
-                 connection.commit(); // Commit transaction
-                 return result;
-                 
-             } catch (SQLException e) {
-                 // Rollback on SQL error
-                 if (connection != null) {
-                     try {
-                         connection.rollback();
-                         plugin.getLogger().log(Level.WARNING, "Transaction rolled back due to SQLException.", e);
-                     } catch (SQLException rollbackEx) {
-                         plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction.", rollbackEx);
-                     }
+     public <T> T runInTransaction(TransactionFunction<T> function) {
+         Connection connection = null;
+         try {
+             connection = getConnection();
+             connection.setAutoCommit(false); // Start transaction
+             
+             T result = function.apply(connection);
+             
+             connection.commit(); // Commit transaction
+             return result;
+             
+         } catch (SQLException e) {
+             // Rollback on SQL error
+             if (connection != null) {
+                 try {
+                     connection.rollback();
+                     plugin.getLogger().log(Level.WARNING, "Transaction rolled back due to SQLException.", e);
+                 } catch (SQLException rollbackEx) {
+                     plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction.", rollbackEx);
                  }
-                 // Re-throw as RuntimeException to fail the CompletableFuture
-                 throw new RuntimeException("Transaction failed", e);
-             } catch (Exception e) {
-                 // Rollback on any other exception during function execution
-                 if (connection != null) {
-                     try {
-                         connection.rollback();
-                          plugin.getLogger().log(Level.WARNING, "Transaction rolled back due to Exception.", e);
-                     } catch (SQLException rollbackEx) {
-                         plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction.", rollbackEx);
-                     }
+             }
+             // Re-throw as RuntimeException to fail the CompletableFuture
+             throw new RuntimeException("Transaction failed", e);
+         } catch (Exception e) {
+             // Rollback on any other exception during function execution
+             if (connection != null) {
+                 try {
+                     connection.rollback();
+                      plugin.getLogger().log(Level.WARNING, "Transaction rolled back due to Exception.", e);
+                 } catch (SQLException rollbackEx) {
+                     plugin.getLogger().log(Level.SEVERE, "Failed to rollback transaction.", rollbackEx);
                  }
-                 // Re-throw as RuntimeException
-                 throw new RuntimeException("Transaction failed", e);
-             } finally {
-                 // Ensure connection is closed and auto-commit is reset
-                 if (connection != null) {
-                     try {
-                         if (!connection.getAutoCommit()) {
-                              connection.setAutoCommit(true); // Reset auto-commit
-                         }
-                         connection.close();
-                     } catch (SQLException closeEx) {
-                         plugin.getLogger().log(Level.SEVERE, "Failed to close connection after transaction.", closeEx);
+             }
+             // Re-throw as RuntimeException
+             throw new RuntimeException("Transaction failed", e);
+         } finally {
+             // Ensure connection is closed and auto-commit is reset
+             if (connection != null) {
+                 try {
+                     if (!connection.getAutoCommit()) {
+                          connection.setAutoCommit(true); // Reset auto-commit
                      }
+                     connection.close();
+                 } catch (SQLException closeEx) {
+                     plugin.getLogger().log(Level.SEVERE, "Failed to close connection after transaction.", closeEx);
                  }
              }
-         }, databaseExecutor); // Run the whole transaction logic on the DB executor
+         }
+     }
+
+    /**
+     * Executes a given function within a database transaction on the database executor.
+     *
+     * @param function The function to execute, accepting a Connection and returning a result.
+     * @param <T> The type of the result.
+     * @return A CompletableFuture that completes with the result of the function, or exceptionally on error.
+     */
+     public <T> CompletableFuture<T> executeInTransaction(TransactionFunction<T> function) {
+         // Run the whole transaction logic on the DB executor
+         return DatabaseExecutor.supplyAsync(() -> runInTransaction(function), databaseExecutor);
      }
 
     /**
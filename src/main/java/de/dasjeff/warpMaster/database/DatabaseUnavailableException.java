@@ -0,0 +1,16 @@
+package de.dasjeff.warpMaster.database;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Thrown instead of waiting for a connection while the {@link CircuitBreaker} is open.
+ */
+public class DatabaseUnavailableException extends SQLTransientConnectionException {
+
+    /**
+     * Creates a new DatabaseUnavailableException instance.
+     */
+    public DatabaseUnavailableException() {
+        super("Database is unavailable, circuit breaker is open");
+    }
+}
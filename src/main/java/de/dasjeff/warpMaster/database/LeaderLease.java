@@ -0,0 +1,167 @@
+package de.dasjeff.warpMaster.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lease-based leader election between servers sharing one database, so cluster-wide
+ * background jobs run on exactly one of them.
+ * <p>
+ * The lease is a row in {@code cluster_leases} holding the leader's id and an expiry time.
+ * Every server tries to take or extend it every third of the lease duration; the update only
+ * succeeds for the current holder or once the lease has expired. A leader that dies stops
+ * renewing, so another server takes over at most one lease duration plus one renewal interval
+ * later. A clean shutdown releases the lease for an immediate takeover.
+ * <p>
+ * Locally the leadership ends one renewal interval before the stored expiry, measured from
+ * before the renewal was sent. This keeps the old leader from running jobs after others may
+ * consider the lease expired, as long as the server clocks differ by less than that interval.
+ */
+public class LeaderLease {
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final String name;
+    private final UUID holder = UUID.randomUUID();
+    private final byte[] holderBytes = UuidCodec.toBytes(holder);
+    private final long leaseMs;
+    private final long renewIntervalMs;
+    private final ScheduledExecutorService renewExecutor;
+
+    private volatile long validUntilNanos;
+    private volatile boolean leader;
+
+    /**
+     * Creates a new LeaderLease instance.
+     *
+     * @param databaseManager The database manager
+     * @param logger The logger
+     * @param name The name of the lease; servers competing for the same name elect one leader
+     * @param leaseMs How long a lease stays valid without renewal, in milliseconds
+     */
+    public LeaderLease(DatabaseManager databaseManager, Logger logger, String name, long leaseMs) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.name = name;
+        this.leaseMs = Math.max(3000, leaseMs);
+        this.renewIntervalMs = this.leaseMs / 3;
+        this.renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-LeaderLease");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts competing for the lease.
+     */
+    public void start() {
+        renewExecutor.scheduleWithFixedDelay(this::renew, 0, renewIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops renewing and releases the lease if this server holds it.
+     */
+    public void stop() {
+        renewExecutor.shutdownNow();
+        if (!isLeader()) {
+            return;
+        }
+        validUntilNanos = 0;
+        try {
+            databaseManager.runInTransaction(connection -> {
+                try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.LEASE_RELEASE)) {
+                    statement.setString(1, name);
+                    statement.setBytes(2, holderBytes);
+                    statement.executeUpdate();
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // The lease simply expires
+        }
+    }
+
+    /**
+     * Tries to take or extend the lease.
+     */
+    private void renew() {
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        try {
+            if (databaseManager.isDegraded()) {
+                throw new DatabaseUnavailableException();
+            }
+            boolean acquired = databaseManager.runInTransaction(connection -> {
+                try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.LEASE_INSERT)) {
+                    statement.setString(1, name);
+                    statement.setBytes(2, holderBytes);
+                    statement.setLong(3, now + leaseMs);
+                    if (statement.executeUpdate() > 0) {
+                        return true;
+                    }
+                }
+                try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.LEASE_ACQUIRE)) {
+                    statement.setBytes(1, holderBytes);
+                    statement.setLong(2, now + leaseMs);
+                    statement.setString(3, name);
+                    statement.setBytes(4, holderBytes);
+                    statement.setLong(5, now);
+                    return statement.executeUpdate() > 0;
+                }
+            });
+            if (acquired) {
+                validUntilNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(leaseMs - renewIntervalMs);
+            } else {
+                validUntilNanos = 0;
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Keep a held lease until it lapses locally, one failed renewal is not a lost lease
+            if (!DatabaseManager.isUnavailable(e)) {
+                logger.log(Level.WARNING, "Error renewing the " + name + " lease", e);
+            }
+        }
+        reportTransition();
+    }
+
+    /**
+     * Logs when this server gains or loses the leadership.
+     */
+    private void reportTransition() {
+        boolean current = isLeader();
+        if (current == leader) {
+            return;
+        }
+        leader = current;
+        if (current) {
+            logger.info("This server is now the " + name + " leader (server id " + holder + ")");
+        } else {
+            logger.info("This server is no longer the " + name + " leader");
+        }
+    }
+
+    /**
+     * Checks whether this server currently holds the lease. Cluster-wide jobs should check this
+     * right before each run.
+     *
+     * @return True if this server is the leader
+     */
+    public boolean isLeader() {
+        long validUntil = validUntilNanos;
+        return validUntil != 0 && System.nanoTime() - validUntil < 0;
+    }
+
+    /**
+     * Gets the id this server competes with.
+     *
+     * @return The server id, random per start
+     */
+    public UUID getHolder() {
+        return holder;
+    }
+}
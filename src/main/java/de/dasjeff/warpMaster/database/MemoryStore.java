@@ -0,0 +1,987 @@
+package de.dasjeff.warpMaster.database;
+
+import de.dasjeff.warpMaster.model.PlayerData;
+import de.dasjeff.warpMaster.model.Warp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Memory-resident copy of all warps and player data, used by the repositories instead of
+ * querying the database when {@code memory-store.enabled} is set.
+ * <p>
+ * The tables are loaded once at startup in parallel chunks. Reads are then served from
+ * concurrent maps indexed by ID, by owner and normalized name, and by player UUID. Writes update
+ * the maps immediately and mark the affected rows dirty; a background thread flushes all dirty
+ * rows in one transaction per interval, so repeated changes to the same row are coalesced into
+ * a single statement. Warp IDs are allocated here, which is why this mode assumes the plugin is
+ * the only writer of its tables.
+ * <p>
+ * With snapshots enabled the store is written to a {@link WarpSnapshot} after a flush, and the
+ * next start loads that file instead of the tables and verifies it in the background.
+ * <p>
+ * Admin operations that still work on the tables directly call {@link #flush()} before and
+ * {@link #reloadOwners} or {@link #evictWarps} after their transaction.
+ */
+public class MemoryStore {
+    private static final int PLAYER_PARTITIONS = 16;
+    private static final int VERIFY_RELOAD_BATCH = 500;
+    private static final int VERIFY_RETRY_SECONDS = 30;
+    // Summed coordinates differ by rounding between engines, smaller moves than this are ignored
+    private static final double VERIFY_LOCATION_TOLERANCE = 1.0E-3;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final int flushBatchSize;
+
+    private final ConcurrentHashMap<Integer, Warp> warpsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, ConcurrentHashMap<String, Warp>> warpsByOwner = new ConcurrentHashMap<>();
+    // Owners with at least one warp, in the order of the owner_uuid index
+    private final ConcurrentSkipListSet<UUID> sortedOwners = new ConcurrentSkipListSet<>(UuidCodec.BINARY_ORDER);
+    private final ConcurrentHashMap<UUID, PlayerData> players = new ConcurrentHashMap<>();
+    private final AtomicInteger lastWarpId = new AtomicInteger();
+
+    // Dirty state, guarded by this
+    private final Map<Integer, Warp> dirtyWarps = new LinkedHashMap<>();
+    private final Set<Integer> unflushedWarpIds = new HashSet<>();
+    private final Set<Integer> deletedWarpIds = new HashSet<>();
+    private final Set<UUID> dirtyPlayers = new HashSet<>();
+
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flushExecutor;
+    private Path snapshotFile;
+
+    // Per-owner summary of a loaded snapshot until it was verified, see #summarize
+    private volatile Map<UUID, double[]> snapshotSummary;
+    private volatile Thread verifyThread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new MemoryStore instance.
+     *
+     * @param databaseManager The database manager
+     * @param logger The logger
+     * @param flushBatchSize The number of rows sent per JDBC batch when flushing
+     */
+    public MemoryStore(DatabaseManager databaseManager, Logger logger, int flushBatchSize) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    /**
+     * Loads all warps and player data. Warps are split into ID ranges and player data into
+     * UUID ranges, and the chunks are loaded in parallel on a temporary thread pool.
+     * Runs on the calling thread and blocks until everything is loaded.
+     *
+     * @param threads The number of loader threads
+     * @param chunkSize The number of warp IDs per chunk
+     * @throws RuntimeException If a database error occurs
+     */
+    public void load(int threads, int chunkSize) {
+        long start = System.nanoTime();
+        int maxId = selectMaxWarpId();
+        lastWarpId.set(maxId);
+
+        ExecutorService loader = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-MemoryStore-Load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            int step = Math.max(1, chunkSize);
+            for (long from = 0; from < maxId; from += step) {
+                int afterId = (int) from;
+                int toId = (int) Math.min((long) maxId, from + step);
+                chunks.add(CompletableFuture.runAsync(() -> loadWarpChunk(afterId, toId), loader));
+            }
+            for (int partition = 0; partition < PLAYER_PARTITIONS; partition++) {
+                int index = partition;
+                chunks.add(CompletableFuture.runAsync(() -> selectPlayerPartition(index)
+                        .forEach(playerData -> players.put(playerData.getUuid(), playerData)), loader));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        } finally {
+            loader.shutdown();
+        }
+
+        logger.info("Loaded " + warpsById.size() + " warps and " + players.size() + " players into memory in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    /**
+     * Fills the store from a snapshot file instead of scanning the tables. The snapshot may be
+     * older than the database, so {@link #startVerification()} must be called once the store is running.
+     * Runs on the calling thread and blocks until the snapshot is loaded.
+     *
+     * @param file The snapshot file
+     * @return True if the snapshot was loaded, false if it does not exist or is corrupt
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean loadSnapshot(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        WarpSnapshot snapshot;
+        try {
+            snapshot = WarpSnapshot.read(file);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable snapshot " + file, e);
+            return false;
+        }
+
+        // IDs must stay unique even if the snapshot is older than the tables
+        int maxId = selectMaxWarpId();
+        Map<UUID, double[]> summary = new HashMap<>();
+        for (Warp warp : snapshot.getWarps()) {
+            index(warp);
+            maxId = Math.max(maxId, warp.getId());
+            summarize(summary.computeIfAbsent(warp.getOwnerUuid(), uuid -> new double[7]), warp);
+        }
+        for (PlayerData playerData : snapshot.getPlayers()) {
+            players.put(playerData.getUuid(), playerData);
+        }
+        lastWarpId.set(maxId);
+        snapshotSummary = summary;
+
+        logger.info("Loaded " + warpsById.size() + " warps and " + players.size() + " players from the snapshot of "
+                + new Date(snapshot.getCreatedAt()) + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return true;
+    }
+
+    /**
+     * Verifies a loaded snapshot against the database on a background thread, retrying until it succeeds.
+     * Owners whose warp count, highest warp ID or summed locations differ are reloaded, and all player data rows
+     * without pending changes are replaced by the database version.
+     */
+    public void startVerification() {
+        if (snapshotSummary == null) {
+            return;
+        }
+        verifyThread = new Thread(() -> {
+            while (!closed) {
+                try {
+                    verifySnapshot();
+                    return;
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Snapshot verification failed, retrying in " + VERIFY_RETRY_SECONDS + " seconds", e);
+                }
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(VERIFY_RETRY_SECONDS));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "WarpMaster-SnapshotVerify");
+        verifyThread.setDaemon(true);
+        verifyThread.setPriority(Thread.MIN_PRIORITY);
+        verifyThread.start();
+    }
+
+    /**
+     * Compares the per-owner summaries of the snapshot with the database and reloads the owners
+     * that differ, then refreshes the player data. Besides the warp count and highest ID the summary
+     * holds the summed locations, so warps moved after the snapshot was written are detected too.
+     *
+     * @throws RuntimeException If a database error occurs
+     */
+    private void verifySnapshot() {
+        long start = System.nanoTime();
+        Map<UUID, double[]> database = databaseManager.runInTransaction(connection -> {
+            Map<UUID, double[]> rows = new HashMap<>();
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_OWNER_SUMMARY);
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    double[] ownerSummary = new double[7];
+                    for (int column = 0; column < ownerSummary.length; column++) {
+                        ownerSummary[column] = resultSet.getDouble(column + 2);
+                    }
+                    rows.put(UuidCodec.fromBytes(resultSet.getBytes(1)), ownerSummary);
+                }
+            }
+            return rows;
+        });
+
+        Set<UUID> stale = new HashSet<>();
+        Set<UUID> owners = new HashSet<>(snapshotSummary.keySet());
+        owners.addAll(database.keySet());
+        for (UUID ownerUuid : owners) {
+            if (!summariesMatch(snapshotSummary.get(ownerUuid), database.get(ownerUuid))) {
+                stale.add(ownerUuid);
+            }
+        }
+        List<UUID> staleOwners = new ArrayList<>(stale);
+        for (int from = 0; from < staleOwners.size(); from += VERIFY_RELOAD_BATCH) {
+            reloadOwners(staleOwners.subList(from, Math.min(from + VERIFY_RELOAD_BATCH, staleOwners.size())));
+        }
+
+        for (int partition = 0; partition < PLAYER_PARTITIONS; partition++) {
+            List<PlayerData> rows = selectPlayerPartition(partition);
+            synchronized (this) {
+                for (PlayerData playerData : rows) {
+                    if (!dirtyPlayers.contains(playerData.getUuid())) {
+                        players.put(playerData.getUuid(), playerData);
+                    }
+                }
+            }
+        }
+
+        snapshotSummary = null;
+        logger.info("Verified the snapshot against the database in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms, reloaded " + staleOwners.size() + " owners");
+    }
+
+    /**
+     * Adds a warp to the summary of its owner, in the column order of
+     * {@link SqlStatement#WARP_SELECT_OWNER_SUMMARY}: count, highest ID, the sums of x, y, z
+     * and yaw plus pitch, and the summed length of the world names in characters, as {@code CHAR_LENGTH} counts them.
+     *
+     * @param ownerSummary The summary of the owner
+     * @param warp The warp
+     */
+    private static void summarize(double[] ownerSummary, Warp warp) {
+        ownerSummary[0]++;
+        ownerSummary[1] = Math.max(ownerSummary[1], warp.getId());
+        ownerSummary[2] += warp.getX();
+        ownerSummary[3] += warp.getY();
+        ownerSummary[4] += warp.getZ();
+        ownerSummary[5] += (double) warp.getYaw() + warp.getPitch();
+        ownerSummary[6] += warp.getWorldName().codePointCount(0, warp.getWorldName().length());
+    }
+
+    /**
+     * Checks if the snapshot and database summaries of an owner match.
+     * Count, highest ID and world names must be equal, the location sums may differ by rounding.
+     *
+     * @param snapshot The summary from the snapshot, or null if the owner has no warps there
+     * @param database The summary from the database, or null if the owner has no warps there
+     * @return True if the owner does not need to be reloaded
+     */
+    private static boolean summariesMatch(double[] snapshot, double[] database) {
+        if (snapshot == null || database == null) {
+            return snapshot == database;
+        }
+        if (snapshot[0] != database[0] || snapshot[1] != database[1] || snapshot[6] != database[6]) {
+            return false;
+        }
+        for (int column = 2; column <= 5; column++) {
+            if (Math.abs(snapshot[column] - database[column]) > VERIFY_LOCATION_TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Flushes all changes and writes a snapshot of the state they were taken from. The state is
+     * copied under the store lock together with the dirty rows, so the snapshot holds exactly
+     * what the database holds once the flush committed. The file is written outside the lock.
+     *
+     * @param file The snapshot file
+     * @throws IOException If the file cannot be written
+     * @throws RuntimeException If the flush failed, in which case no snapshot is written
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        List<Warp> warps = new ArrayList<>();
+        List<PlayerData> playerRows = new ArrayList<>();
+        flush(warps, playerRows);
+        WarpSnapshot.write(file, warps, playerRows);
+    }
+
+    /**
+     * Gets the highest warp ID ever used, including archived warps.
+     *
+     * @return The highest ID, or 0 if there are no warps
+     * @throws RuntimeException If a database error occurs
+     */
+    private int selectMaxWarpId() {
+        return databaseManager.runInTransaction(connection -> {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_MAX_ID);
+                 ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Loads the warps with IDs in a range.
+     *
+     * @param afterId The exclusive lower bound
+     * @param toId The inclusive upper bound
+     */
+    private void loadWarpChunk(int afterId, int toId) {
+        databaseManager.runInTransaction(connection -> {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_ID_RANGE)) {
+                statement.setInt(1, afterId);
+                statement.setInt(2, toId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        index(WarpRepository.mapWarp(resultSet));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Selects the player data whose UUID starts with the given high nibble.
+     *
+     * @param partition The partition index, 0 to 15
+     * @return The player data rows
+     */
+    private List<PlayerData> selectPlayerPartition(int partition) {
+        byte[] lower = new byte[16];
+        lower[0] = (byte) (partition << 4);
+        boolean last = partition == PLAYER_PARTITIONS - 1;
+        return databaseManager.runInTransaction(connection -> {
+            List<PlayerData> rows = new ArrayList<>();
+            try (PreparedStatement statement = databaseManager.prepare(connection,
+                    last ? SqlStatement.PLAYER_SELECT_FROM : SqlStatement.PLAYER_SELECT_RANGE)) {
+                statement.setBytes(1, lower);
+                if (!last) {
+                    byte[] upper = new byte[16];
+                    upper[0] = (byte) ((partition + 1) << 4);
+                    statement.setBytes(2, upper);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(PlayerRepository.mapPlayerData(resultSet));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Starts the periodic write-behind flush and, if a snapshot file is given, periodic snapshots.
+     * A snapshot holds the state of a successful flush, so it never runs ahead of the database.
+     *
+     * @param intervalMs The flush interval in milliseconds
+     * @param snapshotFile The snapshot file, or null to disable snapshots
+     * @param snapshotIntervalMinutes The snapshot interval in minutes
+     */
+    public void start(long intervalMs, Path snapshotFile, long snapshotIntervalMinutes) {
+        this.snapshotFile = snapshotFile;
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, intervalMs);
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                if (!DatabaseManager.isUnavailable(e)) {
+                    logger.log(Level.WARNING, "Write-behind flush failed, retrying", e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+
+        if (snapshotFile != null) {
+            long snapshotInterval = Math.max(1, snapshotIntervalMinutes);
+            flushExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    writeSnapshot(snapshotFile);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to write the snapshot", e);
+                } catch (RuntimeException e) {
+                    // Flush failures are already reported by the flush task
+                }
+            }, snapshotInterval, snapshotInterval, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Stops the periodic flush and writes all remaining changes, followed by a final snapshot.
+     * Must run before the pool is closed.
+     */
+    public void close() {
+        closed = true;
+        if (verifyThread != null) {
+            verifyThread.interrupt();
+        }
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            try {
+                flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Final write-behind flush failed, " + getPendingWrites() + " changes were not saved", e);
+            return;
+        }
+        // An unverified store may still hold stale snapshot rows, keep the old snapshot in that case
+        if (snapshotFile != null && snapshotSummary == null) {
+            try {
+                writeSnapshot(snapshotFile);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write the snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * Writes all dirty rows in one transaction: deletions first so freed names can be reused,
+     * then warp upserts, then player data upserts. On failure the changes stay queued.
+     * Runs on the calling thread and blocks until the transaction has finished.
+     *
+     * @throws RuntimeException If the transaction failed
+     */
+    public void flush() {
+        flush(null, null);
+    }
+
+    /**
+     * Writes all dirty rows like {@link #flush()} and optionally copies the whole state at the
+     * moment the dirty rows are taken.
+     *
+     * @param warpCopy Receives every warp, or null to copy nothing
+     * @param playerCopy Receives a copy of every player data row, or null to copy nothing
+     * @throws RuntimeException If the transaction failed
+     */
+    private void flush(List<Warp> warpCopy, List<PlayerData> playerCopy) {
+        synchronized (flushLock) {
+            List<Integer> deletes;
+            List<Warp> upserts;
+            Set<Integer> unflushed;
+            List<PlayerData> playerRows = new ArrayList<>();
+            synchronized (this) {
+                if (warpCopy != null) {
+                    warpCopy.addAll(warpsById.values());
+                    players.values().forEach(playerData -> playerCopy.add(copy(playerData)));
+                }
+                if (dirtyWarps.isEmpty() && deletedWarpIds.isEmpty() && dirtyPlayers.isEmpty()) {
+                    return;
+                }
+                deletes = new ArrayList<>(deletedWarpIds);
+                upserts = new ArrayList<>(dirtyWarps.values());
+                unflushed = new HashSet<>(unflushedWarpIds);
+                for (UUID uuid : dirtyPlayers) {
+                    PlayerData playerData = players.get(uuid);
+                    if (playerData != null) {
+                        playerRows.add(copy(playerData));
+                    }
+                }
+                deletedWarpIds.clear();
+                dirtyWarps.clear();
+                unflushedWarpIds.clear();
+                dirtyPlayers.clear();
+            }
+
+            try {
+                databaseManager.runInTransaction(connection -> {
+                    writeDeletes(connection, deletes);
+                    writeWarps(connection, upserts);
+                    writePlayers(connection, playerRows);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                requeue(deletes, upserts, unflushed, playerRows);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Puts the changes of a failed flush back unless newer changes superseded them.
+     *
+     * @param deletes The deleted warp IDs
+     * @param upserts The changed warps
+     * @param unflushed The IDs of warps that were not in the database before the flush
+     * @param playerRows The changed player data
+     */
+    private synchronized void requeue(List<Integer> deletes, List<Warp> upserts, Set<Integer> unflushed, List<PlayerData> playerRows) {
+        deletedWarpIds.addAll(deletes);
+        for (Warp warp : upserts) {
+            if (warpsById.containsKey(warp.getId())) {
+                dirtyWarps.putIfAbsent(warp.getId(), warp);
+                if (unflushed.contains(warp.getId())) {
+                    unflushedWarpIds.add(warp.getId());
+                }
+            }
+        }
+        for (PlayerData playerData : playerRows) {
+            dirtyPlayers.add(playerData.getUuid());
+        }
+    }
+
+    /**
+     * Deletes warps by ID as JDBC batches.
+     *
+     * @param connection The database connection
+     * @param ids The warp IDs
+     * @throws SQLException If a database error occurs
+     */
+    private void writeDeletes(Connection connection, List<Integer> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_DELETE_BY_ID)) {
+            int batched = 0;
+            for (int id : ids) {
+                statement.setInt(1, id);
+                statement.addBatch();
+                if (++batched % flushBatchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts or updates warps with their IDs as JDBC batches.
+     *
+     * @param connection The database connection
+     * @param warps The warps
+     * @throws SQLException If a database error occurs
+     */
+    private void writeWarps(Connection connection, List<Warp> warps) throws SQLException {
+        if (warps.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_UPSERT)) {
+            int batched = 0;
+            for (Warp warp : warps) {
+                statement.setInt(1, warp.getId());
+                statement.setBytes(2, UuidCodec.toBytes(warp.getOwnerUuid()));
+                statement.setString(3, warp.getName());
+                statement.setString(4, Warp.normalizeName(warp.getName()));
+                statement.setString(5, warp.getWorldName());
+                statement.setDouble(6, warp.getX());
+                statement.setDouble(7, warp.getY());
+                statement.setDouble(8, warp.getZ());
+                statement.setFloat(9, warp.getYaw());
+                statement.setFloat(10, warp.getPitch());
+                statement.setLong(11, warp.getCreatedAt());
+                statement.addBatch();
+                if (++batched % flushBatchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts or updates player data as JDBC batches.
+     *
+     * @param connection The database connection
+     * @param rows The player data
+     * @throws SQLException If a database error occurs
+     */
+    private void writePlayers(Connection connection, List<PlayerData> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_UPSERT)) {
+            int batched = 0;
+            for (PlayerData playerData : rows) {
+                statement.setBytes(1, UuidCodec.toBytes(playerData.getUuid()));
+                statement.setInt(2, playerData.getWarpLimit());
+                statement.setLong(3, playerData.getLastWarpTime());
+                statement.addBatch();
+                if (++batched % flushBatchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Gets the number of changes waiting to be flushed.
+     *
+     * @return The number of dirty rows
+     */
+    public synchronized int getPendingWrites() {
+        return dirtyWarps.size() + deletedWarpIds.size() + dirtyPlayers.size();
+    }
+
+    // --- warps ---
+
+    /**
+     * Gets a warp by its ID.
+     *
+     * @param id The ID of the warp
+     * @return The warp, or an empty Optional if not found
+     */
+    public Optional<Warp> getWarpById(int id) {
+        return Optional.ofNullable(warpsById.get(id));
+    }
+
+    /**
+     * Gets a warp by its owner and name.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return The warp, or an empty Optional if not found
+     */
+    public Optional<Warp> getWarp(UUID ownerUuid, String name) {
+        Map<String, Warp> warps = warpsByOwner.get(ownerUuid);
+        return warps == null ? Optional.empty() : Optional.ofNullable(warps.get(Warp.normalizeName(name)));
+    }
+
+    /**
+     * Gets all warps owned by a player, ordered by ID.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @return A list of warps
+     */
+    public List<Warp> getWarpsByOwner(UUID ownerUuid) {
+        Map<String, Warp> warps = warpsByOwner.get(ownerUuid);
+        if (warps == null) {
+            return new ArrayList<>();
+        }
+        List<Warp> result = new ArrayList<>(warps.values());
+        result.sort(Comparator.comparingInt(Warp::getId));
+        return result;
+    }
+
+    /**
+     * Gets the number of warps owned by a player.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @return The number of warps
+     */
+    public int getWarpCount(UUID ownerUuid) {
+        Map<String, Warp> warps = warpsByOwner.get(ownerUuid);
+        return warps == null ? 0 : warps.size();
+    }
+
+    /**
+     * Gets all players who have warps.
+     *
+     * @return A list of player UUIDs
+     */
+    public List<UUID> getOwners() {
+        return new ArrayList<>(sortedOwners);
+    }
+
+    /**
+     * Gets the next page of players who have warps, in the unsigned byte order of their binary UUID.
+     *
+     * @param afterUuid Only owners after this UUID are returned, or null to start at the beginning
+     * @param limit The maximum number of owners to return
+     * @return The owners, ordered like the {@code owner_uuid} index
+     */
+    public List<UUID> getOwnersAfter(UUID afterUuid, int limit) {
+        List<UUID> owners = new ArrayList<>(Math.min(limit, 1024));
+        for (UUID ownerUuid : afterUuid == null ? sortedOwners : sortedOwners.tailSet(afterUuid, false)) {
+            if (owners.size() >= limit) {
+                break;
+            }
+            owners.add(ownerUuid);
+        }
+        return owners;
+    }
+
+    /**
+     * Creates a warp with the next free ID.
+     *
+     * @param warp The warp to create; its ID is ignored
+     * @return The created warp
+     * @throws RuntimeException If the owner already has a warp with this name
+     */
+    public synchronized Warp createWarp(Warp warp) {
+        if (getWarp(warp.getOwnerUuid(), warp.getName()).isPresent()) {
+            throw new RuntimeException("Error creating warp", new SQLIntegrityConstraintViolationException(
+                    "Duplicate warp name '" + warp.getName() + "' for owner " + warp.getOwnerUuid()));
+        }
+        Warp created = new Warp(lastWarpId.incrementAndGet(), warp.getOwnerUuid(), warp.getName(), warp.getWorldName(),
+                warp.getX(), warp.getY(), warp.getZ(), warp.getYaw(), warp.getPitch(), warp.getCreatedAt());
+        index(created);
+        dirtyWarps.put(created.getId(), created);
+        unflushedWarpIds.add(created.getId());
+        return created;
+    }
+
+    /**
+     * Replaces a warp.
+     *
+     * @param warp The warp with its new values
+     * @return True if the warp exists, false otherwise
+     */
+    public synchronized boolean updateWarp(Warp warp) {
+        if (!warpsById.containsKey(warp.getId())) {
+            return false;
+        }
+        index(warp);
+        dirtyWarps.put(warp.getId(), warp);
+        return true;
+    }
+
+    /**
+     * Deletes a warp by its ID.
+     *
+     * @param id The ID of the warp
+     * @return True if the warp existed, false otherwise
+     */
+    public synchronized boolean deleteWarp(int id) {
+        Warp warp = warpsById.get(id);
+        if (warp == null) {
+            return false;
+        }
+        unindex(warp);
+        dirtyWarps.remove(id);
+        // A warp that never reached the database needs no DELETE
+        if (!unflushedWarpIds.remove(id)) {
+            deletedWarpIds.add(id);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes a warp by its owner and name.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return True if the warp existed, false otherwise
+     */
+    public synchronized boolean deleteWarp(UUID ownerUuid, String name) {
+        Optional<Warp> warp = getWarp(ownerUuid, name);
+        return warp.isPresent() && deleteWarp(warp.get().getId());
+    }
+
+    /**
+     * Drops warps that were deleted from the database directly.
+     *
+     * @param warps The deleted warps
+     */
+    public synchronized void evictWarps(Collection<Warp> warps) {
+        for (Warp warp : warps) {
+            Warp current = warpsById.get(warp.getId());
+            if (current != null) {
+                unindex(current);
+            }
+            dirtyWarps.remove(warp.getId());
+            unflushedWarpIds.remove(warp.getId());
+        }
+    }
+
+    /**
+     * Reloads the warps of some owners after their rows were changed in the database directly.
+     * Changes that are still waiting to be flushed are kept on top of the reloaded rows. Holds the
+     * flush lock for the read and the re-index, so a flush in between cannot commit a warp that the
+     * read missed and then clear it from the dirty set.
+     *
+     * @param ownerUuids The UUIDs of the owners
+     * @throws RuntimeException If a database error occurs
+     */
+    public void reloadOwners(Collection<UUID> ownerUuids) {
+        synchronized (flushLock) {
+            Map<UUID, List<Warp>> loaded = databaseManager.runInTransaction(connection -> {
+                Map<UUID, List<Warp>> rows = new HashMap<>();
+                try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_OWNER)) {
+                    for (UUID ownerUuid : ownerUuids) {
+                        statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+                        List<Warp> warps = new ArrayList<>();
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            while (resultSet.next()) {
+                                warps.add(WarpRepository.mapWarp(resultSet));
+                            }
+                        }
+                        rows.put(ownerUuid, warps);
+                    }
+                }
+                return rows;
+            });
+
+            synchronized (this) {
+                for (UUID ownerUuid : ownerUuids) {
+                    Map<String, Warp> previous = warpsByOwner.remove(ownerUuid);
+                    sortedOwners.remove(ownerUuid);
+                    if (previous != null) {
+                        previous.values().forEach(warp -> warpsById.remove(warp.getId(), warp));
+                    }
+                }
+                loaded.values().forEach(warps -> warps.stream()
+                        .filter(warp -> !deletedWarpIds.contains(warp.getId()))
+                        .forEach(this::index));
+                dirtyWarps.values().stream()
+                        .filter(warp -> ownerUuids.contains(warp.getOwnerUuid()))
+                        .forEach(this::index);
+            }
+        }
+    }
+
+    /**
+     * Adds a warp to the indexes, replacing an older version with the same ID.
+     *
+     * @param warp The warp
+     */
+    private void index(Warp warp) {
+        Warp previous = warpsById.put(warp.getId(), warp);
+        if (previous != null) {
+            Map<String, Warp> previousOwner = warpsByOwner.get(previous.getOwnerUuid());
+            if (previousOwner != null) {
+                previousOwner.remove(Warp.normalizeName(previous.getName()), previous);
+                if (previousOwner.isEmpty() && !previous.getOwnerUuid().equals(warp.getOwnerUuid())) {
+                    sortedOwners.remove(previous.getOwnerUuid());
+                }
+            }
+        }
+        warpsByOwner.computeIfAbsent(warp.getOwnerUuid(), uuid -> new ConcurrentHashMap<>())
+                .put(Warp.normalizeName(warp.getName()), warp);
+        sortedOwners.add(warp.getOwnerUuid());
+    }
+
+    /**
+     * Removes a warp from the indexes.
+     *
+     * @param warp The warp
+     */
+    private void unindex(Warp warp) {
+        warpsById.remove(warp.getId(), warp);
+        Map<String, Warp> warps = warpsByOwner.get(warp.getOwnerUuid());
+        if (warps != null) {
+            warps.remove(Warp.normalizeName(warp.getName()), warp);
+            if (warps.isEmpty()) {
+                sortedOwners.remove(warp.getOwnerUuid());
+            }
+        }
+    }
+
+    // --- player data ---
+
+    /**
+     * Gets a copy of a player's data.
+     *
+     * @param uuid The UUID of the player
+     * @return The player data, or an empty Optional if not found
+     */
+    public synchronized Optional<PlayerData> getPlayerData(UUID uuid) {
+        PlayerData playerData = players.get(uuid);
+        return playerData == null ? Optional.empty() : Optional.of(copy(playerData));
+    }
+
+    /**
+     * Gets a copy of a player's data, creating it with the default limit if it does not exist.
+     *
+     * @param uuid The UUID of the player
+     * @param defaultWarpLimit The warp limit for new players
+     * @return The player data
+     */
+    public synchronized PlayerData getOrCreatePlayerData(UUID uuid, int defaultWarpLimit) {
+        PlayerData playerData = players.get(uuid);
+        if (playerData == null) {
+            playerData = new PlayerData(uuid, defaultWarpLimit, 0);
+            players.put(uuid, playerData);
+            dirtyPlayers.add(uuid);
+        }
+        return copy(playerData);
+    }
+
+    /**
+     * Stores player data, replacing an existing entry.
+     *
+     * @param playerData The player data
+     * @param mustExist Whether the player must already exist
+     * @return True if the data was stored
+     */
+    public synchronized boolean putPlayerData(PlayerData playerData, boolean mustExist) {
+        boolean exists = players.containsKey(playerData.getUuid());
+        if (exists != mustExist) {
+            return false;
+        }
+        players.put(playerData.getUuid(), copy(playerData));
+        dirtyPlayers.add(playerData.getUuid());
+        return true;
+    }
+
+    /**
+     * Updates the warp limit of an existing player.
+     *
+     * @param uuid The UUID of the player
+     * @param warpLimit The new warp limit
+     * @return True if the player exists, false otherwise
+     */
+    public synchronized boolean updateWarpLimit(UUID uuid, int warpLimit) {
+        PlayerData playerData = players.get(uuid);
+        if (playerData == null) {
+            return false;
+        }
+        playerData.setWarpLimit(warpLimit);
+        dirtyPlayers.add(uuid);
+        return true;
+    }
+
+    /**
+     * Updates the last warp time of an existing player.
+     *
+     * @param uuid The UUID of the player
+     * @param lastWarpTime The new last warp time
+     * @return True if the player exists, false otherwise
+     */
+    public synchronized boolean updateLastWarpTime(UUID uuid, long lastWarpTime) {
+        PlayerData playerData = players.get(uuid);
+        if (playerData == null) {
+            return false;
+        }
+        playerData.setLastWarpTime(lastWarpTime);
+        dirtyPlayers.add(uuid);
+        return true;
+    }
+
+    /**
+     * Applies warp limits that were written to the database directly, creating missing players.
+     * The players are marked dirty so a flush that raced with the direct write cannot leave an older limit behind.
+     *
+     * @param uuids The UUIDs of the players
+     * @param warpLimit The new warp limit
+     * @param defaultWarpLimit The warp limit for players that are not loaded yet
+     */
+    public synchronized void applyWarpLimits(Collection<UUID> uuids, int warpLimit, int defaultWarpLimit) {
+        for (UUID uuid : uuids) {
+            players.computeIfAbsent(uuid, key -> new PlayerData(key, defaultWarpLimit, 0)).setWarpLimit(warpLimit);
+            dirtyPlayers.add(uuid);
+        }
+    }
+
+    /**
+     * Copies player data so callers cannot change the stored instance.
+     *
+     * @param playerData The player data
+     * @return The copy
+     */
+    private static PlayerData copy(PlayerData playerData) {
+        return new PlayerData(playerData.getUuid(), playerData.getWarpLimit(), playerData.getLastWarpTime());
+    }
+}
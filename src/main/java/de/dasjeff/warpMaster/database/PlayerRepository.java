@@ -1,11 +1,17 @@
 package de.dasjeff.warpMaster.database;
 
 import de.dasjeff.warpMaster.model.PlayerData;
+import de.dasjeff.warpMaster.model.PlayerName;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -21,6 +27,8 @@ public class PlayerRepository {
     private final Logger logger;
     private final int defaultWarpLimit;
     private final ExecutorService executor;
+    private final MemoryStore memoryStore;
+    private final ChangeLog changeLog;
 
     /**
      * Creates a new PlayerRepository instance.
@@ -29,171 +37,485 @@ public class PlayerRepository {
      * @param logger The logger
      * @param defaultWarpLimit The default warp limit for players
      * @param executor The executor service for database operations
+     * @param memoryStore The memory-resident store serving reads and writes, or null to query the database
+     * @param changeLog The change log that writes are recorded in for other servers, or null
      */
-    public PlayerRepository(DatabaseManager databaseManager, Logger logger, int defaultWarpLimit, ExecutorService executor) {
+    public PlayerRepository(DatabaseManager databaseManager, Logger logger, int defaultWarpLimit, ExecutorService executor, MemoryStore memoryStore, ChangeLog changeLog) {
         this.databaseManager = databaseManager;
         this.logger = logger;
         this.defaultWarpLimit = defaultWarpLimit;
         this.executor = executor;
+        this.memoryStore = memoryStore;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Applies warp limits written with direct SQL to the memory store.
+     * Does nothing without a memory store.
+     *
+     * @param uuids The UUIDs of the players
+     * @param warpLimit The new warp limit
+     */
+    public void applyWarpLimits(List<UUID> uuids, int warpLimit) {
+        if (memoryStore != null) {
+            memoryStore.applyWarpLimits(uuids, warpLimit, defaultWarpLimit);
+        }
     }
 
     /**
      * Gets player data by UUID.
+     * Runs on the calling thread and blocks until the query has finished.
      *
      * @param uuid The UUID of the player
-     * @return A CompletableFuture that completes with the player data, or an empty Optional if not found
+     * @return The player data, or an empty Optional if not found
+     * @throws RuntimeException If a database error occurs
      */
-    public CompletableFuture<Optional<PlayerData>> getPlayerData(UUID uuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT * FROM player_data WHERE uuid = ?")) {
-                
-                statement.setString(1, uuid.toString());
-                
+    public Optional<PlayerData> getPlayerDataSync(UUID uuid) {
+        if (memoryStore != null) {
+            return memoryStore.getPlayerData(uuid);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.PLAYER_SELECT)) {
+            
+            statement.setBytes(1, UuidCodec.toBytes(uuid));
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(mapPlayerData(resultSet));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting player data", e);
+            throw new RuntimeException("Error getting player data", e);
+        }
+    }
+
+    /**
+     * Gets the player data of several players.
+     * Players are looked up in fixed-size {@code IN} lists of {@link SqlStatement#OWNER_LOOKUP_SIZE}.
+     * Runs on the calling thread and blocks until the queries have finished.
+     *
+     * @param uuids The UUIDs of the players, without duplicates
+     * @return The player data of the players that have any; players without a row are missing
+     * @throws RuntimeException If a database error occurs
+     */
+    public Map<UUID, PlayerData> getPlayerDataSync(List<UUID> uuids) {
+        Map<UUID, PlayerData> playerData = new HashMap<>();
+        if (memoryStore != null) {
+            for (UUID uuid : uuids) {
+                memoryStore.getPlayerData(uuid).ifPresent(data -> playerData.put(uuid, data));
+            }
+            return playerData;
+        }
+        if (uuids.isEmpty()) {
+            return playerData;
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_SELECT_IN)) {
+            for (int from = 0; from < uuids.size(); from += SqlStatement.OWNER_LOOKUP_SIZE) {
+                List<UUID> chunk = uuids.subList(from, Math.min(from + SqlStatement.OWNER_LOOKUP_SIZE, uuids.size()));
+                for (int i = 0; i < SqlStatement.OWNER_LOOKUP_SIZE; i++) {
+                    statement.setBytes(i + 1, UuidCodec.toBytes(chunk.get(Math.min(i, chunk.size() - 1))));
+                }
                 try (ResultSet resultSet = statement.executeQuery()) {
-                    if (resultSet.next()) {
-                        return Optional.of(mapResultSetToPlayerData(resultSet));
-                    } else {
-                        return Optional.empty();
+                    while (resultSet.next()) {
+                        PlayerData data = mapPlayerData(resultSet);
+                        playerData.put(data.getUuid(), data);
                     }
                 }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting player data", e);
-                throw new RuntimeException("Error getting player data", e);
             }
-        }, executor);
+            return playerData;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting player data of several players", e);
+            throw new RuntimeException("Error getting player data of several players", e);
+        }
+    }
+
+    /**
+     * Gets player data by UUID.
+     * Runs {@link #getPlayerDataSync} on the configured executor.
+     *
+     * @param uuid The UUID of the player
+     * @return A CompletableFuture that completes with the player data, or an empty Optional if not found
+     */
+    public CompletableFuture<Optional<PlayerData>> getPlayerData(UUID uuid) {
+        return DatabaseExecutor.supplyAsync(() -> getPlayerDataSync(uuid), executor);
     }
 
     /**
      * Gets or creates player data by UUID.
+     * Runs on the calling thread and blocks until the queries have finished.
+     *
+     * @param uuid The UUID of the player
+     * @return The player data
+     * @throws RuntimeException If a database error occurs
+     */
+    public PlayerData getOrCreatePlayerDataSync(UUID uuid) {
+        if (memoryStore != null) {
+            return memoryStore.getOrCreatePlayerData(uuid, defaultWarpLimit);
+        }
+        Optional<PlayerData> optionalPlayerData = getPlayerDataSync(uuid);
+        if (optionalPlayerData.isPresent()) {
+            return optionalPlayerData.get();
+        }
+        PlayerData playerData = new PlayerData(uuid, defaultWarpLimit, 0);
+        createPlayerDataSync(playerData);
+        return playerData;
+    }
+
+    /**
+     * Gets or creates player data by UUID.
+     * Runs {@link #getOrCreatePlayerDataSync} on the configured executor.
      *
      * @param uuid The UUID of the player
      * @return A CompletableFuture that completes with the player data
      */
     public CompletableFuture<PlayerData> getOrCreatePlayerData(UUID uuid) {
-        return getPlayerData(uuid).thenComposeAsync(optionalPlayerData -> {
-            if (optionalPlayerData.isPresent()) {
-                return CompletableFuture.completedFuture(optionalPlayerData.get());
-            } else {
-                PlayerData playerData = new PlayerData(uuid, defaultWarpLimit, 0);
-                return createPlayerData(playerData).thenApply(created -> playerData);
+        return DatabaseExecutor.supplyAsync(() -> getOrCreatePlayerDataSync(uuid), executor);
+    }
+
+    /**
+     * Gets player data using a provided connection (for transactions) and locks the row
+     * until the transaction ends. Creates the row with the default limit if it does not exist.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param uuid The UUID of the player.
+     * @return The player data.
+     * @throws SQLException If a database error occurs.
+     */
+    public PlayerData lockOrCreatePlayerDataTransactional(Connection connection, UUID uuid) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_SELECT_FOR_UPDATE)) {
+            statement.setBytes(1, UuidCodec.toBytes(uuid));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return mapPlayerData(resultSet);
+                }
             }
-        }, executor);
+        }
+
+        PlayerData playerData = new PlayerData(uuid, defaultWarpLimit, 0);
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_INSERT)) {
+            statement.setBytes(1, UuidCodec.toBytes(uuid));
+            statement.setInt(2, playerData.getWarpLimit());
+            statement.setLong(3, playerData.getLastWarpTime());
+            statement.executeUpdate();
+        }
+        return playerData;
     }
 
     /**
      * Creates player data in the database.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param playerData The player data to create
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean createPlayerDataSync(PlayerData playerData) {
+        if (memoryStore != null) {
+            return memoryStore.putPlayerData(playerData, false);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.PLAYER_INSERT)) {
+            
+            statement.setBytes(1, UuidCodec.toBytes(playerData.getUuid()));
+            statement.setInt(2, playerData.getWarpLimit());
+            statement.setLong(3, playerData.getLastWarpTime());
+            
+            int affectedRows = statement.executeUpdate();
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error creating player data", e);
+            throw new RuntimeException("Error creating player data", e);
+        }
+    }
+
+    /**
+     * Creates player data in the database.
+     * Runs {@link #createPlayerDataSync} on the configured executor.
      *
      * @param playerData The player data to create
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> createPlayerData(PlayerData playerData) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, ?)")) {
-                
-                statement.setString(1, playerData.getUuid().toString());
-                statement.setInt(2, playerData.getWarpLimit());
-                statement.setLong(3, playerData.getLastWarpTime());
-                
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error creating player data", e);
-                throw new RuntimeException("Error creating player data", e);
+        return DatabaseExecutor.supplyAsync(() -> createPlayerDataSync(playerData), executor);
+    }
+
+    /**
+     * Updates player data in the database.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param playerData The player data to update
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean updatePlayerDataSync(PlayerData playerData) {
+        if (memoryStore != null) {
+            return memoryStore.putPlayerData(playerData, true);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.PLAYER_UPDATE)) {
+            
+            statement.setInt(1, playerData.getWarpLimit());
+            statement.setLong(2, playerData.getLastWarpTime());
+            statement.setBytes(3, UuidCodec.toBytes(playerData.getUuid()));
+            
+            int affectedRows = statement.executeUpdate();
+            if (affectedRows > 0) {
+                recordChanges(connection, List.of(playerData.getUuid()));
             }
-        }, executor);
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error updating player data", e);
+            throw new RuntimeException("Error updating player data", e);
+        }
     }
 
     /**
      * Updates player data in the database.
+     * Runs {@link #updatePlayerDataSync} on the configured executor.
      *
      * @param playerData The player data to update
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> updatePlayerData(PlayerData playerData) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "UPDATE player_data SET warp_limit = ?, last_warp_time = ? WHERE uuid = ?")) {
-                
-                statement.setInt(1, playerData.getWarpLimit());
-                statement.setLong(2, playerData.getLastWarpTime());
-                statement.setString(3, playerData.getUuid().toString());
-                
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error updating player data", e);
-                throw new RuntimeException("Error updating player data", e);
+        return DatabaseExecutor.supplyAsync(() -> updatePlayerDataSync(playerData), executor);
+    }
+
+    /**
+     * Updates the warp limit for a player.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param uuid The UUID of the player
+     * @param warpLimit The new warp limit
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean updateWarpLimitSync(UUID uuid, int warpLimit) {
+        if (memoryStore != null) {
+            return memoryStore.updateWarpLimit(uuid, warpLimit);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.PLAYER_UPDATE_LIMIT)) {
+            
+            statement.setInt(1, warpLimit);
+            statement.setBytes(2, UuidCodec.toBytes(uuid));
+            
+            int affectedRows = statement.executeUpdate();
+            if (affectedRows > 0) {
+                recordChanges(connection, List.of(uuid));
             }
-        }, executor);
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error updating warp limit", e);
+            throw new RuntimeException("Error updating warp limit", e);
+        }
     }
 
     /**
      * Updates the warp limit for a player.
+     * Runs {@link #updateWarpLimitSync} on the configured executor.
      *
      * @param uuid The UUID of the player
      * @param warpLimit The new warp limit
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> updateWarpLimit(UUID uuid, int warpLimit) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "UPDATE player_data SET warp_limit = ? WHERE uuid = ?")) {
-                
-                statement.setInt(1, warpLimit);
-                statement.setString(2, uuid.toString());
-                
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error updating warp limit", e);
-                throw new RuntimeException("Error updating warp limit", e);
+        return DatabaseExecutor.supplyAsync(() -> updateWarpLimitSync(uuid, warpLimit), executor);
+    }
+
+    /**
+     * Sets the warp limit for several players as one JDBC batch using a provided connection
+     * (for transactions). Players without a row get one with the new limit.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param uuids The UUIDs of the players.
+     * @param warpLimit The new warp limit.
+     * @throws SQLException If a database error occurs.
+     */
+    public void upsertWarpLimitsTransactional(Connection connection, List<UUID> uuids, int warpLimit) throws SQLException {
+        if (uuids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_UPSERT_LIMIT)) {
+            for (UUID uuid : uuids) {
+                statement.setBytes(1, UuidCodec.toBytes(uuid));
+                statement.setInt(2, warpLimit);
+                statement.addBatch();
             }
-        }, executor);
+            statement.executeBatch();
+        }
+        recordChanges(connection, uuids);
+    }
+
+    /**
+     * Updates the last warp time for a player.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param uuid The UUID of the player
+     * @param lastWarpTime The new last warp time
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean updateLastWarpTimeSync(UUID uuid, long lastWarpTime) {
+        if (memoryStore != null) {
+            return memoryStore.updateLastWarpTime(uuid, lastWarpTime);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.PLAYER_UPDATE_LAST_WARP_TIME)) {
+            
+            statement.setLong(1, lastWarpTime);
+            statement.setBytes(2, UuidCodec.toBytes(uuid));
+            
+            int affectedRows = statement.executeUpdate();
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error updating last warp time", e);
+            throw new RuntimeException("Error updating last warp time", e);
+        }
+    }
+
+    /**
+     * Raises the last warp time of a player using a provided connection (for transactions).
+     * A newer time already stored is kept, so replaying an older value is harmless.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param uuid The UUID of the player.
+     * @param lastWarpTime The last warp time.
+     * @throws SQLException If a database error occurs.
+     */
+    public void raiseLastWarpTimeTransactional(Connection connection, UUID uuid, long lastWarpTime) throws SQLException {
+        lockOrCreatePlayerDataTransactional(connection, uuid);
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_RAISE_LAST_WARP_TIME)) {
+            statement.setLong(1, lastWarpTime);
+            statement.setBytes(2, UuidCodec.toBytes(uuid));
+            statement.setLong(3, lastWarpTime);
+            statement.executeUpdate();
+        }
     }
 
     /**
      * Updates the last warp time for a player.
+     * Runs {@link #updateLastWarpTimeSync} on the configured executor.
      *
      * @param uuid The UUID of the player
      * @param lastWarpTime The new last warp time
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> updateLastWarpTime(UUID uuid, long lastWarpTime) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "UPDATE player_data SET last_warp_time = ? WHERE uuid = ?")) {
-                
-                statement.setLong(1, lastWarpTime);
-                statement.setString(2, uuid.toString());
-                
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error updating last warp time", e);
-                throw new RuntimeException("Error updating last warp time", e);
+        return DatabaseExecutor.supplyAsync(() -> updateLastWarpTimeSync(uuid, lastWarpTime), executor);
+    }
+
+    /**
+     * Gets one page of known player names, ordered by UUID.
+     * Names are kept in the database even with a memory store, so this always queries the database.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param afterUuid Only names after this UUID are returned, or null for the first page
+     * @param limit The maximum number of names to return
+     * @return The player names
+     * @throws RuntimeException If a database error occurs
+     */
+    public List<PlayerName> getPlayerNamesAfterSync(UUID afterUuid, int limit) {
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_NAME_SELECT_AFTER)) {
+            statement.setBytes(1, afterUuid != null ? UuidCodec.toBytes(afterUuid) : new byte[16]);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<PlayerName> names = new ArrayList<>();
+                while (resultSet.next()) {
+                    names.add(new PlayerName(
+                            UuidCodec.fromBytes(resultSet.getBytes(1)),
+                            resultSet.getString(2),
+                            resultSet.getLong(3)
+                    ));
+                }
+                return names;
             }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting player names", e);
+            throw new RuntimeException("Error getting player names", e);
+        }
+    }
+
+    /**
+     * Stores the names of several players as one JDBC batch, replacing older names.
+     * Runs on the calling thread and blocks until the transaction has finished.
+     *
+     * @param names The player names
+     * @throws RuntimeException If a database error occurs
+     */
+    public void savePlayerNamesSync(List<PlayerName> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        databaseManager.runInTransaction(connection -> {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.PLAYER_NAME_UPSERT)) {
+                for (PlayerName name : names) {
+                    statement.setBytes(1, UuidCodec.toBytes(name.getUuid()));
+                    statement.setString(2, name.getName());
+                    statement.setLong(3, name.getRecordedAt());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Stores the names of several players.
+     * Runs {@link #savePlayerNamesSync} on the configured executor.
+     *
+     * @param names The player names
+     * @return A CompletableFuture that completes when the names are stored
+     */
+    public CompletableFuture<Void> savePlayerNames(List<PlayerName> names) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            savePlayerNamesSync(names);
+            return null;
         }, executor);
     }
 
     /**
-     * Maps a ResultSet to a PlayerData object.
+     * Records that the player data of the given players changed, so other servers reload it.
+     * Does nothing without a change log. Last warp times are not recorded; the cooldown is
+     * far shorter than a server switch.
+     *
+     * @param connection The connection of the write
+     * @param uuids The UUIDs of the players
+     * @throws SQLException If a database error occurs
+     */
+    private void recordChanges(Connection connection, Collection<UUID> uuids) throws SQLException {
+        if (changeLog != null) {
+            changeLog.appendTransactional(connection, uuids, ChangeLog.Kind.PLAYER);
+        }
+    }
+
+    /**
+     * Maps the current row of a ResultSet to a PlayerData object.
+     * The row must follow the column order of {@link SqlStatement#PLAYER_COLUMNS}.
      *
      * @param resultSet The ResultSet to map
      * @return The mapped PlayerData
      * @throws SQLException If an SQL error occurs
      */
-    private PlayerData mapResultSetToPlayerData(ResultSet resultSet) throws SQLException {
+    static PlayerData mapPlayerData(ResultSet resultSet) throws SQLException {
         return new PlayerData(
-                UUID.fromString(resultSet.getString("uuid")),
-                resultSet.getInt("warp_limit"),
-                resultSet.getLong("last_warp_time")
+                UuidCodec.fromBytes(resultSet.getBytes(1)),
+                resultSet.getInt(2),
+                resultSet.getLong(3)
         );
     }
 }
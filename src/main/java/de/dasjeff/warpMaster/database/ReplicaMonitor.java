@@ -0,0 +1,149 @@
+package de.dasjeff.warpMaster.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Tracks the replication lag of the read replica.
+ * Every check writes the current time into the {@code replication_heartbeat} row on the primary
+ * and reads the row back from the replica; the difference to the current time is the lag.
+ * The replica is healthy while it answers and the lag stays within the bound. Because the
+ * replica may still show the previous heartbeat, the measured lag includes up to one check
+ * interval, which keeps the bound conservative.
+ */
+public class ReplicaMonitor {
+    private final DatabaseManager databaseManager;
+    private final DataSource replica;
+    private final Logger logger;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+    private final ScheduledExecutorService checkExecutor;
+
+    private volatile boolean healthy;
+    private volatile long lagMs = -1;
+    private boolean reported;
+
+    /**
+     * Creates a new ReplicaMonitor instance.
+     *
+     * @param databaseManager The database manager, used for the primary
+     * @param replica The replica pool
+     * @param logger The logger
+     * @param maxLagMs The largest acceptable lag in milliseconds
+     * @param checkIntervalMs The time between two checks in milliseconds
+     */
+    ReplicaMonitor(DatabaseManager databaseManager, DataSource replica, Logger logger, long maxLagMs, long checkIntervalMs) {
+        this.databaseManager = databaseManager;
+        this.replica = replica;
+        this.logger = logger;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = Math.max(100, checkIntervalMs);
+        this.checkExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-ReplicaMonitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the periodic checks. The replica stays unused until the first check passed.
+     */
+    void start() {
+        checkExecutor.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    void stop() {
+        checkExecutor.shutdownNow();
+    }
+
+    /**
+     * Writes a heartbeat on the primary and measures how far the replica is behind.
+     */
+    private void check() {
+        if (!databaseManager.isDegraded()) {
+            try {
+                databaseManager.runInTransaction(connection -> {
+                    try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.HEARTBEAT_UPDATE)) {
+                        statement.setLong(1, System.currentTimeMillis());
+                        statement.executeUpdate();
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                // Primary failures are tracked by the circuit breaker; the replica will simply look stale
+            }
+        }
+
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.HEARTBEAT_SELECT);
+             ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                throw new SQLException("No heartbeat row on the replica");
+            }
+            lagMs = Math.max(0, System.currentTimeMillis() - resultSet.getLong(1));
+            setHealthy(lagMs <= maxLagMs, "lag of " + lagMs + " ms", null);
+        } catch (SQLException e) {
+            lagMs = -1;
+            setHealthy(false, "replica not reachable", e);
+        }
+    }
+
+    /**
+     * Marks the replica unhealthy after a failed connection attempt, until the next check passes.
+     *
+     * @param cause The failure
+     */
+    void markUnhealthy(SQLException cause) {
+        setHealthy(false, "connection failed", cause);
+    }
+
+    /**
+     * Updates the health state and logs transitions.
+     *
+     * @param healthy The new state
+     * @param reason Why the state was chosen
+     * @param cause The failure, or null
+     */
+    private synchronized void setHealthy(boolean healthy, String reason, Throwable cause) {
+        if (reported && this.healthy == healthy) {
+            return;
+        }
+        reported = true;
+        this.healthy = healthy;
+        if (healthy) {
+            logger.info("Read replica is healthy (" + reason + "), routing reads to it");
+        } else {
+            logger.log(Level.WARNING, "Read replica is unhealthy (" + reason + "), reading from the primary", cause);
+        }
+    }
+
+    /**
+     * Checks whether reads may currently be sent to the replica.
+     *
+     * @return True if the replica answered the last check within the lag bound
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Gets the lag measured by the last check.
+     *
+     * @return The lag in milliseconds, or -1 if the replica did not answer
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+}
@@ -0,0 +1,690 @@
+package de.dasjeff.warpMaster.database;
+
+import de.dasjeff.warpMaster.model.Warp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies versioned schema migrations on top of an existing database.
+ * The applied versions are recorded in the {@code schema_version} table, so every
+ * migration runs exactly once. Data backfills are done in small keyset-paginated
+ * batches, each committed on its own, so large tables are never locked for long.
+ */
+public class SchemaMigrator {
+    /**
+     * The schema version produced by the legacy (pre-migration) table layout.
+     */
+    public static final int LEGACY_VERSION = 1;
+
+    /**
+     * The schema version that {@code DatabaseManager.createTables} creates for fresh installs.
+     */
+    public static final int BASELINE_VERSION = 3;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final boolean isMySql;
+    private final boolean isH2;
+    private final int batchSize;
+    private final List<Migration> migrations = new ArrayList<>();
+
+    /**
+     * Creates a new SchemaMigrator instance.
+     *
+     * @param databaseManager The database manager
+     * @param logger The logger
+     * @param batchSize The number of rows backfilled per transaction
+     */
+    public SchemaMigrator(DatabaseManager databaseManager, Logger logger, int batchSize) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.isMySql = databaseManager.isMySql();
+        this.isH2 = databaseManager.isH2();
+        this.batchSize = Math.max(1, batchSize);
+
+        migrations.add(new Migration(2, "Add binary UUID and normalized name columns", this::addCompactColumns));
+        migrations.add(new Migration(3, "Switch to binary UUID columns and normalized name index", this::swapCompactColumns));
+        migrations.add(new Migration(4, "Add world index", this::addWorldIndex));
+        migrations.add(new Migration(5, "Add orphan flag and warp archive", this::addOrphanTracking));
+        migrations.add(new Migration(6, "Add replication heartbeat", this::addReplicationHeartbeat));
+        migrations.add(new Migration(7, "Add warp change log", this::addChangeLog));
+        migrations.add(new Migration(8, "Add cluster leases", this::addClusterLeases));
+        migrations.add(new Migration(9, "Add player name directory", this::addPlayerNames));
+    }
+
+    /**
+     * Creates the version table if it does not exist yet.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    public void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // H2 accepts the MySQL types; its INTEGER is too small for the timestamp
+            statement.executeUpdate(isMySql || isH2 ?
+                    "CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY," +
+                    "description VARCHAR(128) NOT NULL," +
+                    "applied_at BIGINT NOT NULL" +
+                    ")" :
+                    "CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INTEGER PRIMARY KEY," +
+                    "description TEXT NOT NULL," +
+                    "applied_at INTEGER NOT NULL" +
+                    ")");
+        }
+    }
+
+    /**
+     * Gets the highest applied schema version.
+     *
+     * @param connection The database connection
+     * @return The current version, or 0 if no version has been recorded
+     * @throws SQLException If an SQL error occurs
+     */
+    public int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Records a schema version as applied.
+     *
+     * @param connection The database connection
+     * @param version The version
+     * @param description A short description of the version
+     * @throws SQLException If an SQL error occurs
+     */
+    public void recordVersion(Connection connection, int version, String description) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            statement.setLong(3, System.currentTimeMillis());
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Applies all migrations newer than the current schema version, in order.
+     *
+     * @throws SQLException If a migration fails
+     */
+    public void migrate() throws SQLException {
+        try (Connection connection = databaseManager.getConnection()) {
+            int currentVersion = getCurrentVersion(connection);
+
+            for (Migration migration : migrations) {
+                if (migration.version <= currentVersion) {
+                    continue;
+                }
+
+                logger.info("Applying database migration " + migration.version + ": " + migration.description);
+                long start = System.currentTimeMillis();
+                migration.step.apply(connection);
+                recordVersion(connection, migration.version, migration.description);
+                logger.info("Database migration " + migration.version + " finished in " + (System.currentTimeMillis() - start) + " ms.");
+            }
+        }
+    }
+
+    /**
+     * Version 2: adds nullable binary UUID and normalized name columns next to the legacy
+     * columns and backfills them in batches.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addCompactColumns(Connection connection) throws SQLException {
+        String binaryType = isMySql ? "BINARY(16)" : "BLOB";
+        String nameType = isMySql ? "VARCHAR(32)" : "TEXT";
+
+        if (!columnExists(connection, "warps", "owner_bin")) {
+            executeDdl(connection, "ALTER TABLE warps ADD COLUMN owner_bin " + binaryType + " NULL");
+        }
+        if (!columnExists(connection, "warps", "name_normalized")) {
+            executeDdl(connection, "ALTER TABLE warps ADD COLUMN name_normalized " + nameType + " NULL");
+        }
+        if (!columnExists(connection, "player_data", "uuid_bin")) {
+            executeDdl(connection, "ALTER TABLE player_data ADD COLUMN uuid_bin " + binaryType + " NULL");
+        }
+
+        backfillWarps(connection);
+        backfillPlayerData(connection);
+    }
+
+    /**
+     * Version 3: replaces the legacy text columns with the backfilled binary columns and
+     * builds the new indexes. On MySQL this is an in-place table rebuild that allows
+     * concurrent DML; SQLite has to copy the table.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void swapCompactColumns(Connection connection) throws SQLException {
+        // Catch rows written by older plugin versions after version 2 ran
+        backfillWarps(connection);
+        backfillPlayerData(connection);
+        resolveNormalizedNameConflicts(connection);
+
+        if (isMySql) {
+            executeDdl(connection,
+                    "ALTER TABLE warps " +
+                    "DROP INDEX idx_owner_name, " +
+                    "DROP INDEX idx_owner_uuid, " +
+                    "DROP COLUMN owner_uuid, " +
+                    "CHANGE COLUMN owner_bin owner_uuid BINARY(16) NOT NULL, " +
+                    "MODIFY COLUMN name_normalized VARCHAR(32) NOT NULL, " +
+                    "ADD UNIQUE INDEX uk_warps_owner_name (owner_uuid, name_normalized), " +
+                    "ADD INDEX idx_warps_owner_id (owner_uuid, id), " +
+                    "ALGORITHM=INPLACE, LOCK=NONE");
+            executeDdl(connection,
+                    "ALTER TABLE player_data " +
+                    "DROP PRIMARY KEY, " +
+                    "DROP COLUMN uuid, " +
+                    "CHANGE COLUMN uuid_bin uuid BINARY(16) NOT NULL, " +
+                    "ADD PRIMARY KEY (uuid), " +
+                    "ALGORITHM=INPLACE, LOCK=NONE");
+            return;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE TABLE warps_new (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "owner_uuid BLOB NOT NULL," +
+                    "name TEXT NOT NULL," +
+                    "name_normalized TEXT NOT NULL," +
+                    "world_name TEXT NOT NULL," +
+                    "x REAL NOT NULL," +
+                    "y REAL NOT NULL," +
+                    "z REAL NOT NULL," +
+                    "yaw REAL NOT NULL," +
+                    "pitch REAL NOT NULL," +
+                    "created_at INTEGER NOT NULL" +
+                    ")");
+            statement.executeUpdate(
+                    "INSERT INTO warps_new (id, owner_uuid, name, name_normalized, world_name, x, y, z, yaw, pitch, created_at) " +
+                    "SELECT id, owner_bin, name, name_normalized, world_name, x, y, z, yaw, pitch, created_at FROM warps");
+            statement.executeUpdate("DROP TABLE warps");
+            statement.executeUpdate("ALTER TABLE warps_new RENAME TO warps");
+            statement.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS uk_warps_owner_name ON warps (owner_uuid, name_normalized)");
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS idx_warps_owner_id ON warps (owner_uuid, id)");
+
+            statement.executeUpdate(
+                    "CREATE TABLE player_data_new (" +
+                    "uuid BLOB PRIMARY KEY," +
+                    "warp_limit INTEGER NOT NULL DEFAULT 5," +
+                    "last_warp_time INTEGER NOT NULL DEFAULT 0" +
+                    ")");
+            statement.executeUpdate(
+                    "INSERT INTO player_data_new (uuid, warp_limit, last_warp_time) " +
+                    "SELECT uuid_bin, warp_limit, last_warp_time FROM player_data");
+            statement.executeUpdate("DROP TABLE player_data");
+            statement.executeUpdate("ALTER TABLE player_data_new RENAME TO player_data");
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Version 4: indexes warps by world for bulk world operations.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addWorldIndex(Connection connection) throws SQLException {
+        executeDdl(connection, isMySql ?
+                "ALTER TABLE warps ADD INDEX idx_warps_world_id (world_name, id), ALGORITHM=INPLACE, LOCK=NONE" :
+                "CREATE INDEX IF NOT EXISTS idx_warps_world_id ON warps (world_name, id)");
+    }
+
+    /**
+     * Version 5: adds the {@code orphaned_at} flag used by the world sweeper and the
+     * {@code warps_archive} table that orphaned warps are moved to.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addOrphanTracking(Connection connection) throws SQLException {
+        if (!columnExists(connection, "warps", "orphaned_at")) {
+            executeDdl(connection, "ALTER TABLE warps ADD COLUMN orphaned_at " + (isMySql || isH2 ? "BIGINT" : "INTEGER") + " NULL");
+        }
+
+        executeDdl(connection, isMySql ?
+                "CREATE TABLE IF NOT EXISTS warps_archive (" +
+                "id INT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "name VARCHAR(32) NOT NULL," +
+                "world_name VARCHAR(64) NOT NULL," +
+                "x DOUBLE NOT NULL," +
+                "y DOUBLE NOT NULL," +
+                "z DOUBLE NOT NULL," +
+                "yaw FLOAT NOT NULL," +
+                "pitch FLOAT NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "archived_at BIGINT NOT NULL," +
+                "INDEX idx_warps_archive_owner (owner_uuid)" +
+                ")" :
+                isH2 ?
+                "CREATE TABLE IF NOT EXISTS warps_archive (" +
+                "id INT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "name VARCHAR(32) NOT NULL," +
+                "world_name VARCHAR(64) NOT NULL," +
+                "x DOUBLE PRECISION NOT NULL," +
+                "y DOUBLE PRECISION NOT NULL," +
+                "z DOUBLE PRECISION NOT NULL," +
+                "yaw REAL NOT NULL," +
+                "pitch REAL NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "archived_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS warps_archive (" +
+                "id INTEGER PRIMARY KEY," +
+                "owner_uuid BLOB NOT NULL," +
+                "name TEXT NOT NULL," +
+                "world_name TEXT NOT NULL," +
+                "x REAL NOT NULL," +
+                "y REAL NOT NULL," +
+                "z REAL NOT NULL," +
+                "yaw REAL NOT NULL," +
+                "pitch REAL NOT NULL," +
+                "created_at INTEGER NOT NULL," +
+                "archived_at INTEGER NOT NULL" +
+                ")");
+        if (!isMySql) {
+            executeDdl(connection, "CREATE INDEX IF NOT EXISTS idx_warps_archive_owner ON warps_archive (owner_uuid)");
+        }
+    }
+
+    /**
+     * Version 6: adds the single-row {@code replication_heartbeat} table that the
+     * {@link ReplicaMonitor} uses to measure replication lag.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addReplicationHeartbeat(Connection connection) throws SQLException {
+        executeDdl(connection, isMySql || isH2 ?
+                "CREATE TABLE IF NOT EXISTS replication_heartbeat (" +
+                "id INT PRIMARY KEY," +
+                "beat_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS replication_heartbeat (" +
+                "id INTEGER PRIMARY KEY," +
+                "beat_at INTEGER NOT NULL" +
+                ")");
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM replication_heartbeat")) {
+            if (resultSet.next() && resultSet.getInt(1) > 0) {
+                return;
+            }
+        }
+        executeDdl(connection, "INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, 0)");
+    }
+
+    /**
+     * Version 7: adds the {@code warp_changes} table that servers sharing a database use
+     * to invalidate each other's caches, see {@link ChangeLog}.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addChangeLog(Connection connection) throws SQLException {
+        executeDdl(connection, isMySql ?
+                "CREATE TABLE IF NOT EXISTS warp_changes (" +
+                "seq BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "kind TINYINT NOT NULL," +
+                "origin BINARY(16) NOT NULL," +
+                "created_at BIGINT NOT NULL," +
+                "INDEX idx_warp_changes_created (created_at)" +
+                ")" :
+                isH2 ?
+                "CREATE TABLE IF NOT EXISTS warp_changes (" +
+                "seq BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                "owner_uuid BINARY(16) NOT NULL," +
+                "kind TINYINT NOT NULL," +
+                "origin BINARY(16) NOT NULL," +
+                "created_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS warp_changes (" +
+                "seq INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "owner_uuid BLOB NOT NULL," +
+                "kind INTEGER NOT NULL," +
+                "origin BLOB NOT NULL," +
+                "created_at INTEGER NOT NULL" +
+                ")");
+        if (!isMySql) {
+            executeDdl(connection, "CREATE INDEX IF NOT EXISTS idx_warp_changes_created ON warp_changes (created_at)");
+        }
+    }
+
+    /**
+     * Version 8: adds the {@code cluster_leases} table used for leader election between
+     * servers sharing the database, see {@link LeaderLease}.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addClusterLeases(Connection connection) throws SQLException {
+        executeDdl(connection, isMySql || isH2 ?
+                "CREATE TABLE IF NOT EXISTS cluster_leases (" +
+                "name VARCHAR(64) PRIMARY KEY," +
+                "holder BINARY(16) NOT NULL," +
+                "expires_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS cluster_leases (" +
+                "name TEXT PRIMARY KEY," +
+                "holder BLOB NOT NULL," +
+                "expires_at INTEGER NOT NULL" +
+                ")");
+    }
+
+    /**
+     * Version 9: adds the {@code player_names} table holding the last known name of every
+     * player, loaded into the player directory on startup.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void addPlayerNames(Connection connection) throws SQLException {
+        executeDdl(connection, isMySql || isH2 ?
+                "CREATE TABLE IF NOT EXISTS player_names (" +
+                "uuid BINARY(16) PRIMARY KEY," +
+                "name VARCHAR(16) NOT NULL," +
+                "recorded_at BIGINT NOT NULL" +
+                ")" :
+                "CREATE TABLE IF NOT EXISTS player_names (" +
+                "uuid BLOB PRIMARY KEY," +
+                "name TEXT NOT NULL," +
+                "recorded_at INTEGER NOT NULL" +
+                ")");
+    }
+
+    /**
+     * Fills {@code owner_bin} and {@code name_normalized} for all warps that do not have them yet.
+     * Walks the table by primary key so every batch is a short index range scan.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void backfillWarps(Connection connection) throws SQLException {
+        int lastId = 0;
+        long total = 0;
+
+        while (true) {
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id, owner_uuid, name FROM warps " +
+                    "WHERE id > ? AND (owner_bin IS NULL OR name_normalized IS NULL) ORDER BY id LIMIT ?")) {
+                select.setInt(1, lastId);
+                select.setInt(2, batchSize);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows.add(new Object[]{resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3)});
+                    }
+                }
+            }
+
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            runBatch(connection, "UPDATE warps SET owner_bin = ?, name_normalized = ? WHERE id = ?", update -> {
+                for (Object[] row : rows) {
+                    update.setBytes(1, UuidCodec.toBytes(parseLegacyUuid((String) row[1], "warp " + row[0])));
+                    update.setString(2, Warp.normalizeName((String) row[2]));
+                    update.setInt(3, (Integer) row[0]);
+                    update.addBatch();
+                }
+            });
+
+            lastId = (Integer) rows.get(rows.size() - 1)[0];
+            total += rows.size();
+            logger.info("Backfilled " + total + " warp rows...");
+        }
+    }
+
+    /**
+     * Fills {@code uuid_bin} for all player data rows that do not have it yet.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void backfillPlayerData(Connection connection) throws SQLException {
+        String lastUuid = "";
+        long total = 0;
+
+        while (true) {
+            List<String> uuids = new ArrayList<>(batchSize);
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT uuid FROM player_data WHERE uuid > ? AND uuid_bin IS NULL ORDER BY uuid LIMIT ?")) {
+                select.setString(1, lastUuid);
+                select.setInt(2, batchSize);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        uuids.add(resultSet.getString(1));
+                    }
+                }
+            }
+
+            if (uuids.isEmpty()) {
+                break;
+            }
+
+            runBatch(connection, "UPDATE player_data SET uuid_bin = ? WHERE uuid = ?", update -> {
+                for (String uuid : uuids) {
+                    update.setBytes(1, UuidCodec.toBytes(parseLegacyUuid(uuid, "player data row " + uuid)));
+                    update.setString(2, uuid);
+                    update.addBatch();
+                }
+            });
+
+            lastUuid = uuids.get(uuids.size() - 1);
+            total += uuids.size();
+            logger.info("Backfilled " + total + " player data rows...");
+        }
+    }
+
+    /**
+     * Renames warps whose names only differ in case from an older warp of the same owner,
+     * because the new unique index treats them as duplicates. The oldest warp keeps its name,
+     * the others get {@code _<id>} appended, with a further counter if the owner already uses that name.
+     * <p>
+     * No index covers the new columns yet, so the duplicates are found by grouping, which reads
+     * the table once, and only the warps of owners with duplicates are loaded.
+     *
+     * @param connection The database connection
+     * @throws SQLException If an SQL error occurs
+     */
+    private void resolveNormalizedNameConflicts(Connection connection) throws SQLException {
+        Map<UUID, List<Object[]>> warpsByOwner = new LinkedHashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT w.id, w.owner_bin, w.name, w.name_normalized FROM warps w " +
+                "JOIN (SELECT DISTINCT owner_bin FROM (SELECT owner_bin FROM warps " +
+                "GROUP BY owner_bin, name_normalized HAVING COUNT(*) > 1) duplicates) conflicted " +
+                "ON w.owner_bin = conflicted.owner_bin ORDER BY w.id");
+             ResultSet resultSet = select.executeQuery()) {
+            while (resultSet.next()) {
+                warpsByOwner.computeIfAbsent(UuidCodec.fromBytes(resultSet.getBytes(2)), key -> new ArrayList<>())
+                        .add(new Object[]{resultSet.getInt(1), resultSet.getString(3), resultSet.getString(4)});
+            }
+        }
+
+        List<Object[]> renames = new ArrayList<>();
+        for (List<Object[]> warps : warpsByOwner.values()) {
+            Set<String> usedNames = new HashSet<>();
+            for (Object[] warp : warps) {
+                usedNames.add((String) warp[2]);
+            }
+            Set<String> keptNames = new HashSet<>();
+            for (Object[] warp : warps) {
+                if (keptNames.add((String) warp[2])) {
+                    continue;
+                }
+                String newName = uniqueName((String) warp[1], (Integer) warp[0], usedNames);
+                usedNames.add(Warp.normalizeName(newName));
+                renames.add(new Object[]{warp[0], newName});
+            }
+        }
+
+        if (renames.isEmpty()) {
+            return;
+        }
+
+        runBatch(connection, "UPDATE warps SET name = ?, name_normalized = ? WHERE id = ?", update -> {
+            for (Object[] rename : renames) {
+                logger.warning("Renaming warp " + rename[0] + " to '" + rename[1] + "' because its name clashes case-insensitively with an older warp.");
+                update.setString(1, (String) rename[1]);
+                update.setString(2, Warp.normalizeName((String) rename[1]));
+                update.setInt(3, (Integer) rename[0]);
+                update.addBatch();
+            }
+        });
+    }
+
+    /**
+     * Picks a new name for a clashing warp that its owner does not use yet.
+     *
+     * @param name The current name of the warp
+     * @param id The ID of the warp
+     * @param usedNames The normalized names the owner already uses
+     * @return The name with {@code _<id>}, or {@code _<id>_<n>} if that is taken, cut to 32 characters
+     */
+    private static String uniqueName(String name, int id, Set<String> usedNames) {
+        for (int attempt = 1; ; attempt++) {
+            String suffix = attempt == 1 ? "_" + id : "_" + id + "_" + attempt;
+            String candidate = name.substring(0, Math.min(name.length(), 32 - suffix.length())) + suffix;
+            if (!usedNames.contains(Warp.normalizeName(candidate))) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Parses a UUID that an older version stored as text.
+     *
+     * @param value The stored text
+     * @param row The row it was read from, for the error message
+     * @return The UUID
+     * @throws SQLException If the value is missing or not a UUID, so the migration fails cleanly
+     */
+    private static UUID parseLegacyUuid(String value, String row) throws SQLException {
+        if (value == null) {
+            throw new SQLException("Cannot migrate " + row + ": its UUID is missing");
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Cannot migrate " + row + ": '" + value + "' is not a valid UUID", e);
+        }
+    }
+
+    /**
+     * Runs a JDBC batch in its own short transaction.
+     *
+     * @param connection The database connection
+     * @param sql The SQL statement
+     * @param binder Adds the batch entries to the statement
+     * @throws SQLException If an SQL error occurs
+     */
+    private void runBatch(Connection connection, String sql, BatchBinder binder) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            statement.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Checks whether a column exists on a table.
+     *
+     * @param connection The database connection
+     * @param table The table name
+     * @param column The column name
+     * @return True if the column exists, false otherwise
+     * @throws SQLException If an SQL error occurs
+     */
+    private boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * Executes a single DDL statement.
+     *
+     * @param connection The database connection
+     * @param sql The statement
+     * @throws SQLException If an SQL error occurs
+     */
+    private void executeDdl(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Migration statement failed: " + sql, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Binds the entries of a JDBC batch.
+     */
+    @FunctionalInterface
+    private interface BatchBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * A single migration step.
+     */
+    @FunctionalInterface
+    private interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A versioned migration.
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        private Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package de.dasjeff.warpMaster.database;
+
+/**
+ * Registry of all SQL statements issued by the repositories.
+ * Every statement uses an explicit column list so result sets can be mapped by index,
+ * and every call site uses the exact same SQL text, which lets the driver's prepared
+ * statement cache (see {@code DatabaseManager.setupMySqlDataSource}) reuse the
+ * server-side statements instead of re-parsing them.
+ * H2 runs in MySQL compatibility mode and uses the MySQL variants.
+ */
+enum SqlStatement {
+    // --- warps ---
+    WARP_INSERT(
+            "INSERT INTO warps (owner_uuid, name, name_normalized, world_name, x, y, z, yaw, pitch, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    WARP_SELECT_BY_ID(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE id = ?"),
+    WARP_SELECT_BY_OWNER_AND_NAME(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE owner_uuid = ? AND name_normalized = ?"),
+    WARP_SELECT_BY_OWNER(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE owner_uuid = ? ORDER BY id"),
+    WARP_COUNT_BY_OWNER(
+            "SELECT COUNT(*) FROM warps WHERE owner_uuid = ?"),
+    WARP_UPDATE(
+            "UPDATE warps SET owner_uuid = ?, name = ?, name_normalized = ?, world_name = ?, " +
+            "x = ?, y = ?, z = ?, yaw = ?, pitch = ? WHERE id = ?"),
+    WARP_DELETE_BY_ID(
+            "DELETE FROM warps WHERE id = ?"),
+    WARP_DELETE_BY_OWNER_AND_NAME(
+            "DELETE FROM warps WHERE owner_uuid = ? AND name_normalized = ?"),
+    WARP_SELECT_DISTINCT_OWNERS(
+            "SELECT DISTINCT owner_uuid FROM warps"),
+    WARP_SELECT_OWNERS_AFTER(
+            "SELECT DISTINCT owner_uuid FROM warps WHERE owner_uuid > ? ORDER BY owner_uuid LIMIT ?"),
+    WARP_SELECT_OWNERS_IN(
+            "SELECT DISTINCT owner_uuid FROM warps WHERE owner_uuid IN (" + "?, ".repeat(SqlStatement.OWNER_LOOKUP_SIZE - 1) + "?)"),
+    WARP_SELECT_NAMES_BY_OWNERS_IN(
+            "SELECT owner_uuid, name_normalized FROM warps WHERE owner_uuid IN (" + "?, ".repeat(SqlStatement.OWNER_LOOKUP_SIZE - 1) + "?)"),
+    WARP_SELECT_BY_OWNERS_IN(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE owner_uuid IN (" + "?, ".repeat(SqlStatement.OWNER_LOOKUP_SIZE - 1) + "?) ORDER BY id"),
+    WARP_COUNT_BY_OWNERS_IN(
+            "SELECT owner_uuid, COUNT(*) FROM warps WHERE owner_uuid IN (" + "?, ".repeat(SqlStatement.OWNER_LOOKUP_SIZE - 1) + "?) GROUP BY owner_uuid"),
+    WARP_SELECT_PAGE_AFTER_ID(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE id > ? ORDER BY id LIMIT ?"),
+    WARP_SELECT_OWNER_SUMMARY(
+            "SELECT owner_uuid, COUNT(*), MAX(id), SUM(x), SUM(y), SUM(z), SUM(yaw + pitch), SUM(CHAR_LENGTH(world_name)) " +
+            "FROM warps GROUP BY owner_uuid",
+            "SELECT owner_uuid, COUNT(*), MAX(id), SUM(x), SUM(y), SUM(z), SUM(yaw + pitch), SUM(LENGTH(world_name)) " +
+            "FROM warps GROUP BY owner_uuid"),
+    WARP_SELECT_BY_OWNER_AFTER(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE owner_uuid = ? AND id > ? ORDER BY id LIMIT ?"),
+    WARP_SELECT_BY_WORLD_AFTER(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE world_name = ? AND id > ? ORDER BY id LIMIT ?"),
+    WARP_SELECT_SWEEP_AFTER(
+            "SELECT " + SqlStatement.WARP_COLUMNS + ", orphaned_at FROM warps WHERE id > ? ORDER BY id LIMIT ?"),
+    WARP_FLAG_ORPHANED(
+            "UPDATE warps SET orphaned_at = ? WHERE id = ? AND orphaned_at IS NULL"),
+    WARP_CLEAR_ORPHANED_BY_WORLD(
+            "UPDATE warps SET orphaned_at = NULL WHERE world_name = ? AND orphaned_at IS NOT NULL"),
+    WARP_ARCHIVE_INSERT(
+            "INSERT INTO warps_archive (id, owner_uuid, name, world_name, x, y, z, yaw, pitch, created_at, archived_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    WARP_SELECT_MAX_ID(
+            "SELECT MAX(id) FROM (SELECT MAX(id) AS id FROM warps UNION ALL SELECT MAX(id) AS id FROM warps_archive) AS ids"),
+    WARP_SELECT_ID_RANGE(
+            "SELECT " + SqlStatement.WARP_COLUMNS + " FROM warps WHERE id > ? AND id <= ?"),
+    WARP_UPSERT(
+            "INSERT INTO warps (id, owner_uuid, name, name_normalized, world_name, x, y, z, yaw, pitch, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE owner_uuid = VALUES(owner_uuid), " +
+            "name = VALUES(name), name_normalized = VALUES(name_normalized), world_name = VALUES(world_name), " +
+            "x = VALUES(x), y = VALUES(y), z = VALUES(z), yaw = VALUES(yaw), pitch = VALUES(pitch)",
+            "INSERT INTO warps (id, owner_uuid, name, name_normalized, world_name, x, y, z, yaw, pitch, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT(id) DO UPDATE SET owner_uuid = excluded.owner_uuid, " +
+            "name = excluded.name, name_normalized = excluded.name_normalized, world_name = excluded.world_name, " +
+            "x = excluded.x, y = excluded.y, z = excluded.z, yaw = excluded.yaw, pitch = excluded.pitch"),
+    WARP_TRANSFER(
+            "UPDATE warps SET owner_uuid = ? WHERE owner_uuid = ? AND name_normalized = ?"),
+    // The derived table lets MySQL read the target owner's names while updating the same table
+    WARP_TRANSFER_ALL(
+            "UPDATE warps SET owner_uuid = ? WHERE owner_uuid = ? AND name_normalized NOT IN (" +
+            "SELECT taken.name_normalized FROM (SELECT name_normalized FROM warps WHERE owner_uuid = ?) AS taken)"),
+
+    // --- player_data ---
+    PLAYER_SELECT(
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid = ?"),
+    PLAYER_SELECT_IN(
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid IN (" + "?, ".repeat(SqlStatement.OWNER_LOOKUP_SIZE - 1) + "?)"),
+    PLAYER_SELECT_FOR_UPDATE(
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid = ? FOR UPDATE",
+            // SQLite has a single writer, the write transaction itself serializes access
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid = ?"),
+    PLAYER_SELECT_RANGE(
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid >= ? AND uuid < ?"),
+    PLAYER_SELECT_FROM(
+            "SELECT " + SqlStatement.PLAYER_COLUMNS + " FROM player_data WHERE uuid >= ?"),
+    PLAYER_UPSERT(
+            "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE warp_limit = VALUES(warp_limit), last_warp_time = VALUES(last_warp_time)",
+            "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET warp_limit = excluded.warp_limit, last_warp_time = excluded.last_warp_time"),
+    PLAYER_INSERT(
+            "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, ?)"),
+    PLAYER_UPDATE(
+            "UPDATE player_data SET warp_limit = ?, last_warp_time = ? WHERE uuid = ?"),
+    PLAYER_UPDATE_LIMIT(
+            "UPDATE player_data SET warp_limit = ? WHERE uuid = ?"),
+    PLAYER_UPSERT_LIMIT(
+            "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE warp_limit = VALUES(warp_limit)",
+            "INSERT INTO player_data (uuid, warp_limit, last_warp_time) VALUES (?, ?, 0) " +
+            "ON CONFLICT(uuid) DO UPDATE SET warp_limit = excluded.warp_limit"),
+    PLAYER_UPDATE_LAST_WARP_TIME(
+            "UPDATE player_data SET last_warp_time = ? WHERE uuid = ?"),
+    PLAYER_RAISE_LAST_WARP_TIME(
+            "UPDATE player_data SET last_warp_time = ? WHERE uuid = ? AND last_warp_time < ?"),
+
+    // --- player_names ---
+    PLAYER_NAME_UPSERT(
+            "INSERT INTO player_names (uuid, name, recorded_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), recorded_at = VALUES(recorded_at)",
+            "INSERT INTO player_names (uuid, name, recorded_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT(uuid) DO UPDATE SET name = excluded.name, recorded_at = excluded.recorded_at"),
+    PLAYER_NAME_SELECT_AFTER(
+            "SELECT uuid, name, recorded_at FROM player_names WHERE uuid > ? ORDER BY uuid LIMIT ?"),
+
+    // --- replication_heartbeat ---
+    HEARTBEAT_UPDATE(
+            "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1"),
+    HEARTBEAT_SELECT(
+            "SELECT beat_at FROM replication_heartbeat WHERE id = 1"),
+
+    // --- warp_changes ---
+    CHANGE_INSERT(
+            "INSERT INTO warp_changes (owner_uuid, kind, origin, created_at) VALUES (?, ?, ?, ?)"),
+    CHANGE_SELECT_AFTER(
+            "SELECT seq, owner_uuid, kind, origin FROM warp_changes WHERE seq > ? ORDER BY seq LIMIT ?"),
+    CHANGE_SELECT_HEAD(
+            "SELECT COALESCE(MAX(seq), 0) FROM warp_changes"),
+    CHANGE_SELECT_COMPACTION_BOUND(
+            "SELECT COALESCE(MIN(seq), 0), COALESCE(MAX(seq), 0) FROM warp_changes WHERE created_at < ?"),
+    CHANGE_DELETE_RANGE(
+            "DELETE FROM warp_changes WHERE seq >= ? AND seq < ?"),
+
+    // --- cluster_leases ---
+    LEASE_INSERT(
+            "INSERT IGNORE INTO cluster_leases (name, holder, expires_at) VALUES (?, ?, ?)",
+            "INSERT OR IGNORE INTO cluster_leases (name, holder, expires_at) VALUES (?, ?, ?)"),
+    LEASE_ACQUIRE(
+            "UPDATE cluster_leases SET holder = ?, expires_at = ? WHERE name = ? AND (holder = ? OR expires_at < ?)"),
+    LEASE_RELEASE(
+            "UPDATE cluster_leases SET expires_at = 0 WHERE name = ? AND holder = ?");
+
+    /**
+     * Projection for warp rows, mapped by index in {@code WarpRepository.mapWarp}.
+     */
+    static final String WARP_COLUMNS = "id, owner_uuid, name, world_name, x, y, z, yaw, pitch, created_at";
+
+    /**
+     * Projection for player data rows, mapped by index in {@code PlayerRepository.mapPlayerData}.
+     */
+    static final String PLAYER_COLUMNS = "uuid, warp_limit, last_warp_time";
+
+    /**
+     * Number of placeholders in the fixed-size {@code IN} lists. Shorter lists repeat their
+     * last value, so every lookup uses the same SQL text.
+     */
+    static final int OWNER_LOOKUP_SIZE = 50;
+
+    private final String mySql;
+    private final String sqlite;
+
+    SqlStatement(String sql) {
+        this(sql, sql);
+    }
+
+    SqlStatement(String mySql, String sqlite) {
+        this.mySql = mySql;
+        this.sqlite = sqlite;
+    }
+
+    /**
+     * Gets the SQL text of this statement for the given dialect.
+     *
+     * @param mySqlSyntax Whether the database uses the MySQL syntax
+     * @return The SQL text
+     */
+    String sql(boolean mySqlSyntax) {
+        return mySqlSyntax ? mySql : sqlite;
+    }
+}
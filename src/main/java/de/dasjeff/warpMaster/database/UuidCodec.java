@@ -0,0 +1,50 @@
+package de.dasjeff.warpMaster.database;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Converts UUIDs to and from their compact 16 byte database representation.
+ */
+public final class UuidCodec {
+
+    /**
+     * Orders UUIDs like the unsigned bytes of their encoded form, which is the order of a binary UUID index.
+     */
+    public static final Comparator<UUID> BINARY_ORDER = (first, second) -> {
+        int result = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+    };
+
+    private UuidCodec() {
+    }
+
+    /**
+     * Encodes a UUID as 16 big-endian bytes (most significant bits first).
+     *
+     * @param uuid The UUID to encode
+     * @return The encoded bytes
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Decodes 16 bytes produced by {@link #toBytes(UUID)} back into a UUID.
+     *
+     * @param bytes The encoded bytes
+     * @return The decoded UUID
+     * @throws IllegalArgumentException If the array does not contain exactly 16 bytes
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            throw new IllegalArgumentException("Binary UUID must be 16 bytes, got " + (bytes == null ? "null" : bytes.length));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -1,6 +1,7 @@
 package de.dasjeff.warpMaster.database;
 
 import de.dasjeff.warpMaster.model.Warp;
+import de.dasjeff.warpMaster.model.WarpOperation;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -8,13 +9,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Repository for managing warp data in the database.
@@ -23,6 +32,8 @@ public class WarpRepository {
     private final DatabaseManager databaseManager;
     private final Logger logger;
     private final ExecutorService executor;
+    private final MemoryStore memoryStore;
+    private final ChangeLog changeLog;
 
     /**
      * Creates a new WarpRepository instance.
@@ -30,30 +41,84 @@ public class WarpRepository {
      * @param databaseManager The database manager
      * @param logger The logger
      * @param executor The executor service for database operations
+     * @param memoryStore The memory-resident store serving reads and writes, or null to query the database
+     * @param changeLog The change log that writes are recorded in for other servers, or null
      */
-    public WarpRepository(DatabaseManager databaseManager, Logger logger, ExecutorService executor) {
+    public WarpRepository(DatabaseManager databaseManager, Logger logger, ExecutorService executor, MemoryStore memoryStore, ChangeLog changeLog) {
         this.databaseManager = databaseManager;
         this.logger = logger;
         this.executor = executor;
+        this.memoryStore = memoryStore;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Writes all changes buffered by the memory store, so direct SQL sees the current state.
+     * Does nothing without a memory store. Must not be called inside a transaction.
+     *
+     * @throws RuntimeException If a database error occurs
+     */
+    public void flushPending() {
+        if (memoryStore != null) {
+            memoryStore.flush();
+        }
+    }
+
+    /**
+     * Reloads warps into the memory store after they were changed with direct SQL.
+     * Does nothing without a memory store.
+     *
+     * @param ownerUuids The UUIDs of the owners whose warps changed
+     * @throws RuntimeException If a database error occurs
+     */
+    public void reloadOwners(Collection<UUID> ownerUuids) {
+        if (memoryStore != null) {
+            memoryStore.reloadOwners(ownerUuids);
+        }
+    }
+
+    /**
+     * Drops warps from the memory store after they were deleted with direct SQL.
+     * Does nothing without a memory store.
+     *
+     * @param warps The deleted warps
+     */
+    public void evictWarps(Collection<Warp> warps) {
+        if (memoryStore != null) {
+            memoryStore.evictWarps(warps);
+        }
+    }
+
+    /**
+     * Creates a new warp in the database using its own connection.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param warp The warp to create
+     * @return The created warp (with ID)
+     * @throws RuntimeException If a database error occurs
+     */
+    public Warp createWarpSync(Warp warp) {
+        if (memoryStore != null) {
+            return memoryStore.createWarp(warp);
+        }
+        try (Connection connection = databaseManager.getConnection()) {
+            // Delegate to the transactional version
+            return createWarpTransactional(connection, warp);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error creating warp", e);
+            throw new RuntimeException("Error creating warp", e);
+        }
     }
 
     /**
      * Creates a new warp in the database using its own connection.
-     * Runs asynchronously on the configured executor.
+     * Runs {@link #createWarpSync} on the configured executor.
      *
      * @param warp The warp to create
      * @return A CompletableFuture that completes with the created warp (with ID)
      */
     public CompletableFuture<Warp> createWarp(Warp warp) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection()) {
-                // Delegate to the transactional version
-                return createWarpTransactional(connection, warp);
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error creating warp", e);
-                throw new RuntimeException("Error creating warp", e);
-            }
-        }, executor);
+        return DatabaseExecutor.supplyAsync(() -> createWarpSync(warp), executor);
     }
 
     /**
@@ -67,20 +132,10 @@ public class WarpRepository {
      */
     public Warp createWarpTransactional(Connection connection, Warp warp) throws SQLException {
         // Use try-with-resources for the PreparedStatement, but NOT the connection
-        try (PreparedStatement statement = connection.prepareStatement(
-                "INSERT INTO warps (owner_uuid, name, world_name, x, y, z, yaw, pitch, created_at) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                Statement.RETURN_GENERATED_KEYS)) {
-
-            statement.setString(1, warp.getOwnerUuid().toString());
-            statement.setString(2, warp.getName());
-            statement.setString(3, warp.getWorldName());
-            statement.setDouble(4, warp.getX());
-            statement.setDouble(5, warp.getY());
-            statement.setDouble(6, warp.getZ());
-            statement.setFloat(7, warp.getYaw());
-            statement.setFloat(8, warp.getPitch());
-            statement.setLong(9, warp.getCreatedAt());
+        try (PreparedStatement statement = databaseManager.prepare(connection,
+                SqlStatement.WARP_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+
+            bindInsert(statement, warp);
 
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
@@ -90,6 +145,7 @@ public class WarpRepository {
             try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int id = generatedKeys.getInt(1);
+                    recordChanges(connection, List.of(warp.getOwnerUuid()));
                     // Return a new Warp object with the generated ID
                     return new Warp(
                             id,
@@ -111,151 +167,804 @@ public class WarpRepository {
         // Connection close is managed by the caller (transaction)
     }
 
+    /**
+     * Inserts many warps in one transaction, skipping warps whose name their owner already uses.
+     * The names the owners already use are looked up in fixed-size {@code IN} lists of
+     * {@link SqlStatement#OWNER_LOOKUP_SIZE} first, then the inserts are sent as one JDBC batch.
+     * If a player creates one of the names between lookup and insert, the transaction is
+     * rolled back and retried once, and the retry's lookup skips that name.
+     * Runs on the calling thread and blocks until the transaction has finished.
+     *
+     * @param warps The warps to insert; their IDs are ignored
+     * @return For every warp whether it was inserted, false if its name was already taken
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean[] importWarpsSync(List<Warp> warps) {
+        if (memoryStore != null) {
+            boolean[] inserted = new boolean[warps.size()];
+            for (int i = 0; i < warps.size(); i++) {
+                try {
+                    memoryStore.createWarp(warps.get(i));
+                    inserted[i] = true;
+                } catch (RuntimeException e) {
+                    if (!(e.getCause() instanceof SQLException sqlException) || !DatabaseManager.isUniqueViolation(sqlException)) {
+                        throw e;
+                    }
+                }
+            }
+            return inserted;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return databaseManager.runInTransaction(connection -> importWarpsTransactional(connection, warps));
+            } catch (RuntimeException e) {
+                if (attempt == 1 && e.getCause() instanceof SQLException sqlException && DatabaseManager.isUniqueViolation(sqlException)) {
+                    continue;
+                }
+                logger.log(Level.SEVERE, "Error importing warps", e);
+                throw new RuntimeException("Error importing warps", e);
+            }
+        }
+    }
+
+    /**
+     * Inserts many warps using a provided database connection (for transactions),
+     * skipping warps whose name their owner already uses, including names used by
+     * earlier warps of the same list.
+     *
+     * @param connection The existing database connection
+     * @param warps The warps to insert; their IDs are ignored
+     * @return For every warp whether it was inserted, false if its name was already taken
+     * @throws SQLException If a database error occurs
+     */
+    private boolean[] importWarpsTransactional(Connection connection, List<Warp> warps) throws SQLException {
+        Set<UUID> owners = new LinkedHashSet<>();
+        for (Warp warp : warps) {
+            owners.add(warp.getOwnerUuid());
+        }
+        Set<String> takenNames = getTakenNamesTransactional(connection, new ArrayList<>(owners));
+
+        boolean[] inserted = new boolean[warps.size()];
+        Set<UUID> changedOwners = new HashSet<>();
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_INSERT)) {
+            for (int i = 0; i < warps.size(); i++) {
+                Warp warp = warps.get(i);
+                if (!takenNames.add(warp.getOwnerUuid() + ":" + Warp.normalizeName(warp.getName()))) {
+                    continue;
+                }
+                bindInsert(statement, warp);
+                statement.addBatch();
+                inserted[i] = true;
+                changedOwners.add(warp.getOwnerUuid());
+            }
+            if (!changedOwners.isEmpty()) {
+                // Update counts are not checked, the MySQL driver rewrites the batch into multi-row inserts
+                statement.executeBatch();
+            }
+        }
+        recordChanges(connection, changedOwners);
+        return inserted;
+    }
+
+    /**
+     * Gets the names already used by the given owners.
+     *
+     * @param connection The existing database connection
+     * @param ownerUuids The UUIDs of the owners
+     * @return The used names as {@code owner:normalized name}
+     * @throws SQLException If a database error occurs
+     */
+    private Set<String> getTakenNamesTransactional(Connection connection, List<UUID> ownerUuids) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_NAMES_BY_OWNERS_IN)) {
+            for (int from = 0; from < ownerUuids.size(); from += SqlStatement.OWNER_LOOKUP_SIZE) {
+                List<UUID> chunk = ownerUuids.subList(from, Math.min(from + SqlStatement.OWNER_LOOKUP_SIZE, ownerUuids.size()));
+                for (int i = 0; i < SqlStatement.OWNER_LOOKUP_SIZE; i++) {
+                    statement.setBytes(i + 1, UuidCodec.toBytes(chunk.get(Math.min(i, chunk.size() - 1))));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        names.add(UuidCodec.fromBytes(resultSet.getBytes(1)) + ":" + resultSet.getString(2));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Checks whether warps are served by the memory-resident store instead of the database.
+     *
+     * @return True if a memory store is used
+     */
+    public boolean isMemoryResident() {
+        return memoryStore != null;
+    }
+
+    /**
+     * Applies operations to the warps of one owner using a provided connection (for transactions).
+     * The operations are checked in order against the owner's warps, so each one sees the effect
+     * of the ones before it. The resulting changes are written as one JDBC batch each for
+     * deletions, moves and creations.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param ownerUuid The UUID of the owner; every operation must belong to this owner.
+     * @param warpLimit The owner's warp limit, checked by every creation.
+     * @param operations The operations in the order they were requested.
+     * @return The outcome of every operation and the owner's resulting warps.
+     * @throws SQLException If a database error occurs.
+     */
+    public OperationResult applyOperationsTransactional(Connection connection, UUID ownerUuid, int warpLimit,
+                                                        List<WarpOperation> operations) throws SQLException {
+        List<Warp> current;
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_OWNER)) {
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+            current = mapWarps(statement);
+        }
+        OperationPlan plan = OperationPlan.of(current, warpLimit, operations);
+        if (!plan.hasChanges()) {
+            return new OperationResult(plan.outcomes, null);
+        }
+
+        // Deletions go first, so a name deleted and created again in the same batch is free for the insert
+        if (!plan.deletions.isEmpty()) {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_DELETE_BY_ID)) {
+                for (Warp warp : plan.deletions) {
+                    statement.setInt(1, warp.getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+        if (!plan.moves.isEmpty()) {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_UPDATE)) {
+                for (Warp warp : plan.moves) {
+                    bindUpdate(statement, warp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+        if (!plan.creations.isEmpty()) {
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_INSERT)) {
+                for (Warp warp : plan.creations) {
+                    bindInsert(statement, warp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }
+        recordChanges(connection, List.of(ownerUuid));
+
+        List<Warp> result = plan.result;
+        if (!plan.creations.isEmpty()) {
+            // Batched inserts don't reliably return their keys on every driver, the owner's rows do
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_OWNER)) {
+                statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+                result = mapWarps(statement);
+            }
+        }
+        return new OperationResult(plan.outcomes, result);
+    }
+
+    /**
+     * Applies operations to the warps of one owner in the memory store, with the same rules as
+     * {@link #applyOperationsTransactional}. The store is locked meanwhile, so no other change
+     * interleaves with the operations.
+     * Runs on the calling thread.
+     *
+     * @param ownerUuid The UUID of the owner; every operation must belong to this owner
+     * @param warpLimit The owner's warp limit, checked by every creation
+     * @param operations The operations in the order they were requested
+     * @return The outcome of every operation and the owner's resulting warps
+     * @throws IllegalStateException If no memory store is used
+     */
+    public OperationResult applyOperationsSync(UUID ownerUuid, int warpLimit, List<WarpOperation> operations) {
+        if (memoryStore == null) {
+            throw new IllegalStateException("Without a memory store, operations must run in a transaction");
+        }
+        // The store's methods synchronize on the store as well
+        synchronized (memoryStore) {
+            OperationPlan plan = OperationPlan.of(memoryStore.getWarpsByOwner(ownerUuid), warpLimit, operations);
+            if (!plan.hasChanges()) {
+                return new OperationResult(plan.outcomes, null);
+            }
+            for (Warp warp : plan.deletions) {
+                memoryStore.deleteWarp(warp.getId());
+            }
+            for (Warp warp : plan.moves) {
+                memoryStore.updateWarp(warp);
+            }
+            // Creations are listed in the order of the result; the stored warp with its ID replaces the planned one
+            List<Warp> result = new ArrayList<>(plan.result.size());
+            int creation = 0;
+            for (Warp warp : plan.result) {
+                if (creation < plan.creations.size() && warp == plan.creations.get(creation)) {
+                    result.add(memoryStore.createWarp(warp));
+                    creation++;
+                } else {
+                    result.add(warp);
+                }
+            }
+            return new OperationResult(plan.outcomes, result);
+        }
+    }
+
+    /**
+     * Gets one page of all warps in ID order, for reading every warp without holding a connection.
+     * Reads the primary database, so changes buffered by the memory store must be flushed first.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param afterId The ID after which the page starts, 0 for the first page
+     * @param limit The maximum number of warps
+     * @return The warps with an ID greater than {@code afterId}
+     * @throws RuntimeException If a database error occurs
+     */
+    public List<Warp> getWarpsAfterIdSync(int afterId, int limit) {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_PAGE_AFTER_ID)) {
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<Warp> warps = new ArrayList<>();
+                while (resultSet.next()) {
+                    warps.add(mapWarp(resultSet));
+                }
+                return warps;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading a page of all warps", e);
+            throw new RuntimeException("Error reading a page of all warps", e);
+        }
+    }
+
+    /**
+     * Gets a warp by its ID.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param id The ID of the warp
+     * @return The warp, or an empty Optional if not found
+     * @throws RuntimeException If a database error occurs
+     */
+    public Optional<Warp> getWarpByIdSync(int id) {
+        if (memoryStore != null) {
+            return memoryStore.getWarpById(id);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.WARP_SELECT_BY_ID)) {
+
+            statement.setInt(1, id);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(mapWarp(resultSet));
+                } else {
+                    return Optional.empty();
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warp by ID", e);
+            throw new RuntimeException("Error getting warp by ID", e);
+        }
+    }
+
     /**
      * Gets a warp by its ID.
+     * Runs {@link #getWarpByIdSync} on the configured executor.
      *
      * @param id The ID of the warp
      * @return A CompletableFuture that completes with the warp, or an empty Optional if not found
      */
     public CompletableFuture<Optional<Warp>> getWarpById(int id) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT * FROM warps WHERE id = ?")) {
+        return DatabaseExecutor.supplyAsync(() -> getWarpByIdSync(id), executor);
+    }
 
-                statement.setInt(1, id);
+    /**
+     * Gets a warp by its owner and name.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return The warp, or an empty Optional if not found
+     * @throws RuntimeException If a database error occurs
+     */
+    public Optional<Warp> getWarpByOwnerAndNameSync(UUID ownerUuid, String name) {
+        if (memoryStore != null) {
+            return memoryStore.getWarp(ownerUuid, name);
+        }
+        try (Connection connection = databaseManager.getConnection()) {
+            // Delegate to the transactional version
+            return getWarpByOwnerAndNameTransactional(connection, ownerUuid, name);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warp by owner and name", e);
+            throw new RuntimeException("Error getting warp by owner and name", e);
+        }
+    }
 
-                try (ResultSet resultSet = statement.executeQuery()) {
-                    if (resultSet.next()) {
-                        return Optional.of(mapResultSetToWarp(resultSet));
-                    } else {
-                        return Optional.empty();
-                    }
+    /**
+     * Gets a warp by its owner and name using a provided connection (for transactions).
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param ownerUuid The UUID of the owner.
+     * @param name The name of the warp.
+     * @return The warp, or an empty Optional if not found.
+     * @throws SQLException If a database error occurs.
+     */
+    public Optional<Warp> getWarpByOwnerAndNameTransactional(Connection connection, UUID ownerUuid, String name) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection,
+                SqlStatement.WARP_SELECT_BY_OWNER_AND_NAME)) {
+
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+            statement.setString(2, Warp.normalizeName(name));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(mapWarp(resultSet));
+                } else {
+                    return Optional.empty();
                 }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting warp by ID", e);
-                throw new RuntimeException("Error getting warp by ID", e);
             }
-        }, executor);
+        }
     }
 
     /**
      * Gets a warp by its owner and name.
+     * Runs {@link #getWarpByOwnerAndNameSync} on the configured executor.
      *
      * @param ownerUuid The UUID of the owner
      * @param name The name of the warp
      * @return A CompletableFuture that completes with the warp, or an empty Optional if not found
      */
     public CompletableFuture<Optional<Warp>> getWarpByOwnerAndName(UUID ownerUuid, String name) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT * FROM warps WHERE owner_uuid = ? AND name = ?")) {
+        return DatabaseExecutor.supplyAsync(() -> getWarpByOwnerAndNameSync(ownerUuid, name), executor);
+    }
+
+    /**
+     * Gets all warps owned by a player.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @return A list of warps
+     * @throws RuntimeException If a database error occurs
+     */
+    public List<Warp> getWarpsByOwnerSync(UUID ownerUuid) {
+        if (memoryStore != null) {
+            return memoryStore.getWarpsByOwner(ownerUuid);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.WARP_SELECT_BY_OWNER)) {
 
-                statement.setString(1, ownerUuid.toString());
-                statement.setString(2, name);
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
 
-                try (ResultSet resultSet = statement.executeQuery()) {
-                    if (resultSet.next()) {
-                        return Optional.of(mapResultSetToWarp(resultSet));
-                    } else {
-                        return Optional.empty();
-                    }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<Warp> warps = new ArrayList<>();
+                while (resultSet.next()) {
+                    warps.add(mapWarp(resultSet));
                 }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting warp by owner and name", e);
-                throw new RuntimeException("Error getting warp by owner and name", e);
+                return warps;
             }
-        }, executor);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warps by owner", e);
+            throw new RuntimeException("Error getting warps by owner", e);
+        }
     }
 
     /**
      * Gets all warps owned by a player.
+     * Runs {@link #getWarpsByOwnerSync} on the configured executor.
      *
      * @param ownerUuid The UUID of the owner
      * @return A CompletableFuture that completes with a list of warps
      */
     public CompletableFuture<List<Warp>> getWarpsByOwner(UUID ownerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT * FROM warps WHERE owner_uuid = ?")) {
+        return DatabaseExecutor.supplyAsync(() -> getWarpsByOwnerSync(ownerUuid), executor);
+    }
 
-                statement.setString(1, ownerUuid.toString());
+    /**
+     * Gets the warps of several owners.
+     * Owners are looked up in fixed-size {@code IN} lists of {@link SqlStatement#OWNER_LOOKUP_SIZE}.
+     * Runs on the calling thread and blocks until the queries have finished.
+     *
+     * @param ownerUuids The UUIDs of the owners, without duplicates
+     * @return The warps of every given owner, an empty list for owners without warps
+     * @throws RuntimeException If a database error occurs
+     */
+    public Map<UUID, List<Warp>> getWarpsByOwnersSync(List<UUID> ownerUuids) {
+        Map<UUID, List<Warp>> warps = new HashMap<>();
+        if (memoryStore != null) {
+            for (UUID ownerUuid : ownerUuids) {
+                warps.put(ownerUuid, memoryStore.getWarpsByOwner(ownerUuid));
+            }
+            return warps;
+        }
+        for (UUID ownerUuid : ownerUuids) {
+            warps.put(ownerUuid, new ArrayList<>());
+        }
+        if (ownerUuids.isEmpty()) {
+            return warps;
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_OWNERS_IN)) {
+            for (int from = 0; from < ownerUuids.size(); from += SqlStatement.OWNER_LOOKUP_SIZE) {
+                List<UUID> chunk = ownerUuids.subList(from, Math.min(from + SqlStatement.OWNER_LOOKUP_SIZE, ownerUuids.size()));
+                for (int i = 0; i < SqlStatement.OWNER_LOOKUP_SIZE; i++) {
+                    statement.setBytes(i + 1, UuidCodec.toBytes(chunk.get(Math.min(i, chunk.size() - 1))));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Warp warp = mapWarp(resultSet);
+                        warps.get(warp.getOwnerUuid()).add(warp);
+                    }
+                }
+            }
+            return warps;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warps by owners", e);
+            throw new RuntimeException("Error getting warps by owners", e);
+        }
+    }
 
+    /**
+     * Gets the number of warps of several owners.
+     * Owners are looked up in fixed-size {@code IN} lists of {@link SqlStatement#OWNER_LOOKUP_SIZE}.
+     * Runs on the calling thread and blocks until the queries have finished.
+     *
+     * @param ownerUuids The UUIDs of the owners, without duplicates
+     * @return The number of warps of every given owner, 0 for owners without warps
+     * @throws RuntimeException If a database error occurs
+     */
+    public Map<UUID, Integer> getWarpCountsByOwnersSync(List<UUID> ownerUuids) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        for (UUID ownerUuid : ownerUuids) {
+            counts.put(ownerUuid, memoryStore != null ? memoryStore.getWarpCount(ownerUuid) : 0);
+        }
+        if (memoryStore != null || ownerUuids.isEmpty()) {
+            return counts;
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_COUNT_BY_OWNERS_IN)) {
+            for (int from = 0; from < ownerUuids.size(); from += SqlStatement.OWNER_LOOKUP_SIZE) {
+                List<UUID> chunk = ownerUuids.subList(from, Math.min(from + SqlStatement.OWNER_LOOKUP_SIZE, ownerUuids.size()));
+                for (int i = 0; i < SqlStatement.OWNER_LOOKUP_SIZE; i++) {
+                    statement.setBytes(i + 1, UuidCodec.toBytes(chunk.get(Math.min(i, chunk.size() - 1))));
+                }
                 try (ResultSet resultSet = statement.executeQuery()) {
-                    List<Warp> warps = new ArrayList<>();
                     while (resultSet.next()) {
-                        warps.add(mapResultSetToWarp(resultSet));
+                        counts.put(UuidCodec.fromBytes(resultSet.getBytes(1)), resultSet.getInt(2));
                     }
-                    return warps;
                 }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting warps by owner", e);
-                throw new RuntimeException("Error getting warps by owner", e);
             }
-        }, executor);
+            return counts;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warp counts by owners", e);
+            throw new RuntimeException("Error getting warp counts by owners", e);
+        }
     }
 
     /**
      * Gets the number of warps owned by a player.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @return The number of warps
+     * @throws RuntimeException If a database error occurs
+     */
+    public int getWarpCountByOwnerSync(UUID ownerUuid) {
+        if (memoryStore != null) {
+            return memoryStore.getWarpCount(ownerUuid);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.WARP_COUNT_BY_OWNER)) {
+
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt(1);
+                } else {
+                    return 0;
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting warp count by owner", e);
+            throw new RuntimeException("Error getting warp count by owner", e);
+        }
+    }
+
+    /**
+     * Gets the number of warps owned by a player.
+     * Runs {@link #getWarpCountByOwnerSync} on the configured executor.
      *
      * @param ownerUuid The UUID of the owner
      * @return A CompletableFuture that completes with the number of warps
      */
     public CompletableFuture<Integer> getWarpCountByOwner(UUID ownerUuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT COUNT(*) FROM warps WHERE owner_uuid = ?")) {
+        return DatabaseExecutor.supplyAsync(() -> getWarpCountByOwnerSync(ownerUuid), executor);
+    }
 
-                statement.setString(1, ownerUuid.toString());
+    /**
+     * Gets the number of warps owned by a player using a provided connection (for transactions).
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param ownerUuid The UUID of the owner.
+     * @return The number of warps.
+     * @throws SQLException If a database error occurs.
+     */
+    public int getWarpCountByOwnerTransactional(Connection connection, UUID ownerUuid) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_COUNT_BY_OWNER)) {
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
 
-                try (ResultSet resultSet = statement.executeQuery()) {
-                    if (resultSet.next()) {
-                        return resultSet.getInt(1);
-                    } else {
-                        return 0;
-                    }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Moves a warp to a new owner in place, keeping its ID and creation time.
+     * This method runs synchronously within the calling thread.
+     * A warp with the same (case-insensitive) name at the target violates the unique
+     * owner/name index, see {@link DatabaseManager#isUniqueViolation(SQLException)}.
+     *
+     * @param connection The existing database connection.
+     * @param sourceUuid The UUID of the current owner.
+     * @param targetUuid The UUID of the new owner.
+     * @param name The name of the warp.
+     * @return True if the warp was moved, false if the source has no such warp.
+     * @throws SQLException If a database error occurs.
+     */
+    public boolean transferWarpTransactional(Connection connection, UUID sourceUuid, UUID targetUuid, String name) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_TRANSFER)) {
+            statement.setBytes(1, UuidCodec.toBytes(targetUuid));
+            statement.setBytes(2, UuidCodec.toBytes(sourceUuid));
+            statement.setString(3, Warp.normalizeName(name));
+            if (statement.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        recordChanges(connection, List.of(sourceUuid, targetUuid));
+        return true;
+    }
+
+    /**
+     * Moves all warps of one owner to another owner with a single statement.
+     * Warps whose name already exists at the target are left with the source.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param sourceUuid The UUID of the current owner.
+     * @param targetUuid The UUID of the new owner.
+     * @return The number of moved warps.
+     * @throws SQLException If a database error occurs.
+     */
+    public int transferAllWarpsTransactional(Connection connection, UUID sourceUuid, UUID targetUuid) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_TRANSFER_ALL)) {
+            byte[] target = UuidCodec.toBytes(targetUuid);
+            statement.setBytes(1, target);
+            statement.setBytes(2, UuidCodec.toBytes(sourceUuid));
+            statement.setBytes(3, target);
+            int moved = statement.executeUpdate();
+            if (moved > 0) {
+                recordChanges(connection, List.of(sourceUuid, targetUuid));
+            }
+            return moved;
+        }
+    }
+
+    /**
+     * Gets the next page of warps owned by a player using a provided connection (for transactions).
+     * Pages are keyed by warp ID, so each call is a short index range scan.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param ownerUuid The UUID of the owner.
+     * @param afterId Only warps with a greater ID are returned.
+     * @param limit The maximum number of warps to return.
+     * @return The warps, ordered by ID.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<Warp> getWarpsByOwnerAfterTransactional(Connection connection, UUID ownerUuid, int afterId, int limit) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_OWNER_AFTER)) {
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+            statement.setInt(2, afterId);
+            statement.setInt(3, limit);
+            return mapWarps(statement);
+        }
+    }
+
+    /**
+     * Gets the next page of warps in a world using a provided connection (for transactions).
+     * Pages are keyed by warp ID, so each call is a short index range scan.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param worldName The name of the world.
+     * @param afterId Only warps with a greater ID are returned.
+     * @param limit The maximum number of warps to return.
+     * @return The warps, ordered by ID.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<Warp> getWarpsByWorldAfterTransactional(Connection connection, String worldName, int afterId, int limit) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_WORLD_AFTER)) {
+            statement.setString(1, worldName);
+            statement.setInt(2, afterId);
+            statement.setInt(3, limit);
+            return mapWarps(statement);
+        }
+    }
+
+    /**
+     * Deletes warps by ID as one JDBC batch using a provided connection (for transactions).
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param warps The warps to delete.
+     * @return The number of deleted warps.
+     * @throws SQLException If a database error occurs.
+     */
+    public int deleteWarpsTransactional(Connection connection, List<Warp> warps) throws SQLException {
+        if (warps.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_DELETE_BY_ID)) {
+            for (Warp warp : warps) {
+                statement.setInt(1, warp.getId());
+                statement.addBatch();
+            }
+            int deleted = 0;
+            for (int count : statement.executeBatch()) {
+                // Drivers may report SUCCESS_NO_INFO for batched statements
+                deleted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+            if (deleted > 0) {
+                recordChanges(connection, warps.stream().map(Warp::getOwnerUuid).collect(Collectors.toList()));
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Gets the next page of warps for the world sweeper using a provided connection.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param afterId Only warps with a greater ID are returned.
+     * @param limit The maximum number of warps to return.
+     * @return The warps ordered by ID, together with their orphan flag.
+     * @throws SQLException If a database error occurs.
+     */
+    public List<SweepRow> getSweepPageTransactional(Connection connection, int afterId, int limit) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_SWEEP_AFTER)) {
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<SweepRow> rows = new ArrayList<>();
+                while (resultSet.next()) {
+                    long orphanedAt = resultSet.getLong(11);
+                    rows.add(new SweepRow(mapWarp(resultSet), resultSet.wasNull() ? null : orphanedAt));
                 }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting warp count by owner", e);
-                throw new RuntimeException("Error getting warp count by owner", e);
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Flags warps as orphaned using a provided connection. Warps that are already flagged keep their timestamp.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param warps The warps to flag.
+     * @param orphanedAt The timestamp to record.
+     * @throws SQLException If a database error occurs.
+     */
+    public void flagOrphanedWarpsTransactional(Connection connection, List<Warp> warps, long orphanedAt) throws SQLException {
+        if (warps.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_FLAG_ORPHANED)) {
+            for (Warp warp : warps) {
+                statement.setLong(1, orphanedAt);
+                statement.setInt(2, warp.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Clears the orphan flag of all warps in a world using a provided connection.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param worldName The name of the world.
+     * @return The number of warps that were flagged.
+     * @throws SQLException If a database error occurs.
+     */
+    public int clearOrphanedFlagTransactional(Connection connection, String worldName) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_CLEAR_ORPHANED_BY_WORLD)) {
+            statement.setString(1, worldName);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Moves warps into the archive table using a provided connection.
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param warps The warps to archive.
+     * @param archivedAt The timestamp to record.
+     * @return The number of archived warps.
+     * @throws SQLException If a database error occurs.
+     */
+    public int archiveWarpsTransactional(Connection connection, List<Warp> warps, long archivedAt) throws SQLException {
+        if (warps.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_ARCHIVE_INSERT)) {
+            for (Warp warp : warps) {
+                statement.setInt(1, warp.getId());
+                statement.setBytes(2, UuidCodec.toBytes(warp.getOwnerUuid()));
+                statement.setString(3, warp.getName());
+                statement.setString(4, warp.getWorldName());
+                statement.setDouble(5, warp.getX());
+                statement.setDouble(6, warp.getY());
+                statement.setDouble(7, warp.getZ());
+                statement.setFloat(8, warp.getYaw());
+                statement.setFloat(9, warp.getPitch());
+                statement.setLong(10, warp.getCreatedAt());
+                statement.setLong(11, archivedAt);
+                statement.addBatch();
             }
-        }, executor);
+            statement.executeBatch();
+        }
+        return deleteWarpsTransactional(connection, warps);
     }
 
     /**
      * Updates a warp in the database.
+     * Runs on the calling thread and blocks until the query has finished.
      *
      * @param warp The warp to update
-     * @return A CompletableFuture that completes with a boolean indicating success
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
      */
-    public CompletableFuture<Boolean> updateWarp(Warp warp) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "UPDATE warps SET owner_uuid = ?, name = ?, world_name = ?, " +
-                                 "x = ?, y = ?, z = ?, yaw = ?, pitch = ? " +
-                                 "WHERE id = ?")) {
+    public boolean updateWarpSync(Warp warp) {
+        if (memoryStore != null) {
+            return memoryStore.updateWarp(warp);
+        }
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.WARP_UPDATE)) {
 
-                statement.setString(1, warp.getOwnerUuid().toString());
-                statement.setString(2, warp.getName());
-                statement.setString(3, warp.getWorldName());
-                statement.setDouble(4, warp.getX());
-                statement.setDouble(5, warp.getY());
-                statement.setDouble(6, warp.getZ());
-                statement.setFloat(7, warp.getYaw());
-                statement.setFloat(8, warp.getPitch());
-                statement.setInt(9, warp.getId());
+            bindUpdate(statement, warp);
 
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error updating warp", e);
-                throw new RuntimeException("Error updating warp", e);
+            int affectedRows = statement.executeUpdate();
+            if (affectedRows > 0) {
+                recordChanges(connection, List.of(warp.getOwnerUuid()));
             }
-        }, executor);
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error updating warp", e);
+            throw new RuntimeException("Error updating warp", e);
+        }
+    }
+
+    /**
+     * Updates a warp in the database.
+     * Runs {@link #updateWarpSync} on the configured executor.
+     *
+     * @param warp The warp to update
+     * @return A CompletableFuture that completes with a boolean indicating success
+     */
+    public CompletableFuture<Boolean> updateWarp(Warp warp) {
+        return DatabaseExecutor.supplyAsync(() -> updateWarpSync(warp), executor);
     }
 
     /**
@@ -268,12 +977,28 @@ public class WarpRepository {
      * @throws SQLException If a database error occurs.
      */
     public boolean deleteWarpTransactional(Connection connection, int id) throws SQLException {
+        UUID ownerUuid = null;
+        if (changeLog != null) {
+            // The change log is keyed by owner, which the ID alone does not tell
+            try (PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_BY_ID)) {
+                statement.setInt(1, id);
+                List<Warp> warps = mapWarps(statement);
+                if (warps.isEmpty()) {
+                    return false;
+                }
+                ownerUuid = warps.get(0).getOwnerUuid();
+            }
+        }
+
         // Use try-with-resources for the PreparedStatement, but NOT the connection
-        try (PreparedStatement statement = connection.prepareStatement(
-                "DELETE FROM warps WHERE id = ?")) {
+        try (PreparedStatement statement = databaseManager.prepare(connection,
+                SqlStatement.WARP_DELETE_BY_ID)) {
 
             statement.setInt(1, id);
             int affectedRows = statement.executeUpdate();
+            if (affectedRows > 0 && ownerUuid != null) {
+                recordChanges(connection, List.of(ownerUuid));
+            }
             return affectedRows > 0;
         }
         // Connection close is managed by the caller (transaction)
@@ -281,91 +1006,458 @@ public class WarpRepository {
 
     /**
      * Deletes a warp from the database.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param id The ID of the warp to delete
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean deleteWarpSync(int id) {
+        if (memoryStore != null) {
+            return memoryStore.deleteWarp(id);
+        }
+        try (Connection connection = databaseManager.getConnection()) {
+             // Delegate to the transactional version
+             return deleteWarpTransactional(connection, id);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error deleting warp by ID", e);
+            throw new RuntimeException("Error deleting warp by ID", e);
+        }
+    }
+
+    /**
+     * Deletes a warp from the database.
+     * Runs {@link #deleteWarpSync} on the configured executor.
      *
      * @param id The ID of the warp to delete
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> deleteWarp(int id) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection()) {
-                 // Delegate to the transactional version
-                 return deleteWarpTransactional(connection, id);
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error deleting warp by ID", e);
-                throw new RuntimeException("Error deleting warp by ID", e);
+        return DatabaseExecutor.supplyAsync(() -> deleteWarpSync(id), executor);
+    }
+
+    /**
+     * Deletes a warp by its owner and name.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return A boolean indicating success
+     * @throws RuntimeException If a database error occurs
+     */
+    public boolean deleteWarpByOwnerAndNameSync(UUID ownerUuid, String name) {
+        if (memoryStore != null) {
+            return memoryStore.deleteWarp(ownerUuid, name);
+        }
+        try (Connection connection = databaseManager.getConnection()) {
+            // Delegate to the transactional version
+            return deleteWarpByOwnerAndNameTransactional(connection, ownerUuid, name);
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error deleting warp by owner and name", e);
+            throw new RuntimeException("Error deleting warp by owner and name", e);
+        }
+    }
+
+    /**
+     * Deletes a warp by its owner and name using a provided connection (for transactions).
+     * This method runs synchronously within the calling thread.
+     *
+     * @param connection The existing database connection.
+     * @param ownerUuid The UUID of the owner.
+     * @param name The name of the warp.
+     * @return True if a row was deleted, false otherwise.
+     * @throws SQLException If a database error occurs.
+     */
+    public boolean deleteWarpByOwnerAndNameTransactional(Connection connection, UUID ownerUuid, String name) throws SQLException {
+        try (PreparedStatement statement = databaseManager.prepare(connection,
+                SqlStatement.WARP_DELETE_BY_OWNER_AND_NAME)) {
+
+            statement.setBytes(1, UuidCodec.toBytes(ownerUuid));
+            statement.setString(2, Warp.normalizeName(name));
+
+            int affectedRows = statement.executeUpdate();
+            if (affectedRows > 0) {
+                recordChanges(connection, List.of(ownerUuid));
             }
-        }, executor);
+            return affectedRows > 0;
+        }
     }
 
     /**
      * Deletes a warp by its owner and name.
+     * Runs {@link #deleteWarpByOwnerAndNameSync} on the configured executor.
      *
      * @param ownerUuid The UUID of the owner
      * @param name The name of the warp
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> deleteWarpByOwnerAndName(UUID ownerUuid, String name) {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "DELETE FROM warps WHERE owner_uuid = ? AND name = ?")) {
+        return DatabaseExecutor.supplyAsync(() -> deleteWarpByOwnerAndNameSync(ownerUuid, name), executor);
+    }
 
-                statement.setString(1, ownerUuid.toString());
-                statement.setString(2, name);
+    /**
+     * Gets the next page of players who have warps, ordered by their binary UUID.
+     * Served by the read replica if one is configured and within its staleness bound.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param afterUuid Only owners after this UUID are returned, or null to start at the beginning
+     * @param limit The maximum number of owners to return
+     * @return The owners, ordered like the {@code owner_uuid} index
+     * @throws RuntimeException If a database error occurs
+     */
+    public List<UUID> getOwnersAfterSync(UUID afterUuid, int limit) {
+        if (memoryStore != null) {
+            return memoryStore.getOwnersAfter(afterUuid, limit);
+        }
+        byte[] after = afterUuid != null ? UuidCodec.toBytes(afterUuid) : new byte[16];
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_OWNERS_AFTER)) {
+            statement.setBytes(1, after);
+            statement.setInt(2, limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<UUID> owners = new ArrayList<>();
+                while (resultSet.next()) {
+                    owners.add(UuidCodec.fromBytes(resultSet.getBytes(1)));
+                }
+                return owners;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting page of players with warps", e);
+            throw new RuntimeException("Error getting page of players with warps", e);
+        }
+    }
 
-                int affectedRows = statement.executeUpdate();
-                return affectedRows > 0;
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error deleting warp by owner and name", e);
-                throw new RuntimeException("Error deleting warp by owner and name", e);
+    /**
+     * Picks the players that have at least one warp out of the given candidates.
+     * Candidates are looked up in fixed-size {@code IN} lists of {@link SqlStatement#OWNER_LOOKUP_SIZE}.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @param candidates The UUIDs to check
+     * @return The candidates that own warps
+     * @throws RuntimeException If a database error occurs
+     */
+    public Set<UUID> filterOwnersSync(List<UUID> candidates) {
+        Set<UUID> owners = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return owners;
+        }
+        if (memoryStore != null) {
+            for (UUID candidate : candidates) {
+                if (memoryStore.getWarpCount(candidate) > 0) {
+                    owners.add(candidate);
+                }
             }
-        }, executor);
+            return owners;
+        }
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = databaseManager.prepare(connection, SqlStatement.WARP_SELECT_OWNERS_IN)) {
+            for (int from = 0; from < candidates.size(); from += SqlStatement.OWNER_LOOKUP_SIZE) {
+                List<UUID> chunk = candidates.subList(from, Math.min(from + SqlStatement.OWNER_LOOKUP_SIZE, candidates.size()));
+                for (int i = 0; i < SqlStatement.OWNER_LOOKUP_SIZE; i++) {
+                    statement.setBytes(i + 1, UuidCodec.toBytes(chunk.get(Math.min(i, chunk.size() - 1))));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        owners.add(UuidCodec.fromBytes(resultSet.getBytes(1)));
+                    }
+                }
+            }
+            return owners;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error filtering players with warps", e);
+            throw new RuntimeException("Error filtering players with warps", e);
+        }
+    }
+
+    /**
+     * Records that the warps of the given owners changed, so other servers reload them.
+     * Does nothing without a change log.
+     *
+     * @param connection The connection of the write
+     * @param ownerUuids The UUIDs of the owners
+     * @throws SQLException If a database error occurs
+     */
+    private void recordChanges(Connection connection, Collection<UUID> ownerUuids) throws SQLException {
+        if (changeLog != null) {
+            changeLog.appendTransactional(connection, ownerUuids, ChangeLog.Kind.WARPS);
+        }
+    }
+
+    /**
+     * Gets a list of all players who have warps.
+     * Served by the read replica if one is configured and within its staleness bound.
+     * Runs on the calling thread and blocks until the query has finished.
+     *
+     * @return A list of player UUIDs
+     * @throws RuntimeException If a database error occurs
+     */
+    public List<UUID> getPlayersWithWarpsSync() {
+        if (memoryStore != null) {
+            return memoryStore.getOwners();
+        }
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = databaseManager.prepare(connection,
+                     SqlStatement.WARP_SELECT_DISTINCT_OWNERS)) {
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<UUID> players = new ArrayList<>();
+                while (resultSet.next()) {
+                    players.add(UuidCodec.fromBytes(resultSet.getBytes(1)));
+                }
+                return players;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error getting players with warps", e);
+            throw new RuntimeException("Error getting players with warps", e);
+        }
     }
 
     /**
      * Gets a list of all players who have warps.
+     * Runs {@link #getPlayersWithWarpsSync} on the configured executor.
      *
      * @return A CompletableFuture that completes with a list of player UUIDs
      */
     public CompletableFuture<List<UUID>> getPlayersWithWarps() {
-        return CompletableFuture.supplyAsync(() -> {
-            try (Connection connection = databaseManager.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(
-                         "SELECT DISTINCT owner_uuid FROM warps")) {
+        return DatabaseExecutor.supplyAsync(() -> getPlayersWithWarpsSync(), executor);
+    }
 
-                try (ResultSet resultSet = statement.executeQuery()) {
-                    List<UUID> players = new ArrayList<>();
-                    while (resultSet.next()) {
-                        players.add(UUID.fromString(resultSet.getString("owner_uuid")));
-                    }
-                    return players;
-                }
-            } catch (SQLException e) {
-                logger.log(Level.SEVERE, "Error getting players with warps", e);
-                throw new RuntimeException("Error getting players with warps", e);
+    /**
+     * Binds the values of a warp to {@link SqlStatement#WARP_INSERT}.
+     *
+     * @param statement The prepared insert
+     * @param warp The warp to insert
+     * @throws SQLException If an SQL error occurs
+     */
+    private static void bindInsert(PreparedStatement statement, Warp warp) throws SQLException {
+        statement.setBytes(1, UuidCodec.toBytes(warp.getOwnerUuid()));
+        statement.setString(2, warp.getName());
+        statement.setString(3, Warp.normalizeName(warp.getName()));
+        statement.setString(4, warp.getWorldName());
+        statement.setDouble(5, warp.getX());
+        statement.setDouble(6, warp.getY());
+        statement.setDouble(7, warp.getZ());
+        statement.setFloat(8, warp.getYaw());
+        statement.setFloat(9, warp.getPitch());
+        statement.setLong(10, warp.getCreatedAt());
+    }
+
+    /**
+     * Binds the values of a warp to {@link SqlStatement#WARP_UPDATE}.
+     *
+     * @param statement The prepared update
+     * @param warp The warp with its new values
+     * @throws SQLException If an SQL error occurs
+     */
+    private static void bindUpdate(PreparedStatement statement, Warp warp) throws SQLException {
+        statement.setBytes(1, UuidCodec.toBytes(warp.getOwnerUuid()));
+        statement.setString(2, warp.getName());
+        statement.setString(3, Warp.normalizeName(warp.getName()));
+        statement.setString(4, warp.getWorldName());
+        statement.setDouble(5, warp.getX());
+        statement.setDouble(6, warp.getY());
+        statement.setDouble(7, warp.getZ());
+        statement.setFloat(8, warp.getYaw());
+        statement.setFloat(9, warp.getPitch());
+        statement.setInt(10, warp.getId());
+    }
+
+    /**
+     * Executes a query and maps all rows to warps.
+     *
+     * @param statement The prepared query
+     * @return The mapped warps
+     * @throws SQLException If an SQL error occurs
+     */
+    private List<Warp> mapWarps(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            List<Warp> warps = new ArrayList<>();
+            while (resultSet.next()) {
+                warps.add(mapWarp(resultSet));
             }
-        }, executor);
+            return warps;
+        }
     }
 
     /**
-     * Maps a ResultSet to a Warp object.
+     * Maps the current row of a ResultSet to a Warp object.
+     * The row must follow the column order of {@link SqlStatement#WARP_COLUMNS}.
      *
      * @param resultSet The ResultSet to map
      * @return The mapped Warp
      * @throws SQLException If an SQL error occurs
      */
-    private Warp mapResultSetToWarp(ResultSet resultSet) throws SQLException {
+    static Warp mapWarp(ResultSet resultSet) throws SQLException {
         return new Warp(
-                resultSet.getInt("id"),
-                UUID.fromString(resultSet.getString("owner_uuid")),
-                resultSet.getString("name"),
-                resultSet.getString("world_name"),
-                resultSet.getDouble("x"),
-                resultSet.getDouble("y"),
-                resultSet.getDouble("z"),
-                resultSet.getFloat("yaw"),
-                resultSet.getFloat("pitch"),
-                resultSet.getLong("created_at")
+                resultSet.getInt(1),
+                UuidCodec.fromBytes(resultSet.getBytes(2)),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                resultSet.getDouble(5),
+                resultSet.getDouble(6),
+                resultSet.getDouble(7),
+                resultSet.getFloat(8),
+                resultSet.getFloat(9),
+                resultSet.getLong(10)
         );
     }
+
+    /**
+     * The changes a list of operations makes to the warps of one owner.
+     */
+    private static final class OperationPlan {
+        private final List<WarpOperation.Outcome> outcomes = new ArrayList<>();
+        private final List<Warp> deletions = new ArrayList<>();
+        private final List<Warp> moves = new ArrayList<>();
+        private final List<Warp> creations = new ArrayList<>();
+        private final List<Warp> result = new ArrayList<>();
+
+        /**
+         * Plays the operations against the owner's warps and collects the resulting changes.
+         *
+         * @param current The owner's current warps
+         * @param warpLimit The owner's warp limit
+         * @param operations The operations in the order they were requested
+         * @return The plan
+         */
+        private static OperationPlan of(List<Warp> current, int warpLimit, List<WarpOperation> operations) {
+            OperationPlan plan = new OperationPlan();
+            Map<String, Warp> warps = new LinkedHashMap<>();
+            for (Warp warp : current) {
+                warps.put(Warp.normalizeName(warp.getName()), warp);
+            }
+
+            for (WarpOperation operation : operations) {
+                String key = Warp.normalizeName(operation.getName());
+                Warp existing = warps.get(key);
+                WarpOperation.Outcome outcome;
+                switch (operation.getType()) {
+                    case CREATE -> {
+                        if (existing != null) {
+                            outcome = WarpOperation.Outcome.ALREADY_EXISTS;
+                        } else if (warps.size() >= warpLimit) {
+                            outcome = WarpOperation.Outcome.LIMIT_REACHED;
+                        } else {
+                            warps.put(key, operation.getWarp());
+                            outcome = WarpOperation.Outcome.APPLIED;
+                        }
+                    }
+                    case DELETE -> {
+                        outcome = warps.remove(key) != null ? WarpOperation.Outcome.APPLIED : WarpOperation.Outcome.NOT_FOUND;
+                    }
+                    default -> {
+                        if (existing == null) {
+                            outcome = WarpOperation.Outcome.NOT_FOUND;
+                        } else {
+                            Warp target = operation.getWarp();
+                            warps.put(key, new Warp(existing.getId(), existing.getOwnerUuid(), existing.getName(), target.getWorldName(),
+                                    target.getX(), target.getY(), target.getZ(), target.getYaw(), target.getPitch(), existing.getCreatedAt()));
+                            outcome = WarpOperation.Outcome.APPLIED;
+                        }
+                    }
+                }
+                plan.outcomes.add(outcome);
+            }
+
+            // Only the final state counts: a warp created and moved in the same batch is inserted once
+            Map<Integer, Warp> currentById = new HashMap<>();
+            for (Warp warp : current) {
+                currentById.put(warp.getId(), warp);
+            }
+            plan.result.addAll(warps.values());
+            for (Warp warp : warps.values()) {
+                Warp original = currentById.remove(warp.getId());
+                if (original == null) {
+                    plan.creations.add(warp);
+                } else if (original != warp) {
+                    plan.moves.add(warp);
+                }
+            }
+            plan.deletions.addAll(currentById.values());
+            return plan;
+        }
+
+        /**
+         * Checks whether the operations change anything.
+         *
+         * @return True if there is something to write
+         */
+        private boolean hasChanges() {
+            return !deletions.isEmpty() || !moves.isEmpty() || !creations.isEmpty();
+        }
+    }
+
+    /**
+     * The outcome of a list of operations on the warps of one owner.
+     */
+    public static class OperationResult {
+        private final List<WarpOperation.Outcome> outcomes;
+        private final List<Warp> warps;
+
+        /**
+         * Creates a new OperationResult instance.
+         *
+         * @param outcomes The outcome of every operation, in request order
+         * @param warps The owner's warps after the operations, or null if nothing changed
+         */
+        private OperationResult(List<WarpOperation.Outcome> outcomes, List<Warp> warps) {
+            this.outcomes = outcomes;
+            this.warps = warps;
+        }
+
+        /**
+         * Gets the outcome of every operation.
+         *
+         * @return The outcomes, in request order
+         */
+        public List<WarpOperation.Outcome> getOutcomes() {
+            return outcomes;
+        }
+
+        /**
+         * Gets the owner's warps after the operations were applied.
+         *
+         * @return The warps, or null if the operations changed nothing
+         */
+        public List<Warp> getWarps() {
+            return warps;
+        }
+    }
+
+    /**
+     * A warp as seen by the world sweeper.
+     */
+    public static class SweepRow {
+        private final Warp warp;
+        private final Long orphanedAt;
+
+        /**
+         * Creates a new SweepRow instance.
+         *
+         * @param warp The warp
+         * @param orphanedAt When the warp was flagged as orphaned, or null if it is not flagged
+         */
+        public SweepRow(Warp warp, Long orphanedAt) {
+            this.warp = warp;
+            this.orphanedAt = orphanedAt;
+        }
+
+        /**
+         * Gets the warp.
+         *
+         * @return The warp
+         */
+        public Warp getWarp() {
+            return warp;
+        }
+
+        /**
+         * Gets when the warp was flagged as orphaned.
+         *
+         * @return The timestamp, or null if the warp is not flagged
+         */
+        public Long getOrphanedAt() {
+            return orphanedAt;
+        }
+    }
 }
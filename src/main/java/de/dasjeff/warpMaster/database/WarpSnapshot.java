@@ -0,0 +1,212 @@
+package de.dasjeff.warpMaster.database;
+
+import de.dasjeff.warpMaster.model.PlayerData;
+import de.dasjeff.warpMaster.model.Warp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of all warps and player data, used to fill the {@link MemoryStore}
+ * at startup without scanning the tables.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic, version, created at, string count, warp count, player count
+ * strings  string count x [int length][UTF-8 bytes], holding warp and world names
+ * warps    warp count x 68 bytes: id, owner (2 longs), name index, world index,
+ *          x, y, z, yaw, pitch, created at
+ * players  player count x 28 bytes: uuid (2 longs), warp limit, last warp time
+ * trailer  CRC32 of everything before it
+ * </pre>
+ * Names are stored once in the string table, so repeated world names cost four bytes per warp.
+ * Snapshots are written to a temporary file and moved into place, and read through a
+ * memory-mapped buffer.
+ */
+public class WarpSnapshot {
+    private static final int MAGIC = 0x574D5350; // "WMSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+
+    private final long createdAt;
+    private final List<Warp> warps;
+    private final List<PlayerData> players;
+
+    /**
+     * Creates a new WarpSnapshot instance.
+     *
+     * @param createdAt When the snapshot was taken, in epoch milliseconds
+     * @param warps The warps
+     * @param players The player data
+     */
+    private WarpSnapshot(long createdAt, List<Warp> warps, List<PlayerData> players) {
+        this.createdAt = createdAt;
+        this.warps = warps;
+        this.players = players;
+    }
+
+    /**
+     * Writes a snapshot, replacing the existing file atomically.
+     *
+     * @param file The snapshot file
+     * @param warps The warps
+     * @param players The player data
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, List<Warp> warps, List<PlayerData> players) throws IOException {
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Warp warp : warps) {
+            stringIndex.computeIfAbsent(warp.getName(), key -> { strings.add(key); return strings.size() - 1; });
+            stringIndex.computeIfAbsent(warp.getWorldName(), key -> { strings.add(key); return strings.size() - 1; });
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOut, 64 * 1024), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(strings.size());
+            out.writeInt(warps.size());
+            out.writeInt(players.size());
+
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            for (Warp warp : warps) {
+                out.writeInt(warp.getId());
+                out.writeLong(warp.getOwnerUuid().getMostSignificantBits());
+                out.writeLong(warp.getOwnerUuid().getLeastSignificantBits());
+                out.writeInt(stringIndex.get(warp.getName()));
+                out.writeInt(stringIndex.get(warp.getWorldName()));
+                out.writeDouble(warp.getX());
+                out.writeDouble(warp.getY());
+                out.writeDouble(warp.getZ());
+                out.writeFloat(warp.getYaw());
+                out.writeFloat(warp.getPitch());
+                out.writeLong(warp.getCreatedAt());
+            }
+            for (PlayerData playerData : players) {
+                out.writeLong(playerData.getUuid().getMostSignificantBits());
+                out.writeLong(playerData.getUuid().getLeastSignificantBits());
+                out.writeInt(playerData.getWarpLimit());
+                out.writeLong(playerData.getLastWarpTime());
+            }
+            out.flush();
+            // The checksum itself is not part of the checked data
+            fileOut.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot through a memory-mapped buffer and verifies its checksum.
+     *
+     * @param file The snapshot file
+     * @return The snapshot
+     * @throws IOException If the file cannot be read or is corrupt
+     */
+    public static WarpSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has an invalid size of " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            buffer.limit((int) size - 4);
+
+            try {
+                if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    throw new IOException("Not a snapshot file or unsupported version");
+                }
+                long createdAt = buffer.getLong();
+                int stringCount = buffer.getInt();
+                int warpCount = buffer.getInt();
+                int playerCount = buffer.getInt();
+
+                String[] strings = new String[stringCount];
+                for (int i = 0; i < stringCount; i++) {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                List<Warp> warps = new ArrayList<>(warpCount);
+                for (int i = 0; i < warpCount; i++) {
+                    int id = buffer.getInt();
+                    UUID ownerUuid = new UUID(buffer.getLong(), buffer.getLong());
+                    String name = strings[buffer.getInt()];
+                    String worldName = strings[buffer.getInt()];
+                    warps.add(new Warp(id, ownerUuid, name, worldName, buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                            buffer.getFloat(), buffer.getFloat(), buffer.getLong()));
+                }
+
+                List<PlayerData> players = new ArrayList<>(playerCount);
+                for (int i = 0; i < playerCount; i++) {
+                    players.add(new PlayerData(new UUID(buffer.getLong(), buffer.getLong()), buffer.getInt(), buffer.getLong()));
+                }
+                return new WarpSnapshot(createdAt, warps, players);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+                throw new IOException("Snapshot is truncated or malformed", e);
+            }
+        }
+    }
+
+    /**
+     * Gets when the snapshot was taken.
+     *
+     * @return The creation time in epoch milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets the warps in the snapshot.
+     *
+     * @return The warps
+     */
+    public List<Warp> getWarps() {
+        return warps;
+    }
+
+    /**
+     * Gets the player data in the snapshot.
+     *
+     * @return The player data
+     */
+    public List<PlayerData> getPlayers() {
+        return players;
+    }
+}
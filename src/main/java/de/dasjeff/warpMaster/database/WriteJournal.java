@@ -0,0 +1,645 @@
+package de.dasjeff.warpMaster.database;
+
+import de.dasjeff.warpMaster.model.Warp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal for player writes that could not reach the database.
+ * Records are written by a single writer thread that drains everything queued since its last
+ * flush, writes it with one {@link FileChannel#write} pass and forces it to disk once, so
+ * concurrent writers share a single fsync. An append completes only after its record is durable.
+ * <p>
+ * Replayed entries are acknowledged with an ACK record; once every entry is acknowledged the
+ * file is truncated. A torn record at the end of the file (crash during a write) is detected
+ * by its checksum and cut off on startup.
+ */
+public class WriteJournal {
+    private static final byte TYPE_CREATE_WARP = 1;
+    private static final byte TYPE_DELETE_WARP = 2;
+    private static final byte TYPE_LAST_WARP_TIME = 3;
+    private static final byte TYPE_ACK = 4;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    private static final QueuedRecord CLOSE = new QueuedRecord(TYPE_ACK, 0, null);
+
+    private final File file;
+    private final Logger logger;
+    private final int maxEntries;
+    private final BlockingQueue<QueuedRecord> writeQueue = new LinkedBlockingQueue<>();
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+    private FileChannel channel;
+    private Thread writer;
+    private long nextSeq = 1;
+    private int outstanding;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Creates a new WriteJournal instance.
+     *
+     * @param file The journal file
+     * @param logger The logger
+     * @param maxEntries The maximum number of entries waiting for replay
+     */
+    public WriteJournal(File file, Logger logger, int maxEntries) {
+        this.file = file;
+        this.logger = logger;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Opens the journal file, loads all entries that were not acknowledged yet and starts the writer thread.
+     *
+     * @throws IOException If the file cannot be opened or read
+     */
+    public void open() throws IOException {
+        file.getParentFile().mkdirs();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+
+        writer = new Thread(this::runWriter, "WarpMaster-Journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reads the journal, dropping acknowledged entries and a torn tail.
+     *
+     * @throws IOException If the file cannot be read
+     */
+    private void load() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long ackedSeq = 0;
+        long validBytes = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+        channel.position(0);
+        while (validBytes + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || validBytes + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload);
+            if (checksum(payload.array()) != checksum) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            byte type = in.readByte();
+            long seq = in.readLong();
+            if (type == TYPE_ACK) {
+                ackedSeq = Math.max(ackedSeq, seq);
+            } else {
+                entries.add(readEntry(type, seq, in));
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+            validBytes += HEADER_BYTES + length;
+        }
+
+        if (validBytes < size) {
+            logger.warning("Write journal " + file.getName() + " has a damaged tail, discarding " + (size - validBytes) + " bytes");
+            channel.truncate(validBytes);
+        }
+
+        for (Entry entry : entries) {
+            if (entry.seq > ackedSeq) {
+                pending.addLast(entry);
+            }
+        }
+        outstanding = pending.size();
+        if (pending.isEmpty() && validBytes > 0) {
+            channel.truncate(0);
+            validBytes = 0;
+        }
+        channel.position(validBytes);
+
+        if (!pending.isEmpty()) {
+            logger.info("Write journal contains " + pending.size() + " writes waiting for replay");
+        }
+    }
+
+    /**
+     * Journals the creation of a warp.
+     *
+     * @param warp The warp to create; its ID is ignored
+     * @return A CompletableFuture that completes with the durable entry. Its warp carries a negative placeholder ID.
+     */
+    public CompletableFuture<Entry> appendCreateWarp(Warp warp) {
+        return append(seq -> new Entry(TYPE_CREATE_WARP, seq, warp.getOwnerUuid(), new Warp((int) -seq, warp.getOwnerUuid(), warp.getName(),
+                warp.getWorldName(), warp.getX(), warp.getY(), warp.getZ(), warp.getYaw(), warp.getPitch(), warp.getCreatedAt()), warp.getName(), 0));
+    }
+
+    /**
+     * Journals the deletion of a warp.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return A CompletableFuture that completes with the durable entry
+     */
+    public CompletableFuture<Entry> appendDeleteWarp(UUID ownerUuid, String name) {
+        return append(seq -> new Entry(TYPE_DELETE_WARP, seq, ownerUuid, null, name, 0));
+    }
+
+    /**
+     * Journals a player's last warp time.
+     *
+     * @param playerUuid The UUID of the player
+     * @param lastWarpTime The last warp time
+     * @return A CompletableFuture that completes with the durable entry
+     */
+    public CompletableFuture<Entry> appendLastWarpTime(UUID playerUuid, long lastWarpTime) {
+        return append(seq -> new Entry(TYPE_LAST_WARP_TIME, seq, playerUuid, null, null, lastWarpTime));
+    }
+
+    /**
+     * Assigns the next sequence number and queues the record for the writer.
+     *
+     * @param factory Creates the entry for the assigned sequence number
+     * @return A CompletableFuture that completes once the entry is durable
+     */
+    private synchronized CompletableFuture<Entry> append(LongFunction<Entry> factory) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Write journal is closed"));
+        }
+        if (failed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Write journal failed"));
+        }
+        if (outstanding >= maxEntries) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Write journal is full"));
+        }
+        Entry entry = factory.apply(nextSeq++);
+        outstanding++;
+        QueuedRecord record = new QueuedRecord(entry.type, entry.seq, entry);
+        writeQueue.add(record);
+        return record.future.thenApply(ignored -> entry);
+    }
+
+    /**
+     * Acknowledges all entries up to a sequence number after they were applied to the database.
+     *
+     * @param seq The sequence number of the last applied entry
+     * @return A CompletableFuture that completes once the acknowledgement is durable
+     */
+    public CompletableFuture<Void> acknowledge(long seq) {
+        QueuedRecord record;
+        synchronized (this) {
+            Iterator<Entry> iterator = pending.iterator();
+            while (iterator.hasNext() && iterator.next().seq <= seq) {
+                iterator.remove();
+                outstanding--;
+            }
+            record = new QueuedRecord(TYPE_ACK, seq, null);
+            writeQueue.add(record);
+        }
+        return record.future;
+    }
+
+    /**
+     * Writer loop: drains the queue, writes the batch and forces it to disk once.
+     */
+    private void runWriter() {
+        List<QueuedRecord> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            writeQueue.drainTo(batch);
+            boolean close = batch.remove(CLOSE);
+            flush(batch);
+            if (close) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of records and completes their futures.
+     * If the write fails, the file is cut back to where the batch started, so a partial record
+     * never sits in front of later records. If that fails too, the journal stops accepting writes.
+     *
+     * @param batch The records
+     */
+    private void flush(List<QueuedRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = -1;
+        try {
+            if (failed) {
+                throw new IOException("Write journal failed after an earlier write error");
+            }
+            start = channel.position();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (QueuedRecord record : batch) {
+                writeRecord(bytes, record);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write to the write journal", e);
+            if (start >= 0) {
+                rollBack(start);
+            }
+            synchronized (this) {
+                for (QueuedRecord record : batch) {
+                    if (record.entry != null) {
+                        outstanding--;
+                    }
+                }
+            }
+            batch.forEach(record -> record.future.completeExceptionally(e));
+            return;
+        }
+
+        synchronized (this) {
+            for (QueuedRecord record : batch) {
+                if (record.entry != null) {
+                    pending.addLast(record.entry);
+                }
+            }
+            compactIfDrained();
+        }
+        batch.forEach(record -> record.future.complete(null));
+    }
+
+    /**
+     * Removes a partially written batch from the end of the file.
+     * If the file cannot be cut back, the journal is marked as failed and rejects further writes,
+     * since records appended behind the partial one would be lost on the next startup.
+     *
+     * @param position The position at which the batch started
+     */
+    private void rollBack(long position) {
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            failed = true;
+            logger.log(Level.SEVERE, "Failed to remove a partial write from the write journal, no further writes are accepted", e);
+        }
+    }
+
+    /**
+     * Truncates the file once every entry has been acknowledged and nothing is queued.
+     * Must be called on the writer thread while holding the monitor.
+     */
+    private void compactIfDrained() {
+        if (outstanding > 0 || !writeQueue.isEmpty()) {
+            return;
+        }
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to compact the write journal", e);
+        }
+    }
+
+    /**
+     * Encodes a record as length, checksum and payload.
+     *
+     * @param out The output
+     * @param record The record
+     * @throws IOException If encoding fails
+     */
+    private void writeRecord(ByteArrayOutputStream out, QueuedRecord record) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeByte(record.type);
+        payload.writeLong(record.seq);
+        Entry entry = record.entry;
+        if (entry != null) {
+            payload.writeLong(entry.uuid.getMostSignificantBits());
+            payload.writeLong(entry.uuid.getLeastSignificantBits());
+            switch (entry.type) {
+                case TYPE_CREATE_WARP -> {
+                    Warp warp = entry.warp;
+                    payload.writeUTF(warp.getName());
+                    payload.writeUTF(warp.getWorldName());
+                    payload.writeDouble(warp.getX());
+                    payload.writeDouble(warp.getY());
+                    payload.writeDouble(warp.getZ());
+                    payload.writeFloat(warp.getYaw());
+                    payload.writeFloat(warp.getPitch());
+                    payload.writeLong(warp.getCreatedAt());
+                }
+                case TYPE_DELETE_WARP -> payload.writeUTF(entry.name);
+                case TYPE_LAST_WARP_TIME -> payload.writeLong(entry.time);
+                default -> throw new IOException("Unknown journal entry type " + entry.type);
+            }
+        }
+        payload.flush();
+
+        byte[] data = payloadBytes.toByteArray();
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(data.length);
+        header.writeInt(checksum(data));
+        header.write(data);
+        header.flush();
+    }
+
+    /**
+     * Decodes the rest of an entry record.
+     *
+     * @param type The record type
+     * @param seq The sequence number
+     * @param in The payload after type and sequence number
+     * @return The entry
+     * @throws IOException If the payload is malformed
+     */
+    private Entry readEntry(byte type, long seq, DataInputStream in) throws IOException {
+        UUID uuid = new UUID(in.readLong(), in.readLong());
+        switch (type) {
+            case TYPE_CREATE_WARP -> {
+                String name = in.readUTF();
+                Warp warp = new Warp((int) -seq, uuid, name, in.readUTF(), in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readFloat(), in.readFloat(), in.readLong());
+                return new Entry(type, seq, uuid, warp, name, 0);
+            }
+            case TYPE_DELETE_WARP -> {
+                return new Entry(type, seq, uuid, null, in.readUTF(), 0);
+            }
+            case TYPE_LAST_WARP_TIME -> {
+                return new Entry(type, seq, uuid, null, null, in.readLong());
+            }
+            default -> throw new IOException("Unknown journal entry type " + type);
+        }
+    }
+
+    /**
+     * Reads from the channel until the buffer is full.
+     *
+     * @param buffer The buffer
+     * @throws IOException If the end of the file is reached first
+     */
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+
+    /**
+     * Computes the CRC32 checksum of a payload.
+     *
+     * @param data The payload
+     * @return The checksum
+     */
+    private static int checksum(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks whether writes are waiting for replay, including writes not yet on disk.
+     *
+     * @return True if the journal is not empty
+     */
+    public synchronized boolean hasPending() {
+        return outstanding > 0;
+    }
+
+    /**
+     * Checks whether the journal has reached its size limit.
+     *
+     * @return True if no more writes are accepted
+     */
+    public synchronized boolean isFull() {
+        return outstanding >= maxEntries;
+    }
+
+    /**
+     * Gets the number of writes waiting for replay.
+     *
+     * @return The number of entries
+     */
+    public synchronized int size() {
+        return outstanding;
+    }
+
+    /**
+     * Gets the oldest durable entries, in journal order.
+     *
+     * @param max The maximum number of entries
+     * @return The entries
+     */
+    public synchronized List<Entry> peek(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, pending.size()));
+        for (Entry entry : pending) {
+            if (entries.size() >= max) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Checks whether durable entries for a player are waiting for replay.
+     *
+     * @param uuid The UUID of the player
+     * @return True if the player has pending entries
+     */
+    public synchronized boolean hasPendingFor(UUID uuid) {
+        for (Entry entry : pending) {
+            if (entry.uuid.equals(uuid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the pending warp creations and deletions of an owner to a warp list loaded from the database,
+     * so caches filled while the journal is not replayed yet still show the journaled changes.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param warps The warps loaded from the database
+     * @return The warps with the journaled changes applied
+     */
+    public synchronized List<Warp> overlay(UUID ownerUuid, List<Warp> warps) {
+        List<Warp> result = null;
+        for (Entry entry : pending) {
+            if (!entry.uuid.equals(ownerUuid) || entry.type == TYPE_LAST_WARP_TIME) {
+                continue;
+            }
+            if (result == null) {
+                result = new ArrayList<>(warps);
+            }
+            String normalizedName = Warp.normalizeName(entry.name);
+            result.removeIf(warp -> Warp.normalizeName(warp.getName()).equals(normalizedName));
+            if (entry.type == TYPE_CREATE_WARP) {
+                result.add(entry.warp);
+            }
+        }
+        return result != null ? result : warps;
+    }
+
+    /**
+     * Flushes queued records and closes the file.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed || channel == null) {
+                return;
+            }
+            closed = true;
+            writeQueue.add(CLOSE);
+        }
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close the write journal", e);
+        }
+    }
+
+    /**
+     * A record waiting for the writer.
+     */
+    private static final class QueuedRecord {
+        private final byte type;
+        private final long seq;
+        private final Entry entry;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private QueuedRecord(byte type, long seq, Entry entry) {
+            this.type = type;
+            this.seq = seq;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * A journaled write.
+     */
+    public static final class Entry {
+        private final byte type;
+        private final long seq;
+        private final UUID uuid;
+        private final Warp warp;
+        private final String name;
+        private final long time;
+
+        private Entry(byte type, long seq, UUID uuid, Warp warp, String name, long time) {
+            this.type = type;
+            this.seq = seq;
+            this.uuid = uuid;
+            this.warp = warp;
+            this.name = name;
+            this.time = time;
+        }
+
+        /**
+         * Gets the sequence number of this entry.
+         *
+         * @return The sequence number
+         */
+        public long getSeq() {
+            return seq;
+        }
+
+        /**
+         * Gets the UUID of the warp owner or player this entry belongs to.
+         *
+         * @return The UUID
+         */
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        /**
+         * Checks whether this entry creates a warp.
+         *
+         * @return True for a warp creation
+         */
+        public boolean isCreateWarp() {
+            return type == TYPE_CREATE_WARP;
+        }
+
+        /**
+         * Checks whether this entry deletes a warp.
+         *
+         * @return True for a warp deletion
+         */
+        public boolean isDeleteWarp() {
+            return type == TYPE_DELETE_WARP;
+        }
+
+        /**
+         * Checks whether this entry records a last warp time.
+         *
+         * @return True for a last warp time update
+         */
+        public boolean isLastWarpTime() {
+            return type == TYPE_LAST_WARP_TIME;
+        }
+
+        /**
+         * Gets the warp to create.
+         *
+         * @return The warp with a negative placeholder ID, or null for other entry types
+         */
+        public Warp getWarp() {
+            return warp;
+        }
+
+        /**
+         * Gets the name of the created or deleted warp.
+         *
+         * @return The warp name, or null for last warp time entries
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the recorded last warp time.
+         *
+         * @return The last warp time
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package de.dasjeff.warpMaster.listener;
 
+import de.dasjeff.warpMaster.database.DatabaseExecutor;
+import de.dasjeff.warpMaster.database.DatabaseManager;
 import de.dasjeff.warpMaster.service.WarpService;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -23,12 +25,18 @@ public class PlayerJoinListener implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
+        warpService.recordPlayerName(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+
         // Asynchronously load warps for the joining player to warm up the cache
         if (plugin.getLogger().isLoggable(Level.FINE)) {
              plugin.getLogger().log(Level.FINE, "Pre-caching warps for joining player: {0}", event.getPlayer().getName());
         }
-        warpService.getWarps(event.getPlayer().getUniqueId())
+        // Pre-caching must never delay player commands, so it runs in the background lane
+        DatabaseExecutor.withLane(DatabaseExecutor.Lane.BACKGROUND, () -> warpService.getWarps(event.getPlayer().getUniqueId()))
             .exceptionally(ex -> {
+                if (DatabaseExecutor.isBusy(ex) || DatabaseManager.isUnavailable(ex)) {
+                    return null;
+                }
                 plugin.getLogger().log(Level.WARNING, "Failed to pre-cache warps for player " + event.getPlayer().getName(), ex);
                 return null;
             });
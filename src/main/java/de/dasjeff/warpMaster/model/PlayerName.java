@@ -0,0 +1,52 @@
+package de.dasjeff.warpMaster.model;
+
+import java.util.UUID;
+
+/**
+ * Represents a known name of a player and when it was recorded.
+ */
+public class PlayerName {
+    private final UUID uuid;
+    private final String name;
+    private final long recordedAt;
+
+    /**
+     * Creates a new PlayerName instance.
+     *
+     * @param uuid       The UUID of the player
+     * @param name       The name of the player
+     * @param recordedAt The timestamp at which the name was seen
+     */
+    public PlayerName(UUID uuid, String name, long recordedAt) {
+        this.uuid = uuid;
+        this.name = name;
+        this.recordedAt = recordedAt;
+    }
+
+    /**
+     * Gets the UUID of the player.
+     *
+     * @return The player's UUID
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    /**
+     * Gets the name of the player.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the timestamp at which the name was seen.
+     *
+     * @return The timestamp in milliseconds
+     */
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+}
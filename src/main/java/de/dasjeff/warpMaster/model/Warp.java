@@ -4,6 +4,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -161,6 +162,16 @@ public class Warp {
         return createdAt;
     }
 
+    /**
+     * Normalizes a warp name for case-insensitive comparison and storage.
+     *
+     * @param name The warp name
+     * @return The lowercase warp name
+     */
+    public static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Converts this warp to a Bukkit Location.
      *
@@ -0,0 +1,124 @@
+package de.dasjeff.warpMaster.model;
+
+import java.util.UUID;
+
+/**
+ * Represents one change to a player's warps within a batch of operations.
+ */
+public class WarpOperation {
+    private final Type type;
+    private final UUID ownerUuid;
+    private final String name;
+    private final Warp warp;
+
+    /**
+     * Creates a new WarpOperation instance.
+     *
+     * @param type      The kind of change
+     * @param ownerUuid The UUID of the owner of the warp
+     * @param name      The name of the warp
+     * @param warp      The warp with its new location, or null for a deletion
+     */
+    private WarpOperation(Type type, UUID ownerUuid, String name, Warp warp) {
+        this.type = type;
+        this.ownerUuid = ownerUuid;
+        this.name = name;
+        this.warp = warp;
+    }
+
+    /**
+     * Creates an operation that creates a warp.
+     *
+     * @param warp The warp to create
+     * @return The operation
+     */
+    public static WarpOperation create(Warp warp) {
+        return new WarpOperation(Type.CREATE, warp.getOwnerUuid(), warp.getName(), warp);
+    }
+
+    /**
+     * Creates an operation that deletes a warp.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name      The name of the warp
+     * @return The operation
+     */
+    public static WarpOperation delete(UUID ownerUuid, String name) {
+        return new WarpOperation(Type.DELETE, ownerUuid, name, null);
+    }
+
+    /**
+     * Creates an operation that moves an existing warp to a new location.
+     * Only the world, coordinates and rotation of the given warp are used.
+     *
+     * @param warp The warp with its new location
+     * @return The operation
+     */
+    public static WarpOperation move(Warp warp) {
+        return new WarpOperation(Type.MOVE, warp.getOwnerUuid(), warp.getName(), warp);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return The type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the UUID of the owner of the warp.
+     *
+     * @return The owner's UUID
+     */
+    public UUID getOwnerUuid() {
+        return ownerUuid;
+    }
+
+    /**
+     * Gets the name of the warp.
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the warp to create, or the warp with its new location for a move.
+     *
+     * @return The warp, or null for a deletion
+     */
+    public Warp getWarp() {
+        return warp;
+    }
+
+    /**
+     * The kinds of change.
+     */
+    public enum Type {
+        /** Creates a new warp. */
+        CREATE,
+        /** Deletes an existing warp. */
+        DELETE,
+        /** Changes the location of an existing warp. */
+        MOVE
+    }
+
+    /**
+     * The result of an operation.
+     */
+    public enum Outcome {
+        /** The change was committed. */
+        APPLIED,
+        /** The warp to delete or move does not exist. */
+        NOT_FOUND,
+        /** The owner already has a warp with the name. */
+        ALREADY_EXISTS,
+        /** The owner has reached the warp limit. */
+        LIMIT_REACHED,
+        /** The transaction of the owner's operations failed, nothing of it was committed. */
+        FAILED
+    }
+}
@@ -0,0 +1,150 @@
+package de.dasjeff.warpMaster.service;
+
+import de.dasjeff.warpMaster.database.DatabaseManager;
+import de.dasjeff.warpMaster.database.PlayerRepository;
+import de.dasjeff.warpMaster.database.WarpRepository;
+import de.dasjeff.warpMaster.database.WriteJournal;
+import de.dasjeff.warpMaster.util.ConfigUtil;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Replays the {@link WriteJournal} into the database once it is reachable again.
+ * Entries are applied in journal order in small transactions on a dedicated low-priority thread,
+ * each batch only while the circuit breaker is closed and the pool has spare connections, and
+ * never faster than the configured rate, so a long outage does not turn into a write storm.
+ * Every entry is idempotent: creations skip names that already exist, deletions of missing
+ * warps are no-ops and last warp times only ever move forward.
+ */
+public class JournalReplayer {
+    private final JavaPlugin plugin;
+    private final WriteJournal journal;
+    private final WarpService warpService;
+    private final WarpRepository warpRepository;
+    private final PlayerRepository playerRepository;
+    private final DatabaseManager databaseManager;
+    private final ConfigUtil configUtil;
+    private final ScheduledExecutorService replayExecutor;
+
+    private volatile boolean stopped;
+
+    /**
+     * Creates a new JournalReplayer instance.
+     *
+     * @param plugin The plugin instance
+     * @param journal The write journal
+     * @param warpService The warp service
+     * @param warpRepository The warp repository
+     * @param playerRepository The player repository
+     * @param databaseManager The database manager
+     * @param configUtil The configuration utility
+     */
+    public JournalReplayer(JavaPlugin plugin, WriteJournal journal, WarpService warpService, WarpRepository warpRepository,
+                           PlayerRepository playerRepository, DatabaseManager databaseManager, ConfigUtil configUtil) {
+        this.plugin = plugin;
+        this.journal = journal;
+        this.warpService = warpService;
+        this.warpRepository = warpRepository;
+        this.playerRepository = playerRepository;
+        this.databaseManager = databaseManager;
+        this.configUtil = configUtil;
+        this.replayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-JournalReplay");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the periodic replay check.
+     */
+    public void start() {
+        long intervalSeconds = Math.max(1, configUtil.getJournalReplayIntervalSeconds());
+        replayExecutor.scheduleWithFixedDelay(this::replay, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops replaying after the current batch.
+     */
+    public void stop() {
+        stopped = true;
+        replayExecutor.shutdownNow();
+        try {
+            replayExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replays pending entries until the journal is empty, the database becomes unavailable or the replayer is stopped.
+     */
+    private void replay() {
+        int batchSize = Math.max(1, configUtil.getJournalReplayBatchSize());
+        long minBatchIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, configUtil.getJournalReplayBatchesPerSecond());
+        int replayed = 0;
+
+        while (!stopped && !databaseManager.isDegraded() && databaseManager.hasSpareConnections()) {
+            List<WriteJournal.Entry> batch = journal.peek(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            long batchStart = System.nanoTime();
+
+            try {
+                databaseManager.runInTransaction(connection -> {
+                    for (WriteJournal.Entry entry : batch) {
+                        if (entry.isCreateWarp()) {
+                            if (warpRepository.getWarpByOwnerAndNameTransactional(connection, entry.getUuid(), entry.getName()).isEmpty()) {
+                                warpRepository.createWarpTransactional(connection, entry.getWarp());
+                            }
+                        } else if (entry.isDeleteWarp()) {
+                            warpRepository.deleteWarpByOwnerAndNameTransactional(connection, entry.getUuid(), entry.getName());
+                        } else if (entry.isLastWarpTime()) {
+                            playerRepository.raiseLastWarpTimeTransactional(connection, entry.getUuid(), entry.getTime());
+                        }
+                    }
+                    return null;
+                });
+                journal.acknowledge(batch.get(batch.size() - 1).getSeq()).join();
+            } catch (RuntimeException e) {
+                if (!DatabaseManager.isUnavailable(e)) {
+                    plugin.getLogger().log(Level.WARNING, "Journal replay failed, retrying later", e);
+                }
+                break;
+            }
+
+            replayed += batch.size();
+            // Reload the caches of owners whose journaled writes are now all in the database
+            Set<UUID> touched = new HashSet<>();
+            for (WriteJournal.Entry entry : batch) {
+                if (!entry.isLastWarpTime() && touched.add(entry.getUuid()) && !journal.hasPendingFor(entry.getUuid())) {
+                    warpService.invalidatePlayerCaches(entry.getUuid());
+                }
+            }
+
+            long remainingNanos = minBatchIntervalNanos - (System.nanoTime() - batchStart);
+            if (remainingNanos > 0) {
+                try {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        if (replayed > 0) {
+            plugin.getLogger().info("Replayed " + replayed + " journaled writes, " + journal.size() + " remaining.");
+        }
+    }
+}
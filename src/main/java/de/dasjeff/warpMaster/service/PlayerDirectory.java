@@ -0,0 +1,244 @@
+package de.dasjeff.warpMaster.service;
+
+import de.dasjeff.warpMaster.model.PlayerName;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Directory of known player names with a sorted in-memory prefix index.
+ * Entries are keyed by the lowercase name followed by the UUID, so players sharing a
+ * name (after a rename) are both kept, and a key doubles as a stable pagination cursor.
+ * Every name carries the time it was seen; when two players share a name, the one seen
+ * last is taken to hold it. Persisting the names is up to the caller, see
+ * {@link WarpService#recordPlayerName}.
+ */
+public class PlayerDirectory {
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentHashMap<UUID, PlayerName> namesByUuid = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, UUID> index = new ConcurrentSkipListMap<>();
+    // Players the server's user cache did not know, so they are not looked up again
+    private final Set<UUID> unresolved = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Records the name of a player, replacing an older name. A name seen before the
+     * currently known one is ignored.
+     *
+     * @param uuid The UUID of the player
+     * @param name The name of the player
+     * @param recordedAt The timestamp at which the name was seen
+     * @return True if the directory changed and the name should be persisted
+     */
+    public boolean record(UUID uuid, String name, long recordedAt) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        boolean[] changed = new boolean[1];
+        // Compute keeps the map and the index consistent for concurrent records of the same player
+        namesByUuid.compute(uuid, (key, previous) -> {
+            if (previous != null && (previous.getName().equals(name) || previous.getRecordedAt() > recordedAt)) {
+                return previous;
+            }
+            if (previous != null) {
+                index.remove(key(previous.getName(), uuid));
+            }
+            index.put(key(name, uuid), uuid);
+            unresolved.remove(uuid);
+            changed[0] = true;
+            return new PlayerName(uuid, name, recordedAt);
+        });
+        return changed[0];
+    }
+
+    /**
+     * Gets the known name of a player.
+     *
+     * @param uuid The UUID of the player
+     * @return The name, or null if the player is not known
+     */
+    public String getName(UUID uuid) {
+        PlayerName known = namesByUuid.get(uuid);
+        return known != null ? known.getName() : null;
+    }
+
+    /**
+     * Gets the known name of a player together with the time it was seen.
+     *
+     * @param uuid The UUID of the player
+     * @return The name, or null if the player is not known
+     */
+    public PlayerName getPlayerName(UUID uuid) {
+        return namesByUuid.get(uuid);
+    }
+
+    /**
+     * Gets the name of a player, asking the server's user cache if the player is not known yet.
+     * The lookup may hit the disk, so it should only be used for a bounded number of players.
+     * Players the user cache does not know either are remembered and not looked up again
+     * until their name is recorded.
+     *
+     * @param uuid The UUID of the player
+     * @return The name, or null if the server does not know the player either
+     */
+    public String resolveName(UUID uuid) {
+        String name = getName(uuid);
+        if (name != null || unresolved.contains(uuid)) {
+            return name;
+        }
+        OfflinePlayer player = Bukkit.getOfflinePlayer(uuid);
+        name = player.getName();
+        if (name == null || name.isEmpty()) {
+            unresolved.add(uuid);
+            return null;
+        }
+        record(uuid, name, player.getLastPlayed());
+        return name;
+    }
+
+    /**
+     * Finds the player currently holding a name. Online players are matched first; otherwise
+     * the player who was seen last with the name is returned.
+     *
+     * @param name The name of the player, case-insensitive
+     * @return The UUID of the player, or null if no known player has the name
+     */
+    public UUID findUuid(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return online.getUniqueId();
+        }
+        // Keys of this exact name sort directly after the bare name plus separator
+        String exactKey = name.toLowerCase(Locale.ROOT) + KEY_SEPARATOR;
+        UUID holder = null;
+        long holderRecordedAt = Long.MIN_VALUE;
+        for (Map.Entry<String, UUID> entry : index.tailMap(exactKey, true).entrySet()) {
+            if (!entry.getKey().startsWith(exactKey)) {
+                break;
+            }
+            PlayerName known = namesByUuid.get(entry.getValue());
+            if (known != null && known.getRecordedAt() >= holderRecordedAt) {
+                holder = entry.getValue();
+                holderRecordedAt = known.getRecordedAt();
+            }
+        }
+        return holder;
+    }
+
+    /**
+     * Finds players whose name starts with a prefix, in name order.
+     *
+     * @param prefix The name prefix, case-insensitive
+     * @param afterKey Only entries after this key are returned, or null to start at the first match
+     * @param limit The maximum number of entries to return
+     * @return The matching entries, each with its key for continuing the search
+     */
+    public List<Entry> findByPrefix(String prefix, String afterKey, int limit) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        Map<String, UUID> tail = afterKey != null && afterKey.compareTo(lowerPrefix) > 0
+                ? index.tailMap(afterKey, false)
+                : index.tailMap(lowerPrefix, true);
+
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, UUID> entry : tail.entrySet()) {
+            if (entries.size() >= limit || !entry.getKey().startsWith(lowerPrefix)) {
+                break;
+            }
+            PlayerName known = namesByUuid.get(entry.getValue());
+            if (known != null) {
+                entries.add(new Entry(entry.getKey(), entry.getValue(), known.getName()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Completes a player name for a command. Runs on the main thread, so it only walks the
+     * index range of the prefix and stops after the limit.
+     *
+     * @param prefix The typed part of the name, case-insensitive
+     * @param limit The maximum number of names to return
+     * @return The matching names in name order, each name once
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        for (Entry entry : findByPrefix(prefix, null, limit)) {
+            // Players sharing a name are adjacent in the index
+            if (names.isEmpty() || !names.get(names.size() - 1).equalsIgnoreCase(entry.getName())) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Gets the number of known players.
+     *
+     * @return The number of players in the directory
+     */
+    public int size() {
+        return namesByUuid.size();
+    }
+
+    /**
+     * Builds the index key of a player.
+     *
+     * @param name The name of the player
+     * @param uuid The UUID of the player
+     * @return The index key
+     */
+    private static String key(String name, UUID uuid) {
+        return name.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + uuid;
+    }
+
+    /**
+     * A player found in the directory.
+     */
+    public static class Entry {
+        private final String key;
+        private final UUID uuid;
+        private final String name;
+
+        Entry(String key, UUID uuid, String name) {
+            this.key = key;
+            this.uuid = uuid;
+            this.name = name;
+        }
+
+        /**
+         * Gets the index key, usable as a cursor for {@link #findByPrefix}.
+         *
+         * @return The index key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the UUID of the player.
+         *
+         * @return The UUID
+         */
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        /**
+         * Gets the name of the player.
+         *
+         * @return The name
+         */
+        public String getName() {
+            return name;
+        }
+    }
+}
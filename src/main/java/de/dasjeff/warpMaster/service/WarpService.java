@@ -3,21 +3,43 @@ package de.dasjeff.warpMaster.service;
 import de.dasjeff.warpMaster.database.PlayerRepository;
 import de.dasjeff.warpMaster.database.WarpRepository;
 import de.dasjeff.warpMaster.model.PlayerData;
+import de.dasjeff.warpMaster.model.PlayerName;
 import de.dasjeff.warpMaster.model.Warp;
+import de.dasjeff.warpMaster.model.WarpOperation;
 import de.dasjeff.warpMaster.util.ConfigUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
+import de.dasjeff.warpMaster.database.ChangeLog;
+import de.dasjeff.warpMaster.database.DatabaseExecutor;
 import de.dasjeff.warpMaster.database.DatabaseManager;
+import de.dasjeff.warpMaster.database.DatabaseUnavailableException;
+import de.dasjeff.warpMaster.database.WriteJournal;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.stream.Collectors;
@@ -32,6 +54,9 @@ public class WarpService {
     private final JavaPlugin plugin;
     private final ExecutorService executor;
     private final DatabaseManager databaseManager;
+    private final WriteJournal journal;
+
+    private static final long CACHED_NAMES_WAIT_MS = 250;
 
     // Simple Caches
     private final ConcurrentHashMap<UUID, PlayerData> playerDataCache = new ConcurrentHashMap<>();
@@ -39,6 +64,23 @@ public class WarpService {
     private final ConcurrentHashMap<UUID, Integer> warpCountCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, List<String>> warpNameCache = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, CompletableFuture<List<Warp>>> activeReloads = new ConcurrentHashMap<>();
+    private final PlayerDirectory playerDirectory = new PlayerDirectory();
+    private final Set<UUID> pendingNameLookups = ConcurrentHashMap.newKeySet();
+
+    // Data versions for conditional API reads. Stamps come from one clock, so a stamp is never reused
+    private final ConcurrentHashMap<UUID, Long> ownerVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionClock = new AtomicLong();
+    private final String versionEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile long baseVersion;
+    private volatile ChangeListener changeListener;
+
+    // Directory entries checked for warps per query, and the most checked per search request
+    private static final int SEARCH_CHUNK_SIZE = 50;
+    private static final int SEARCH_MAX_CHUNKS = 20;
+    // Stored player names read or written per query while loading the directory
+    private static final int NAME_LOAD_BATCH_SIZE = 1000;
+    // Warps read per query while exporting all warps
+    private static final int EXPORT_PAGE_SIZE = 500;
 
     /**
      * Creates a new WarpService instance.
@@ -48,18 +90,23 @@ public class WarpService {
      * @param configUtil The configuration utility
      * @param plugin The plugin instance
      * @param executor The executor service for database operations
+     * @param databaseManager The database manager
+     * @param journal The write journal for writes while the database is unavailable, or null if disabled
      */
-    public WarpService(WarpRepository warpRepository, PlayerRepository playerRepository, ConfigUtil configUtil, JavaPlugin plugin, ExecutorService executor, DatabaseManager databaseManager) {
+    public WarpService(WarpRepository warpRepository, PlayerRepository playerRepository, ConfigUtil configUtil, JavaPlugin plugin, ExecutorService executor, DatabaseManager databaseManager, WriteJournal journal) {
         this.warpRepository = warpRepository;
         this.playerRepository = playerRepository;
         this.configUtil = configUtil;
         this.plugin = plugin;
         this.executor = executor;
         this.databaseManager = databaseManager;
+        this.journal = journal;
     }
 
     /**
      * Creates a new warp for a player.
+     * While the database is unavailable, or older journaled writes are still waiting for replay,
+     * the warp is written to the journal instead, see {@link #createWarpJournaled}.
      *
      * @param player The player
      * @param name The name of the warp
@@ -68,29 +115,72 @@ public class WarpService {
     public CompletableFuture<Result<Warp>> createWarp(Player player, String name) {
         UUID playerUuid = player.getUniqueId();
         Location location = player.getLocation();
+        Warp warp = new Warp(0, playerUuid, name, location, System.currentTimeMillis());
+
+        if (shouldJournal()) {
+            return createWarpJournaled(warp);
+        }
+
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            PlayerData playerData = playerRepository.getOrCreatePlayerDataSync(playerUuid);
+            int count = warpRepository.getWarpCountByOwnerSync(playerUuid);
+            if (count >= playerData.getWarpLimit()) {
+                return Result.<Warp>error("warp-limit-reached", "limit", String.valueOf(playerData.getWarpLimit()));
+            }
 
-        return playerRepository.getOrCreatePlayerData(playerUuid)
-                .thenComposeAsync(playerData -> warpRepository.getWarpCountByOwner(playerUuid)
-                        .thenComposeAsync(count -> {
-                            if (count >= playerData.getWarpLimit()) {
-                                return CompletableFuture.completedFuture(Result.error("warp-limit-reached", "limit", String.valueOf(playerData.getWarpLimit())));
-                            }
+            if (warpRepository.getWarpByOwnerAndNameSync(playerUuid, name).isPresent()) {
+                return Result.<Warp>error("warp-already-exists", "name", name);
+            }
 
-                            return warpRepository.getWarpByOwnerAndName(playerUuid, name)
-                                    .thenComposeAsync(existingWarp -> {
-                                        if (existingWarp.isPresent()) {
-                                            return CompletableFuture.completedFuture(Result.error("warp-already-exists", "name", name));
-                                        }
+            Warp createdWarp = warpRepository.createWarpSync(warp);
+            // Invalidate caches on success
+            invalidatePlayerCaches(playerUuid);
+            return Result.success(createdWarp);
+        }, executor), configUtil.getDatabaseWriteDeadlineMs()).exceptionallyCompose(ex -> {
+            if (DatabaseExecutor.isBusy(ex)) {
+                return CompletableFuture.completedFuture(Result.error("server-busy"));
+            }
+            if (DatabaseManager.isUnavailable(ex)) {
+                return createWarpJournaled(warp);
+            }
+            return CompletableFuture.failedFuture(ex instanceof CompletionException completionException ? completionException : new CompletionException(ex));
+        });
+    }
+
+    /**
+     * Creates a warp through the write journal. Limit and name checks use the cached data of the
+     * player, so the player's warps and player data must be cached.
+     *
+     * @param warp The warp to create
+     * @return A CompletableFuture that completes with a Result containing the created warp, which carries a placeholder ID until replayed
+     */
+    private CompletableFuture<Result<Warp>> createWarpJournaled(Warp warp) {
+        UUID ownerUuid = warp.getOwnerUuid();
+        List<Warp> cachedWarps = playerWarpsCache.get(ownerUuid);
+        PlayerData playerData = playerDataCache.get(ownerUuid);
+        if (journal == null || journal.isFull() || cachedWarps == null || playerData == null) {
+            return CompletableFuture.completedFuture(Result.error("database-unavailable"));
+        }
+        if (cachedWarps.size() >= playerData.getWarpLimit()) {
+            return CompletableFuture.completedFuture(Result.error("warp-limit-reached", "limit", String.valueOf(playerData.getWarpLimit())));
+        }
+        if (findCachedWarp(ownerUuid, warp.getName()) != null) {
+            return CompletableFuture.completedFuture(Result.error("warp-already-exists", "name", warp.getName()));
+        }
 
-                                        Warp warp = new Warp(0, playerUuid, name, location, System.currentTimeMillis());
-                                        return warpRepository.createWarp(warp)
-                                                .thenApply(createdWarp -> {
-                                                    // Invalidate caches on success
-                                                    invalidatePlayerCaches(playerUuid);
-                                                    return Result.success(createdWarp);
-                                                });
-                                    }, executor);
-                        }, executor), executor);
+        return journal.appendCreateWarp(warp)
+                .thenApply(entry -> {
+                    updateCachedWarps(ownerUuid, warps -> {
+                        List<Warp> updated = new ArrayList<>(warps);
+                        updated.add(entry.getWarp());
+                        return updated;
+                    });
+                    return Result.success(entry.getWarp());
+                })
+                .exceptionally(ex -> {
+                    plugin.getLogger().log(Level.WARNING, "Failed to journal warp creation for " + ownerUuid, ex);
+                    return Result.error("database-unavailable");
+                });
     }
 
     /**
@@ -111,11 +201,13 @@ public class WarpService {
             );
         }
         // Fallback to repository if not cached
-        return warpRepository.getWarpByOwnerAndName(ownerUuid, name);
+        return databaseManager.withDeadline(warpRepository.getWarpByOwnerAndName(ownerUuid, name), configUtil.getDatabaseReadDeadlineMs());
     }
 
     /**
      * Gets all warps owned by a player, using cache.
+     * While the database is unavailable only cached warps are returned; a cache miss fails
+     * with a {@link DatabaseUnavailableException} instead of waiting.
      *
      * @param ownerUuid The UUID of the owner
      * @return A CompletableFuture that completes with a list of warps
@@ -127,17 +219,47 @@ public class WarpService {
             return CompletableFuture.completedFuture(cachedWarps);
         }
 
+        if (databaseManager.isDegraded()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+
         // If not in cache, fetch from repository and cache the result
-        return warpRepository.getWarpsByOwner(ownerUuid)
-               .thenApplyAsync(warps -> {
-                   playerWarpsCache.put(ownerUuid, warps);
-                   // Update count cache as well
-                   warpCountCache.put(ownerUuid, warps.size());
-                   // Update name cache
-                   List<String> names = warps.stream().map(Warp::getName).collect(Collectors.toList());
-                   warpNameCache.put(ownerUuid, names);
-                   return warps;
-               }, executor);
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            return cacheWarps(ownerUuid, warpRepository.getWarpsByOwnerSync(ownerUuid));
+        }, executor), configUtil.getDatabaseReadDeadlineMs());
+    }
+
+    /**
+     * Gets the warps of several owners, using cache.
+     * Owners whose warps are cached are served from it; the others are loaded together and cached.
+     * While the database is unavailable a cache miss fails with a {@link DatabaseUnavailableException}.
+     *
+     * @param ownerUuids The UUIDs of the owners, without duplicates
+     * @return A CompletableFuture that completes with the warps of every owner, in the given order
+     */
+    public CompletableFuture<Map<UUID, List<Warp>>> getWarps(List<UUID> ownerUuids) {
+        Map<UUID, List<Warp>> result = new LinkedHashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID ownerUuid : ownerUuids) {
+            List<Warp> cachedWarps = playerWarpsCache.get(ownerUuid);
+            result.put(ownerUuid, cachedWarps);
+            if (cachedWarps == null) {
+                misses.add(ownerUuid);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (databaseManager.isDegraded()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            warpRepository.getWarpsByOwnersSync(misses)
+                    .forEach((ownerUuid, warps) -> result.put(ownerUuid, cacheWarps(ownerUuid, warps)));
+            return result;
+        }, executor), configUtil.getDatabaseReadDeadlineMs());
     }
 
     /**
@@ -148,18 +270,71 @@ public class WarpService {
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> deleteWarp(UUID ownerUuid, String name) {
-        return warpRepository.deleteWarpByOwnerAndName(ownerUuid, name)
-                .thenApplyAsync(deleted -> {
-                    if (deleted) {
-                        // Invalidate caches on success
-                        invalidatePlayerCaches(ownerUuid);
-                    }
-                    return deleted;
-                }, executor);
+        if (shouldJournal()) {
+            return deleteWarpJournaled(ownerUuid, name);
+        }
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            boolean deleted = warpRepository.deleteWarpByOwnerAndNameSync(ownerUuid, name);
+            if (deleted) {
+                // Invalidate caches on success
+                invalidatePlayerCaches(ownerUuid);
+            }
+            return deleted;
+        }, executor), configUtil.getDatabaseWriteDeadlineMs())
+                .exceptionallyCompose(ex -> DatabaseManager.isUnavailable(ex) && journal != null
+                        ? deleteWarpJournaled(ownerUuid, name)
+                        : CompletableFuture.failedFuture(ex));
+    }
+
+    /**
+     * Deletes a warp through the write journal. The owner's warps must be cached to know whether the warp exists.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return A CompletableFuture that completes with a boolean indicating success, or fails with a
+     *         {@link DatabaseUnavailableException} if the deletion cannot be journaled
+     */
+    private CompletableFuture<Boolean> deleteWarpJournaled(UUID ownerUuid, String name) {
+        if (journal == null || journal.isFull() || !playerWarpsCache.containsKey(ownerUuid)) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+        if (findCachedWarp(ownerUuid, name) == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String normalizedName = Warp.normalizeName(name);
+        return journal.appendDeleteWarp(ownerUuid, name)
+                .thenApply(entry -> {
+                    updateCachedWarps(ownerUuid, warps -> warps.stream()
+                            .filter(warp -> !Warp.normalizeName(warp.getName()).equals(normalizedName))
+                            .collect(Collectors.toList()));
+                    return true;
+                });
+    }
+
+    /**
+     * Checks whether writes must go through the write journal: while the database is unavailable,
+     * and as long as journaled writes are waiting for replay so that writes stay in order.
+     *
+     * @return True if writes should be journaled
+     */
+    private boolean shouldJournal() {
+        return journal != null && (databaseManager.isDegraded() || journal.hasPending());
+    }
+
+    /**
+     * Checks whether writes currently go through the write journal, in which case bulk writes are refused.
+     *
+     * @return True if writes are journaled
+     */
+    public boolean isJournaling() {
+        return shouldJournal();
     }
 
     /**
      * Teleports a player to a warp.
+     * If the database is unavailable or misses the read deadline, the player is teleported
+     * from the cached warp list instead, see {@link #teleportFromCache}.
      *
      * @param player The player to teleport
      * @param ownerUuid The UUID of the warp owner
@@ -173,83 +348,138 @@ public class WarpService {
              plugin.getLogger().log(Level.FINE, "[DEBUG] teleportToWarp called for player {0} to warp ''{1}'' owned by {2}", new Object[]{player.getName(), name, ownerUuid});
         }
 
-        return playerRepository.getOrCreatePlayerData(playerUuid)
-                .thenComposeAsync(playerData -> {
-                    if (plugin.getLogger().isLoggable(Level.FINE)) {
-                        plugin.getLogger().log(Level.FINE, "[DEBUG] Checking cooldown for {0}", player.getName());
-                    }
+        // Fail fast for cached warps in missing worlds instead of doing the DB work first
+        Warp cachedWarp = findCachedWarp(ownerUuid, name);
+        if (cachedWarp != null && Bukkit.isPrimaryThread() && Bukkit.getWorld(cachedWarp.getWorldName()) == null) {
+            return CompletableFuture.completedFuture(Result.error("world-not-found", "world", cachedWarp.getWorldName()));
+        }
+
+        if (databaseManager.isDegraded()) {
+            return teleportFromCache(player, ownerUuid, name, cooldown);
+        }
+
+        // All database work runs sequentially on one executor thread, only the teleport itself hops to the main thread
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+                    PlayerData playerData = playerRepository.getOrCreatePlayerDataSync(playerUuid);
                     if (playerData.isOnCooldown(cooldown)) {
                         int remainingCooldown = playerData.getRemainingCooldown(cooldown);
-                         if (plugin.getLogger().isLoggable(Level.FINE)) {
+                        if (plugin.getLogger().isLoggable(Level.FINE)) {
                             plugin.getLogger().log(Level.FINE, "[DEBUG] Player {0} is on cooldown ({1}s remaining)", new Object[]{player.getName(), remainingCooldown});
-                         }
-                        return CompletableFuture.completedFuture(Result.<Void>error("cooldown-active", "time", String.valueOf(remainingCooldown)));
+                        }
+                        return TeleportPlan.failed(Result.error("cooldown-active", "time", String.valueOf(remainingCooldown)));
                     }
 
-                    if (plugin.getLogger().isLoggable(Level.FINE)) {
-                        plugin.getLogger().log(Level.FINE, "[DEBUG] Fetching warp ''{0}'' for owner {1}", new Object[]{name, ownerUuid});
+                    Optional<Warp> optionalWarp = warpRepository.getWarpByOwnerAndNameSync(ownerUuid, name);
+                    if (optionalWarp.isEmpty()) {
+                        if (plugin.getLogger().isLoggable(Level.FINE)) {
+                            plugin.getLogger().log(Level.FINE, "[DEBUG] Warp ''{0}'' not found for owner {1}", new Object[]{name, ownerUuid});
+                        }
+                        return TeleportPlan.failed(Result.error("warp-not-found", "name", name));
+                    }
+
+                    Warp warp = optionalWarp.get();
+                    Location location = warp.toLocation();
+                    if (location == null) {
+                        if (plugin.getLogger().isLoggable(Level.WARNING)) {
+                            plugin.getLogger().log(Level.WARNING, "[DEBUG] World ''{0}'' for warp ''{1}'' not found or loaded!", new Object[]{warp.getWorldName(), name});
+                        }
+                        return TeleportPlan.failed(Result.error("world-not-found", "world", warp.getWorldName()));
+                    }
+
+                    playerData.setLastWarpTime(System.currentTimeMillis());
+                    if (!playerRepository.updateLastWarpTimeSync(playerUuid, playerData.getLastWarpTime())) {
+                        if (plugin.getLogger().isLoggable(Level.WARNING)) {
+                            plugin.getLogger().log(Level.WARNING, "[DEBUG] Failed to update last warp time for {0}", player.getName());
+                        }
+                    }
+                    return TeleportPlan.to(location);
+                }, executor), configUtil.getDatabaseReadDeadlineMs())
+                .thenCompose(plan -> {
+                    if (plan.location == null) {
+                        return CompletableFuture.completedFuture(plan.failure);
+                    }
+                    return teleport(player, plan.location, name);
+                })
+                .exceptionallyCompose(ex -> {
+                    if (DatabaseExecutor.isBusy(ex)) {
+                        return CompletableFuture.completedFuture(Result.<Void>error("server-busy"));
+                    }
+                    if (DatabaseManager.isUnavailable(ex)) {
+                        plugin.getLogger().log(Level.WARNING, "Database unavailable during teleportToWarp for player " + player.getName() + ", falling back to cached warps");
+                        return teleportFromCache(player, ownerUuid, name, cooldown);
                     }
-                    return warpRepository.getWarpByOwnerAndName(ownerUuid, name)
-                            .thenComposeAsync(optionalWarp -> {
-                                if (optionalWarp.isEmpty()) {
-                                     if (plugin.getLogger().isLoggable(Level.FINE)) {
-                                        plugin.getLogger().log(Level.FINE, "[DEBUG] Warp ''{0}'' not found for owner {1}", new Object[]{name, ownerUuid});
-                                     }
-                                    return CompletableFuture.completedFuture(Result.<Void>error("warp-not-found", "name", name));
-                                }
-                                if (plugin.getLogger().isLoggable(Level.FINE)) {
-                                    plugin.getLogger().log(Level.FINE, "[DEBUG] Warp ''{0}'' found.", name);
-                                }
-
-                                Warp warp = optionalWarp.get();
-                                Location location = warp.toLocation();
-
-                                if (location == null) {
-                                     if (plugin.getLogger().isLoggable(Level.WARNING)) {
-                                        plugin.getLogger().log(Level.WARNING, "[DEBUG] World ''{0}'' for warp ''{1}'' not found or loaded!", new Object[]{warp.getWorldName(), name});
-                                     }
-                                    return CompletableFuture.completedFuture(Result.<Void>error("world-not-found", "world", warp.getWorldName()));
-                                }
-                                if (plugin.getLogger().isLoggable(Level.FINE)) {
-                                    plugin.getLogger().log(Level.FINE, "[DEBUG] Location for warp ''{0}'' resolved: {1}", new Object[]{name, location});
-                                }
-
-                                playerData.setLastWarpTime(System.currentTimeMillis());
-                                return playerRepository.updateLastWarpTime(playerUuid, playerData.getLastWarpTime())
-                                        .thenComposeAsync(updateSuccess -> {
-                                            if (!updateSuccess) {
-                                                 if (plugin.getLogger().isLoggable(Level.WARNING)) {
-                                                    plugin.getLogger().log(Level.WARNING, "[DEBUG] Failed to update last warp time for {0}", player.getName());
-                                                 }
-                                            }
-                                            if (plugin.getLogger().isLoggable(Level.FINE)) {
-                                                plugin.getLogger().log(Level.FINE, "[DEBUG] Attempting teleport for {0} to {1}", new Object[]{player.getName(), location});
-                                            }
-                                            return CompletableFuture.supplyAsync(() -> player.teleport(location), Bukkit.getScheduler().getMainThreadExecutor(plugin))
-                                                    .thenApplyAsync(teleportSuccess -> {
-                                                        if (plugin.getLogger().isLoggable(Level.FINE)) {
-                                                            plugin.getLogger().log(Level.FINE, "[DEBUG] Teleport call for {0} returned: {1}", new Object[]{player.getName(), teleportSuccess});
-                                                        }
-                                                        if (teleportSuccess) {
-                                                            return Result.<Void>success();
-                                                        } else {
-                                                             if (plugin.getLogger().isLoggable(Level.WARNING)) {
-                                                                plugin.getLogger().log(Level.WARNING, "[DEBUG] Teleport for {0} to warp ''{1}'' failed (returned false).", new Object[]{player.getName(), name});
-                                                             }
-                                                            return Result.<Void>error("teleport-failed");
-                                                        }
-                                                    }, executor);
-                                        }, executor);
-                            });
-                }, executor)
-                .exceptionally(ex -> {
                     plugin.getLogger().log(Level.SEVERE, "[DEBUG] Exception during teleportToWarp for player " + player.getName() + " to warp '" + name + "'", ex);
-                    return Result.<Void>error("internal-error");
+                    return CompletableFuture.completedFuture(Result.<Void>error("internal-error"));
+                });
+    }
+
+    /**
+     * Teleports a player to a warp using only cached data, for when the database is unavailable.
+     * The cooldown is checked on the cached player data; the new last warp time is written to the
+     * write journal, or kept in memory only if journaling is disabled.
+     *
+     * @param player The player to teleport
+     * @param ownerUuid The UUID of the warp owner
+     * @param name The name of the warp
+     * @param cooldown The warp cooldown in seconds
+     * @return A CompletableFuture that completes with a Result indicating success or an error message
+     */
+    private CompletableFuture<Result<Void>> teleportFromCache(Player player, UUID ownerUuid, String name, int cooldown) {
+        Warp warp = findCachedWarp(ownerUuid, name);
+        if (warp == null) {
+            return CompletableFuture.completedFuture(Result.error("database-unavailable"));
+        }
+
+        PlayerData playerData = playerDataCache.get(player.getUniqueId());
+        if (playerData != null) {
+            if (playerData.isOnCooldown(cooldown)) {
+                return CompletableFuture.completedFuture(Result.error("cooldown-active", "time", String.valueOf(playerData.getRemainingCooldown(cooldown))));
+            }
+            playerData.setLastWarpTime(System.currentTimeMillis());
+            if (journal != null && !journal.isFull()) {
+                journal.appendLastWarpTime(player.getUniqueId(), playerData.getLastWarpTime()).exceptionally(ex -> {
+                    plugin.getLogger().log(Level.WARNING, "Failed to journal last warp time for " + player.getName(), ex);
+                    return null;
+                });
+            }
+        }
+
+        return CompletableFuture.supplyAsync(warp::toLocation, Bukkit.getScheduler().getMainThreadExecutor(plugin))
+                .thenCompose(location -> location != null
+                        ? teleport(player, location, name)
+                        : CompletableFuture.completedFuture(Result.<Void>error("world-not-found", "world", warp.getWorldName())));
+    }
+
+    /**
+     * Teleports a player on the main thread.
+     *
+     * @param player The player to teleport
+     * @param location The target location
+     * @param name The name of the warp
+     * @return A CompletableFuture that completes with a Result indicating success or an error message
+     */
+    private CompletableFuture<Result<Void>> teleport(Player player, Location location, String name) {
+        if (plugin.getLogger().isLoggable(Level.FINE)) {
+            plugin.getLogger().log(Level.FINE, "[DEBUG] Attempting teleport for {0} to {1}", new Object[]{player.getName(), location});
+        }
+        // The result mapping is trivial, so it stays on the main thread instead of hopping back to the executor
+        return CompletableFuture.supplyAsync(() -> player.teleport(location), Bukkit.getScheduler().getMainThreadExecutor(plugin))
+                .thenApply(teleportSuccess -> {
+                    if (teleportSuccess) {
+                        return Result.<Void>success();
+                    }
+                    if (plugin.getLogger().isLoggable(Level.WARNING)) {
+                        plugin.getLogger().log(Level.WARNING, "[DEBUG] Teleport for {0} to warp ''{1}'' failed (returned false).", new Object[]{player.getName(), name});
+                    }
+                    return Result.<Void>error("teleport-failed");
                 });
     }
 
     /**
      * Transfers a warp from one player to another.
+     * The warp is moved in place with a single UPDATE, so its ID and creation time are kept.
+     * The target's limit and name checks run in the same transaction while the target's
+     * player data row is locked, so concurrent transfers cannot overshoot the limit.
      *
      * @param sourceUuid The UUID of the source player
      * @param targetUuid The UUID of the target player
@@ -257,83 +487,211 @@ public class WarpService {
      * @return A CompletableFuture that completes with a Result indicating success or an error message
      */
     public CompletableFuture<Result<Void>> transferWarp(UUID sourceUuid, UUID targetUuid, String name) {
-         // --- Pre-checks ---
-         // Check if target player can receive the warp (limit)
-         CompletableFuture<Result<Void>> preCheckFuture = getOrFetchPlayerData(targetUuid)
-             .thenComposeAsync(targetPlayerData -> getWarpCount(targetUuid)
-                 .thenComposeAsync(count -> {
-                     if (count >= targetPlayerData.getWarpLimit()) {
-                         return CompletableFuture.completedFuture(Result.<Void>error("target-warp-limit-reached", "limit", String.valueOf(targetPlayerData.getWarpLimit())));
-                     }
-                     // Check if target already has a warp with the same name
-                     return getWarp(targetUuid, name).thenComposeAsync(optionalTargetWarp -> {
-                         if (optionalTargetWarp.isPresent()) {
-                             return CompletableFuture.completedFuture(Result.<Void>error("target-warp-already-exists", "name", name));
-                         }
-                         // Pre-checks passed
-                         return CompletableFuture.completedFuture(Result.<Void>success());
-                     }, executor);
-                 }, executor), executor);
-
-         // --- Transactional Part ---
-         return preCheckFuture.thenComposeAsync(preCheckResult -> {
-             if (!preCheckResult.isSuccess()) {
-                 // If pre-checks failed, return the error result immediately
-                 return CompletableFuture.completedFuture(preCheckResult);
-             }
+        return databaseManager.withDeadline(executeTransferTransaction(sourceUuid, targetUuid, connection -> {
+                    PlayerData targetPlayerData = playerRepository.lockOrCreatePlayerDataTransactional(connection, targetUuid);
+                    int targetCount = warpRepository.getWarpCountByOwnerTransactional(connection, targetUuid);
+                    if (targetCount >= targetPlayerData.getWarpLimit()) {
+                        return Result.<Void>error("target-warp-limit-reached", "limit", String.valueOf(targetPlayerData.getWarpLimit()));
+                    }
+
+                    try {
+                        if (!warpRepository.transferWarpTransactional(connection, sourceUuid, targetUuid, name)) {
+                            return Result.<Void>error("warp-not-found", "name", name);
+                        }
+                    } catch (SQLException e) {
+                        // The unique owner/name index rejects the move if the target already has the name
+                        if (DatabaseManager.isUniqueViolation(e)) {
+                            return Result.<Void>error("target-warp-already-exists", "name", name);
+                        }
+                        throw e;
+                    }
+                    return Result.<Void>success();
+                }), configUtil.getDatabaseWriteDeadlineMs())
+                .thenApply(result -> {
+                    if (result.isSuccess()) {
+                        // Invalidate caches after successful commit
+                        invalidatePlayerCaches(sourceUuid);
+                        invalidatePlayerCaches(targetUuid);
+                    }
+                    return result;
+                })
+                .exceptionally(ex -> {
+                    if (DatabaseManager.isUnavailable(ex)) {
+                        return Result.<Void>error("database-unavailable");
+                    }
+                    plugin.getLogger().log(Level.SEVERE, "Error during warp transfer transaction for warp '" + name + "' from " + sourceUuid + " to " + targetUuid, ex);
+                    return Result.<Void>error("internal-error");
+                });
+    }
+
+    /**
+     * Transfers all warps of one player to another with a single UPDATE.
+     * Warps whose name the target already uses stay with the source. As an admin operation
+     * this does not check the target's warp limit.
+     *
+     * @param sourceUuid The UUID of the source player
+     * @param targetUuid The UUID of the target player
+     * @return A CompletableFuture that completes with the number of moved and skipped warps
+     */
+    public CompletableFuture<BulkTransferResult> transferAllWarps(UUID sourceUuid, UUID targetUuid) {
+        return executeTransferTransaction(sourceUuid, targetUuid, connection -> {
+                    playerRepository.lockOrCreatePlayerDataTransactional(connection, targetUuid);
+                    int moved = warpRepository.transferAllWarpsTransactional(connection, sourceUuid, targetUuid);
+                    int skipped = warpRepository.getWarpCountByOwnerTransactional(connection, sourceUuid);
+                    return new BulkTransferResult(moved, skipped);
+                })
+                .thenApply(result -> {
+                    if (result.getMoved() > 0) {
+                        invalidatePlayerCaches(sourceUuid);
+                        invalidatePlayerCaches(targetUuid);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Runs a transaction that moves warps between owners with direct SQL.
+     * Changes buffered by the memory store are written first so the transaction sees them,
+     * and the warps of both owners are reloaded into the store after the commit.
+     *
+     * @param sourceUuid The UUID of the source player
+     * @param targetUuid The UUID of the target player
+     * @param function The transaction
+     * @param <T> The result type
+     * @return A CompletableFuture that completes with the result of the transaction
+     */
+    private <T> CompletableFuture<T> executeTransferTransaction(UUID sourceUuid, UUID targetUuid, DatabaseManager.TransactionFunction<T> function) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            warpRepository.flushPending();
+            T result = databaseManager.runInTransaction(function);
+            warpRepository.reloadOwners(List.of(sourceUuid, targetUuid));
+            return result;
+        }, executor);
+    }
+
+    /**
+     * Deletes all warps of a player in bounded batches, each in its own short transaction.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    public CompletableFuture<BulkProgress> purgePlayerWarps(UUID ownerUuid, Consumer<BulkProgress> progressListener) {
+        return purgeWarps((connection, afterId, limit) -> warpRepository.getWarpsByOwnerAfterTransactional(connection, ownerUuid, afterId, limit),
+                progressListener);
+    }
+
+    /**
+     * Deletes all warps in a world in bounded batches, each in its own short transaction.
+     *
+     * @param worldName The name of the world
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    public CompletableFuture<BulkProgress> purgeWorldWarps(String worldName, Consumer<BulkProgress> progressListener) {
+        return purgeWarps((connection, afterId, limit) -> warpRepository.getWarpsByWorldAfterTransactional(connection, worldName, afterId, limit),
+                progressListener);
+    }
+
+    /**
+     * Walks the warps returned by a page loader and deletes them batch by batch.
+     * Every batch is a task of its own, so other work in the executor can run between them.
+     * Only the caches of owners that actually lost warps are touched.
+     *
+     * @param pageLoader Loads the next batch of warps to delete
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    private CompletableFuture<BulkProgress> purgeWarps(WarpPageLoader pageLoader, Consumer<BulkProgress> progressListener) {
+        int batchSize = configUtil.getDatabaseBulkBatchSize();
+        return DatabaseExecutor.supplyAsync(() -> {
+            // The pages are read from the tables, so buffered creations must be written first
+            warpRepository.flushPending();
+            return null;
+        }, executor).thenCompose(ignored -> purgeBatch(pageLoader, batchSize, 0, BulkProgress.start(), progressListener));
+    }
+
+    /**
+     * Deletes one batch of warps in its own task and transaction, then queues the next batch.
+     *
+     * @param pageLoader Loads the next batch of warps to delete
+     * @param batchSize The maximum number of warps per batch
+     * @param afterId The ID of the last warp deleted so far
+     * @param progress The progress before this batch
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    private CompletableFuture<BulkProgress> purgeBatch(WarpPageLoader pageLoader, int batchSize, int afterId, BulkProgress progress,
+                                                       Consumer<BulkProgress> progressListener) {
+        return DatabaseExecutor.supplyAsync(() -> databaseManager.runInTransaction(connection -> {
+            List<Warp> page = pageLoader.load(connection, afterId, batchSize);
+            warpRepository.deleteWarpsTransactional(connection, page);
+            return page;
+        }), executor).thenCompose(deleted -> {
+            if (deleted.isEmpty()) {
+                return CompletableFuture.completedFuture(progress.finish());
+            }
+            removeFromCaches(deleted);
+            BulkProgress advanced = progress.advance(deleted.size());
+            progressListener.accept(advanced);
+
+            if (deleted.size() < batchSize) {
+                return CompletableFuture.completedFuture(advanced.finish());
+            }
+            return purgeBatch(pageLoader, batchSize, deleted.get(deleted.size() - 1).getId(), advanced, progressListener);
+        });
+    }
+
+    /**
+     * Sets the warp limit for many players in bounded batches, each in its own short transaction.
+     * Cached player data is updated in place; players that are not cached are not loaded.
+     *
+     * @param playerUuids The UUIDs of the players
+     * @param limit The new warp limit
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    public CompletableFuture<BulkProgress> setWarpLimits(List<UUID> playerUuids, int limit, Consumer<BulkProgress> progressListener) {
+        int batchSize = configUtil.getDatabaseBulkBatchSize();
+        List<UUID> uuids = List.copyOf(new LinkedHashSet<>(playerUuids));
+        return setWarpLimitsBatch(uuids, limit, batchSize, 0, BulkProgress.start(), progressListener);
+    }
 
-             // Fetch source warp details needed for creation
-             return warpRepository.getWarpByOwnerAndName(sourceUuid, name)
-                 .thenComposeAsync(optionalSourceWarp -> {
-                     if (optionalSourceWarp.isEmpty()) {
-                         return CompletableFuture.completedFuture(Result.<Void>error("warp-not-found", "name", name));
-                     }
-                     Warp sourceWarp = optionalSourceWarp.get();
-
-                     // Execute the core logic within a transaction
-                     return databaseManager.executeInTransaction(connection -> {
-                         // Create the new warp using the transaction connection
-                         Warp targetWarp = new Warp(
-                                 0,
-                                 targetUuid,
-                                 name,
-                                 sourceWarp.getWorldName(),
-                                 sourceWarp.getX(),
-                                 sourceWarp.getY(),
-                                 sourceWarp.getZ(),
-                                 sourceWarp.getYaw(),
-                                 sourceWarp.getPitch(),
-                                 System.currentTimeMillis()
-                         );
-                         warpRepository.createWarpTransactional(connection, targetWarp);
-
-                         // Delete the old warp using the transaction connection
-                         boolean deleted = warpRepository.deleteWarpTransactional(connection, sourceWarp.getId());
-
-                         if (!deleted) {
-                              throw new SQLException("Failed to delete source warp (ID: " + sourceWarp.getId() + ") during transfer, rolling back.");
-                         }
-
-                         return true;
-                     })
-                     .thenApplyAsync(transactionSuccess -> {
-                           if (transactionSuccess) {
-                               // Invalidate caches after successful commit
-                               invalidatePlayerCaches(sourceUuid);
-                               invalidatePlayerCaches(targetUuid);
-                               return Result.<Void>success();
-                           } else {
-                               plugin.getLogger().warning("Warp transfer transaction reported failure unexpectedly.");
-                               return Result.<Void>error("internal-error");
-                           }
-                     }, executor);
-                 }, executor)
-                 .exceptionally(ex -> {
-                      // Handle exceptions from fetching source warp or the transaction itself
-                      plugin.getLogger().log(Level.SEVERE, "Error during warp transfer transaction for warp '" + name + "' from " + sourceUuid + " to " + targetUuid, ex);
-                      return Result.<Void>error("internal-error");
-                 });
-         }, executor);
+    /**
+     * Sets the warp limit for one batch of players in its own task and transaction, then queues the next batch.
+     *
+     * @param uuids The UUIDs of all players, without duplicates
+     * @param limit The new warp limit
+     * @param batchSize The maximum number of players per batch
+     * @param from The index of the first player of this batch
+     * @param progress The progress before this batch
+     * @param progressListener Called after every committed batch
+     * @return A CompletableFuture that completes with the final progress
+     */
+    private CompletableFuture<BulkProgress> setWarpLimitsBatch(List<UUID> uuids, int limit, int batchSize, int from, BulkProgress progress,
+                                                               Consumer<BulkProgress> progressListener) {
+        if (from >= uuids.size()) {
+            return CompletableFuture.completedFuture(progress.finish());
+        }
+        List<UUID> batch = uuids.subList(from, Math.min(from + batchSize, uuids.size()));
+        return DatabaseExecutor.supplyAsync(() -> {
+            databaseManager.runInTransaction(connection -> {
+                playerRepository.upsertWarpLimitsTransactional(connection, batch, limit);
+                return null;
+            });
+            playerRepository.applyWarpLimits(batch, limit);
+
+            for (UUID uuid : batch) {
+                playerDataCache.computeIfPresent(uuid, (key, playerData) -> {
+                    playerData.setWarpLimit(limit);
+                    return playerData;
+                });
+                bumpVersion(uuid, ChangeLog.Kind.PLAYER);
+            }
+            BulkProgress advanced = progress.advance(batch.size());
+            progressListener.accept(advanced);
+            return advanced;
+        }, executor).thenCompose(advanced -> setWarpLimitsBatch(uuids, limit, batchSize, from + batchSize, advanced, progressListener));
     }
 
     /**
@@ -344,23 +702,21 @@ public class WarpService {
      * @return A CompletableFuture that completes with a boolean indicating success
      */
     public CompletableFuture<Boolean> setWarpLimit(UUID playerUuid, int limit) {
-        // Use cached player
-        return getOrFetchPlayerData(playerUuid)
-                .thenComposeAsync(playerData -> {
-                    playerData.setWarpLimit(limit);
-                    // Update DB and invalidate cache on success
-                    return playerRepository.updateWarpLimit(playerUuid, limit)
-                            .thenApplyAsync(success -> {
-                                if (success) {
-                                    // Update cached data directly or
-                                    playerDataCache.put(playerUuid, playerData);
-                                } else {
-                                    // Invalidate if update failed
-                                    playerDataCache.remove(playerUuid);
-                                }
-                                return success;
-                            }, executor);
-                }, executor);
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            // Use cached player
+            PlayerData playerData = getOrFetchPlayerDataSync(playerUuid);
+            playerData.setWarpLimit(limit);
+            boolean success = playerRepository.updateWarpLimitSync(playerUuid, limit);
+            if (success) {
+                // Update cached data directly
+                playerDataCache.put(playerUuid, playerData);
+            } else {
+                // Invalidate if update failed
+                playerDataCache.remove(playerUuid);
+            }
+            bumpVersion(playerUuid, ChangeLog.Kind.PLAYER);
+            return success;
+        }, executor), configUtil.getDatabaseWriteDeadlineMs());
     }
 
     /**
@@ -371,8 +727,12 @@ public class WarpService {
      */
     public CompletableFuture<Integer> getWarpLimit(UUID playerUuid) {
         // Use cached player
-        return getOrFetchPlayerData(playerUuid)
-                .thenApplyAsync(PlayerData::getWarpLimit, executor);
+        PlayerData cachedData = playerDataCache.get(playerUuid);
+        if (cachedData != null) {
+            return CompletableFuture.completedFuture(cachedData.getWarpLimit());
+        }
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> getOrFetchPlayerDataSync(playerUuid).getWarpLimit(), executor),
+                configUtil.getDatabaseReadDeadlineMs());
     }
 
     /**
@@ -397,30 +757,143 @@ public class WarpService {
          }
 
         // If not in cache, fetch from repository and cache the result
-        return warpRepository.getWarpCountByOwner(playerUuid)
-               .thenApplyAsync(count -> {
-                   warpCountCache.put(playerUuid, count);
-                   return count;
-               }, executor);
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            int count = warpRepository.getWarpCountByOwnerSync(playerUuid);
+            warpCountCache.put(playerUuid, count);
+            return count;
+        }, executor), configUtil.getDatabaseReadDeadlineMs());
+    }
+
+    /**
+     * Gets the warp limits of several players, using cache.
+     * Players whose data is cached are served from it; the others are loaded together.
+     * Players without stored data get the default limit, without creating their data.
+     *
+     * @param playerUuids The UUIDs of the players, without duplicates
+     * @return A CompletableFuture that completes with the warp limit of every player, in the given order
+     */
+    public CompletableFuture<Map<UUID, Integer>> getWarpLimits(List<UUID> playerUuids) {
+        Map<UUID, Integer> result = new LinkedHashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID playerUuid : playerUuids) {
+            PlayerData cachedData = playerDataCache.get(playerUuid);
+            result.put(playerUuid, cachedData != null ? cachedData.getWarpLimit() : null);
+            if (cachedData == null) {
+                misses.add(playerUuid);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (databaseManager.isDegraded()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            Map<UUID, PlayerData> loaded = playerRepository.getPlayerDataSync(misses);
+            for (UUID playerUuid : misses) {
+                PlayerData playerData = loaded.get(playerUuid);
+                if (playerData != null) {
+                    playerDataCache.putIfAbsent(playerUuid, playerData);
+                    result.put(playerUuid, playerData.getWarpLimit());
+                } else {
+                    result.put(playerUuid, configUtil.getDefaultWarpLimit());
+                }
+            }
+            return result;
+        }, executor), configUtil.getDatabaseReadDeadlineMs());
+    }
+
+    /**
+     * Gets the number of warps of several players, using cache.
+     * Players whose count or warps are cached are served from it; the others are counted together.
+     *
+     * @param playerUuids The UUIDs of the players, without duplicates
+     * @return A CompletableFuture that completes with the number of warps of every player, in the given order
+     */
+    public CompletableFuture<Map<UUID, Integer>> getWarpCounts(List<UUID> playerUuids) {
+        Map<UUID, Integer> result = new LinkedHashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID playerUuid : playerUuids) {
+            Integer cachedCount = warpCountCache.get(playerUuid);
+            if (cachedCount == null) {
+                List<Warp> cachedWarps = playerWarpsCache.get(playerUuid);
+                cachedCount = cachedWarps != null ? cachedWarps.size() : null;
+            }
+            result.put(playerUuid, cachedCount);
+            if (cachedCount == null) {
+                misses.add(playerUuid);
+            }
+        }
+        if (misses.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (databaseManager.isDegraded()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+
+        return databaseManager.withDeadline(DatabaseExecutor.supplyAsync(() -> {
+            warpRepository.getWarpCountsByOwnersSync(misses).forEach((playerUuid, count) -> {
+                warpCountCache.put(playerUuid, count);
+                result.put(playerUuid, count);
+            });
+            return result;
+        }, executor), configUtil.getDatabaseReadDeadlineMs());
     }
 
     /**
      * Gets player data, using cache first.
+     * Runs on the calling thread and blocks on a cache miss.
      *
      * @param playerUuid The UUID of the player
-     * @return A CompletableFuture that completes with the player data
+     * @return The player data
      */
-    private CompletableFuture<PlayerData> getOrFetchPlayerData(UUID playerUuid) {
+    private PlayerData getOrFetchPlayerDataSync(UUID playerUuid) {
         PlayerData cachedData = playerDataCache.get(playerUuid);
         if (cachedData != null) {
-            return CompletableFuture.completedFuture(cachedData);
+            return cachedData;
         }
 
-        return playerRepository.getOrCreatePlayerData(playerUuid)
-                .thenApplyAsync(playerData -> {
-                    playerDataCache.put(playerUuid, playerData);
-                    return playerData;
-                }, executor);
+        PlayerData playerData = playerRepository.getOrCreatePlayerDataSync(playerUuid);
+        playerDataCache.put(playerUuid, playerData);
+        return playerData;
+    }
+
+    /**
+     * Stores a freshly loaded warp list in the warp, count and name caches.
+     * Journaled changes that are not replayed yet are applied on top.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param warps The owner's warps as loaded from the database
+     * @return The cached warps
+     */
+    private List<Warp> cacheWarps(UUID ownerUuid, List<Warp> warps) {
+        List<Warp> cached = journal != null ? journal.overlay(ownerUuid, warps) : warps;
+        playerWarpsCache.put(ownerUuid, cached);
+        warpCountCache.put(ownerUuid, cached.size());
+        warpNameCache.put(ownerUuid, cached.stream().map(Warp::getName).collect(Collectors.toList()));
+        return cached;
+    }
+
+    /**
+     * Updates the cached warp list of an owner in place, keeping the count and name caches in sync.
+     * Owners whose warps are not cached are left alone.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param update Computes the new warp list from the cached one
+     */
+    private void updateCachedWarps(UUID ownerUuid, UnaryOperator<List<Warp>> update) {
+        List<Warp> updated = playerWarpsCache.computeIfPresent(ownerUuid, (uuid, warps) -> update.apply(warps));
+        if (updated != null) {
+            warpCountCache.put(ownerUuid, updated.size());
+            warpNameCache.put(ownerUuid, updated.stream().map(Warp::getName).collect(Collectors.toList()));
+        } else {
+            warpCountCache.remove(ownerUuid);
+            warpNameCache.remove(ownerUuid);
+        }
+        bumpVersion(ownerUuid, ChangeLog.Kind.WARPS);
     }
 
     /**
@@ -433,6 +906,7 @@ public class WarpService {
         playerWarpsCache.remove(playerUuid);
         warpCountCache.remove(playerUuid);
         warpNameCache.remove(playerUuid);
+        bumpVersion(playerUuid, ChangeLog.Kind.WARPS);
         if (plugin.getLogger().isLoggable(Level.FINE)) {
             plugin.getLogger().log(Level.FINE, "Invalidated caches for player {0}", playerUuid);
         }
@@ -440,6 +914,91 @@ public class WarpService {
         triggerCacheReload(playerUuid);
     }
 
+    /**
+     * Applies a change made by another server sharing the database.
+     * Only data this server has cached is touched: warps are dropped and reloaded,
+     * player data is dropped and fetched again on next use.
+     *
+     * @param ownerUuid The UUID of the affected player
+     * @param kind The kind of data that changed
+     */
+    public void applyRemoteChange(UUID ownerUuid, ChangeLog.Kind kind) {
+        if (kind == ChangeLog.Kind.PLAYER) {
+            playerDataCache.remove(ownerUuid);
+            bumpVersion(ownerUuid, ChangeLog.Kind.PLAYER);
+            return;
+        }
+
+        CompletableFuture<List<Warp>> runningReload = activeReloads.get(ownerUuid);
+        if (runningReload != null) {
+            // The running reload may have read before the change was committed
+            runningReload.whenComplete((warps, throwable) -> reloadCachedWarps(ownerUuid));
+        } else if (playerWarpsCache.containsKey(ownerUuid) || warpCountCache.containsKey(ownerUuid)) {
+            reloadCachedWarps(ownerUuid);
+        }
+        // Uncached owners are read from the database, but API responses may still be cached
+        bumpVersion(ownerUuid, ChangeLog.Kind.WARPS);
+    }
+
+    /**
+     * Drops the cached warps of an owner and loads them again in the background.
+     *
+     * @param ownerUuid The UUID of the owner
+     */
+    private void reloadCachedWarps(UUID ownerUuid) {
+        playerWarpsCache.remove(ownerUuid);
+        warpCountCache.remove(ownerUuid);
+        warpNameCache.remove(ownerUuid);
+        bumpVersion(ownerUuid, ChangeLog.Kind.WARPS);
+        DatabaseExecutor.supplyAsync(() -> cacheWarps(ownerUuid, warpRepository.getWarpsByOwnerSync(ownerUuid)),
+                databaseManager.getDatabaseExecutor().lane(DatabaseExecutor.Lane.BACKGROUND))
+                .exceptionally(ex -> {
+                    if (!DatabaseExecutor.isBusy(ex) && !DatabaseManager.isUnavailable(ex)) {
+                        plugin.getLogger().log(Level.WARNING, "Reloading warps changed on another server failed for " + ownerUuid, ex);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Looks up a warp in the cached warp list of its owner.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param name The name of the warp
+     * @return The cached warp, or null if the owner's warps are not cached or the warp does not exist
+     */
+    private Warp findCachedWarp(UUID ownerUuid, String name) {
+        List<Warp> cachedWarps = playerWarpsCache.get(ownerUuid);
+        if (cachedWarps == null) {
+            return null;
+        }
+        String normalizedName = Warp.normalizeName(name);
+        for (Warp warp : cachedWarps) {
+            if (Warp.normalizeName(warp.getName()).equals(normalizedName)) {
+                return warp;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes deleted warps from the cached warp lists of their owners.
+     * Owners whose warps are not cached are left alone, so no reloads are triggered.
+     *
+     * @param deletedWarps The deleted warps
+     */
+    void removeFromCaches(List<Warp> deletedWarps) {
+        warpRepository.evictWarps(deletedWarps);
+        Map<UUID, Set<Integer>> deletedIdsByOwner = new HashMap<>();
+        for (Warp warp : deletedWarps) {
+            deletedIdsByOwner.computeIfAbsent(warp.getOwnerUuid(), uuid -> new HashSet<>()).add(warp.getId());
+        }
+
+        deletedIdsByOwner.forEach((ownerUuid, deletedIds) -> updateCachedWarps(ownerUuid, warps -> warps.stream()
+                .filter(warp -> !deletedIds.contains(warp.getId()))
+                .collect(Collectors.toList())));
+    }
+
     /**
      * Triggers an asynchronous reload of a player's warp caches if one isn't already running.
      *
@@ -451,25 +1010,21 @@ public class WarpService {
             if (plugin.getLogger().isLoggable(Level.FINE)) {
                 plugin.getLogger().log(Level.FINE, "Triggering background cache reload for player {0}", playerUuid);
             }
-            CompletableFuture<List<Warp>> reloadFuture = warpRepository.getWarpsByOwner(uuid)
-                    .thenApplyAsync(warps -> {
-                        playerWarpsCache.put(uuid, warps);
-                        warpCountCache.put(uuid, warps.size());
-                        List<String> names = warps.stream().map(Warp::getName).collect(Collectors.toList());
-                        warpNameCache.put(uuid, names);
-                        if (plugin.getLogger().isLoggable(Level.FINE)) {
-                            plugin.getLogger().log(Level.FINE, "Background cache reload completed for player {0}", playerUuid);
-                        }
-                        return warps;
-                    }, executor);
+            CompletableFuture<List<Warp>> reloadFuture = DatabaseExecutor.supplyAsync(() -> {
+                List<Warp> warps = cacheWarps(uuid, warpRepository.getWarpsByOwnerSync(uuid));
+                if (plugin.getLogger().isLoggable(Level.FINE)) {
+                    plugin.getLogger().log(Level.FINE, "Background cache reload completed for player {0}", playerUuid);
+                }
+                return warps;
+            }, databaseManager.getDatabaseExecutor().lane(DatabaseExecutor.Lane.BACKGROUND));
 
             // Ensure the future is removed from activeReloads once completed
-            reloadFuture.whenCompleteAsync((result, throwable) -> {
-                if (throwable != null) {
+            reloadFuture.whenComplete((result, throwable) -> {
+                if (throwable != null && !DatabaseManager.isUnavailable(throwable)) {
                      plugin.getLogger().log(Level.WARNING, "Background cache reload failed for player " + playerUuid, throwable);
                 }
                 activeReloads.remove(uuid, reloadFuture);
-            }, executor);
+            });
 
             return reloadFuture;
         });
@@ -483,9 +1038,61 @@ public class WarpService {
         playerWarpsCache.clear();
         warpCountCache.clear();
         warpNameCache.clear();
+        bumpAllVersions();
         plugin.getLogger().info("Cleared all WarpService caches.");
     }
 
+    /**
+     * Gets the version of a player's data as served by the API: warps, warp count, limit and name.
+     * The version changes whenever any of them changes through this server or, in cluster mode,
+     * through another server. Read the version before reading the data, so a response is never
+     * tagged with a newer version than its content.
+     *
+     * @param ownerUuid The UUID of the player
+     * @return An opaque version tag, unique across restarts
+     */
+    public String getOwnerVersion(UUID ownerUuid) {
+        long version = ownerVersions.getOrDefault(ownerUuid, baseVersion);
+        return versionEpoch + "." + Long.toString(version, 36);
+    }
+
+    /**
+     * Gives a player's data a new version and notifies the change listener. Must be called after
+     * the change is visible to readers, i.e. after the commit and after the caches were updated.
+     *
+     * @param ownerUuid The UUID of the player
+     * @param kind The kind of data that changed
+     */
+    private void bumpVersion(UUID ownerUuid, ChangeLog.Kind kind) {
+        ownerVersions.put(ownerUuid, versionClock.incrementAndGet());
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.onOwnerChanged(ownerUuid, kind);
+        }
+    }
+
+    /**
+     * Gives the data of all players a new version and notifies the change listener.
+     */
+    private void bumpAllVersions() {
+        baseVersion = versionClock.incrementAndGet();
+        ownerVersions.clear();
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.onAllChanged();
+        }
+    }
+
+    /**
+     * Sets the listener notified after every change to a player's data, local or from another server.
+     * The listener is called on the thread that made the change and must not block.
+     *
+     * @param changeListener The listener, or null to remove it
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
     /**
      * Gets a cached list of warp names for a player.
      * Returns an empty list if not cached, but triggers an asynchronous load if needed.
@@ -509,8 +1116,10 @@ public class WarpService {
                  plugin.getLogger().log(Level.FINE, "Warp name cache miss for {0}, waiting for active reload...", playerUuid);
              }
              try {
-                 // Wait for the ongoing reload to complete
-                 reloadFuture.join();
+                 // Wait briefly for the ongoing reload; it runs in the background lane and may be queued behind player work
+                 reloadFuture.get(CACHED_NAMES_WAIT_MS, TimeUnit.MILLISECONDS);
+             } catch (TimeoutException e) {
+                 return Collections.emptyList();
              } catch (Exception e) {
                  plugin.getLogger().log(Level.WARNING, "Exception while waiting for cache reload for player " + playerUuid, e);
                  return Collections.emptyList();
@@ -530,6 +1139,9 @@ public class WarpService {
             }
             // Trigger background load
             triggerCacheReload(playerUuid).exceptionally(ex -> {
+                 if (DatabaseManager.isUnavailable(ex)) {
+                     return null;
+                 }
                  plugin.getLogger().log(Level.WARNING, "Background warp load (triggered by getCachedWarpNames) failed for " + playerUuid, ex);
                  return null;
              });
@@ -549,6 +1161,174 @@ public class WarpService {
         return warpRepository.createWarp(warp);
     }
 
+    /**
+     * Applies creations, deletions and moves of warps, possibly of many owners.
+     * The operations of each owner run in one transaction in the order they were requested,
+     * so an operation sees the effect of the earlier ones. Creations check the owner's warp
+     * limit. If the transaction of an owner fails, that owner's operations are reported as
+     * {@link WarpOperation.Outcome#FAILED} and the other owners are still processed. Every owner
+     * is a task of its own, and the cached warps of a changed owner are replaced by the result
+     * of its operations.
+     *
+     * @param operations The operations in the order they were requested
+     * @return A CompletableFuture that completes with the outcome of every operation, in request order,
+     *         or fails with a {@link DatabaseUnavailableException} while writes go through the journal
+     */
+    public CompletableFuture<List<WarpOperation.Outcome>> applyWarpOperations(List<WarpOperation> operations) {
+        if (shouldJournal()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+        Map<UUID, List<Integer>> indicesByOwner = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            indicesByOwner.computeIfAbsent(operations.get(i).getOwnerUuid(), key -> new ArrayList<>()).add(i);
+        }
+
+        WarpOperation.Outcome[] outcomes = new WarpOperation.Outcome[operations.size()];
+        Arrays.fill(outcomes, WarpOperation.Outcome.FAILED);
+        return applyOperationGroup(operations, new ArrayList<>(indicesByOwner.entrySet()), 0, outcomes)
+                .thenApply(ignored -> List.of(outcomes));
+    }
+
+    /**
+     * Applies the operations of one owner in its own task and transaction, then queues the next owner.
+     * Once the database is unavailable the remaining owners are skipped and stay
+     * {@link WarpOperation.Outcome#FAILED}, since they would only wait for the same timeout.
+     *
+     * @param operations All operations in the order they were requested
+     * @param groups The indices of the operations of every owner
+     * @param index The index of the owner to apply
+     * @param outcomes The outcome of every operation, filled in as the owners are applied
+     * @return A CompletableFuture that completes once all remaining owners were handled
+     */
+    private CompletableFuture<Void> applyOperationGroup(List<WarpOperation> operations, List<Map.Entry<UUID, List<Integer>>> groups,
+                                                        int index, WarpOperation.Outcome[] outcomes) {
+        if (index >= groups.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UUID ownerUuid = groups.get(index).getKey();
+        List<Integer> indices = groups.get(index).getValue();
+        List<WarpOperation> ownerOperations = indices.stream().map(operations::get).collect(Collectors.toList());
+
+        return DatabaseExecutor.supplyAsync(() -> applyOwnerOperations(ownerUuid, ownerOperations), executor)
+                .handle((result, ex) -> {
+                    if (ex != null) {
+                        plugin.getLogger().log(Level.WARNING, "Applying warp operations failed for " + ownerUuid, ex);
+                        if (DatabaseManager.isUnavailable(ex) || DatabaseExecutor.isBusy(ex)) {
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                    } else {
+                        for (int i = 0; i < indices.size(); i++) {
+                            outcomes[indices.get(i)] = result.getOutcomes().get(i);
+                        }
+                        if (result.getWarps() != null) {
+                            cacheOperationResult(ownerUuid, result.getWarps());
+                        }
+                    }
+                    return applyOperationGroup(operations, groups, index + 1, outcomes);
+                })
+                .thenCompose(next -> next);
+    }
+
+    /**
+     * Replaces the cached warps of an owner by the warps the owner has after a batch of operations.
+     * A reload that is still running may have read before the operations were committed, so in
+     * that case the warps are applied once it has finished.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param warps The owner's warps after the operations
+     */
+    private void cacheOperationResult(UUID ownerUuid, List<Warp> warps) {
+        CompletableFuture<List<Warp>> runningReload = activeReloads.get(ownerUuid);
+        if (runningReload != null) {
+            runningReload.whenComplete((reloaded, throwable) -> updateCachedWarps(ownerUuid, cached -> new ArrayList<>(warps)));
+        } else {
+            updateCachedWarps(ownerUuid, cached -> new ArrayList<>(warps));
+        }
+    }
+
+    /**
+     * Applies the operations of one owner, in one transaction unless the memory store serves the warps.
+     *
+     * @param ownerUuid The UUID of the owner
+     * @param operations The owner's operations in request order
+     * @return The outcome of every operation and the owner's resulting warps
+     * @throws RuntimeException If a database error occurs
+     */
+    private WarpRepository.OperationResult applyOwnerOperations(UUID ownerUuid, List<WarpOperation> operations) {
+        if (warpRepository.isMemoryResident()) {
+            int warpLimit = playerRepository.getOrCreatePlayerDataSync(ownerUuid).getWarpLimit();
+            return warpRepository.applyOperationsSync(ownerUuid, warpLimit, operations);
+        }
+        return databaseManager.runInTransaction(connection -> {
+            // Locks the player row like the transfers, so concurrent batches for the owner run one after another
+            int warpLimit = playerRepository.lockOrCreatePlayerDataTransactional(connection, ownerUuid).getWarpLimit();
+            return warpRepository.applyOperationsTransactional(connection, ownerUuid, warpLimit, operations);
+        });
+    }
+
+    /**
+     * Imports a batch of warps in one transaction. Warps whose name their owner already uses
+     * are skipped. As an admin operation this does not check the owners' warp limits.
+     * Cached data of the owners is refreshed like after a change made by another server.
+     * While writes go through the write journal the import is refused, because it could take
+     * a name that a journaled creation still has to claim.
+     *
+     * @param warps The warps to import; their IDs are ignored
+     * @return A CompletableFuture that completes with whether each warp was imported, or fails with a
+     *         {@link DatabaseUnavailableException} while writes are journaled
+     */
+    public CompletableFuture<boolean[]> importWarps(List<Warp> warps) {
+        if (shouldJournal()) {
+            return CompletableFuture.failedFuture(new DatabaseUnavailableException());
+        }
+        return DatabaseExecutor.supplyAsync(() -> {
+            boolean[] imported = warpRepository.importWarpsSync(warps);
+            Set<UUID> changedOwners = new HashSet<>();
+            for (int i = 0; i < imported.length; i++) {
+                if (imported[i]) {
+                    changedOwners.add(warps.get(i).getOwnerUuid());
+                }
+            }
+            for (UUID ownerUuid : changedOwners) {
+                applyRemoteChange(ownerUuid, ChangeLog.Kind.WARPS);
+            }
+            return imported;
+        }, executor);
+    }
+
+    /**
+     * Passes every warp to an action in ID order, without loading all warps into memory.
+     * The warps are read in pages of {@link #EXPORT_PAGE_SIZE}, each with its own short task in the
+     * lane of the caller, and the action runs between the pages without holding a connection.
+     * Warps changed while the export runs may or may not be included.
+     * Runs on the calling thread and blocks until all warps have been passed on.
+     *
+     * @param action Called for every warp
+     * @throws RuntimeException If a database error occurs, or thrown by the action
+     */
+    public void exportWarps(Consumer<Warp> action) {
+        int afterId = 0;
+        boolean first = true;
+        while (true) {
+            int pageAfterId = afterId;
+            boolean flush = first;
+            List<Warp> page = DatabaseExecutor.supplyAsync(() -> {
+                if (flush) {
+                    warpRepository.flushPending();
+                }
+                return warpRepository.getWarpsAfterIdSync(pageAfterId, EXPORT_PAGE_SIZE);
+            }, executor).join();
+            first = false;
+            for (Warp warp : page) {
+                action.accept(warp);
+                afterId = warp.getId();
+            }
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
     /**
      * Gets a list of all players who have warps.
      *
@@ -558,6 +1338,350 @@ public class WarpService {
         return warpRepository.getPlayersWithWarps();
     }
 
+    /**
+     * Gets one page of players who have warps, ordered by UUID.
+     * Names are taken from the player directory only; players it does not know yet have no name
+     * in this page and are looked up in the background, see {@link #resolveNamesInBackground}.
+     *
+     * @param afterUuid Only players after this UUID are returned, or null for the first page
+     * @param limit The maximum number of players to return
+     * @return A CompletableFuture that completes with the page
+     */
+    public CompletableFuture<PlayerPage> getPlayerPage(UUID afterUuid, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<UUID> owners = warpRepository.getOwnersAfterSync(afterUuid, limit);
+            List<PlayerDirectory.Entry> entries = new ArrayList<>(owners.size());
+            List<UUID> unknown = new ArrayList<>();
+            for (UUID owner : owners) {
+                String name = playerDirectory.getName(owner);
+                if (name == null) {
+                    unknown.add(owner);
+                }
+                entries.add(new PlayerDirectory.Entry(owner.toString(), owner, name));
+            }
+            resolveNamesInBackground(unknown);
+            String nextCursor = owners.size() < limit ? null : owners.get(owners.size() - 1).toString();
+            return new PlayerPage(entries, nextCursor);
+        }, executor);
+    }
+
+    /**
+     * Looks up the names of players the directory does not know in the server's user cache.
+     * The lookup may hit the disk, so it runs in a Bukkit async task instead of a database worker.
+     * Found names are stored like other newly seen names; players looked up already or still
+     * queued are skipped.
+     *
+     * @param uuids The UUIDs of the players
+     */
+    private void resolveNamesInBackground(List<UUID> uuids) {
+        List<UUID> queued = uuids.stream().filter(pendingNameLookups::add).collect(Collectors.toList());
+        if (queued.isEmpty()) {
+            return;
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<PlayerName> resolved = new ArrayList<>();
+            try {
+                for (UUID uuid : queued) {
+                    if (playerDirectory.getName(uuid) == null && playerDirectory.resolveName(uuid) != null) {
+                        resolved.add(playerDirectory.getPlayerName(uuid));
+                        bumpVersion(uuid, ChangeLog.Kind.PLAYER);
+                    }
+                }
+            } finally {
+                pendingNameLookups.removeAll(queued);
+            }
+            if (resolved.isEmpty()) {
+                return;
+            }
+            DatabaseExecutor.withLane(DatabaseExecutor.Lane.BACKGROUND, () -> playerRepository.savePlayerNames(resolved))
+                    .exceptionally(ex -> {
+                        if (!DatabaseExecutor.isBusy(ex) && !DatabaseManager.isUnavailable(ex)) {
+                            plugin.getLogger().log(Level.WARNING, "Failed to store " + resolved.size() + " looked up player names", ex);
+                        }
+                        return null;
+                    });
+        });
+    }
+
+    /**
+     * Searches players who have warps by name prefix, in name order.
+     * Candidates come from the player directory and are checked for warps in chunks.
+     * A request checks a bounded number of candidates; if that runs out before the page
+     * is full, the page is returned short with a cursor to continue from.
+     *
+     * @param prefix The name prefix, case-insensitive
+     * @param afterKey The cursor of the previous page, or null for the first page
+     * @param limit The maximum number of players to return
+     * @return A CompletableFuture that completes with the page
+     */
+    public CompletableFuture<PlayerPage> searchPlayers(String prefix, String afterKey, int limit) {
+        return DatabaseExecutor.supplyAsync(() -> {
+            List<PlayerDirectory.Entry> result = new ArrayList<>();
+            String cursor = afterKey;
+            for (int chunk = 0; chunk < SEARCH_MAX_CHUNKS; chunk++) {
+                List<PlayerDirectory.Entry> candidates = playerDirectory.findByPrefix(prefix, cursor, SEARCH_CHUNK_SIZE);
+                if (candidates.isEmpty()) {
+                    return new PlayerPage(result, null);
+                }
+
+                Set<UUID> owners = warpRepository.filterOwnersSync(candidates.stream()
+                        .map(PlayerDirectory.Entry::getUuid)
+                        .collect(Collectors.toList()));
+                for (PlayerDirectory.Entry candidate : candidates) {
+                    cursor = candidate.getKey();
+                    if (owners.contains(candidate.getUuid())) {
+                        result.add(candidate);
+                        if (result.size() >= limit) {
+                            return new PlayerPage(result, cursor);
+                        }
+                    }
+                }
+                if (candidates.size() < SEARCH_CHUNK_SIZE) {
+                    return new PlayerPage(result, null);
+                }
+            }
+            return new PlayerPage(result, cursor);
+        }, executor);
+    }
+
+    /**
+     * Records the current name of a player in the directory and, if it is new or changed,
+     * stores it in the database in the background.
+     *
+     * @param uuid The UUID of the player
+     * @param name The name of the player
+     */
+    public void recordPlayerName(UUID uuid, String name) {
+        long now = System.currentTimeMillis();
+        if (!playerDirectory.record(uuid, name, now)) {
+            return;
+        }
+        bumpVersion(uuid, ChangeLog.Kind.PLAYER);
+        DatabaseExecutor.withLane(DatabaseExecutor.Lane.BACKGROUND, () -> playerRepository.savePlayerNames(List.of(new PlayerName(uuid, name, now))))
+                .exceptionally(ex -> {
+                    if (!DatabaseExecutor.isBusy(ex) && !DatabaseManager.isUnavailable(ex)) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to store the name of player " + name, ex);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Fills the player directory with the names stored in the database, then adds the players
+     * the server itself has seen before and stores the names the database did not know yet.
+     * Reads the whole name table and the server's player data, so it should run once in the background.
+     */
+    public void loadPlayerDirectory() {
+        UUID after = null;
+        try {
+            List<PlayerName> page;
+            do {
+                page = playerRepository.getPlayerNamesAfterSync(after, NAME_LOAD_BATCH_SIZE);
+                for (PlayerName name : page) {
+                    playerDirectory.record(name.getUuid(), name.getName(), name.getRecordedAt());
+                    after = name.getUuid();
+                }
+            } while (page.size() == NAME_LOAD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load stored player names, using the server's player data only", e);
+        }
+
+        List<PlayerName> discovered = new ArrayList<>();
+        for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+            if (playerDirectory.record(player.getUniqueId(), player.getName(), player.getLastPlayed())) {
+                discovered.add(new PlayerName(player.getUniqueId(), player.getName(), player.getLastPlayed()));
+            }
+        }
+        try {
+            for (int i = 0; i < discovered.size(); i += NAME_LOAD_BATCH_SIZE) {
+                playerRepository.savePlayerNamesSync(discovered.subList(i, Math.min(discovered.size(), i + NAME_LOAD_BATCH_SIZE)));
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to store player names, they are stored again on the next start", e);
+        }
+        // Responses served before the directory was loaded may show outdated names
+        bumpAllVersions();
+        plugin.getLogger().info("Player directory loaded with " + playerDirectory.size() + " names (" + discovered.size() + " new).");
+    }
+
+    /**
+     * Gets the directory of known player names.
+     *
+     * @return The player directory
+     */
+    public PlayerDirectory getPlayerDirectory() {
+        return playerDirectory;
+    }
+
+    /**
+     * Listener for changes to the data of players.
+     */
+    public interface ChangeListener {
+        /**
+         * Called after the data of a player changed.
+         *
+         * @param ownerUuid The UUID of the player
+         * @param kind The kind of data that changed
+         */
+        void onOwnerChanged(UUID ownerUuid, ChangeLog.Kind kind);
+
+        /**
+         * Called when the data of any player may have changed, for example after the caches were cleared.
+         */
+        void onAllChanged();
+    }
+
+    /**
+     * Outcome of the database part of a teleport: either a location to teleport to or an error.
+     */
+    private static final class TeleportPlan {
+        private final Location location;
+        private final Result<Void> failure;
+
+        private TeleportPlan(Location location, Result<Void> failure) {
+            this.location = location;
+            this.failure = failure;
+        }
+
+        private static TeleportPlan to(Location location) {
+            return new TeleportPlan(location, null);
+        }
+
+        private static TeleportPlan failed(Result<Void> failure) {
+            return new TeleportPlan(null, failure);
+        }
+    }
+
+    /**
+     * One page of players, with the cursor to request the next page.
+     */
+    public static class PlayerPage {
+        private final List<PlayerDirectory.Entry> players;
+        private final String nextCursor;
+
+        private PlayerPage(List<PlayerDirectory.Entry> players, String nextCursor) {
+            this.players = players;
+            this.nextCursor = nextCursor;
+        }
+
+        /**
+         * Gets the players on this page. Names may be null for players the server does not know.
+         *
+         * @return The players
+         */
+        public List<PlayerDirectory.Entry> getPlayers() {
+            return players;
+        }
+
+        /**
+         * Gets the cursor for the next page.
+         *
+         * @return The cursor, or null if this is the last page
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * Progress of a batched bulk operation.
+     */
+    public static class BulkProgress {
+        private final int processed;
+        private final int batches;
+        private final boolean done;
+
+        private BulkProgress(int processed, int batches, boolean done) {
+            this.processed = processed;
+            this.batches = batches;
+            this.done = done;
+        }
+
+        private static BulkProgress start() {
+            return new BulkProgress(0, 0, false);
+        }
+
+        private BulkProgress advance(int count) {
+            return new BulkProgress(processed + count, batches + 1, false);
+        }
+
+        private BulkProgress finish() {
+            return new BulkProgress(processed, batches, true);
+        }
+
+        /**
+         * Gets the number of rows processed so far.
+         *
+         * @return The number of processed rows
+         */
+        public int getProcessed() {
+            return processed;
+        }
+
+        /**
+         * Gets the number of committed batches so far.
+         *
+         * @return The number of batches
+         */
+        public int getBatches() {
+            return batches;
+        }
+
+        /**
+         * Checks whether the operation has finished.
+         *
+         * @return True if all batches have been processed
+         */
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    /**
+     * Loads the next page of warps for a batched operation.
+     */
+    @FunctionalInterface
+    private interface WarpPageLoader {
+        List<Warp> load(Connection connection, int afterId, int limit) throws SQLException;
+    }
+
+    /**
+     * Outcome of a bulk warp transfer.
+     */
+    public static class BulkTransferResult {
+        private final int moved;
+        private final int skipped;
+
+        /**
+         * Creates a new BulkTransferResult instance.
+         *
+         * @param moved The number of moved warps
+         * @param skipped The number of warps left with the source because of name conflicts
+         */
+        public BulkTransferResult(int moved, int skipped) {
+            this.moved = moved;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Gets the number of moved warps.
+         *
+         * @return The number of moved warps
+         */
+        public int getMoved() {
+            return moved;
+        }
+
+        /**
+         * Gets the number of warps left with the source because of name conflicts.
+         *
+         * @return The number of skipped warps
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+    }
+
     /**
      * Represents the result of an operation.
      *
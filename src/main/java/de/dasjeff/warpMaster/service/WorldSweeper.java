@@ -0,0 +1,438 @@
+package de.dasjeff.warpMaster.service;
+
+import de.dasjeff.warpMaster.database.DatabaseManager;
+import de.dasjeff.warpMaster.database.LeaderLease;
+import de.dasjeff.warpMaster.database.WarpRepository;
+import de.dasjeff.warpMaster.model.Warp;
+import de.dasjeff.warpMaster.util.ConfigUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Low-priority background job that finds warps pointing at worlds that no longer exist.
+ * The warps table is streamed in keyset-paginated chunks on a dedicated thread, each chunk
+ * only once the connection pool has spare capacity and never faster than the configured rate,
+ * so the sweeper does not compete with player traffic. Orphaned warps are flagged and, with the
+ * archive policy, moved to {@code warps_archive} once they have stayed orphaned for the grace period.
+ * With several servers sharing the database, the periodic sweep only runs on the {@link LeaderLease} holder.
+ */
+public class WorldSweeper {
+    private static final long POOL_BUSY_BACKOFF_MS = 250;
+
+    private final JavaPlugin plugin;
+    private final WarpService warpService;
+    private final WarpRepository warpRepository;
+    private final DatabaseManager databaseManager;
+    private final ConfigUtil configUtil;
+    private final LeaderLease leaderLease;
+    private final ExecutorService sweepExecutor;
+
+    private BukkitTask task;
+    private CompletableFuture<SweepResult> currentSweep;
+    private volatile SweepResult lastResult;
+    private volatile boolean stopped;
+
+    /**
+     * Creates a new WorldSweeper instance.
+     *
+     * @param plugin The plugin instance
+     * @param warpService The warp service
+     * @param warpRepository The warp repository
+     * @param databaseManager The database manager
+     * @param configUtil The configuration utility
+     * @param leaderLease The lease deciding which server runs the periodic sweep, or null if this server always does
+     */
+    public WorldSweeper(JavaPlugin plugin, WarpService warpService, WarpRepository warpRepository, DatabaseManager databaseManager, ConfigUtil configUtil, LeaderLease leaderLease) {
+        this.plugin = plugin;
+        this.warpService = warpService;
+        this.warpRepository = warpRepository;
+        this.databaseManager = databaseManager;
+        this.configUtil = configUtil;
+        this.leaderLease = leaderLease;
+        this.sweepExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WarpMaster-WorldSweeper");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the periodic sweep if it is enabled in the configuration.
+     */
+    public void start() {
+        if (!configUtil.isSweeperEnabled()) {
+            return;
+        }
+        long intervalTicks = TimeUnit.MINUTES.toSeconds(configUtil.getSweeperIntervalMinutes()) * 20L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (leaderLease == null || leaderLease.isLeader()) {
+                sweep(true);
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Cancels the periodic sweep and aborts a running sweep after its current chunk.
+     */
+    public void stop() {
+        stopped = true;
+        if (task != null) {
+            task.cancel();
+        }
+        sweepExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts a sweep, or returns the running one. Must be called on the main thread,
+     * because the set of loaded worlds is captured before the sweep is handed off.
+     *
+     * @return A CompletableFuture that completes with the result of the sweep
+     */
+    public CompletableFuture<SweepResult> sweep() {
+        return sweep(false);
+    }
+
+    /**
+     * Starts a sweep, or returns the running one. Must be called on the main thread.
+     *
+     * @param leaderOnly True if the sweep stops as soon as this server no longer holds the lease
+     * @return A CompletableFuture that completes with the result of the sweep
+     */
+    private synchronized CompletableFuture<SweepResult> sweep(boolean leaderOnly) {
+        if (currentSweep != null && !currentSweep.isDone()) {
+            return currentSweep;
+        }
+
+        Set<String> loadedWorlds = new HashSet<>();
+        for (World world : Bukkit.getWorlds()) {
+            loadedWorlds.add(world.getName());
+        }
+        File worldContainer = Bukkit.getWorldContainer();
+
+        currentSweep = CompletableFuture.supplyAsync(() -> runSweep(loadedWorlds, worldContainer, leaderOnly), sweepExecutor)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        plugin.getLogger().log(Level.WARNING, "World sweep failed", ex);
+                        return;
+                    }
+                    lastResult = result;
+                    if (result.getFlagged() > 0 || result.getArchived() > 0) {
+                        plugin.getLogger().info("World sweep finished: " + result.getScanned() + " warps scanned, "
+                                + result.getFlagged() + " flagged, " + result.getArchived() + " archived, "
+                                + result.getRestored() + " restored.");
+                    }
+                });
+        return currentSweep;
+    }
+
+    /**
+     * Gets the result of the last completed sweep.
+     *
+     * @return The last result, or null if no sweep has completed yet
+     */
+    public SweepResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Streams the warps table and applies the configured policy chunk by chunk.
+     *
+     * @param loadedWorlds The names of the worlds loaded when the sweep started
+     * @param worldContainer The directory containing the world folders
+     * @param leaderOnly True if the sweep stops before the next chunk once this server lost the lease
+     * @return The result of the sweep
+     */
+    private SweepResult runSweep(Set<String> loadedWorlds, File worldContainer, boolean leaderOnly) {
+        int batchSize = Math.max(1, configUtil.getSweeperBatchSize());
+        long minChunkIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, configUtil.getSweeperBatchesPerSecond());
+        boolean archive = "archive".equalsIgnoreCase(configUtil.getSweeperPolicy());
+        long archiveGraceMs = TimeUnit.HOURS.toMillis(configUtil.getSweeperArchiveAfterHours());
+
+        Map<String, WorldStats> worldIndex = new HashMap<>();
+        SweepResult result = new SweepResult();
+        int lastId = 0;
+
+        while (mayContinue(leaderOnly)) {
+            long chunkStart = System.nanoTime();
+            if (!awaitSpareConnection()) {
+                break;
+            }
+
+            int afterId = lastId;
+            List<WarpRepository.SweepRow> page = databaseManager.runInTransaction(connection ->
+                    warpRepository.getSweepPageTransactional(connection, afterId, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getWarp().getId();
+
+            long now = System.currentTimeMillis();
+            List<Warp> toFlag = new ArrayList<>();
+            List<Warp> toArchive = new ArrayList<>();
+            for (WarpRepository.SweepRow row : page) {
+                Warp warp = row.getWarp();
+                WorldStats stats = worldIndex.computeIfAbsent(warp.getWorldName(),
+                        name -> new WorldStats(name, worldExists(name, loadedWorlds, worldContainer)));
+                stats.warps++;
+
+                if (stats.exists) {
+                    if (row.getOrphanedAt() != null) {
+                        stats.flagged++;
+                    }
+                } else if (row.getOrphanedAt() == null) {
+                    toFlag.add(warp);
+                    stats.flagged++;
+                } else if (archive && now - row.getOrphanedAt() >= archiveGraceMs) {
+                    toArchive.add(warp);
+                    stats.archived++;
+                } else {
+                    stats.flagged++;
+                }
+            }
+
+            if (!toFlag.isEmpty() || !toArchive.isEmpty()) {
+                databaseManager.runInTransaction(connection -> {
+                    warpRepository.flagOrphanedWarpsTransactional(connection, toFlag, now);
+                    warpRepository.archiveWarpsTransactional(connection, toArchive, now);
+                    return null;
+                });
+                warpService.removeFromCaches(toArchive);
+            }
+
+            result.scanned += page.size();
+            result.flagged += toFlag.size();
+            result.archived += toArchive.size();
+
+            if (page.size() < batchSize) {
+                break;
+            }
+            if (!pace(chunkStart, minChunkIntervalNanos)) {
+                break;
+            }
+        }
+
+        if (!stopped && !mayContinue(leaderOnly)) {
+            plugin.getLogger().info("Stopping the world sweep after " + result.scanned + " warps, this server is no longer the leader.");
+        }
+
+        // Worlds that came back (e.g. restored from a backup) lose their orphan flags
+        for (WorldStats stats : worldIndex.values()) {
+            if (!mayContinue(leaderOnly) || !stats.exists || stats.flagged == 0) {
+                continue;
+            }
+            result.restored += databaseManager.runInTransaction(connection ->
+                    warpRepository.clearOrphanedFlagTransactional(connection, stats.name));
+            stats.flagged = 0;
+        }
+
+        result.worlds = Collections.unmodifiableMap(new TreeMap<>(worldIndex));
+        return result;
+    }
+
+    /**
+     * Checks whether the sweep may run its next chunk. A periodic sweep can outlast the lease it
+     * started under, so it stops once another server may already be sweeping.
+     *
+     * @param leaderOnly True if the sweep requires this server to hold the lease
+     * @return True if the sweep was neither stopped nor lost its leadership
+     */
+    private boolean mayContinue(boolean leaderOnly) {
+        if (stopped) {
+            return false;
+        }
+        return !leaderOnly || leaderLease == null || leaderLease.isLeader();
+    }
+
+    /**
+     * Checks whether a world exists. Unloaded worlds whose folder is still present count as existing,
+     * so warps in worlds that are only temporarily unloaded are never archived.
+     *
+     * @param worldName The name of the world
+     * @param loadedWorlds The names of the loaded worlds
+     * @param worldContainer The directory containing the world folders
+     * @return True if the world exists, false otherwise
+     */
+    private boolean worldExists(String worldName, Set<String> loadedWorlds, File worldContainer) {
+        if (loadedWorlds.contains(worldName)) {
+            return true;
+        }
+        return worldContainer != null && new File(new File(worldContainer, worldName), "level.dat").isFile();
+    }
+
+    /**
+     * Waits until the connection pool has an idle connection and nobody is waiting for one.
+     *
+     * @return True if the sweep may continue, false if it was stopped while waiting
+     */
+    private boolean awaitSpareConnection() {
+        while (!databaseManager.hasSpareConnections()) {
+            if (!sleep(POOL_BUSY_BACKOFF_MS)) {
+                return false;
+            }
+        }
+        return !stopped;
+    }
+
+    /**
+     * Sleeps for the rest of the minimum chunk interval.
+     *
+     * @param chunkStart The System.nanoTime() at which the chunk started
+     * @param minChunkIntervalNanos The minimum time between two chunks
+     * @return True if the sweep may continue, false if it was interrupted
+     */
+    private boolean pace(long chunkStart, long minChunkIntervalNanos) {
+        long remainingNanos = minChunkIntervalNanos - (System.nanoTime() - chunkStart);
+        return remainingNanos <= 0 || sleep(TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
+
+    /**
+     * Sleeps on the sweeper thread.
+     *
+     * @param millis The time to sleep in milliseconds
+     * @return True if the sleep completed, false if the thread was interrupted
+     */
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Per-world entry of the sweeper's index.
+     */
+    public static class WorldStats {
+        private final String name;
+        private final boolean exists;
+        private int warps;
+        private int flagged;
+        private int archived;
+
+        private WorldStats(String name, boolean exists) {
+            this.name = name;
+            this.exists = exists;
+        }
+
+        /**
+         * Gets the name of the world.
+         *
+         * @return The world name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Checks whether the world exists.
+         *
+         * @return True if the world is loaded or its folder is present
+         */
+        public boolean exists() {
+            return exists;
+        }
+
+        /**
+         * Gets the number of warps seen in this world.
+         *
+         * @return The warp count
+         */
+        public int getWarps() {
+            return warps;
+        }
+
+        /**
+         * Gets the number of warps in this world that are flagged as orphaned.
+         *
+         * @return The flagged count
+         */
+        public int getFlagged() {
+            return flagged;
+        }
+
+        /**
+         * Gets the number of warps in this world that were archived by the sweep.
+         *
+         * @return The archived count
+         */
+        public int getArchived() {
+            return archived;
+        }
+    }
+
+    /**
+     * Result of a completed sweep.
+     */
+    public static class SweepResult {
+        private int scanned;
+        private int flagged;
+        private int archived;
+        private int restored;
+        private Map<String, WorldStats> worlds = Collections.emptyMap();
+
+        /**
+         * Gets the number of warps scanned.
+         *
+         * @return The scanned count
+         */
+        public int getScanned() {
+            return scanned;
+        }
+
+        /**
+         * Gets the number of warps newly flagged as orphaned.
+         *
+         * @return The flagged count
+         */
+        public int getFlagged() {
+            return flagged;
+        }
+
+        /**
+         * Gets the number of warps moved to the archive.
+         *
+         * @return The archived count
+         */
+        public int getArchived() {
+            return archived;
+        }
+
+        /**
+         * Gets the number of warps whose orphan flag was cleared because their world exists again.
+         *
+         * @return The restored count
+         */
+        public int getRestored() {
+            return restored;
+        }
+
+        /**
+         * Gets the per-world index built during the sweep, sorted by world name.
+         *
+         * @return The world index
+         */
+        public Map<String, WorldStats> getWorlds() {
+            return worlds;
+        }
+    }
+}
@@ -22,13 +22,64 @@ public class ConfigUtil {
     private List<String> apiIpWhitelist;
     private boolean apiRateLimitEnabled;
     private int apiRequestsPerMinute;
+    private int apiWriteRequestsPerMinute;
+    private int apiBulkRequestsPerMinute;
+    private int apiRateLimitMaxClients;
+    private int apiResponseCacheSize;
+    private int apiEventsCoalesceMs;
+    private int apiEventsClientBuffer;
+    private boolean apiConcurrencyEnabled;
+    private int apiConcurrencyMaxLimit;
+    private int apiConcurrencyTargetLatencyMs;
+    private int apiConcurrencyQueueSize;
+    private int apiConcurrencyQueueWaitMs;
     private String databaseType;
     // DB credentials not cached for security
     private int databasePoolSize;
+    private boolean databaseReplicaEnabled;
+    private int databaseReplicaPoolSize;
+    private int databaseReplicaMaxLagSeconds;
+    private int databaseReplicaCheckIntervalMs;
     private int databaseConnectionTimeout;
     private int databaseIdleTimeout;
     private int databaseMaxLifetime;
     private int databaseThreadPoolSize;
+    private boolean databaseVirtualThreads;
+    private int databaseQueueInteractiveCapacity;
+    private int databaseQueueApiCapacity;
+    private int databaseQueueBackgroundCapacity;
+    private int databaseQueryTimeoutSeconds;
+    private int databaseReadDeadlineMs;
+    private int databaseWriteDeadlineMs;
+    private int databaseBreakerFailureThreshold;
+    private int databaseBreakerWindowSeconds;
+    private int databaseBreakerOpenSeconds;
+    private int databaseMigrationBatchSize;
+    private int databaseBulkBatchSize;
+    private boolean sweeperEnabled;
+    private int sweeperIntervalMinutes;
+    private String sweeperPolicy;
+    private int sweeperArchiveAfterHours;
+    private int sweeperBatchSize;
+    private int sweeperBatchesPerSecond;
+    private boolean journalEnabled;
+    private int journalMaxEntries;
+    private int journalReplayIntervalSeconds;
+    private int journalReplayBatchSize;
+    private int journalReplayBatchesPerSecond;
+    private boolean memoryStoreEnabled;
+    private int memoryStoreLoadThreads;
+    private int memoryStoreLoadChunkSize;
+    private int memoryStoreFlushIntervalMs;
+    private int memoryStoreFlushBatchSize;
+    private boolean memoryStoreSnapshotEnabled;
+    private int memoryStoreSnapshotIntervalMinutes;
+    private boolean clusterEnabled;
+    private int clusterPollIntervalMs;
+    private int clusterMaxPollIntervalMs;
+    private int clusterPollBatchSize;
+    private int clusterRetentionMinutes;
+    private int clusterLeaseSeconds;
 
     /**
      * Creates a new ConfigUtil instance.
@@ -77,12 +128,63 @@ public class ConfigUtil {
         apiIpWhitelist = getStringList("api.security.ip-whitelist");
         apiRateLimitEnabled = getBoolean("api.security.rate-limit.enabled", true);
         apiRequestsPerMinute = getInt("api.security.rate-limit.requests-per-minute", 60);
+        apiWriteRequestsPerMinute = getInt("api.security.rate-limit.write-requests-per-minute", 30);
+        apiBulkRequestsPerMinute = getInt("api.security.rate-limit.bulk-requests-per-minute", 5);
+        apiRateLimitMaxClients = getInt("api.security.rate-limit.max-clients", 10000);
+        apiResponseCacheSize = getInt("api.response-cache-size", 1000);
+        apiEventsCoalesceMs = getInt("api.events.coalesce-ms", 250);
+        apiEventsClientBuffer = getInt("api.events.client-buffer", 32);
+        apiConcurrencyEnabled = getBoolean("api.concurrency.enabled", true);
+        apiConcurrencyMaxLimit = getInt("api.concurrency.max-limit", 16);
+        apiConcurrencyTargetLatencyMs = getInt("api.concurrency.target-latency-ms", 250);
+        apiConcurrencyQueueSize = getInt("api.concurrency.queue-size", 32);
+        apiConcurrencyQueueWaitMs = getInt("api.concurrency.queue-wait-ms", 500);
         databaseType = getString("database.type", "mysql");
         databasePoolSize = getInt("database.pool-size", 10);
+        databaseReplicaEnabled = getBoolean("database.replica.enabled", false);
+        databaseReplicaPoolSize = getInt("database.replica.pool-size", 5);
+        databaseReplicaMaxLagSeconds = getInt("database.replica.max-lag-seconds", 5);
+        databaseReplicaCheckIntervalMs = getInt("database.replica.check-interval-ms", 1000);
         databaseConnectionTimeout = getInt("database.connection-timeout", 30000);
         databaseIdleTimeout = getInt("database.idle-timeout", 600000);
         databaseMaxLifetime = getInt("database.max-lifetime", 1800000);
         databaseThreadPoolSize = getInt("database.thread-pool-size", Math.max(2, Runtime.getRuntime().availableProcessors()));
+        databaseVirtualThreads = getBoolean("database.virtual-threads", true);
+        databaseQueueInteractiveCapacity = getInt("database.queue.interactive", 256);
+        databaseQueueApiCapacity = getInt("database.queue.api", 128);
+        databaseQueueBackgroundCapacity = getInt("database.queue.background", 64);
+        databaseQueryTimeoutSeconds = getInt("database.timeouts.query-seconds", 5);
+        databaseReadDeadlineMs = getInt("database.timeouts.read-ms", 2000);
+        databaseWriteDeadlineMs = getInt("database.timeouts.write-ms", 5000);
+        databaseBreakerFailureThreshold = getInt("database.circuit-breaker.failure-threshold", 5);
+        databaseBreakerWindowSeconds = getInt("database.circuit-breaker.window-seconds", 10);
+        databaseBreakerOpenSeconds = getInt("database.circuit-breaker.open-seconds", 15);
+        databaseMigrationBatchSize = getInt("database.migration-batch-size", 1000);
+        databaseBulkBatchSize = Math.max(1, getInt("database.bulk-batch-size", 500));
+        sweeperEnabled = getBoolean("sweeper.enabled", true);
+        sweeperIntervalMinutes = Math.max(1, getInt("sweeper.interval-minutes", 60));
+        sweeperPolicy = getString("sweeper.policy", "flag");
+        sweeperArchiveAfterHours = getInt("sweeper.archive-after-hours", 24);
+        sweeperBatchSize = getInt("sweeper.batch-size", 500);
+        sweeperBatchesPerSecond = getInt("sweeper.batches-per-second", 2);
+        journalEnabled = getBoolean("journal.enabled", true);
+        journalMaxEntries = getInt("journal.max-entries", 10000);
+        journalReplayIntervalSeconds = getInt("journal.replay-interval-seconds", 5);
+        journalReplayBatchSize = getInt("journal.replay-batch-size", 100);
+        journalReplayBatchesPerSecond = getInt("journal.replay-batches-per-second", 5);
+        memoryStoreEnabled = getBoolean("memory-store.enabled", false);
+        memoryStoreLoadThreads = getInt("memory-store.load-threads", 4);
+        memoryStoreLoadChunkSize = getInt("memory-store.load-chunk-size", 5000);
+        memoryStoreFlushIntervalMs = getInt("memory-store.flush-interval-ms", 1000);
+        memoryStoreFlushBatchSize = getInt("memory-store.flush-batch-size", 500);
+        memoryStoreSnapshotEnabled = getBoolean("memory-store.snapshot.enabled", true);
+        memoryStoreSnapshotIntervalMinutes = getInt("memory-store.snapshot.interval-minutes", 10);
+        clusterEnabled = getBoolean("cluster.enabled", false);
+        clusterPollIntervalMs = getInt("cluster.poll-interval-ms", 250);
+        clusterMaxPollIntervalMs = getInt("cluster.max-poll-interval-ms", 2000);
+        clusterPollBatchSize = getInt("cluster.poll-batch-size", 500);
+        clusterRetentionMinutes = getInt("cluster.retention-minutes", 60);
+        clusterLeaseSeconds = getInt("cluster.lease-seconds", 15);
     }
 
     /**
@@ -201,7 +303,7 @@ public class ConfigUtil {
     }
 
     /**
-     * Gets the maximum number of requests per minute for the API.
+     * Gets the maximum number of reading requests per minute and client for the API.
      *
      * @return The maximum number of requests per minute
      */
@@ -209,10 +311,109 @@ public class ConfigUtil {
         return apiRequestsPerMinute;
     }
 
+    /**
+     * Gets the maximum number of single write requests per minute and client for the API.
+     *
+     * @return The maximum number of requests per minute
+     */
+    public int getApiWriteRequestsPerMinute() {
+        return apiWriteRequestsPerMinute;
+    }
+
+    /**
+     * Gets the maximum number of bulk requests (exports, imports, batches, purges) per minute and client for the API.
+     *
+     * @return The maximum number of requests per minute
+     */
+    public int getApiBulkRequestsPerMinute() {
+        return apiBulkRequestsPerMinute;
+    }
+
+    /**
+     * Gets the maximum number of rate limit buckets kept in memory per route class.
+     *
+     * @return The maximum number of tracked clients per route class
+     */
+    public int getApiRateLimitMaxClients() {
+        return apiRateLimitMaxClients;
+    }
+
+    /**
+     * Gets the maximum number of serialized API responses kept in memory.
+     *
+     * @return The maximum number of cached responses, 0 to disable the cache
+     */
+    public int getApiResponseCacheSize() {
+        return apiResponseCacheSize;
+    }
+
+    /**
+     * Gets the interval in which changes are collected before they are pushed to dashboards.
+     *
+     * @return The coalescing interval in milliseconds
+     */
+    public int getApiEventsCoalesceMs() {
+        return apiEventsCoalesceMs;
+    }
+
+    /**
+     * Gets the number of events a dashboard may fall behind before it is disconnected.
+     *
+     * @return The per-client event buffer size
+     */
+    public int getApiEventsClientBuffer() {
+        return apiEventsClientBuffer;
+    }
+
+    /**
+     * Checks if the number of concurrent API requests per route class is limited adaptively.
+     *
+     * @return True if the concurrency limit is enabled
+     */
+    public boolean isApiConcurrencyEnabled() {
+        return apiConcurrencyEnabled;
+    }
+
+    /**
+     * Gets the highest number of concurrent API requests per route class the adaptive limit may grow to.
+     *
+     * @return The maximum concurrency limit
+     */
+    public int getApiConcurrencyMaxLimit() {
+        return apiConcurrencyMaxLimit;
+    }
+
+    /**
+     * Gets the API request latency above which the concurrency limit is lowered.
+     *
+     * @return The target latency in milliseconds
+     */
+    public int getApiConcurrencyTargetLatencyMs() {
+        return apiConcurrencyTargetLatencyMs;
+    }
+
+    /**
+     * Gets the number of API requests per route class that may wait for a free slot.
+     *
+     * @return The queue size, 0 to reject requests over the limit immediately
+     */
+    public int getApiConcurrencyQueueSize() {
+        return apiConcurrencyQueueSize;
+    }
+
+    /**
+     * Gets how long an API request may wait for a free slot before it is rejected.
+     *
+     * @return The maximum wait in milliseconds
+     */
+    public int getApiConcurrencyQueueWaitMs() {
+        return apiConcurrencyQueueWaitMs;
+    }
+
     /**
      * Gets the database type.
      *
-     * @return The database type (mysql or sqlite)
+     * @return The database type (mysql, sqlite or h2)
      */
     public String getDatabaseType() {
         return databaseType;
@@ -263,6 +464,91 @@ public class ConfigUtil {
         return getString("database.password", "password");
     }
 
+    /**
+     * Checks if a read replica is configured.
+     *
+     * @return True if the read replica is enabled, false otherwise
+     */
+    public boolean isDatabaseReplicaEnabled() {
+        // Return cached value
+        return databaseReplicaEnabled;
+    }
+
+    /**
+     * Gets the read replica host, defaulting to the primary host.
+     *
+     * @return The replica host
+     */
+    public String getDatabaseReplicaHost() {
+        return getString("database.replica.host", getDatabaseHost());
+    }
+
+    /**
+     * Gets the read replica port, defaulting to the primary port.
+     *
+     * @return The replica port
+     */
+    public int getDatabaseReplicaPort() {
+        return getInt("database.replica.port", getDatabasePort());
+    }
+
+    /**
+     * Gets the read replica database name, defaulting to the primary database name.
+     *
+     * @return The replica database name
+     */
+    public String getDatabaseReplicaName() {
+        return getString("database.replica.database", getDatabaseName());
+    }
+
+    /**
+     * Gets the read replica username, defaulting to the primary username.
+     *
+     * @return The replica username
+     */
+    public String getDatabaseReplicaUsername() {
+        return getString("database.replica.username", getDatabaseUsername());
+    }
+
+    /**
+     * Gets the read replica password, defaulting to the primary password.
+     *
+     * @return The replica password
+     */
+    public String getDatabaseReplicaPassword() {
+        return getString("database.replica.password", getDatabasePassword());
+    }
+
+    /**
+     * Gets the read replica connection pool size.
+     *
+     * @return The replica pool size
+     */
+    public int getDatabaseReplicaPoolSize() {
+        // Return cached value
+        return databaseReplicaPoolSize;
+    }
+
+    /**
+     * Gets the largest replication lag at which reads are still sent to the replica.
+     *
+     * @return The staleness bound in seconds
+     */
+    public int getDatabaseReplicaMaxLagSeconds() {
+        // Return cached value
+        return databaseReplicaMaxLagSeconds;
+    }
+
+    /**
+     * Gets how often the replication lag is measured.
+     *
+     * @return The check interval in milliseconds
+     */
+    public int getDatabaseReplicaCheckIntervalMs() {
+        // Return cached value
+        return databaseReplicaCheckIntervalMs;
+    }
+
     /**
      * Gets the database connection pool size.
      *
@@ -313,6 +599,366 @@ public class ConfigUtil {
         return databaseThreadPoolSize;
     }
 
+    /**
+     * Checks if database work runs on virtual threads instead of a fixed thread pool.
+     *
+     * @return True if virtual threads are used, false otherwise
+     */
+    public boolean isDatabaseVirtualThreads() {
+        // Return cached value
+        return databaseVirtualThreads;
+    }
+
+    /**
+     * Gets the maximum number of queued database tasks for player commands.
+     *
+     * @return The interactive queue capacity
+     */
+    public int getDatabaseQueueInteractiveCapacity() {
+        // Return cached value
+        return databaseQueueInteractiveCapacity;
+    }
+
+    /**
+     * Gets the maximum number of queued database tasks for API requests.
+     *
+     * @return The API queue capacity
+     */
+    public int getDatabaseQueueApiCapacity() {
+        // Return cached value
+        return databaseQueueApiCapacity;
+    }
+
+    /**
+     * Gets the maximum number of queued database tasks for background work.
+     *
+     * @return The background queue capacity
+     */
+    public int getDatabaseQueueBackgroundCapacity() {
+        // Return cached value
+        return databaseQueueBackgroundCapacity;
+    }
+
+    /**
+     * Gets the JDBC query timeout applied to every repository statement.
+     *
+     * @return The query timeout in seconds, 0 for none
+     */
+    public int getDatabaseQueryTimeoutSeconds() {
+        // Return cached value
+        return databaseQueryTimeoutSeconds;
+    }
+
+    /**
+     * Gets the deadline for player-facing reads, including the time spent queued.
+     *
+     * @return The read deadline in milliseconds, 0 for none
+     */
+    public int getDatabaseReadDeadlineMs() {
+        // Return cached value
+        return databaseReadDeadlineMs;
+    }
+
+    /**
+     * Gets the deadline for player-facing writes, including the time spent queued.
+     *
+     * @return The write deadline in milliseconds, 0 for none
+     */
+    public int getDatabaseWriteDeadlineMs() {
+        // Return cached value
+        return databaseWriteDeadlineMs;
+    }
+
+    /**
+     * Gets the number of failures within the window that opens the circuit breaker.
+     *
+     * @return The failure threshold
+     */
+    public int getDatabaseBreakerFailureThreshold() {
+        // Return cached value
+        return databaseBreakerFailureThreshold;
+    }
+
+    /**
+     * Gets the length of the window in which circuit breaker failures are counted.
+     *
+     * @return The failure window in seconds
+     */
+    public int getDatabaseBreakerWindowSeconds() {
+        // Return cached value
+        return databaseBreakerWindowSeconds;
+    }
+
+    /**
+     * Gets how long the circuit breaker stays open before it lets a trial connection through.
+     *
+     * @return The open duration in seconds
+     */
+    public int getDatabaseBreakerOpenSeconds() {
+        // Return cached value
+        return databaseBreakerOpenSeconds;
+    }
+
+    /**
+     * Gets the number of rows backfilled per transaction during schema migrations.
+     *
+     * @return The migration batch size
+     */
+    public int getDatabaseMigrationBatchSize() {
+        // Return cached value
+        return databaseMigrationBatchSize;
+    }
+
+    /**
+     * Gets the number of rows changed per transaction by bulk admin operations.
+     *
+     * @return The bulk batch size
+     */
+    public int getDatabaseBulkBatchSize() {
+        // Return cached value
+        return databaseBulkBatchSize;
+    }
+
+    /**
+     * Checks if the background world sweeper is enabled.
+     *
+     * @return True if the sweeper is enabled, false otherwise
+     */
+    public boolean isSweeperEnabled() {
+        // Return cached value
+        return sweeperEnabled;
+    }
+
+    /**
+     * Gets the interval between two world sweeps in minutes.
+     *
+     * @return The sweep interval
+     */
+    public int getSweeperIntervalMinutes() {
+        // Return cached value
+        return sweeperIntervalMinutes;
+    }
+
+    /**
+     * Gets the policy applied to warps in worlds that no longer exist.
+     *
+     * @return The sweeper policy (flag or archive)
+     */
+    public String getSweeperPolicy() {
+        // Return cached value
+        return sweeperPolicy;
+    }
+
+    /**
+     * Gets how long a warp must stay orphaned before the archive policy moves it.
+     *
+     * @return The grace period in hours
+     */
+    public int getSweeperArchiveAfterHours() {
+        // Return cached value
+        return sweeperArchiveAfterHours;
+    }
+
+    /**
+     * Gets the number of warps read per sweeper chunk.
+     *
+     * @return The sweeper batch size
+     */
+    public int getSweeperBatchSize() {
+        // Return cached value
+        return sweeperBatchSize;
+    }
+
+    /**
+     * Gets the maximum number of chunks the sweeper processes per second.
+     *
+     * @return The sweeper rate limit
+     */
+    public int getSweeperBatchesPerSecond() {
+        // Return cached value
+        return sweeperBatchesPerSecond;
+    }
+
+    /**
+     * Checks if writes are journaled locally while the database is unavailable.
+     *
+     * @return True if the write journal is enabled, false otherwise
+     */
+    public boolean isJournalEnabled() {
+        // Return cached value
+        return journalEnabled;
+    }
+
+    /**
+     * Gets the maximum number of journaled writes waiting for replay.
+     *
+     * @return The journal size limit
+     */
+    public int getJournalMaxEntries() {
+        // Return cached value
+        return journalMaxEntries;
+    }
+
+    /**
+     * Gets how often the journal is checked for writes to replay.
+     *
+     * @return The replay interval in seconds
+     */
+    public int getJournalReplayIntervalSeconds() {
+        // Return cached value
+        return journalReplayIntervalSeconds;
+    }
+
+    /**
+     * Gets the number of journaled writes replayed per transaction.
+     *
+     * @return The replay batch size
+     */
+    public int getJournalReplayBatchSize() {
+        // Return cached value
+        return journalReplayBatchSize;
+    }
+
+    /**
+     * Gets the maximum number of replay transactions per second.
+     *
+     * @return The replay rate
+     */
+    public int getJournalReplayBatchesPerSecond() {
+        // Return cached value
+        return journalReplayBatchesPerSecond;
+    }
+
+    /**
+     * Checks if all warps and player data are kept in memory and written to the database behind.
+     *
+     * @return True if the memory store is enabled, false otherwise
+     */
+    public boolean isMemoryStoreEnabled() {
+        // Return cached value
+        return memoryStoreEnabled;
+    }
+
+    /**
+     * Gets the number of threads loading the memory store at startup.
+     *
+     * @return The number of loader threads
+     */
+    public int getMemoryStoreLoadThreads() {
+        // Return cached value
+        return memoryStoreLoadThreads;
+    }
+
+    /**
+     * Gets the number of warp IDs loaded per chunk at startup.
+     *
+     * @return The chunk size
+     */
+    public int getMemoryStoreLoadChunkSize() {
+        // Return cached value
+        return memoryStoreLoadChunkSize;
+    }
+
+    /**
+     * Gets how often buffered changes are written to the database.
+     *
+     * @return The flush interval in milliseconds
+     */
+    public int getMemoryStoreFlushIntervalMs() {
+        // Return cached value
+        return memoryStoreFlushIntervalMs;
+    }
+
+    /**
+     * Gets the number of rows sent per JDBC batch when flushing.
+     *
+     * @return The flush batch size
+     */
+    public int getMemoryStoreFlushBatchSize() {
+        // Return cached value
+        return memoryStoreFlushBatchSize;
+    }
+
+    /**
+     * Checks if the memory store is saved to a snapshot file and loaded from it at startup.
+     *
+     * @return True if snapshots are enabled, false otherwise
+     */
+    public boolean isMemoryStoreSnapshotEnabled() {
+        // Return cached value
+        return memoryStoreSnapshotEnabled;
+    }
+
+    /**
+     * Gets how often a snapshot is written while the server is running.
+     *
+     * @return The snapshot interval in minutes
+     */
+    public int getMemoryStoreSnapshotIntervalMinutes() {
+        // Return cached value
+        return memoryStoreSnapshotIntervalMinutes;
+    }
+
+    /**
+     * Checks if several servers share the database and keep their caches coherent through the change log.
+     *
+     * @return True if cluster mode is enabled, false otherwise
+     */
+    public boolean isClusterEnabled() {
+        // Return cached value
+        return clusterEnabled;
+    }
+
+    /**
+     * Gets the change log poll interval while changes arrive.
+     *
+     * @return The poll interval in milliseconds
+     */
+    public int getClusterPollIntervalMs() {
+        // Return cached value
+        return clusterPollIntervalMs;
+    }
+
+    /**
+     * Gets the change log poll interval that the idle backoff grows to.
+     *
+     * @return The maximum poll interval in milliseconds
+     */
+    public int getClusterMaxPollIntervalMs() {
+        // Return cached value
+        return clusterMaxPollIntervalMs;
+    }
+
+    /**
+     * Gets the maximum number of changes read per poll.
+     *
+     * @return The poll batch size
+     */
+    public int getClusterPollBatchSize() {
+        // Return cached value
+        return clusterPollBatchSize;
+    }
+
+    /**
+     * Gets how long changes are kept in the change log.
+     *
+     * @return The retention in minutes
+     */
+    public int getClusterRetentionMinutes() {
+        // Return cached value
+        return clusterRetentionMinutes;
+    }
+
+    /**
+     * Gets how long the leader lease stays valid without renewal.
+     *
+     * @return The lease duration in seconds
+     */
+    public int getClusterLeaseSeconds() {
+        // Return cached value
+        return clusterLeaseSeconds;
+    }
+
     /**
      * Checks if the current database configuration uses default credentials.
      *
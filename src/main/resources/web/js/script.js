@@ -2,6 +2,27 @@
 let currentPlayerUuid = null;
 let apiKey = '';
 
+// Player list state
+const PLAYER_PAGE_SIZE = 100;
+const PLAYER_ROW_HEIGHT = 82; // Height of a .player-item including its gap, see styles.css
+const PLAYER_ROW_OVERSCAN = 5;
+const PLAYER_SEARCH_DELAY_MS = 250;
+let loadedPlayers = [];
+let nextPlayerCursor = null;
+let playersExhausted = false;
+let loadingPlayerPage = false;
+let playerListGeneration = 0;
+let playerListRenderPending = false;
+let playerSearchQuery = '';
+let playerSearchTimer = null;
+
+// Live updates
+const EVENTS_RECONNECT_MIN_MS = 1000;
+const EVENTS_RECONNECT_MAX_MS = 30000;
+let eventsReconnectDelay = EVENTS_RECONNECT_MIN_MS;
+let playerRefreshRunning = false;
+let playerRefreshQueued = false;
+
 // DOM elements
 const playerList = document.getElementById('playerList');
 const playerSearch = document.getElementById('playerSearch');
@@ -26,7 +47,9 @@ const cancelDeleteBtn = document.getElementById('cancelDeleteBtn');
 
 // Event listeners
 document.addEventListener('DOMContentLoaded', init);
-playerSearch.addEventListener('input', filterPlayers);
+playerSearch.addEventListener('input', searchPlayers);
+playerList.addEventListener('scroll', schedulePlayerListRender);
+window.addEventListener('resize', schedulePlayerListRender);
 setLimitBtn.addEventListener('click', openLimitModal);
 saveLimitBtn.addEventListener('click', saveNewLimit);
 cancelLimitBtn.addEventListener('click', closeLimitModal);
@@ -70,6 +93,9 @@ async function init() {
 
     // Add logout button
     addLogoutButton();
+
+    // Receive changes made elsewhere
+    connectEvents();
 }
 
 // API functions
@@ -112,43 +138,117 @@ async function fetchApi(endpoint, options = {}) {
     }
 }
 
+// The player list only renders the rows in view and fetches further pages while scrolling
 async function loadPlayers() {
-    try {
-        playerList.innerHTML = '<div class="loading"><i class="fas fa-spinner fa-spin"></i> Lade Spieler...</div>';
+    playerListGeneration++;
+    loadedPlayers = [];
+    nextPlayerCursor = null;
+    playersExhausted = false;
+    loadingPlayerPage = false;
+    playerList.scrollTop = 0;
+    playerList.innerHTML = '<div class="loading"><i class="fas fa-spinner fa-spin"></i> Lade Spieler...</div>';
+
+    await loadNextPlayerPage();
+}
 
-        const players = await fetchApi('/api/players');
+async function loadNextPlayerPage() {
+    if (loadingPlayerPage || playersExhausted) {
+        return;
+    }
+    loadingPlayerPage = true;
+    const generation = playerListGeneration;
+
+    try {
+        const params = new URLSearchParams({ limit: PLAYER_PAGE_SIZE });
+        if (playerSearchQuery) {
+            params.set('q', playerSearchQuery);
+        }
+        if (nextPlayerCursor) {
+            params.set('cursor', nextPlayerCursor);
+        }
+        const page = await fetchApi(`/api/players?${params}`);
 
-        if (players.length === 0) {
-            playerList.innerHTML = '<div class="no-data"><i class="fas fa-users-slash"></i><p>Keine Spieler mit Warps gefunden</p></div>';
+        // A newer search replaced this list while the page was loading
+        if (generation !== playerListGeneration) {
             return;
         }
+        loadedPlayers.push(...page.players);
+        nextPlayerCursor = page.nextCursor;
+        playersExhausted = !page.nextCursor;
+    } catch (error) {
+        if (generation === playerListGeneration && loadedPlayers.length === 0) {
+            playerList.innerHTML = '<div class="no-data"><i class="fas fa-exclamation-triangle"></i><p>Fehler beim Laden der Spieler</p></div>';
+        }
+        throw error;
+    } finally {
+        if (generation === playerListGeneration) {
+            loadingPlayerPage = false;
+        }
+    }
+
+    if (loadedPlayers.length === 0 && playersExhausted) {
+        const message = playerSearchQuery ? 'Keine passenden Spieler gefunden' : 'Keine Spieler mit Warps gefunden';
+        playerList.innerHTML = `<div class="no-data"><i class="fas fa-users-slash"></i><p>${message}</p></div>`;
+        return;
+    }
+    renderPlayerList();
+}
 
-        playerList.innerHTML = '';
+function renderPlayerList() {
+    playerListRenderPending = false;
+    if (loadedPlayers.length === 0) {
+        return;
+    }
 
-        players.forEach(player => {
-            const playerItem = document.createElement('div');
-            playerItem.className = 'player-item';
-            playerItem.dataset.uuid = player.uuid;
-            playerItem.innerHTML = `
-                <div class="player-item-avatar">
-                    <img src="https://api.mcheads.org/head/${player.name}/40" alt="${player.name}">
-                </div>
-                <div class="player-item-info">
-                    <h3>${player.name}</h3>
-                    <p>${formatUuid(player.uuid)}</p>
-                </div>
-            `;
+    let spacer = playerList.querySelector('.player-list-spacer');
+    if (!spacer) {
+        playerList.innerHTML = '<div class="player-list-spacer"></div>';
+        spacer = playerList.querySelector('.player-list-spacer');
+    }
+    spacer.style.height = `${loadedPlayers.length * PLAYER_ROW_HEIGHT}px`;
+
+    const first = Math.max(0, Math.floor(playerList.scrollTop / PLAYER_ROW_HEIGHT) - PLAYER_ROW_OVERSCAN);
+    const last = Math.min(loadedPlayers.length, Math.ceil((playerList.scrollTop + playerList.clientHeight) / PLAYER_ROW_HEIGHT) + PLAYER_ROW_OVERSCAN);
+
+    spacer.innerHTML = '';
+    for (let i = first; i < last; i++) {
+        const player = loadedPlayers[i];
+        const playerItem = document.createElement('div');
+        playerItem.className = 'player-item';
+        if (player.uuid === currentPlayerUuid) {
+            playerItem.classList.add('active');
+        }
+        playerItem.dataset.uuid = player.uuid;
+        playerItem.style.top = `${i * PLAYER_ROW_HEIGHT}px`;
+        playerItem.innerHTML = `
+            <div class="player-item-avatar">
+                <img src="https://api.mcheads.org/head/${player.name}/40" alt="${player.name}" loading="lazy">
+            </div>
+            <div class="player-item-info">
+                <h3>${player.name}</h3>
+                <p>${formatUuid(player.uuid)}</p>
+            </div>
+        `;
+
+        playerItem.addEventListener('click', () => loadPlayerDetails(player.uuid));
+
+        spacer.appendChild(playerItem);
+    }
 
-            playerItem.addEventListener('click', () => loadPlayerDetails(player.uuid));
+    // Fetch the next page before the user reaches the end of the loaded rows
+    if (last >= loadedPlayers.length - PLAYER_ROW_OVERSCAN) {
+        loadNextPlayerPage().catch(() => {});
+    }
+}
 
-            playerList.appendChild(playerItem);
-        });
-    } catch (error) {
-        playerList.innerHTML = '<div class="no-data"><i class="fas fa-exclamation-triangle"></i><p>Fehler beim Laden der Spieler</p></div>';
+function schedulePlayerListRender() {
+    if (!playerListRenderPending) {
+        playerListRenderPending = true;
+        requestAnimationFrame(renderPlayerList);
     }
 }
 
-async function loadPlayerDetails(uuid) {
+async function loadPlayerDetails(uuid, quiet = false) {
     try {
         // Mark the active player
         document.querySelectorAll('.player-item').forEach(item => {
@@ -164,11 +264,17 @@ async function loadPlayerDetails(uuid) {
         welcomeScreen.style.display = 'none';
         playerDetails.style.display = 'flex';
 
-        // Reset warps list
-        warpsList.innerHTML = '<div class="loading"><i class="fas fa-spinner fa-spin"></i> Lade Warps...</div>';
+        // Reset warps list, unless this is a refresh of the shown player
+        if (!quiet) {
+            warpsList.innerHTML = '<div class="loading"><i class="fas fa-spinner fa-spin"></i> Lade Warps...</div>';
+        }
 
         // Load player data
         const playerData = await fetchApi(`/api/player/${uuid}`);
+        if (currentPlayerUuid !== uuid) {
+            // Another player was selected meanwhile
+            return;
+        }
 
         // Update UI
         playerHead.src = `https://api.mcheads.org/head/${playerData.name}/80`;
@@ -177,10 +283,15 @@ async function loadPlayerDetails(uuid) {
         warpCount.textContent = playerData.warpCount;
         warpLimit.textContent = playerData.warpLimit;
         currentLimit.textContent = playerData.warpLimit;
-        newLimit.value = playerData.warpLimit;
+        if (!limitModal.classList.contains('show')) {
+            newLimit.value = playerData.warpLimit;
+        }
 
         // Load warps
         const warps = await fetchApi(`/api/warps/${uuid}`);
+        if (currentPlayerUuid !== uuid) {
+            return;
+        }
 
         if (warps.length === 0) {
             warpsList.innerHTML = '<div class="no-data"><i class="fas fa-map-marked-alt"></i><p>Keine Warps gefunden</p></div>';
@@ -231,9 +342,95 @@ async function loadPlayerDetails(uuid) {
             warpsList.appendChild(warpCard);
         });
     } catch (error) {
-        playerDetails.style.display = 'none';
-        welcomeScreen.style.display = 'flex';
+        if (!quiet) {
+            playerDetails.style.display = 'none';
+            welcomeScreen.style.display = 'flex';
+        }
+    }
+}
+
+// Live updates arrive as Server-Sent Events. EventSource cannot send the API key header,
+// so the stream is read with fetch and parsed here.
+async function connectEvents() {
+    try {
+        const response = await fetch('/api/events', {
+            headers: {
+                'Accept': 'text/event-stream',
+                'X-API-Key': apiKey
+            }
+        });
+        if (!response.ok) {
+            throw new Error(`HTTP error! status: ${response.status}`);
+        }
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) {
+                break;
+            }
+            buffer += value.replace(/\r\n?/g, '\n');
+            let end;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+                handleEvent(buffer.slice(0, end));
+                buffer = buffer.slice(end + 2);
+            }
+        }
+    } catch (error) {
+        console.warn('Live-Updates unterbrochen:', error);
+    }
+
+    // The server closes slow connections; reconnect and catch up
+    setTimeout(connectEvents, eventsReconnectDelay);
+    eventsReconnectDelay = Math.min(eventsReconnectDelay * 2, EVENTS_RECONNECT_MAX_MS);
+}
+
+function handleEvent(block) {
+    let name = 'message';
+    let data = '';
+    block.split('\n').forEach(line => {
+        if (line.startsWith('event:')) {
+            name = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+            data += line.slice(5).trim();
+        }
+    });
+
+    switch (name) {
+        case 'hello':
+            // Changes may have been missed while disconnected
+            eventsReconnectDelay = EVENTS_RECONNECT_MIN_MS;
+            refreshCurrentPlayer();
+            break;
+        case 'resync':
+            refreshCurrentPlayer();
+            break;
+        case 'changes':
+            if (JSON.parse(data).some(change => change.uuid === currentPlayerUuid)) {
+                refreshCurrentPlayer();
+            }
+            break;
+    }
+}
+
+function refreshCurrentPlayer() {
+    // Changes arriving while a refresh runs are covered by one more refresh afterwards
+    if (!currentPlayerUuid) {
+        return;
+    }
+    if (playerRefreshRunning) {
+        playerRefreshQueued = true;
+        return;
     }
+    playerRefreshRunning = true;
+    loadPlayerDetails(currentPlayerUuid, true).finally(() => {
+        playerRefreshRunning = false;
+        if (playerRefreshQueued) {
+            playerRefreshQueued = false;
+            refreshCurrentPlayer();
+        }
+    });
 }
 
 async function saveNewLimit() {
@@ -280,20 +477,17 @@ async function deleteWarp() {
 }
 
 // UI functions
-function filterPlayers() {
-    const searchTerm = playerSearch.value.toLowerCase();
-    const playerItems = document.querySelectorAll('.player-item');
-
-    playerItems.forEach(item => {
-        const playerNameText = item.querySelector('h3').textContent.toLowerCase();
-        const playerUuidText = item.querySelector('p').textContent.toLowerCase();
-
-        if (playerNameText.includes(searchTerm) || playerUuidText.includes(searchTerm)) {
-            item.style.display = 'flex';
-        } else {
-            item.style.display = 'none';
+function searchPlayers() {
+    // The search runs on the server by name prefix, wait until the user stops typing
+    clearTimeout(playerSearchTimer);
+    playerSearchTimer = setTimeout(() => {
+        const query = playerSearch.value.trim();
+        if (query === playerSearchQuery) {
+            return;
         }
-    });
+        playerSearchQuery = query;
+        loadPlayers().catch(() => {});
+    }, PLAYER_SEARCH_DELAY_MS);
 }
 
 function openLimitModal() {